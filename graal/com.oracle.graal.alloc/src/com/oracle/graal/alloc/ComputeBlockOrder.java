@@ -23,6 +23,8 @@
 
 package com.oracle.graal.alloc;
 
+import static com.oracle.graal.compiler.common.GraalOptions.*;
+
 import java.util.*;
 
 import com.oracle.graal.compiler.common.cfg.*;
@@ -89,6 +91,36 @@ public final class ComputeBlockOrder {
         return order;
     }
 
+    /**
+     * True if block {@code b} is executed so rarely that it should be placed out of line, behind the
+     * hot code of the method.
+     */
+    public static boolean isCold(AbstractBlock<?> b) {
+        return b.probability() < ColdBlockProbability.getValue();
+    }
+
+    /**
+     * Moves the {@linkplain #isCold cold} blocks of a code emission order behind all other blocks.
+     * The relative order of the hot blocks and of the cold blocks is preserved, so the most likely
+     * successors of hot blocks still follow them and branches to cold blocks become the taken side
+     * of conditional jumps.
+     *
+     * @return sorted list of blocks
+     */
+    public static <T extends AbstractBlock<T>> List<T> splitColdBlocks(List<T> codeEmittingOrder) {
+        List<T> order = new ArrayList<>(codeEmittingOrder.size());
+        List<T> coldBlocks = new ArrayList<>();
+        for (T block : codeEmittingOrder) {
+            if (isCold(block)) {
+                coldBlocks.add(block);
+            } else {
+                order.add(block);
+            }
+        }
+        order.addAll(coldBlocks);
+        return order;
+    }
+
     /**
      * Iteratively adds paths to the code emission block order.
      */
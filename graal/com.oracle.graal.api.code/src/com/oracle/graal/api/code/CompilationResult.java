@@ -372,6 +372,7 @@ public class CompilationResult implements Serializable {
      * The leading number of bytes in {@link #targetCode} containing the emitted machine code.
      */
     private int targetCodeSize;
+    private int coldCodeOffset = -1;
 
     private ArrayList<CodeAnnotation> annotations;
 
@@ -446,6 +447,23 @@ public class CompilationResult implements Serializable {
         totalFrameSize = size;
     }
 
+    /**
+     * Sets the offset of the cold code, which only consists of rarely executed blocks and extends
+     * to the end of the code.
+     *
+     * @param offset the offset of the first instruction of the cold code
+     */
+    public void setColdCodeOffset(int offset) {
+        coldCodeOffset = offset;
+    }
+
+    /**
+     * @return the offset of the first instruction of the cold code, or -1 if there is no cold code
+     */
+    public int getColdCodeOffset() {
+        return coldCodeOffset;
+    }
+
     /**
      * Sets the machine that has been generated by the compiler.
      *
@@ -59,6 +59,7 @@ import com.oracle.graal.lir.amd64.AMD64ControlFlow.BranchOp;
 import com.oracle.graal.lir.amd64.AMD64ControlFlow.CondMoveOp;
 import com.oracle.graal.lir.amd64.AMD64ControlFlow.FloatBranchOp;
 import com.oracle.graal.lir.amd64.AMD64ControlFlow.FloatCondMoveOp;
+import com.oracle.graal.lir.amd64.AMD64ControlFlow.HashTableSwitchOp;
 import com.oracle.graal.lir.amd64.AMD64ControlFlow.ReturnOp;
 import com.oracle.graal.lir.amd64.AMD64ControlFlow.StrategySwitchOp;
 import com.oracle.graal.lir.amd64.AMD64ControlFlow.TableSwitchOp;
@@ -262,6 +263,38 @@ public abstract class AMD64LIRGenerator extends LIRGenerator {
         return result;
     }
 
+    public Variable emitConditionalMoveMemory(Kind cmpKind, Value left, AMD64AddressValue right, LIRFrameState state, Condition cond, boolean unorderedIsTrue, Value trueValue, Value falseValue) {
+        boolean mirrored = emitCompareMemory(cmpKind, left, right, state);
+        Condition finalCondition = mirrored ? cond.mirror() : cond;
+
+        Variable result = newVariable(trueValue.getLIRKind());
+        if (cmpKind == Kind.Float || cmpKind == Kind.Double) {
+            append(new FloatCondMoveOp(result, finalCondition, unorderedIsTrue, load(trueValue), load(falseValue)));
+        } else {
+            append(new CondMoveOp(result, finalCondition, load(trueValue), loadNonConst(falseValue)));
+        }
+        return result;
+    }
+
+    public Variable emitIntegerTestMoveMemory(Kind kind, AMD64AddressValue address, Value value, LIRFrameState state, Value trueValue, Value falseValue) {
+        append(new AMD64TestMemoryOp(kind, address, value, state));
+        Variable result = newVariable(trueValue.getLIRKind());
+        append(new CondMoveOp(result, Condition.EQ, load(trueValue), loadNonConst(falseValue)));
+        return result;
+    }
+
+    /**
+     * Computes {@code base + index * scale + displacement} with a single {@code lea} instruction.
+     * The result kind must be {@link Kind#Int} or {@link Kind#Long}.
+     */
+    public Variable emitLea(LIRKind resultKind, Value base, Value index, Scale scale, long displacement) {
+        assert resultKind.getPlatformKind() == Kind.Int || resultKind.getPlatformKind() == Kind.Long;
+        AMD64AddressValue address = emitAddress(base, displacement, index, scale.value);
+        Variable result = newVariable(resultKind);
+        append(new LeaOp(result, address));
+        return result;
+    }
+
     private void emitIntegerTest(Value a, Value b) {
         assert a.getKind().isNumericInteger();
         if (LIRValueUtil.isVariable(b)) {
@@ -1068,6 +1101,18 @@ public abstract class AMD64LIRGenerator extends LIRGenerator {
         return result;
     }
 
+    @Override
+    public Value emitArraySum(Kind kind, Value array, Value start, Value end) {
+        Variable result = newVariable(LIRKind.value(kind));
+        append(new AMD64ArraySumOp(this, kind, result, load(array), load(start), load(end)));
+        return result;
+    }
+
+    @Override
+    public void emitArrayElementwise(ElementwiseOp op, Kind kind, Value result, Value x, Value y, boolean scalarY, Value start, Value end) {
+        append(new AMD64ArrayElementwiseOp(this, op, kind, load(result), load(x), load(y), scalarY, load(start), load(end)));
+    }
+
     @Override
     public void emitReturn(Value input) {
         AllocatableValue operand = Value.ILLEGAL;
@@ -1090,4 +1135,19 @@ public abstract class AMD64LIRGenerator extends LIRGenerator {
         append(new TableSwitchOp(lowKey, defaultTarget, targets, key, newVariable(LIRKind.value(target().wordKind)), newVariable(key.getLIRKind())));
     }
 
+    /**
+     * Tests the hot keys first and looks up all other keys in a hashed jump table, if that needs
+     * fewer comparisons on average than {@code strategy}.
+     */
+    @Override
+    protected void emitSparseSwitch(SwitchStrategy strategy, JavaConstant[] keyConstants, double[] keyProbabilities, LabelRef[] keyTargets, LabelRef defaultTarget, Variable value) {
+        int[] hotKeys = selectHashSwitchHotKeys(strategy, keyConstants, keyProbabilities);
+        SwitchHash hash = hotKeys == null ? null : SwitchHash.create(keyConstants);
+        if (hash == null) {
+            super.emitSparseSwitch(strategy, keyConstants, keyProbabilities, keyTargets, defaultTarget, value);
+        } else {
+            append(new HashTableSwitchOp(hash, keyConstants, keyTargets, hotKeys, defaultTarget, value, newVariable(LIRKind.value(target().wordKind)), newVariable(value.getLIRKind())));
+        }
+    }
+
 }
@@ -29,6 +29,7 @@ import com.oracle.graal.amd64.*;
 import com.oracle.graal.api.code.*;
 import com.oracle.graal.api.meta.*;
 import com.oracle.graal.asm.*;
+import com.oracle.graal.asm.amd64.AMD64Address.Scale;
 import com.oracle.graal.compiler.common.*;
 import com.oracle.graal.compiler.common.calc.*;
 import com.oracle.graal.compiler.gen.*;
@@ -105,33 +106,50 @@ public abstract class AMD64NodeLIRBuilder extends NodeLIRBuilder {
         return value;
     }
 
-    protected ComplexMatchResult emitCompareBranchMemory(IfNode ifNode, CompareNode compare, ValueNode value, Access access) {
-        Condition cond = compare.condition();
-        Kind kind = getMemoryKind(access);
-
+    /**
+     * Checks whether {@code value} can be used as the other operand of a compare against a memory
+     * location of kind {@code kind}.
+     */
+    private static boolean canCompareMemory(Kind kind, ValueNode value) {
         if (value.isConstant()) {
             JavaConstant constant = value.asJavaConstant();
             if (kind == Kind.Long && !NumUtil.isInt(constant.asLong())) {
                 // Only imm32 as long
-                return null;
+                return false;
             }
             if (kind.isNumericFloat()) {
                 Debug.log("Skipping constant compares for float kinds");
-                return null;
+                return false;
             }
             if (kind == Kind.Object) {
                 if (!constant.isNull()) {
                     Debug.log("Skipping constant compares for Object kinds");
-                    return null;
+                    return false;
                 }
             }
         } else {
             if (kind == Kind.Object) {
                 // Can't compare against objects since they require encode/decode
                 Debug.log("Skipping compares for Object kinds");
-                return null;
+                return false;
             }
         }
+        return true;
+    }
+
+    private Value compareMemoryOperand(ValueNode value) {
+        if (value.isConstant()) {
+            return value.asJavaConstant();
+        }
+        return operand(value);
+    }
+
+    protected ComplexMatchResult emitCompareBranchMemory(IfNode ifNode, CompareNode compare, ValueNode value, Access access) {
+        Condition cond = compare.condition();
+        Kind kind = getMemoryKind(access);
+        if (!canCompareMemory(kind, value)) {
+            return null;
+        }
 
         // emitCompareBranchMemory expects the memory on the right, so mirror the condition if
         // that's not true. It might be mirrored again the actual compare is emitted but that's
@@ -143,19 +161,86 @@ public abstract class AMD64NodeLIRBuilder extends NodeLIRBuilder {
                 LabelRef falseLabel = getLIRBlock(ifNode.falseSuccessor());
                 boolean unorderedIsTrue = compare.unorderedIsTrue();
                 double trueLabelProbability = ifNode.probability(ifNode.trueSuccessor());
-                Value other;
-                if (value.isConstant()) {
-                    other = value.asJavaConstant();
-                } else {
-                    other = operand(value);
-                }
-
+                Value other = compareMemoryOperand(value);
                 getLIRGeneratorTool().emitCompareBranchMemory(kind, other, makeAddress(access), getState(access), finalCondition, unorderedIsTrue, trueLabel, falseLabel, trueLabelProbability);
                 return null;
             }
         };
     }
 
+    protected ComplexMatchResult emitCompareMoveMemory(ConditionalNode conditional, CompareNode compare, ValueNode value, Access access) {
+        Condition cond = compare.condition();
+        Kind kind = getMemoryKind(access);
+        if (!canCompareMemory(kind, value)) {
+            return null;
+        }
+
+        // Same as for the branch: the memory operand is expected on the right.
+        Condition finalCondition = uncast(compare.getX()) == access ? cond.mirror() : cond;
+        return builder -> {
+            Value other = compareMemoryOperand(value);
+            return getLIRGeneratorTool().emitConditionalMoveMemory(kind, other, makeAddress(access), getState(access), finalCondition, compare.unorderedIsTrue(), operand(conditional.trueValue()),
+                            operand(conditional.falseValue()));
+        };
+    }
+
+    private ComplexMatchResult emitIntegerTestMoveMemory(ConditionalNode conditional, ValueNode value, Access access) {
+        Kind kind = getMemoryKind(access);
+        if (value.isConstant()) {
+            if (kind != kind.getStackKind()) {
+                return null;
+            }
+            if (kind == Kind.Long && !NumUtil.isInt(value.asJavaConstant().asLong())) {
+                // Only imm32 as long
+                return null;
+            }
+        }
+        return builder -> getLIRGeneratorTool().emitIntegerTestMoveMemory(kind, makeAddress(access), compareMemoryOperand(value), getState(access), operand(conditional.trueValue()),
+                        operand(conditional.falseValue()));
+    }
+
+    /**
+     * Returns the {@code lea} scale equivalent to {@code shift} if {@code add} can be computed
+     * with a single {@code lea}, or {@code null} otherwise.
+     */
+    private Scale getLeaScale(AddNode add, LeftShiftNode shift) {
+        if (!isLeaKind(add)) {
+            return null;
+        }
+        return getShiftScale(shift);
+    }
+
+    /**
+     * Returns the address scale equivalent to the constant {@code shift}, or {@code null} if the
+     * shift amount is too large for an addressing mode.
+     */
+    private static Scale getShiftScale(LeftShiftNode shift) {
+        int amount = shift.getY().asJavaConstant().asInt() & shift.getShiftAmountMask();
+        if (amount > Scale.Times8.log2) {
+            return null;
+        }
+        return Scale.fromInt(1 << amount);
+    }
+
+    /**
+     * Checks whether the address {@code base + (index << shift)} with the displacement of
+     * {@code location} can be formed by a single addressing mode. The address arithmetic of the
+     * processor does not wrap around at 32 bits, so only 64 bit additions can be folded.
+     */
+    private boolean canFormScaledAddress(AddNode address, LeftShiftNode shift, ConstantLocationNode location) {
+        return gen.getLIRKind(address.stamp()).getPlatformKind() == Kind.Long && getShiftScale(shift) != null && NumUtil.isInt(location.getDisplacement());
+    }
+
+    private AMD64AddressValue makeScaledAddress(ValueNode base, LeftShiftNode shift, ValueNode index, ConstantLocationNode location) {
+        assert getShiftScale(shift) != null;
+        return getLIRGeneratorTool().emitAddress(operand(base), location.getDisplacement(), operand(index), getShiftScale(shift).value);
+    }
+
+    private boolean isLeaKind(AddNode add) {
+        PlatformKind kind = gen.getLIRKind(add.stamp()).getPlatformKind();
+        return kind == Kind.Int || kind == Kind.Long;
+    }
+
     private ComplexMatchResult emitIntegerTestBranchMemory(IfNode x, ValueNode value, Access access) {
         LabelRef trueLabel = getLIRBlock(x.trueSuccessor());
         LabelRef falseLabel = getLIRBlock(x.falseSuccessor());
@@ -353,6 +438,76 @@ public abstract class AMD64NodeLIRBuilder extends NodeLIRBuilder {
         return emitCompareBranchMemory(root, compare, value, access);
     }
 
+    @MatchRule("(Conditional (IntegerTest Read=access value) trueValue falseValue)")
+    @MatchRule("(Conditional (IntegerTest FloatingRead=access value) trueValue falseValue)")
+    public ComplexMatchResult integerTestMoveMemory(ConditionalNode root, Access access, ValueNode value) {
+        return emitIntegerTestMoveMemory(root, value, access);
+    }
+
+    @MatchRule("(Conditional (IntegerEquals=compare value Read=access) trueValue falseValue)")
+    @MatchRule("(Conditional (IntegerLessThan=compare value Read=access) trueValue falseValue)")
+    @MatchRule("(Conditional (IntegerBelow=compare value Read=access) trueValue falseValue)")
+    @MatchRule("(Conditional (IntegerEquals=compare value FloatingRead=access) trueValue falseValue)")
+    @MatchRule("(Conditional (IntegerLessThan=compare value FloatingRead=access) trueValue falseValue)")
+    @MatchRule("(Conditional (IntegerBelow=compare value FloatingRead=access) trueValue falseValue)")
+    @MatchRule("(Conditional (FloatEquals=compare value Read=access) trueValue falseValue)")
+    @MatchRule("(Conditional (FloatEquals=compare value FloatingRead=access) trueValue falseValue)")
+    @MatchRule("(Conditional (FloatLessThan=compare value Read=access) trueValue falseValue)")
+    @MatchRule("(Conditional (FloatLessThan=compare value FloatingRead=access) trueValue falseValue)")
+    public ComplexMatchResult conditionalCompareMemory(ConditionalNode root, CompareNode compare, ValueNode value, Access access) {
+        return emitCompareMoveMemory(root, compare, value, access);
+    }
+
+    @MatchRule("(Add (LeftShift=shift index Constant) base)")
+    public ComplexMatchResult scaledAdd(AddNode root, LeftShiftNode shift, ValueNode index, ValueNode base) {
+        Scale scale = getLeaScale(root, shift);
+        if (scale != null) {
+            return builder -> getLIRGeneratorTool().emitLea(getLIRGeneratorTool().getLIRKind(root.stamp()), operand(base), operand(index), scale, 0);
+        }
+        return null;
+    }
+
+    @MatchRule("(Add (Add (LeftShift=shift index Constant) base) Constant=delta)")
+    public ComplexMatchResult scaledAddConstant(AddNode root, LeftShiftNode shift, ValueNode index, ValueNode base, ConstantNode delta) {
+        Scale scale = getLeaScale(root, shift);
+        long displacement = delta.asJavaConstant().asLong();
+        if (scale != null && NumUtil.isInt(displacement)) {
+            return builder -> getLIRGeneratorTool().emitLea(getLIRGeneratorTool().getLIRKind(root.stamp()), operand(base), operand(index), scale, displacement);
+        }
+        return null;
+    }
+
+    @MatchRule("(Add (Add base index) Constant=delta)")
+    public ComplexMatchResult addAddConstant(AddNode root, ValueNode base, ValueNode index, ConstantNode delta) {
+        long displacement = delta.asJavaConstant().asLong();
+        if (isLeaKind(root) && NumUtil.isInt(displacement)) {
+            return builder -> getLIRGeneratorTool().emitLea(getLIRGeneratorTool().getLIRKind(root.stamp()), operand(base), operand(index), Scale.Times1, displacement);
+        }
+        return null;
+    }
+
+    @MatchRule("(Read (Add=address base (LeftShift=shift index Constant)) ConstantLocation=location)")
+    @MatchRule("(FloatingRead (Add=address base (LeftShift=shift index Constant)) ConstantLocation=location)")
+    public ComplexMatchResult readScaledIndex(Access root, AddNode address, ValueNode base, LeftShiftNode shift, ValueNode index, ConstantLocationNode location) {
+        if (canFormScaledAddress(address, shift, location)) {
+            LIRKind readKind = getLIRGeneratorTool().getLIRKind(root.asNode().stamp());
+            return builder -> getLIRGeneratorTool().emitLoad(readKind, makeScaledAddress(base, shift, index, location), getState(root));
+        }
+        return null;
+    }
+
+    @MatchRule("(Write (Add=address base (LeftShift=shift index Constant)) ConstantLocation=location value)")
+    public ComplexMatchResult writeScaledIndex(Access root, AddNode address, ValueNode base, LeftShiftNode shift, ValueNode index, ConstantLocationNode location, ValueNode value) {
+        if (canFormScaledAddress(address, shift, location)) {
+            LIRKind writeKind = getLIRGeneratorTool().getLIRKind(value.stamp());
+            return builder -> {
+                getLIRGeneratorTool().emitStore(writeKind, makeScaledAddress(base, shift, index, location), operand(value), getState(root));
+                return null;
+            };
+        }
+        return null;
+    }
+
     @MatchRule("(Or (LeftShift=lshift value Constant) (UnsignedRightShift=rshift value Constant))")
     public ComplexMatchResult rotateLeftConstant(LeftShiftNode lshift, UnsignedRightShiftNode rshift) {
         if ((lshift.getShiftAmountMask() & (lshift.getY().asJavaConstant().asInt() + rshift.getY().asJavaConstant().asInt())) == 0) {
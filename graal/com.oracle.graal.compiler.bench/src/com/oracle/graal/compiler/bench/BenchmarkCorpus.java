@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.compiler.bench;
+
+/**
+ * The methods compiled by the benchmarks in this package. Each method exercises a different part
+ * of the compiler: loops, intrinsics, escape analysis, inlining of polymorphic calls and switch
+ * lowering.
+ */
+public final class BenchmarkCorpus {
+
+    private BenchmarkCorpus() {
+    }
+
+    public static int arraySum(int[] array) {
+        int sum = 0;
+        for (int i = 0; i < array.length; i++) {
+            sum += array[i];
+        }
+        return sum;
+    }
+
+    public static int stringHash(String s) {
+        int hash = 0;
+        for (int i = 0; i < s.length(); i++) {
+            hash = 31 * hash + s.charAt(i);
+        }
+        return hash;
+    }
+
+    static final class Point {
+
+        final int x;
+        final int y;
+
+        Point(int x, int y) {
+            this.x = x;
+            this.y = y;
+        }
+
+        Point add(Point other) {
+            return new Point(x + other.x, y + other.y);
+        }
+    }
+
+    public static int allocateAndSum(int n) {
+        Point p = new Point(0, 0);
+        for (int i = 0; i < n; i++) {
+            p = p.add(new Point(i, -i));
+        }
+        return p.x + p.y;
+    }
+
+    abstract static class Shape {
+
+        abstract int area();
+    }
+
+    static final class Square extends Shape {
+
+        final int side;
+
+        Square(int side) {
+            this.side = side;
+        }
+
+        @Override
+        int area() {
+            return side * side;
+        }
+    }
+
+    static final class Rectangle extends Shape {
+
+        final int width;
+        final int height;
+
+        Rectangle(int width, int height) {
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        int area() {
+            return width * height;
+        }
+    }
+
+    public static int polymorphicCall(Shape[] shapes) {
+        int sum = 0;
+        for (Shape shape : shapes) {
+            sum += shape.area();
+        }
+        return sum;
+    }
+
+    public static int tableSwitch(int[] values) {
+        int result = 0;
+        for (int value : values) {
+            switch (value & 0xf) {
+                case 0:
+                    result += 3;
+                    break;
+                case 1:
+                    result ^= value;
+                    break;
+                case 2:
+                    result -= value;
+                    break;
+                case 3:
+                    result *= 7;
+                    break;
+                case 5:
+                    result >>>= 1;
+                    break;
+                case 8:
+                    result |= value;
+                    break;
+                case 13:
+                    result &= value;
+                    break;
+                default:
+                    result++;
+            }
+        }
+        return result;
+    }
+}
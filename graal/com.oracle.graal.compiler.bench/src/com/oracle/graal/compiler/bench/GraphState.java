@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.compiler.bench;
+
+import java.util.concurrent.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.oracle.graal.api.code.*;
+import com.oracle.graal.api.meta.*;
+import com.oracle.graal.compiler.*;
+import com.oracle.graal.compiler.test.*;
+import com.oracle.graal.nodes.*;
+import com.oracle.graal.phases.*;
+import com.oracle.graal.phases.tiers.*;
+
+/**
+ * Base class for the compiler microbenchmarks. The method named by {@link #method} is parsed once
+ * per trial and optionally {@linkplain #prepare(StructuredGraph) prepared} by the subclass. Each
+ * benchmark invocation then operates on a fresh {@linkplain StructuredGraph#copy() copy} of that
+ * graph so that graph construction is not part of the measured time.
+ */
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public abstract class GraphState extends GraalCompilerTest {
+
+    @Param({"arraySum", "stringHash", "allocateAndSum", "polymorphicCall", "tableSwitch"}) public String method;
+
+    protected ResolvedJavaMethod javaMethod;
+
+    /**
+     * The graph prepared once per trial.
+     */
+    private StructuredGraph original;
+
+    /**
+     * The graph the current benchmark invocation operates on.
+     */
+    protected StructuredGraph graph;
+
+    @Setup(Level.Trial)
+    public void parseGraph() {
+        javaMethod = getResolvedJavaMethod(BenchmarkCorpus.class, method);
+        original = prepare(parseEager(javaMethod));
+    }
+
+    @Setup(Level.Invocation)
+    public void copyGraph() {
+        graph = original.copy();
+        prepareInvocation();
+    }
+
+    /**
+     * Hook for per-invocation preparation of {@link #graph} that must not be measured.
+     */
+    protected void prepareInvocation() {
+    }
+
+    /**
+     * Transforms the freshly parsed graph into the state expected by the measured phase.
+     */
+    protected StructuredGraph prepare(StructuredGraph parsedGraph) {
+        return parsedGraph;
+    }
+
+    protected HighTierContext createHighTierContext() {
+        return new HighTierContext(getProviders(), new Assumptions(false), null, getDefaultGraphBuilderSuite(), OptimisticOptimizations.ALL);
+    }
+
+    /**
+     * Runs the high, mid and low tier of the {@linkplain #getSuites() default suites} on a graph.
+     */
+    protected StructuredGraph runFrontEnd(StructuredGraph parsedGraph) {
+        GraalCompiler.emitFrontEnd(getProviders(), getTarget(), parsedGraph, new Assumptions(false), null, getDefaultGraphBuilderSuite(), OptimisticOptimizations.ALL,
+                        GraalCompiler.getProfilingInfo(parsedGraph), null, getSuites());
+        return parsedGraph;
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.compiler.bench;
+
+import static com.oracle.graal.api.code.CodeUtil.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.oracle.graal.api.code.*;
+import com.oracle.graal.api.code.CallingConvention.Type;
+import com.oracle.graal.compiler.*;
+import com.oracle.graal.compiler.alloc.*;
+import com.oracle.graal.lir.gen.*;
+import com.oracle.graal.nodes.*;
+import com.oracle.graal.phases.schedule.*;
+
+/**
+ * Measures LIR generation, {@linkplain LinearScan register allocation} and the LIR optimizations
+ * that follow it. The graph is lowered once per trial and scheduled before each invocation.
+ */
+@State(Scope.Thread)
+public class LIRBenchmark extends GraphState {
+
+    private SchedulePhase schedule;
+
+    @Override
+    protected StructuredGraph prepare(StructuredGraph parsedGraph) {
+        return runFrontEnd(parsedGraph);
+    }
+
+    @Override
+    protected void prepareInvocation() {
+        schedule = new SchedulePhase();
+        schedule.apply(graph);
+    }
+
+    @Benchmark
+    public LIRGenerationResult emitLIR() {
+        CallingConvention cc = getCallingConvention(getCodeCache(), Type.JavaCallee, graph.method(), false);
+        return GraalCompiler.emitLIR(getBackend(), getTarget(), schedule, graph, null, cc, null);
+    }
+}
@@ -93,6 +93,14 @@ public final class GraalOptions {
     @Option(help = "")
     public static final OptionValue<Boolean> CacheGraphs = new OptionValue<>(false);
 
+    // compilation budget
+    @Option(help = "Milliseconds a compilation may take before expensive optional optimizations are skipped (0 for no limit)")
+    public static final OptionValue<Integer> CompilationTimeBudget = new OptionValue<>(0);
+    @Option(help = "Number of graph nodes after which expensive optional optimizations are skipped (0 for no limit)")
+    public static final OptionValue<Integer> CompilationNodeBudget = new OptionValue<>(0);
+    @Option(help = "Print the compilations that exceeded their compilation budget")
+    public static final OptionValue<Boolean> PrintCompilationBudget = new OptionValue<>(false);
+
     //loop transform settings TODO (gd) tune
     @Option(help = "")
     public static final OptionValue<Boolean> LoopPeeling = new OptionValue<>(true);
@@ -116,6 +124,22 @@ public final class GraalOptions {
     public static final OptionValue<Integer> LoopUnswitchUncertaintyBoost = new OptionValue<>(5);
     @Option(help = "")
     public static final OptionValue<Boolean> UseLoopLimitChecks = new OptionValue<>(true);
+    @Option(help = "Use guards in front of a loop to check the array accesses of all its iterations at once")
+    public static final OptionValue<Boolean> UseLoopRangeChecks = new OptionValue<>(true);
+    @Option(help = "Check the indices of array accesses in counted loops in front of the loop instead of in every iteration")
+    public static final OptionValue<Boolean> LoopRangeCheckElimination = new OptionValue<>(true);
+    @Option(help = "Replace counted loops that sum up or combine arrays element by element with vectorized array operations")
+    public static final OptionValue<Boolean> LoopVectorization = new OptionValue<>(false);
+    @Option(help = "Unroll counted loops by a factor derived from their size and profiled trip count")
+    public static final OptionValue<Boolean> PartialUnroll = new OptionValue<>(false);
+    @Option(help = "Maximum number of iterations of a loop that are executed per trip around the partially unrolled loop")
+    public static final OptionValue<Integer> PartialUnrollMaxFactor = new OptionValue<>(4);
+    @Option(help = "Maximum number of nodes that the copies of a partially unrolled loop's body may add")
+    public static final OptionValue<Integer> PartialUnrollMaxNodes = new OptionValue<>(200);
+    @Option(help = "Nest long counted loops in an outer loop so that safepoints are only polled once per strip of iterations")
+    public static final OptionValue<Boolean> LoopStripMining = new OptionValue<>(false);
+    @Option(help = "Maximum number of iterations of a strip mined loop between safepoint polls")
+    public static final OptionValue<Integer> LoopStripMiningLength = new OptionValue<>(1000);
 
     // debugging settings
     @Option(help = "")
@@ -179,6 +203,12 @@ public final class GraalOptions {
     @Option(help = "Print inlining optimizations")
     public static final OptionValue<Boolean> HotSpotPrintInlining = new OptionValue<>(false);
 
+    // Block layout settings
+    @Option(help = "Emit rarely executed blocks behind all other blocks of a method")
+    public static final OptionValue<Boolean> HotColdSplitting = new OptionValue<>(false);
+    @Option(help = "Blocks with a lower probability relative to the method entry are considered cold")
+    public static final OptionValue<Double> ColdBlockProbability = new OptionValue<>(0.001);
+
     // Register allocator debugging
     @Option(help = "")
     public static final OptionValue<String> RegisterPressure = new OptionValue<>(null);
@@ -262,6 +292,8 @@ public final class GraalOptions {
     public static final OptionValue<Boolean> OptTailDuplication = new OptionValue<>(true);
     @Option(help = "")
     public static final OptionValue<Boolean> OptEliminatePartiallyRedundantGuards = new OptionValue<>(true);
+    @Option(help = "Speculatively hoist loop invariant guards out of loops and eliminate partially redundant guards at merges")
+    public static final OptionValue<Boolean> OptGuardMotion = new OptionValue<>(false);
     @Option(help = "")
     public static final OptionValue<Boolean> OptFilterProfiledTypes = new OptionValue<>(true);
     @Option(help = "")
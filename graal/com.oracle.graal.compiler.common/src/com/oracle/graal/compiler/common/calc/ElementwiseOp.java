@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.compiler.common.calc;
+
+import com.oracle.graal.api.meta.*;
+
+/**
+ * An arithmetic or logic operation that is applied element by element to arrays.
+ */
+public enum ElementwiseOp {
+    ADD(true),
+    SUB(false),
+    MUL(true),
+    AND(true),
+    OR(true),
+    XOR(true);
+
+    private final boolean commutative;
+
+    private ElementwiseOp(boolean commutative) {
+        this.commutative = commutative;
+    }
+
+    public boolean isCommutative() {
+        return commutative;
+    }
+
+    /**
+     * Determines if this operation is defined for elements of a given kind. Integer
+     * multiplication is not supported as it has no packed equivalent before SSE4.1.
+     */
+    public boolean supports(Kind kind) {
+        switch (kind) {
+            case Int:
+            case Long:
+                return this != MUL;
+            case Float:
+            case Double:
+                return this == ADD || this == SUB || this == MUL;
+            default:
+                return false;
+        }
+    }
+}
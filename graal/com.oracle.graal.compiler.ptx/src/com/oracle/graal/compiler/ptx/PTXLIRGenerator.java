@@ -797,6 +797,16 @@ public class PTXLIRGenerator extends LIRGenerator {
         throw GraalInternalError.unimplemented();
     }
 
+    @Override
+    public Value emitArraySum(Kind kind, Value array, Value start, Value end) {
+        throw GraalInternalError.unimplemented();
+    }
+
+    @Override
+    public void emitArrayElementwise(ElementwiseOp op, Kind kind, Value result, Value x, Value y, boolean scalarY, Value start, Value end) {
+        throw GraalInternalError.unimplemented();
+    }
+
     @Override
     public void emitReturn(Value input) {
         if (input != null) {
@@ -504,6 +504,16 @@ public abstract class SPARCLIRGenerator extends LIRGenerator {
         return result;
     }
 
+    @Override
+    public Value emitArraySum(Kind kind, Value array, Value start, Value end) {
+        throw GraalInternalError.unimplemented();
+    }
+
+    @Override
+    public void emitArrayElementwise(ElementwiseOp op, Kind kind, Value result, Value x, Value y, boolean scalarY, Value start, Value end) {
+        throw GraalInternalError.unimplemented();
+    }
+
     @Override
     public Value emitNegate(Value input) {
         switch (input.getKind().getStackKind()) {
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.compiler.test;
+
+import org.junit.*;
+
+/**
+ * Tests arithmetic patterns that can be folded into addressing modes and conditional moves that
+ * compare directly against memory.
+ */
+public class AddressArithmeticTest extends GraalCompilerTest {
+
+    static class FieldObject {
+        int intValue;
+        long longValue;
+        float floatValue;
+    }
+
+    public static int scaledAddInt(int base, int index) {
+        return base + (index << 3);
+    }
+
+    public static long scaledAddLong(long base, long index) {
+        return (index << 2) + base;
+    }
+
+    public static int scaledAddConstantInt(int base, int index) {
+        return base + (index << 1) + 12345;
+    }
+
+    public static long addAddConstantLong(long a, long b) {
+        return a + b - 42;
+    }
+
+    public static int conditionalCompareMemory(FieldObject o, int value) {
+        return o.intValue < value ? 11 : 22;
+    }
+
+    public static long conditionalCompareMemoryLong(FieldObject o, long value) {
+        return o.longValue == value ? value : -1L;
+    }
+
+    public static int conditionalCompareMemoryFloat(FieldObject o, float value) {
+        return value < o.floatValue ? 1 : 2;
+    }
+
+    public static int conditionalTestMemory(FieldObject o) {
+        return (o.intValue & 0x10) == 0 ? 3 : 4;
+    }
+
+    private static FieldObject fieldObject(int intValue, long longValue, float floatValue) {
+        FieldObject o = new FieldObject();
+        o.intValue = intValue;
+        o.longValue = longValue;
+        o.floatValue = floatValue;
+        return o;
+    }
+
+    @Test
+    public void testLea() {
+        test("scaledAddInt", 10, 3);
+        test("scaledAddInt", Integer.MAX_VALUE, Integer.MAX_VALUE);
+        test("scaledAddLong", 10L, -3L);
+        test("scaledAddLong", Long.MIN_VALUE, Long.MAX_VALUE);
+        test("scaledAddConstantInt", Integer.MAX_VALUE, 1);
+        test("scaledAddConstantInt", -5, Integer.MIN_VALUE);
+        test("addAddConstantLong", 1L, 2L);
+        test("addAddConstantLong", Long.MIN_VALUE, 0L);
+    }
+
+    @Test
+    public void testConditionalMemory() {
+        FieldObject o = fieldObject(17, Long.MAX_VALUE, 1.5f);
+        test("conditionalCompareMemory", o, 17);
+        test("conditionalCompareMemory", o, 18);
+        test("conditionalCompareMemoryLong", o, Long.MAX_VALUE);
+        test("conditionalCompareMemoryLong", o, 0L);
+        test("conditionalCompareMemoryFloat", o, 1.0f);
+        test("conditionalCompareMemoryFloat", o, Float.NaN);
+        test("conditionalTestMemory", o);
+        test("conditionalTestMemory", fieldObject(0, 0, 0));
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.compiler.test;
+
+import static com.oracle.graal.compiler.common.GraalOptions.*;
+
+import org.junit.*;
+
+import com.oracle.graal.nodes.*;
+import com.oracle.graal.options.*;
+import com.oracle.graal.options.OptionValue.OverrideScope;
+import com.oracle.graal.phases.tiers.*;
+
+/**
+ * Tests that compilations exceeding their {@link CompilationBudget} still produce correct code.
+ */
+public class CompilationBudgetTest extends GraalCompilerTest {
+
+    static class Box {
+
+        int value;
+
+        Box(int value) {
+            this.value = value;
+        }
+    }
+
+    public static int snippet(int n) {
+        int sum = 0;
+        for (int i = 0; i < 4; i++) {
+            Box box = new Box(i * n);
+            sum += box.value;
+        }
+        if (n > 2) {
+            sum++;
+        }
+        return sum;
+    }
+
+    @Test
+    public void testNodeBudget() {
+        try (OverrideScope s = OptionValue.override(CompilationNodeBudget, 1)) {
+            test("snippet", 1);
+            test("snippet", 7);
+        }
+    }
+
+    @Test
+    public void testTimeBudget() {
+        try (OverrideScope s = OptionValue.override(CompilationTimeBudget, 1)) {
+            test("snippet", 3);
+        }
+    }
+
+    @Test
+    public void testExceeded() {
+        StructuredGraph graph = parseEager("snippet");
+        CompilationBudget budget = new CompilationBudget(0, 1);
+        Assert.assertFalse(budget.isDegraded());
+        Assert.assertTrue(budget.skip(graph, "Test"));
+        Assert.assertTrue(budget.skip(graph, "Test"));
+        Assert.assertTrue(budget.isDegraded());
+        Assert.assertEquals("nodes", budget.getExceededReason());
+        Assert.assertEquals(Integer.valueOf(2), budget.getSkippedSteps().get("Test"));
+
+        CompilationBudget unlimited = new CompilationBudget(0, 0);
+        Assert.assertFalse(unlimited.skip(graph, "Test"));
+        Assert.assertFalse(unlimited.isDegraded());
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.compiler.test;
+
+import static com.oracle.graal.phases.CompilationTelemetry.Options.*;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+import org.junit.*;
+
+import com.oracle.graal.api.code.*;
+import com.oracle.graal.api.meta.*;
+import com.oracle.graal.nodes.*;
+import com.oracle.graal.options.*;
+import com.oracle.graal.options.OptionValue.OverrideScope;
+import com.oracle.graal.phases.*;
+
+/**
+ * Tests the records written by {@link CompilationTelemetry}.
+ */
+public class CompilationTelemetryTest extends GraalCompilerTest {
+
+    public static int snippet(int[] values) {
+        int sum = 0;
+        for (int value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    @Test
+    public void testRecords() throws IOException {
+        File file = File.createTempFile("telemetry", ".csv");
+        try {
+            try (OverrideScope s = OptionValue.override(CompilationTelemetryFile, file.getPath())) {
+                ResolvedJavaMethod method = getResolvedJavaMethod("snippet");
+                try (CompilationTelemetry telemetry = CompilationTelemetry.begin(42, "snippet")) {
+                    Assert.assertNotNull(telemetry);
+                    compile(method, parseEager(method));
+                }
+            }
+
+            List<String> lines = Files.readAllLines(file.toPath());
+            Assert.assertTrue(lines.get(0).startsWith("id,method,phase,"));
+            Set<String> phases = new HashSet<>();
+            for (String line : lines.subList(1, lines.size())) {
+                String[] columns = line.split(",");
+                Assert.assertEquals(line, 10, columns.length);
+                Assert.assertEquals("42", columns[0]);
+                Assert.assertEquals("snippet", columns[1]);
+                Assert.assertTrue(line, Long.parseLong(columns[5]) >= 0);
+                phases.add(columns[2]);
+                if (columns[2].equals("LIRGen")) {
+                    Assert.assertTrue(line, Integer.parseInt(columns[9]) > 0);
+                }
+            }
+            Assert.assertTrue(phases.toString(), phases.contains("Canonicalizer"));
+            Assert.assertTrue(phases.toString(), phases.contains("LIRGen"));
+            Assert.assertEquals(CompilationTelemetry.TOTAL, lines.get(lines.size() - 1).split(",")[2]);
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testFailingPhase() throws IOException {
+        File file = File.createTempFile("telemetry", ".csv");
+        try {
+            try (OverrideScope s = OptionValue.override(CompilationTelemetryFile, file.getPath())) {
+                StructuredGraph graph = parseEager("snippet");
+                try (CompilationTelemetry telemetry = CompilationTelemetry.begin(43, "snippet")) {
+                    try {
+                        new FailingPhase().apply(graph);
+                        Assert.fail("expected a bailout");
+                    } catch (BailoutException e) {
+                        // expected
+                    }
+                    CompilationTelemetry.beginPhase("Next", graph.getNodeCount()).end(graph.getNodeCount(), -1);
+                }
+            }
+
+            Map<String, String> depths = new HashMap<>();
+            for (String line : Files.readAllLines(file.toPath())) {
+                String[] columns = line.split(",");
+                depths.put(columns[2], columns[3]);
+            }
+            Assert.assertEquals("0", depths.get("Failing"));
+            Assert.assertEquals("0", depths.get("Next"));
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static class FailingPhase extends Phase {
+
+        @Override
+        protected void run(StructuredGraph graph) {
+            throw new BailoutException("failing phase");
+        }
+    }
+
+    @Test
+    public void testDisabled() {
+        Assert.assertNull(CompilationTelemetry.begin(1, "snippet"));
+        Assert.assertNull(CompilationTelemetry.beginPhase("Test", 0));
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.compiler.test;
+
+import java.util.*;
+
+import org.junit.*;
+
+import com.oracle.graal.api.code.*;
+import com.oracle.graal.api.meta.*;
+import com.oracle.graal.loop.*;
+import com.oracle.graal.loop.phases.*;
+import com.oracle.graal.nodes.*;
+import com.oracle.graal.nodes.spi.*;
+import com.oracle.graal.phases.*;
+import com.oracle.graal.phases.common.*;
+import com.oracle.graal.phases.tiers.*;
+
+/**
+ * Tests that {@link GuardMotionPhase} hoists guards out of loops and eliminates partially redundant
+ * guards at merges, and that the compiled code preserves the semantics of these guards, including
+ * when a hoisted guard fails.
+ */
+public class GuardMotionTest extends GraalCompilerTest {
+
+    private final SpeculationLog speculationLog = new SpeculationLog() {
+
+        @Override
+        public JavaConstant speculate(Object reason) {
+            addSpeculation(reason);
+            return getSnippetReflection().forObject(reason);
+        }
+    };
+
+    @Override
+    protected SpeculationLog getSpeculationLog() {
+        return speculationLog;
+    }
+
+    @Override
+    protected Suites createSuites() {
+        Suites suites = super.createSuites();
+        if (suites.getMidTier().findPhase(GuardMotionPhase.class) == null) {
+            ListIterator<BasePhase<? super MidTierContext>> position = suites.getMidTier().findPhase(OptimizeGuardAnchorsPhase.class);
+            if (position == null) {
+                position = suites.getMidTier().findPhase(RemoveValueProxyPhase.class);
+            }
+            position.add(new GuardMotionPhase());
+        }
+        return suites;
+    }
+
+    static class Container {
+        int value;
+        int[] values;
+
+        Container(int value) {
+            this.value = value;
+            this.values = new int[]{value, value + 1};
+        }
+    }
+
+    public static int invariantFieldSnippet(Container c, int n) {
+        int sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += c.value;
+        }
+        return sum;
+    }
+
+    public static int conditionalFieldSnippet(Container c, int n) {
+        int sum = 0;
+        for (int i = 0; i < n; i++) {
+            if (i % 3 == 2) {
+                sum += c.values[1];
+            } else {
+                sum++;
+            }
+        }
+        return sum;
+    }
+
+    public static int mergeSnippet(Container c, boolean b) {
+        int x;
+        if (b) {
+            x = c.value + 1;
+        } else {
+            x = c.value * 2;
+        }
+        return x + c.value;
+    }
+
+    public static int partiallyRedundantSnippet(Container c, boolean b) {
+        int x = 0;
+        if (b) {
+            x = c.value;
+        }
+        return x + c.value;
+    }
+
+    /**
+     * Parses and lowers {@code snippet} so that its field accesses are floating reads guarded by
+     * null check guards.
+     */
+    private StructuredGraph lowerSnippet(String snippet) {
+        StructuredGraph graph = parseEager(snippet);
+        PhaseContext context = new PhaseContext(getProviders(), new Assumptions(false));
+        CanonicalizerPhase canonicalizer = new CanonicalizerPhase(true);
+        canonicalizer.apply(graph, context);
+        new LoweringPhase(canonicalizer, LoweringTool.StandardLoweringStage.HIGH_TIER).apply(graph, context);
+        new FloatingReadPhase().apply(graph);
+        return graph;
+    }
+
+    private void applyGuardMotion(StructuredGraph graph) {
+        MidTierContext context = new MidTierContext(getProviders(), new Assumptions(false), getCodeCache().getTarget(), OptimisticOptimizations.ALL, graph.method().getProfilingInfo(),
+                        speculationLog);
+        new GuardMotionPhase().apply(graph, context);
+    }
+
+    private static int countGuardsInLoops(StructuredGraph graph) {
+        int count = 0;
+        for (LoopEx loop : new LoopsData(graph).loops()) {
+            for (GuardNode guard : graph.getNodes(GuardNode.class)) {
+                if (!loop.isOutsideLoop(guard.getAnchor().asNode())) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static int countGuardsAt(StructuredGraph graph, Class<? extends BeginNode> anchorClass) {
+        int count = 0;
+        for (GuardNode guard : graph.getNodes(GuardNode.class)) {
+            if (anchorClass.isInstance(guard.getAnchor())) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Test
+    public void testInvariantFieldHoisted() {
+        StructuredGraph graph = lowerSnippet("invariantFieldSnippet");
+        Assert.assertNotEquals(0, countGuardsInLoops(graph));
+        applyGuardMotion(graph);
+        Assert.assertEquals(0, countGuardsInLoops(graph));
+        for (GuardNode guard : graph.getNodes(GuardNode.class)) {
+            Assert.assertFalse(guard.getSpeculation().isNull());
+        }
+    }
+
+    @Test
+    public void testMergeHoisted() {
+        StructuredGraph graph = lowerSnippet("mergeSnippet");
+        Assert.assertEquals(2, countGuardsAt(graph, BeginNode.class) - countGuardsAt(graph, MergeNode.class) - countGuardsAt(graph, StartNode.class));
+        applyGuardMotion(graph);
+        Assert.assertEquals(0, countGuardsAt(graph, BeginNode.class) - countGuardsAt(graph, MergeNode.class) - countGuardsAt(graph, StartNode.class));
+        Assert.assertEquals(1, countGuardsAt(graph, StartNode.class));
+    }
+
+    @Test
+    public void testPartiallyRedundantEliminated() {
+        StructuredGraph graph = lowerSnippet("partiallyRedundantSnippet");
+        Assert.assertEquals(1, countGuardsAt(graph, MergeNode.class));
+        Assert.assertEquals(0, graph.getNodes().filter(GuardPhiNode.class).count());
+        applyGuardMotion(graph);
+        Assert.assertEquals(0, countGuardsAt(graph, MergeNode.class));
+        Assert.assertEquals(1, graph.getNodes().filter(GuardPhiNode.class).count());
+        for (GuardPhiNode phi : graph.getNodes().filter(GuardPhiNode.class)) {
+            for (ValueNode value : phi.values()) {
+                Assert.assertTrue(value instanceof GuardNode);
+            }
+        }
+    }
+
+    @Test
+    public void testInvariantField() {
+        test("invariantFieldSnippet", new Container(3), 10);
+        test("invariantFieldSnippet", new Container(3), 0);
+        test("invariantFieldSnippet", null, 0);
+        test("invariantFieldSnippet", null, 1);
+    }
+
+    @Test
+    public void testConditionalField() {
+        test("conditionalFieldSnippet", new Container(5), 10);
+        test("conditionalFieldSnippet", null, 2);
+        test("conditionalFieldSnippet", null, 3);
+    }
+
+    @Test
+    public void testMerge() {
+        test("mergeSnippet", new Container(7), true);
+        test("mergeSnippet", new Container(7), false);
+        test("mergeSnippet", null, true);
+    }
+
+    @Test
+    public void testPartiallyRedundant() {
+        test("partiallyRedundantSnippet", new Container(7), true);
+        test("partiallyRedundantSnippet", new Container(7), false);
+        test("partiallyRedundantSnippet", null, true);
+        test("partiallyRedundantSnippet", null, false);
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.compiler.test;
+
+import static com.oracle.graal.compiler.common.GraalOptions.*;
+
+import org.junit.*;
+
+import com.oracle.graal.api.code.*;
+import com.oracle.graal.api.code.CompilationResult.Infopoint;
+import com.oracle.graal.options.*;
+import com.oracle.graal.options.OptionValue.OverrideScope;
+
+/**
+ * Tests that code whose rarely executed blocks are emitted behind the hot code computes the same
+ * results and that the cold blocks are emitted behind all hot blocks.
+ */
+public class HotColdSplittingTest extends GraalCompilerTest {
+
+    public static int checkSnippet(int[] a, int i) {
+        if (i < 0 || i >= a.length) {
+            throw new IllegalArgumentException("index " + i);
+        }
+        return a[i] * 2;
+    }
+
+    public static int coldPathSnippet(int[] a, int i) {
+        if (branchProbability(0.0001, i < 0)) {
+            throw new IllegalArgumentException("negative index " + i);
+        }
+        return a[i] * 2;
+    }
+
+    public static int loopSnippet(Object[] values) {
+        int count = 0;
+        for (Object value : values) {
+            if (value instanceof String) {
+                count += ((String) value).length();
+            } else if (value == null) {
+                count--;
+            }
+        }
+        return count;
+    }
+
+    private void testSplitting(String name, Object... args) {
+        try (OverrideScope s = OptionValue.override(HotColdSplitting, true, ColdBlockProbability, 0.1)) {
+            test(name, args);
+        }
+    }
+
+    /**
+     * The only calls in {@link #coldPathSnippet} are on the path that throws the exception and in
+     * the deoptimization of the bounds check, so all calls must be in the cold code.
+     */
+    @Test
+    public void testColdCodeEmittedLast() {
+        try (OverrideScope s = OptionValue.override(HotColdSplitting, true, ColdBlockProbability, 0.1)) {
+            CompilationResult result = compile(getResolvedJavaMethod("coldPathSnippet"), null);
+            int coldCodeOffset = result.getColdCodeOffset();
+            Assert.assertTrue(coldCodeOffset > 0);
+            Assert.assertTrue(coldCodeOffset < result.getTargetCodeSize());
+            int calls = 0;
+            for (Infopoint infopoint : result.getInfopoints()) {
+                if (infopoint.reason == InfopointReason.CALL) {
+                    Assert.assertTrue(infopoint + " is not in the cold code starting at " + coldCodeOffset, infopoint.pcOffset >= coldCodeOffset);
+                    calls++;
+                }
+            }
+            Assert.assertTrue(calls > 0);
+        }
+    }
+
+    @Test
+    public void testColdPath() {
+        testSplitting("coldPathSnippet", new int[]{1, 2, 3}, 1);
+        testSplitting("coldPathSnippet", new int[]{1, 2, 3}, -1);
+        testSplitting("coldPathSnippet", new int[]{1, 2, 3}, 3);
+    }
+
+    @Test
+    public void testCheck() {
+        testSplitting("checkSnippet", new int[]{1, 2, 3}, 1);
+        testSplitting("checkSnippet", new int[]{1, 2, 3}, 3);
+        testSplitting("checkSnippet", new int[0], -1);
+    }
+
+    @Test
+    public void testLoop() {
+        testSplitting("loopSnippet", (Object) new Object[]{"a", null, 3, "bcd"});
+        testSplitting("loopSnippet", (Object) new Object[0]);
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.compiler.test;
+
+import static com.oracle.graal.compiler.common.GraalOptions.*;
+
+import java.util.*;
+
+import org.junit.*;
+
+import com.oracle.graal.api.code.*;
+import com.oracle.graal.loop.phases.*;
+import com.oracle.graal.nodes.*;
+import com.oracle.graal.options.*;
+import com.oracle.graal.options.OptionValue.OverrideScope;
+import com.oracle.graal.phases.*;
+import com.oracle.graal.phases.common.*;
+import com.oracle.graal.phases.tiers.*;
+
+/**
+ * Tests that {@link LoopPartialUnrollPhase} unrolls counted loops that are executed often enough
+ * and that the unrolled loop together with the loop for the remaining iterations computes the same
+ * results as the original loop.
+ */
+public class LoopPartialUnrollTest extends GraalCompilerTest {
+
+    private static final double FREQUENCY = 100;
+
+    public static int sumSnippet(int[] a) {
+        int sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i];
+        }
+        return sum;
+    }
+
+    public static int strideSnippet(int[] a) {
+        int sum = 0;
+        for (int i = 1; i < a.length; i += 3) {
+            sum = sum * 31 + a[i];
+        }
+        return sum;
+    }
+
+    public static long downSnippet(int n) {
+        long product = 1;
+        for (int i = n; i >= 1; i--) {
+            product = product * i + 1;
+        }
+        return product;
+    }
+
+    public static int swapSnippet(int n) {
+        int a = 0;
+        int b = 1;
+        for (int i = 0; i < n; i++) {
+            int t = a;
+            a = b;
+            b = t + b;
+        }
+        return a;
+    }
+
+    public static int rangeSnippet(int start, int end) {
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            count += i & 3;
+        }
+        return count;
+    }
+
+    public static int nestedSnippet(int[][] a) {
+        int sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            int[] row = a[i];
+            for (int j = 0; j < row.length; j++) {
+                sum += row[j];
+            }
+        }
+        return sum;
+    }
+
+    private static void setLoopFrequencies(StructuredGraph graph) {
+        for (LoopBeginNode loopBegin : graph.getNodes(LoopBeginNode.class)) {
+            loopBegin.setLoopFrequency(FREQUENCY);
+        }
+    }
+
+    @Override
+    protected Suites createSuites() {
+        Suites suites = super.createSuites();
+        ListIterator<BasePhase<? super HighTierContext>> position = suites.getHighTier().findPhase(RemoveValueProxyPhase.class);
+        position.previous();
+        position.add(new Phase("SetLoopFrequencies") {
+
+            @Override
+            protected void run(StructuredGraph graph) {
+                setLoopFrequencies(graph);
+            }
+        });
+        position.add(new LoopPartialUnrollPhase(new CanonicalizerPhase(true)));
+        return suites;
+    }
+
+    private int countLoops(String snippet) {
+        StructuredGraph graph = parseEager(snippet);
+        setLoopFrequencies(graph);
+        new LoopPartialUnrollPhase(new CanonicalizerPhase(true)).apply(graph, new PhaseContext(getProviders(), new Assumptions(false)));
+        return graph.getNodes(LoopBeginNode.class).count();
+    }
+
+    @Test
+    public void testUnrolled() {
+        try (OverrideScope s = OptionValue.override(PartialUnrollMaxFactor, 4)) {
+            Assert.assertEquals(2, countLoops("sumSnippet"));
+            Assert.assertEquals(2, countLoops("strideSnippet"));
+            Assert.assertEquals(2, countLoops("downSnippet"));
+            Assert.assertEquals(2, countLoops("swapSnippet"));
+            // only the inner loop is unrolled
+            Assert.assertEquals(3, countLoops("nestedSnippet"));
+        }
+    }
+
+    @Test
+    public void testNotUnrolled() {
+        try (OverrideScope s = OptionValue.override(PartialUnrollMaxFactor, 1)) {
+            Assert.assertEquals(1, countLoops("sumSnippet"));
+        }
+    }
+
+    @Test
+    public void testResults() {
+        for (int length : new int[]{0, 1, 3, 4, 5, 8, 13}) {
+            int[] array = new int[length];
+            for (int i = 0; i < length; i++) {
+                array[i] = i * 7 - 3;
+            }
+            test("sumSnippet", array);
+            test("strideSnippet", array);
+            test("downSnippet", length);
+            test("swapSnippet", length);
+            test("nestedSnippet", new Object[]{new int[][]{array, {}, array}});
+        }
+        test("downSnippet", -1);
+        test("rangeSnippet", 10, 3);
+        test("rangeSnippet", Integer.MAX_VALUE - 6, Integer.MAX_VALUE);
+        test("rangeSnippet", Integer.MIN_VALUE, Integer.MIN_VALUE + 9);
+    }
+}
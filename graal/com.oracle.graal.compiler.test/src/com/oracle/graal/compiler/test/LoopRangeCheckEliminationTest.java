@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.compiler.test;
+
+import org.junit.*;
+
+import com.oracle.graal.api.code.*;
+import com.oracle.graal.loop.phases.*;
+import com.oracle.graal.nodes.*;
+import com.oracle.graal.nodes.java.*;
+import com.oracle.graal.phases.*;
+import com.oracle.graal.phases.tiers.*;
+
+/**
+ * Tests that {@link LoopRangeCheckEliminationPhase} hoists the bounds checks of the right accesses
+ * and that out of bounds accesses still throw in the right iteration.
+ */
+public class LoopRangeCheckEliminationTest extends GraalCompilerTest {
+
+    static int sideEffect;
+
+    public static int sumSnippet(int[] a) {
+        int sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i];
+        }
+        return sum;
+    }
+
+    public static void shiftSnippet(int[] a, int[] b) {
+        int n = Math.min(a.length - 1, b.length);
+        for (int i = 0; i < n; i++) {
+            b[i] = a[i + 1];
+        }
+    }
+
+    public static int reverseSnippet(int[] a) {
+        int sum = 0;
+        int last = a.length - 1;
+        for (int i = last; i >= 0; i--) {
+            sum = sum * 31 + a[last - i];
+        }
+        return sum;
+    }
+
+    public static int conditionalSnippet(int[] a, int n) {
+        int sum = 0;
+        for (int i = 0; i < n; i++) {
+            if (i < a.length) {
+                sum += a[i];
+            }
+        }
+        return sum;
+    }
+
+    public static int outOfBoundsSnippet(int[] a) {
+        int sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sideEffect = i;
+            sum += a[i + 1];
+        }
+        return sum;
+    }
+
+    private int countCheckedAccesses(String snippet) {
+        StructuredGraph graph = parseEager(snippet);
+        HighTierContext context = new HighTierContext(getProviders(), new Assumptions(false), null, getDefaultGraphBuilderSuite(), OptimisticOptimizations.ALL);
+        new LoopRangeCheckEliminationPhase().apply(graph, context);
+        int count = 0;
+        for (AccessIndexedNode access : graph.getNodes().filter(AccessIndexedNode.class)) {
+            if (access.getBoundsCheck() != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Test
+    public void testHoisted() {
+        Assert.assertEquals(1, countCheckedAccesses("sumSnippet"));
+        Assert.assertEquals(2, countCheckedAccesses("shiftSnippet"));
+        Assert.assertEquals(1, countCheckedAccesses("reverseSnippet"));
+    }
+
+    @Test
+    public void testNotHoisted() {
+        Assert.assertEquals(0, countCheckedAccesses("conditionalSnippet"));
+    }
+
+    @Test
+    public void testResults() {
+        int[] array = {1, 2, 3, 4, 5, 6, 7};
+        test("sumSnippet", array);
+        test("sumSnippet", new int[0]);
+        test("shiftSnippet", array, new int[5]);
+        test("shiftSnippet", array, new int[10]);
+        test("reverseSnippet", array);
+        test("conditionalSnippet", array, 10);
+        test("outOfBoundsSnippet", array);
+        test("outOfBoundsSnippet", new int[0]);
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.compiler.test;
+
+import static com.oracle.graal.compiler.common.GraalOptions.*;
+
+import org.junit.*;
+
+import com.oracle.graal.options.*;
+import com.oracle.graal.options.OptionValue.OverrideScope;
+
+/**
+ * Tests that strip mined counted loops execute the same iterations as the original loops, also if
+ * the number of iterations is not a multiple of the strip length.
+ */
+public class LoopStripMiningTest extends GraalCompilerTest {
+
+    private static final int STRIP_LENGTH = 16;
+
+    public static int upSnippet(int n) {
+        int sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum = sum * 31 + i;
+        }
+        return sum;
+    }
+
+    public static int inclusiveSnippet(int start, int end) {
+        int sum = 0;
+        for (int i = start; i <= end; i += 3) {
+            sum += i;
+        }
+        return sum;
+    }
+
+    public static long downSnippet(int n) {
+        long product = 1;
+        for (int i = n; i >= 1; i--) {
+            product = product * 3 + i;
+        }
+        return product;
+    }
+
+    public static int offsetSnippet(int[] a) {
+        int sum = 0;
+        for (int i = 0; i + 2 < a.length; i++) {
+            sum += a[i + 2] - i;
+        }
+        return sum;
+    }
+
+    public static int[] fillSnippet(int n) {
+        int[] a = new int[n];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = i * i;
+        }
+        return a;
+    }
+
+    private void testStripMining(String name, Object... args) {
+        try (OverrideScope s = OptionValue.override(LoopStripMining, true, LoopStripMiningLength, STRIP_LENGTH)) {
+            test(name, args);
+        }
+    }
+
+    @Test
+    public void testUp() {
+        for (int n : new int[]{0, 1, STRIP_LENGTH - 1, STRIP_LENGTH, STRIP_LENGTH + 1, 10 * STRIP_LENGTH + 5, 1000 * STRIP_LENGTH + 7}) {
+            testStripMining("upSnippet", n);
+        }
+    }
+
+    @Test
+    public void testInclusive() {
+        testStripMining("inclusiveSnippet", 0, 100);
+        testStripMining("inclusiveSnippet", 5, 5);
+        testStripMining("inclusiveSnippet", Integer.MAX_VALUE - 100, Integer.MAX_VALUE - 1);
+    }
+
+    @Test
+    public void testDown() {
+        testStripMining("downSnippet", 0);
+        testStripMining("downSnippet", 3 * STRIP_LENGTH + 7);
+        testStripMining("downSnippet", 1000 * STRIP_LENGTH + 3);
+    }
+
+    @Test
+    public void testOffset() {
+        for (int n : new int[]{0, 2, 3, STRIP_LENGTH + 2, 1000 * STRIP_LENGTH + 9}) {
+            int[] a = new int[n];
+            for (int i = 0; i < n; i++) {
+                a[i] = i * 7;
+            }
+            testStripMining("offsetSnippet", a);
+        }
+    }
+
+    @Test
+    public void testFill() {
+        testStripMining("fillSnippet", 0);
+        testStripMining("fillSnippet", 5 * STRIP_LENGTH + 3);
+        testStripMining("fillSnippet", 1000 * STRIP_LENGTH + 1);
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.compiler.test;
+
+import java.util.*;
+
+import org.junit.*;
+
+import com.oracle.graal.api.code.*;
+import com.oracle.graal.graph.*;
+import com.oracle.graal.loop.phases.*;
+import com.oracle.graal.nodes.*;
+import com.oracle.graal.nodes.java.*;
+import com.oracle.graal.phases.*;
+import com.oracle.graal.phases.common.*;
+import com.oracle.graal.phases.tiers.*;
+
+/**
+ * Tests that {@link LoopVectorizationPhase} replaces loops by vectorized array operations and that
+ * these compute the same results as the original loops, including for ranges that do not fill a
+ * whole vector.
+ */
+public class LoopVectorizationTest extends GraalCompilerTest {
+
+    @Override
+    protected Suites createSuites() {
+        Suites suites = super.createSuites();
+        if (suites.getHighTier().findPhase(LoopVectorizationPhase.class) == null) {
+            ListIterator<BasePhase<? super HighTierContext>> position = suites.getHighTier().findPhase(LoopRangeCheckEliminationPhase.class);
+            if (position == null) {
+                position = suites.getHighTier().findPhase(RemoveValueProxyPhase.class);
+            }
+            position.previous();
+            position.add(new LoopVectorizationPhase());
+        }
+        return suites;
+    }
+
+    private void assertVectorized(String snippet, Class<? extends Node> nodeClass) {
+        StructuredGraph graph = parseEager(snippet);
+        compile(graph.method(), graph);
+        Assert.assertTrue(snippet + " was not vectorized", graph.getNodes().filter(nodeClass).isNotEmpty());
+        Assert.assertFalse(snippet + " still has a loop", graph.hasLoops());
+    }
+
+    private static final int[] LENGTHS = {0, 1, 3, 4, 7, 16, 33, 100};
+
+    public static int sumInt(int[] a) {
+        int sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i];
+        }
+        return sum;
+    }
+
+    public static long sumLong(long[] a, int start, int end) {
+        long sum = 5;
+        for (int i = start; i < end; i++) {
+            sum += a[i];
+        }
+        return sum;
+    }
+
+    public static int[] addInt(int[] a, int[] b) {
+        int[] result = new int[a.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = a[i] + b[i];
+        }
+        return result;
+    }
+
+    public static double[] subDouble(double[] a, double[] b) {
+        double[] result = new double[a.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = a[i] - b[i];
+        }
+        return result;
+    }
+
+    public static float[] scaleFloat(float[] a, float factor) {
+        float[] result = new float[a.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = a[i] * factor;
+        }
+        return result;
+    }
+
+    public static long[] xorLong(long[] a, long mask) {
+        long[] result = new long[a.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = mask ^ a[i];
+        }
+        return result;
+    }
+
+    private static int[] ints(int length) {
+        int[] array = new int[length];
+        for (int i = 0; i < length; i++) {
+            array[i] = i * 31 - 7;
+        }
+        return array;
+    }
+
+    private static long[] longs(int length) {
+        long[] array = new long[length];
+        for (int i = 0; i < length; i++) {
+            array[i] = i * 0x100000001L - 3;
+        }
+        return array;
+    }
+
+    private static double[] doubles(int length) {
+        double[] array = new double[length];
+        for (int i = 0; i < length; i++) {
+            array[i] = i * 1.5 - 2;
+        }
+        return array;
+    }
+
+    private static float[] floats(int length) {
+        float[] array = new float[length];
+        for (int i = 0; i < length; i++) {
+            array[i] = i * 0.25f + 1;
+        }
+        return array;
+    }
+
+    @Test
+    public void testSum() {
+        assertVectorized("sumInt", ArraySumNode.class);
+        assertVectorized("sumLong", ArraySumNode.class);
+        for (int length : LENGTHS) {
+            test("sumInt", ints(length));
+            test("sumLong", longs(length), 0, length);
+            test("sumLong", longs(length), length / 3, length);
+        }
+        test("sumLong", longs(10), 4, 2);
+        test("sumLong", longs(10), 2, 11);
+        test("sumLong", longs(10), -1, 5);
+    }
+
+    /**
+     * An empty range over a null array does not throw, so it must not invalidate the code.
+     */
+    @Test
+    public void testNullEmptyRange() throws InvalidInstalledCodeException {
+        test("sumLong", null, 3, 3);
+        test("sumLong", null, 4, 2);
+        test("sumLong", null, 0, 2);
+        InstalledCode code = getCode(getResolvedJavaMethod("sumLong"), null, true);
+        Assert.assertEquals(5L, code.executeVarargs(null, 3, 3));
+        Assert.assertTrue(code.isValid());
+    }
+
+    @Test
+    public void testElementwise() {
+        assertVectorized("addInt", ArrayElementwiseNode.class);
+        assertVectorized("subDouble", ArrayElementwiseNode.class);
+        assertVectorized("scaleFloat", ArrayElementwiseNode.class);
+        assertVectorized("xorLong", ArrayElementwiseNode.class);
+        for (int length : LENGTHS) {
+            test("addInt", ints(length), ints(length));
+            test("subDouble", doubles(length), doubles(length + 1));
+            test("scaleFloat", floats(length), 3.5f);
+            test("xorLong", longs(length), 0xFF00FF00FF00FFL);
+        }
+        test("addInt", ints(8), ints(4));
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.compiler.test;
+
+import static com.oracle.graal.api.code.CodeUtil.*;
+import static com.oracle.graal.compiler.common.GraalOptions.*;
+
+import java.util.concurrent.*;
+
+import org.junit.*;
+
+import com.oracle.graal.api.code.*;
+import com.oracle.graal.api.code.CallingConvention.Type;
+import com.oracle.graal.api.meta.*;
+import com.oracle.graal.compiler.*;
+import com.oracle.graal.compiler.alloc.*;
+import com.oracle.graal.compiler.alloc.LinearScan.BlockData;
+import com.oracle.graal.compiler.common.cfg.*;
+import com.oracle.graal.debug.*;
+import com.oracle.graal.debug.Debug.Scope;
+import com.oracle.graal.lir.gen.*;
+import com.oracle.graal.nodes.*;
+import com.oracle.graal.options.*;
+import com.oracle.graal.options.OptionValue.OverrideScope;
+import com.oracle.graal.phases.*;
+import com.oracle.graal.phases.schedule.*;
+
+/**
+ * Tests that the live sets that are computed in parallel by {@link LinearScan} are identical to the
+ * sequentially computed ones and that code compiled with them computes the same results as the
+ * interpreter.
+ */
+public class ParallelLivenessTest extends GraalCompilerTest {
+
+    public static int loopSnippet(int[] a, int n) {
+        int sum = 0;
+        int product = 1;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < a.length; j++) {
+                if (a[j] > i) {
+                    sum += a[j];
+                } else {
+                    product *= a[j] | 1;
+                }
+            }
+        }
+        return sum ^ product;
+    }
+
+    public static long switchSnippet(int a, long b, double c) {
+        long result = b;
+        switch (a) {
+            case 0:
+                result += (long) c;
+                break;
+            case 1:
+                result *= a + 3;
+                break;
+            case 2:
+                result = (long) (c * b);
+                break;
+            default:
+                result -= a;
+        }
+        return result + a;
+    }
+
+    private static int mix0(int[] a, int i) {
+        return (a[i] * 31) ^ (a[i] >>> 3);
+    }
+
+    private static int mix1(int[] a, int i) {
+        return mix0(a, i) + mix0(a, i + 1);
+    }
+
+    private static int mix2(int[] a, int i) {
+        return mix1(a, i) - mix1(a, i + 2);
+    }
+
+    private static int mix3(int[] a, int i) {
+        return mix2(a, i) * mix2(a, i + 4);
+    }
+
+    private static int mix4(int[] a, int i) {
+        return mix3(a, i) | mix3(a, i + 8);
+    }
+
+    private static int mix5(int[] a, int i) {
+        return mix4(a, i) + mix4(a, i + 16);
+    }
+
+    private static int mix6(int[] a, int i) {
+        return mix5(a, i) ^ mix5(a, i + 32);
+    }
+
+    /**
+     * Uses enough variables for the live sets to be split into several word ranges.
+     */
+    public static int largeSnippet(int[] a, int n) {
+        int sum = 0;
+        for (int i = 0; i + 128 <= a.length && i < n; i += 128) {
+            sum += mix6(a, i) - mix6(a, i + 64);
+        }
+        return sum;
+    }
+
+    private LIRGenerationResult emitLIR(String snippet) {
+        StructuredGraph graph = parseEager(snippet);
+        try (Scope s = Debug.scope("ParallelLivenessTest", graph, graph.method(), getCodeCache())) {
+            Assumptions assumptions = new Assumptions(OptAssumptions.getValue());
+            SchedulePhase schedule = GraalCompiler.emitFrontEnd(getProviders(), getBackend().getTarget(), graph, assumptions, null, getDefaultGraphBuilderSuite(), OptimisticOptimizations.ALL,
+                            graph.method().getProfilingInfo(), null, getSuites());
+            CallingConvention cc = getCallingConvention(getCodeCache(), Type.JavaCallee, graph.method(), false);
+            return GraalCompiler.emitLIR(getBackend(), getBackend().getTarget(), schedule, graph, null, cc, null);
+        } catch (Throwable e) {
+            throw Debug.handle(e);
+        }
+    }
+
+    private LinearScan computeLiveSets(LIRGenerationResult lirGen, ForkJoinPool pool) {
+        LinearScan allocator = new LinearScan(getBackend().getTarget(), lirGen);
+        allocator.numberInstructions();
+        allocator.computeLiveSets(pool);
+        return allocator;
+    }
+
+    private void testLiveSets(String snippet, ForkJoinPool pool, int minLiveSetSize) {
+        LIRGenerationResult lirGen = emitLIR(snippet);
+        LinearScan sequential = computeLiveSets(lirGen, null);
+        LinearScan parallel = computeLiveSets(lirGen, pool);
+        int liveSetSize = 0;
+        for (AbstractBlock<?> block : lirGen.getLIR().linearScanOrder()) {
+            BlockData expected = sequential.blockData.get(block);
+            BlockData actual = parallel.blockData.get(block);
+            Assert.assertEquals("liveGen of " + block, expected.liveGen, actual.liveGen);
+            Assert.assertEquals("liveKill of " + block, expected.liveKill, actual.liveKill);
+            Assert.assertEquals("liveIn of " + block, expected.liveIn, actual.liveIn);
+            Assert.assertEquals("liveOut of " + block, expected.liveOut, actual.liveOut);
+            liveSetSize = Math.max(liveSetSize, Math.max(expected.liveGen.length(), expected.liveKill.length()));
+        }
+        Assert.assertTrue(snippet + " uses only " + liveSetSize + " operands", liveSetSize >= minLiveSetSize);
+    }
+
+    @Test
+    public void testLiveSets() {
+        // the common pool may have a single thread only
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            testLiveSets("loopSnippet", pool, 0);
+            testLiveSets("switchSnippet", pool, 0);
+            // ranges are at least 8 words wide, so this makes for at least 3 of them
+            testLiveSets("largeSnippet", pool, 2 * 8 * Long.SIZE + 1);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private void testParallel(String name, Object... args) {
+        try (OverrideScope s = OptionValue.override(LinearScan.Options.LSRAParallelLivenessThreshold, 0)) {
+            test(name, args);
+        }
+    }
+
+    @Test
+    public void testLoop() {
+        testParallel("loopSnippet", new int[]{3, 1, 4, 1, 5}, 4);
+        testParallel("loopSnippet", new int[0], 2);
+    }
+
+    @Test
+    public void testSwitch() {
+        for (int a = -1; a < 4; a++) {
+            testParallel("switchSnippet", a, 17L, 2.5);
+        }
+    }
+
+    @Test
+    public void testLarge() {
+        int[] a = new int[300];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = i * 7919;
+        }
+        testParallel("largeSnippet", a, 3);
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.compiler.test;
+
+import org.junit.*;
+
+import com.oracle.graal.lir.gen.LIRGenerator.Options;
+import com.oracle.graal.options.*;
+import com.oracle.graal.options.OptionValue.OverrideScope;
+
+/**
+ * Tests sparse switches that are lowered to hashed jump tables.
+ */
+public class SparseSwitchTest extends GraalCompilerTest {
+
+    public static int sparseSnippet(int key) {
+        switch (key) {
+            case -1000000:
+                return 1;
+            case -77:
+                return 2;
+            case 3:
+                return 3;
+            case 100:
+                return 4;
+            case 1234:
+                return 5;
+            case 99999:
+                return 6;
+            case 123456:
+                return 7;
+            case 1000000:
+                return 8;
+            case 31415926:
+                return 9;
+            case Integer.MAX_VALUE:
+                return 10;
+            case Integer.MIN_VALUE:
+                return 11;
+            case 0x10000:
+                return 12;
+            default:
+                return 0;
+        }
+    }
+
+    public static int sharedTargetSnippet(int key) {
+        switch (key) {
+            case 10:
+            case 1010:
+            case 2020:
+            case 3030:
+                return key + 1;
+            case 40:
+            case 4040:
+            case 5050:
+            case 6060:
+                return key - 1;
+            default:
+                return -1;
+        }
+    }
+
+    private static final int[] KEYS = {-1000000, -77, 3, 100, 1234, 99999, 123456, 1000000, 31415926, Integer.MAX_VALUE, Integer.MIN_VALUE, 0x10000, 0, 1, -1, 101, 1010, 2020, 4040, 40, 7};
+
+    private void testHashed(String name) {
+        try (OverrideScope s = OptionValue.override(Options.MinimumHashSwitchSize, 2)) {
+            for (int key : KEYS) {
+                test(name, key);
+            }
+        }
+    }
+
+    @Test
+    public void testSparse() {
+        testHashed("sparseSnippet");
+    }
+
+    @Test
+    public void testSharedTargets() {
+        testHashed("sharedTargetSnippet");
+    }
+}
@@ -218,14 +218,36 @@ public class GraalCompiler {
         assert !r.graph.isFrozen();
         try (Scope s0 = Debug.scope("GraalCompiler", r.graph, r.providers.getCodeCache())) {
             Assumptions assumptions = new Assumptions(OptAssumptions.getValue());
-            SchedulePhase schedule = emitFrontEnd(r.providers, r.target, r.graph, assumptions, r.cache, r.graphBuilderSuite, r.optimisticOpts, r.profilingInfo, r.speculationLog, r.suites);
+            CompilationBudget budget = CompilationBudget.create();
+            SchedulePhase schedule = emitFrontEnd(r.providers, r.target, r.graph, assumptions, r.cache, r.graphBuilderSuite, r.optimisticOpts, r.profilingInfo, r.speculationLog, r.suites, budget);
             emitBackEnd(r.graph, r.stub, r.cc, r.installedCodeOwner, r.backend, r.target, r.compilationResult, r.factory, assumptions, schedule, null);
+            if (budget.isDegraded()) {
+                recordDegradedCompilation(r.graph, r.compilationResult, budget);
+            }
         } catch (Throwable e) {
             throw Debug.handle(e);
         }
         return r.compilationResult;
     }
 
+    private static final DebugMetric DegradedCompilations = Debug.metric("DegradedCompilations");
+    private static final DebugMetric DegradedCompilationsCodeSize = Debug.metric("DegradedCompilationsCodeSize");
+
+    /**
+     * Records a compilation that skipped optional optimizations because it exceeded its
+     * {@link CompilationBudget}. The size of the resulting graph and code indicates what the
+     * degradation cost.
+     */
+    private static void recordDegradedCompilation(StructuredGraph graph, CompilationResult compilationResult, CompilationBudget budget) {
+        DegradedCompilations.increment();
+        DegradedCompilationsCodeSize.add(compilationResult.getTargetCodeSize());
+        Debug.log("degraded compilation: %s", budget);
+        if (PrintCompilationBudget.getValue()) {
+            String method = graph.method() == null ? graph.toString() : graph.method().format("%H.%n(%p)");
+            TTY.println("Compilation budget of %s %s, final graph %d nodes, %d bytes of code", method, budget, graph.getNodeCount(), compilationResult.getTargetCodeSize());
+        }
+    }
+
     public static ProfilingInfo getProfilingInfo(StructuredGraph graph) {
         if (graph.method() != null) {
             return graph.method().getProfilingInfo();
@@ -239,12 +261,22 @@ public class GraalCompiler {
      */
     public static SchedulePhase emitFrontEnd(Providers providers, TargetDescription target, StructuredGraph graph, Assumptions assumptions, Map<ResolvedJavaMethod, StructuredGraph> cache,
                     PhaseSuite<HighTierContext> graphBuilderSuite, OptimisticOptimizations optimisticOpts, ProfilingInfo profilingInfo, SpeculationLog speculationLog, Suites suites) {
+        return emitFrontEnd(providers, target, graph, assumptions, cache, graphBuilderSuite, optimisticOpts, profilingInfo, speculationLog, suites, CompilationBudget.create());
+    }
+
+    /**
+     * Builds the graph, optimizes it, skipping optional optimizations once {@code budget} is
+     * exceeded.
+     */
+    public static SchedulePhase emitFrontEnd(Providers providers, TargetDescription target, StructuredGraph graph, Assumptions assumptions, Map<ResolvedJavaMethod, StructuredGraph> cache,
+                    PhaseSuite<HighTierContext> graphBuilderSuite, OptimisticOptimizations optimisticOpts, ProfilingInfo profilingInfo, SpeculationLog speculationLog, Suites suites,
+                    CompilationBudget budget) {
         try (Scope s = Debug.scope("FrontEnd"); TimerCloseable a = FrontEnd.start()) {
             if (speculationLog != null) {
                 speculationLog.collectFailedSpeculations();
             }
 
-            HighTierContext highTierContext = new HighTierContext(providers, assumptions, cache, graphBuilderSuite, optimisticOpts);
+            HighTierContext highTierContext = new HighTierContext(providers, assumptions, cache, graphBuilderSuite, optimisticOpts, budget);
             if (graph.start().next() == null) {
                 graphBuilderSuite.apply(graph, highTierContext);
                 new DeadCodeEliminationPhase(Optional).apply(graph);
@@ -255,11 +287,11 @@ public class GraalCompiler {
             suites.getHighTier().apply(graph, highTierContext);
             graph.maybeCompress();
 
-            MidTierContext midTierContext = new MidTierContext(providers, assumptions, target, optimisticOpts, profilingInfo, speculationLog);
+            MidTierContext midTierContext = new MidTierContext(providers, assumptions, target, optimisticOpts, profilingInfo, speculationLog, budget);
             suites.getMidTier().apply(graph, midTierContext);
             graph.maybeCompress();
 
-            LowTierContext lowTierContext = new LowTierContext(providers, assumptions, target);
+            LowTierContext lowTierContext = new LowTierContext(providers, assumptions, target, budget);
             suites.getLowTier().apply(graph, lowTierContext);
             graph.maybeCompress();
 
@@ -278,7 +310,12 @@ public class GraalCompiler {
             LIRGenerationResult lirGen = null;
             lirGen = emitLIR(backend, target, schedule, graph, stub, cc, registerConfig);
             try (Scope s = Debug.scope("CodeGen", lirGen)) {
-                emitCode(backend, assumptions, lirGen, compilationResult, installedCodeOwner, factory);
+                CompilationTelemetry.Phase telemetry = CompilationTelemetry.beginPhase("CodeGen", graph.getNodeCount());
+                try {
+                    emitCode(backend, assumptions, lirGen, compilationResult, installedCodeOwner, factory);
+                } finally {
+                    endTelemetry(telemetry, graph, lirGen.getLIR());
+                }
             } catch (Throwable e) {
                 throw Debug.handle(e);
             }
@@ -310,9 +347,20 @@ public class GraalCompiler {
         try (Scope ds = Debug.scope("MidEnd")) {
             try (Scope s = Debug.scope("ComputeLinearScanOrder")) {
                 codeEmittingOrder = ComputeBlockOrder.computeCodeEmittingOrder(blocks.size(), startBlock);
+                if (HotColdSplitting.getValue()) {
+                    codeEmittingOrder = ComputeBlockOrder.splitColdBlocks(codeEmittingOrder);
+                }
                 linearScanOrder = ComputeBlockOrder.computeLinearScanOrder(blocks.size(), startBlock);
 
                 lir = new LIR(schedule.getCFG(), linearScanOrder, codeEmittingOrder);
+                if (HotColdSplitting.getValue()) {
+                    for (Block b : codeEmittingOrder) {
+                        if (ComputeBlockOrder.isCold(b)) {
+                            lir.setFirstColdBlock(b);
+                            break;
+                        }
+                    }
+                }
                 Debug.dump(lir, "After linear scan order");
             } catch (Throwable e) {
                 throw Debug.handle(e);
@@ -327,10 +375,15 @@ public class GraalCompiler {
             NodeLIRBuilderTool nodeLirGen = backend.newNodeLIRBuilder(graph, lirGen);
 
             try (Scope s = Debug.scope("LIRGen", lirGen)) {
-                for (Block b : linearScanOrder) {
-                    emitBlock(nodeLirGen, lirGenRes, b, graph, schedule.getBlockToNodesMap());
+                CompilationTelemetry.Phase telemetry = CompilationTelemetry.beginPhase("LIRGen", graph.getNodeCount());
+                try {
+                    for (Block b : linearScanOrder) {
+                        emitBlock(nodeLirGen, lirGenRes, b, graph, schedule.getBlockToNodesMap());
+                    }
+                    lirGen.beforeRegisterAllocation();
+                } finally {
+                    endTelemetry(telemetry, graph, lir);
                 }
-                lirGen.beforeRegisterAllocation();
 
                 Debug.dump(lir, "After LIR generation");
             } catch (Throwable e) {
@@ -339,7 +392,12 @@ public class GraalCompiler {
 
             if (ConstantLoadOptimization.Options.ConstantLoadOptimization.getValue()) {
                 try (Scope s = Debug.scope("ConstantLoadOptimization", lir)) {
-                    ConstantLoadOptimization.optimize(lirGenRes.getLIR(), lirGen);
+                    CompilationTelemetry.Phase telemetry = CompilationTelemetry.beginPhase("ConstantLoadOptimization", graph.getNodeCount());
+                    try {
+                        ConstantLoadOptimization.optimize(lirGenRes.getLIR(), lirGen);
+                    } finally {
+                        endTelemetry(telemetry, graph, lir);
+                    }
                     Debug.dump(lir, "After constant load optimization");
                 } catch (Throwable e) {
                     throw Debug.handle(e);
@@ -347,23 +405,33 @@ public class GraalCompiler {
             }
 
             try (Scope s = Debug.scope("Allocator", nodeLirGen)) {
-                if (backend.shouldAllocateRegisters()) {
-                    LinearScan.allocate(target, lirGenRes);
-                } else {
-                    // build frame map for targets that do not allocate registers
-                    lirGenRes.buildFrameMap();
+                CompilationTelemetry.Phase telemetry = CompilationTelemetry.beginPhase("Allocator", graph.getNodeCount());
+                try {
+                    if (backend.shouldAllocateRegisters()) {
+                        LinearScan.allocate(target, lirGenRes);
+                    } else {
+                        // build frame map for targets that do not allocate registers
+                        lirGenRes.buildFrameMap();
+                    }
+                } finally {
+                    endTelemetry(telemetry, graph, lir);
                 }
             } catch (Throwable e) {
                 throw Debug.handle(e);
             }
 
             try (Scope s = Debug.scope("ControlFlowOptimizations")) {
-                EdgeMoveOptimizer.optimize(lir);
-                ControlFlowOptimizer.optimize(lir, codeEmittingOrder);
-                if (lirGen.canEliminateRedundantMoves()) {
-                    RedundantMoveElimination.optimize(lir, frameMapBuilder);
+                CompilationTelemetry.Phase telemetry = CompilationTelemetry.beginPhase("ControlFlowOptimizations", graph.getNodeCount());
+                try {
+                    EdgeMoveOptimizer.optimize(lir);
+                    ControlFlowOptimizer.optimize(lir, codeEmittingOrder);
+                    if (lirGen.canEliminateRedundantMoves()) {
+                        RedundantMoveElimination.optimize(lir, frameMapBuilder);
+                    }
+                    NullCheckOptimizer.optimize(lir, target.implicitNullCheckLimit);
+                } finally {
+                    endTelemetry(telemetry, graph, lir);
                 }
-                NullCheckOptimizer.optimize(lir, target.implicitNullCheckLimit);
 
                 Debug.dump(lir, "After control flow optimization");
             } catch (Throwable e) {
@@ -375,6 +443,12 @@ public class GraalCompiler {
         }
     }
 
+    private static void endTelemetry(CompilationTelemetry.Phase telemetry, StructuredGraph graph, LIR lir) {
+        if (telemetry != null) {
+            telemetry.end(graph.getNodeCount(), lir.getInstructionCount());
+        }
+    }
+
     public static void emitCode(Backend backend, Assumptions assumptions, LIRGenerationResult lirGenRes, CompilationResult compilationResult, ResolvedJavaMethod installedCodeOwner,
                     CompilationResultBuilderFactory factory) {
         FrameMap frameMap = lirGenRes.getFrameMap();
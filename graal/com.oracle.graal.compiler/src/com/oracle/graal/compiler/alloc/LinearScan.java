@@ -29,6 +29,9 @@ import static com.oracle.graal.compiler.common.cfg.AbstractControlFlowGraph.*;
 import static com.oracle.graal.lir.LIRValueUtil.*;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+import java.util.stream.*;
 
 import com.oracle.graal.alloc.*;
 import com.oracle.graal.api.code.*;
@@ -74,6 +77,8 @@ public final class LinearScan {
         // @formatter:off
         @Option(help = "Enable spill position optimization")
         public static final OptionValue<Boolean> LSRAOptimizeSpillPosition = new OptionValue<>(true);
+        @Option(help = "Minimum number of LIR instructions for computing live sets in parallel")
+        public static final OptionValue<Integer> LSRAParallelLivenessThreshold = new OptionValue<>(20000);
         // @formatter:on
     }
 
@@ -610,7 +615,7 @@ public final class LinearScan {
      * Numbers all instructions in all blocks. The numbering follows the
      * {@linkplain ComputeBlockOrder linear scan order}.
      */
-    void numberInstructions() {
+    public void numberInstructions() {
 
         intervalsSize = operandSize();
         intervals = new Interval[intervalsSize + (intervalsSize >> SPLIT_INTERVALS_CAPACITY_RIGHT_SHIFT)];
@@ -658,92 +663,134 @@ public final class LinearScan {
         assert (index << 1) == opId : "must match: " + (index << 1);
     }
 
+    /**
+     * Gets the pool in which the live sets are computed in parallel, or null if they are computed
+     * sequentially. Computing them in parallel only pays off for methods with many instructions.
+     */
+    private ForkJoinPool livenessPool() {
+        if (opIdToInstructionMap.length >= Options.LSRAParallelLivenessThreshold.getValue() && ForkJoinPool.getCommonPoolParallelism() > 1) {
+            return ForkJoinPool.commonPool();
+        }
+        return null;
+    }
+
+    /**
+     * Computes the local and global live sets of all blocks. The instructions must have been
+     * {@linkplain #numberInstructions() numbered} before.
+     *
+     * @param pool the pool in which the live sets are computed in parallel, or null if they are
+     *            computed sequentially
+     */
+    public void computeLiveSets(ForkJoinPool pool) {
+        computeLocalLiveSets(pool);
+        computeGlobalLiveSets(pool);
+    }
+
     /**
      * Computes local live sets (i.e. {@link BlockData#liveGen} and {@link BlockData#liveKill})
-     * separately for each block.
+     * separately for each block. The blocks are independent of each other and are therefore
+     * processed in parallel if a {@code pool} is given.
      */
-    void computeLocalLiveSets() {
+    void computeLocalLiveSets(ForkJoinPool pool) {
         int liveSize = liveSetSize();
+        int numBlocks = blockCount();
 
         intervalInLoop = new BitMap2D(operandSize(), numLoops());
 
+        BitSet[] liveGens = new BitSet[numBlocks];
+        BitSet[] liveKills = new BitSet[numBlocks];
+        BitSet[] loopOperands = new BitSet[numBlocks];
+        IntConsumer computeBlock = i -> {
+            liveGens[i] = new BitSet(liveSize);
+            liveKills[i] = new BitSet(liveSize);
+            loopOperands[i] = new BitSet();
+            computeLocalLiveSets(blockAt(i), liveGens[i], liveKills[i], loopOperands[i]);
+        };
+        if (pool == null) {
+            IntStream.range(0, numBlocks).forEach(computeBlock);
+        } else {
+            // a parallel stream that is started by a task of a pool runs in that pool
+            pool.submit(() -> IntStream.range(0, numBlocks).parallel().forEach(computeBlock)).join();
+        }
+
         // iterate all blocks
-        for (final AbstractBlock<?> block : sortedBlocks) {
-            try (Indent indent = Debug.logAndIndent("compute local live sets for block %d", block.getId())) {
+        for (int i = 0; i < numBlocks; i++) {
+            AbstractBlock<?> block = blockAt(i);
+            if (block.getLoop() != null) {
+                int loopIndex = block.getLoop().getIndex();
+                BitSet operands = loopOperands[i];
+                for (int operandNum = operands.nextSetBit(0); operandNum >= 0; operandNum = operands.nextSetBit(operandNum + 1)) {
+                    intervalInLoop.setBit(operandNum, loopIndex);
+                }
+            }
 
-                final BitSet liveGen = new BitSet(liveSize);
-                final BitSet liveKill = new BitSet(liveSize);
+            BlockData blockSets = blockData.get(block);
+            blockSets.liveGen = liveGens[i];
+            blockSets.liveKill = liveKills[i];
+            blockSets.liveIn = new BitSet(liveSize);
+            blockSets.liveOut = new BitSet(liveSize);
 
-                List<LIRInstruction> instructions = ir.getLIRforBlock(block);
-                int numInst = instructions.size();
+            Debug.log("liveGen  B%d %s", block.getId(), blockSets.liveGen);
+            Debug.log("liveKill B%d %s", block.getId(), blockSets.liveKill);
+        }
+    }
 
-                ValueConsumer useConsumer = (operand, mode, flags) -> {
-                    if (isVariable(operand)) {
-                        int operandNum = operandNumber(operand);
-                        if (!liveKill.get(operandNum)) {
-                            liveGen.set(operandNum);
-                            Debug.log("liveGen for operand %d", operandNum);
-                        }
-                        if (block.getLoop() != null) {
-                            intervalInLoop.setBit(operandNum, block.getLoop().getIndex());
-                        }
-                    }
+    /**
+     * Computes the local live sets of a single block. This method must not modify any state other
+     * than the given sets so that it can be called for several blocks concurrently.
+     *
+     * @param loopOperands the set of variables that are used or defined in {@code block}
+     */
+    private void computeLocalLiveSets(AbstractBlock<?> block, BitSet liveGen, BitSet liveKill, BitSet loopOperands) {
+        List<LIRInstruction> instructions = ir.getLIRforBlock(block);
+        int numInst = instructions.size();
 
-                    if (DetailedAsserts.getValue()) {
-                        verifyInput(block, liveKill, operand);
-                    }
-                };
-                ValueConsumer stateConsumer = (operand, mode, flags) -> {
-                    int operandNum = operandNumber(operand);
-                    if (!liveKill.get(operandNum)) {
-                        liveGen.set(operandNum);
-                        Debug.log("liveGen in state for operand %d", operandNum);
-                    }
-                };
-                ValueConsumer defConsumer = (operand, mode, flags) -> {
-                    if (isVariable(operand)) {
-                        int varNum = operandNumber(operand);
-                        liveKill.set(varNum);
-                        Debug.log("liveKill for operand %d", varNum);
-                        if (block.getLoop() != null) {
-                            intervalInLoop.setBit(varNum, block.getLoop().getIndex());
-                        }
-                    }
+        ValueConsumer useConsumer = (operand, mode, flags) -> {
+            if (isVariable(operand)) {
+                int operandNum = operandNumber(operand);
+                if (!liveKill.get(operandNum)) {
+                    liveGen.set(operandNum);
+                }
+                loopOperands.set(operandNum);
+            }
 
-                    if (DetailedAsserts.getValue()) {
-                        // fixed intervals are never live at block boundaries, so
-                        // they need not be processed in live sets
-                        // process them only in debug mode so that this can be checked
-                        verifyTemp(liveKill, operand);
-                    }
-                };
-
-                // iterate all instructions of the block
-                for (int j = 0; j < numInst; j++) {
-                    final LIRInstruction op = instructions.get(j);
-
-                    try (Indent indent2 = Debug.logAndIndent("handle op %d", op.id())) {
-                        op.visitEachInput(useConsumer);
-                        op.visitEachAlive(useConsumer);
-                        // Add uses of live locals from interpreter's point of view for proper debug
-                        // information generation
-                        op.visitEachState(stateConsumer);
-                        op.visitEachTemp(defConsumer);
-                        op.visitEachOutput(defConsumer);
-                    }
-                } // end of instruction iteration
+            if (DetailedAsserts.getValue()) {
+                verifyInput(block, liveKill, operand);
+            }
+        };
+        ValueConsumer stateConsumer = (operand, mode, flags) -> {
+            int operandNum = operandNumber(operand);
+            if (!liveKill.get(operandNum)) {
+                liveGen.set(operandNum);
+            }
+        };
+        ValueConsumer defConsumer = (operand, mode, flags) -> {
+            if (isVariable(operand)) {
+                int varNum = operandNumber(operand);
+                liveKill.set(varNum);
+                loopOperands.set(varNum);
+            }
 
-                BlockData blockSets = blockData.get(block);
-                blockSets.liveGen = liveGen;
-                blockSets.liveKill = liveKill;
-                blockSets.liveIn = new BitSet(liveSize);
-                blockSets.liveOut = new BitSet(liveSize);
+            if (DetailedAsserts.getValue()) {
+                // fixed intervals are never live at block boundaries, so
+                // they need not be processed in live sets
+                // process them only in debug mode so that this can be checked
+                verifyTemp(liveKill, operand);
+            }
+        };
 
-                Debug.log("liveGen  B%d %s", block.getId(), blockSets.liveGen);
-                Debug.log("liveKill B%d %s", block.getId(), blockSets.liveKill);
+        // iterate all instructions of the block
+        for (int j = 0; j < numInst; j++) {
+            final LIRInstruction op = instructions.get(j);
 
-            }
-        } // end of block iteration
+            op.visitEachInput(useConsumer);
+            op.visitEachAlive(useConsumer);
+            // Add uses of live locals from interpreter's point of view for proper debug
+            // information generation
+            op.visitEachState(stateConsumer);
+            op.visitEachTemp(defConsumer);
+            op.visitEachOutput(defConsumer);
+        } // end of instruction iteration
     }
 
     private void verifyTemp(BitSet liveKill, Value operand) {
@@ -772,89 +819,203 @@ public final class LinearScan {
 
     /**
      * Performs a backward dataflow analysis to compute global live sets (i.e.
-     * {@link BlockData#liveIn} and {@link BlockData#liveOut}) for each block.
+     * {@link BlockData#liveIn} and {@link BlockData#liveOut}) for each block. The operands are
+     * processed in parallel if a {@code pool} is given.
      */
-    void computeGlobalLiveSets() {
+    void computeGlobalLiveSets(ForkJoinPool pool) {
         try (Indent indent = Debug.logAndIndent("compute global live sets")) {
             int numBlocks = blockCount();
-            boolean changeOccurred;
-            boolean changeOccurredInBlock;
-            int iterationCount = 0;
-            BitSet liveOut = new BitSet(liveSetSize()); // scratch set for calculations
+            if (pool != null) {
+                computeGlobalLiveSetsParallel(pool);
+            } else {
+                computeGlobalLiveSetsSequential();
+            }
+
+            if (DetailedAsserts.getValue()) {
+                verifyLiveness();
+            }
 
-            // Perform a backward dataflow analysis to compute liveOut and liveIn for each block.
-            // The loop is executed until a fixpoint is reached (no changes in an iteration)
-            do {
-                changeOccurred = false;
+            // check that the liveIn set of the first block is empty
+            AbstractBlock<?> startBlock = ir.getControlFlowGraph().getStartBlock();
+            if (blockData.get(startBlock).liveIn.cardinality() != 0) {
+                if (DetailedAsserts.getValue()) {
+                    reportFailure(numBlocks);
+                }
+                // bailout if this occurs in product mode.
+                throw new GraalInternalError("liveIn set of first block must be empty: " + blockData.get(startBlock).liveIn);
+            }
+        }
+    }
 
-                try (Indent indent2 = Debug.logAndIndent("new iteration %d", iterationCount)) {
+    private void computeGlobalLiveSetsSequential() {
+        int numBlocks = blockCount();
+        boolean changeOccurred;
+        boolean changeOccurredInBlock;
+        int iterationCount = 0;
+        BitSet liveOut = new BitSet(liveSetSize()); // scratch set for calculations
 
-                    // iterate all blocks in reverse order
-                    for (int i = numBlocks - 1; i >= 0; i--) {
-                        AbstractBlock<?> block = blockAt(i);
-                        BlockData blockSets = blockData.get(block);
+        // Perform a backward dataflow analysis to compute liveOut and liveIn for each block.
+        // The loop is executed until a fixpoint is reached (no changes in an iteration)
+        do {
+            changeOccurred = false;
 
-                        changeOccurredInBlock = false;
+            try (Indent indent2 = Debug.logAndIndent("new iteration %d", iterationCount)) {
 
-                        // liveOut(block) is the union of liveIn(sux), for successors sux of block
-                        int n = block.getSuccessorCount();
-                        if (n > 0) {
-                            liveOut.clear();
-                            // block has successors
-                            if (n > 0) {
-                                for (AbstractBlock<?> successor : block.getSuccessors()) {
-                                    liveOut.or(blockData.get(successor).liveIn);
-                                }
-                            }
+                // iterate all blocks in reverse order
+                for (int i = numBlocks - 1; i >= 0; i--) {
+                    AbstractBlock<?> block = blockAt(i);
+                    BlockData blockSets = blockData.get(block);
 
-                            if (!blockSets.liveOut.equals(liveOut)) {
-                                // A change occurred. Swap the old and new live out
-                                // sets to avoid copying.
-                                BitSet temp = blockSets.liveOut;
-                                blockSets.liveOut = liveOut;
-                                liveOut = temp;
+                    changeOccurredInBlock = false;
 
-                                changeOccurred = true;
-                                changeOccurredInBlock = true;
+                    // liveOut(block) is the union of liveIn(sux), for successors sux of block
+                    int n = block.getSuccessorCount();
+                    if (n > 0) {
+                        liveOut.clear();
+                        // block has successors
+                        if (n > 0) {
+                            for (AbstractBlock<?> successor : block.getSuccessors()) {
+                                liveOut.or(blockData.get(successor).liveIn);
                             }
                         }
 
-                        if (iterationCount == 0 || changeOccurredInBlock) {
-                            // liveIn(block) is the union of liveGen(block) with (liveOut(block) &
-                            // !liveKill(block))
-                            // note: liveIn has to be computed only in first iteration
-                            // or if liveOut has changed!
-                            BitSet liveIn = blockSets.liveIn;
-                            liveIn.clear();
-                            liveIn.or(blockSets.liveOut);
-                            liveIn.andNot(blockSets.liveKill);
-                            liveIn.or(blockSets.liveGen);
-
-                            Debug.log("block %d: livein = %s,  liveout = %s", block.getId(), liveIn, blockSets.liveOut);
+                        if (!blockSets.liveOut.equals(liveOut)) {
+                            // A change occurred. Swap the old and new live out
+                            // sets to avoid copying.
+                            BitSet temp = blockSets.liveOut;
+                            blockSets.liveOut = liveOut;
+                            liveOut = temp;
+
+                            changeOccurred = true;
+                            changeOccurredInBlock = true;
                         }
                     }
-                    iterationCount++;
 
-                    if (changeOccurred && iterationCount > 50) {
-                        throw new BailoutException("too many iterations in computeGlobalLiveSets");
+                    if (iterationCount == 0 || changeOccurredInBlock) {
+                        // liveIn(block) is the union of liveGen(block) with (liveOut(block) &
+                        // !liveKill(block))
+                        // note: liveIn has to be computed only in first iteration
+                        // or if liveOut has changed!
+                        BitSet liveIn = blockSets.liveIn;
+                        liveIn.clear();
+                        liveIn.or(blockSets.liveOut);
+                        liveIn.andNot(blockSets.liveKill);
+                        liveIn.or(blockSets.liveGen);
+
+                        Debug.log("block %d: livein = %s,  liveout = %s", block.getId(), liveIn, blockSets.liveOut);
                     }
                 }
-            } while (changeOccurred);
+                iterationCount++;
 
-            if (DetailedAsserts.getValue()) {
-                verifyLiveness();
+                if (changeOccurred && iterationCount > 50) {
+                    throw new BailoutException("too many iterations in computeGlobalLiveSets");
+                }
             }
+        } while (changeOccurred);
+    }
 
-            // check that the liveIn set of the first block is empty
-            AbstractBlock<?> startBlock = ir.getControlFlowGraph().getStartBlock();
-            if (blockData.get(startBlock).liveIn.cardinality() != 0) {
-                if (DetailedAsserts.getValue()) {
-                    reportFailure(numBlocks);
-                }
-                // bailout if this occurs in product mode.
-                throw new GraalInternalError("liveIn set of first block must be empty: " + blockData.get(startBlock).liveIn);
+    /**
+     * Computes the same global live sets as {@link #computeGlobalLiveSetsSequential()}. The data
+     * flow equations of the operands are independent of each other, so the operands are divided
+     * into ranges of words that are each solved by the sequential algorithm in parallel. Since
+     * every range is iterated in the same block order, the sets and the number of iterations are
+     * identical to the sequential computation.
+     */
+    private void computeGlobalLiveSetsParallel(ForkJoinPool pool) {
+        int numBlocks = blockCount();
+        int numWords = (liveSetSize() + Long.SIZE - 1) / Long.SIZE;
+
+        BlockMap<Integer> blockIndexes = new BlockMap<>(ir.getControlFlowGraph());
+        for (int i = 0; i < numBlocks; i++) {
+            blockIndexes.put(blockAt(i), i);
+        }
+        int[][] successors = new int[numBlocks][];
+        long[][] liveGen = new long[numBlocks][];
+        long[][] liveKill = new long[numBlocks][];
+        long[][] liveIn = new long[numBlocks][numWords];
+        long[][] liveOut = new long[numBlocks][numWords];
+        for (int i = 0; i < numBlocks; i++) {
+            AbstractBlock<?> block = blockAt(i);
+            BlockData blockSets = blockData.get(block);
+            liveGen[i] = Arrays.copyOf(blockSets.liveGen.toLongArray(), numWords);
+            liveKill[i] = Arrays.copyOf(blockSets.liveKill.toLongArray(), numWords);
+            successors[i] = new int[block.getSuccessorCount()];
+            for (int j = 0; j < successors[i].length; j++) {
+                successors[i][j] = blockIndexes.get(block.getSuccessors().get(j));
             }
         }
+
+        // ranges are at least a cache line wide to avoid false sharing
+        int wordsPerRange = Math.max(8, (numWords + pool.getParallelism() - 1) / pool.getParallelism());
+        int numRanges = (numWords + wordsPerRange - 1) / wordsPerRange;
+        boolean converged = pool.submit(() -> IntStream.range(0, numRanges).parallel().allMatch(range -> {
+            int fromWord = range * wordsPerRange;
+            int toWord = Math.min(fromWord + wordsPerRange, numWords);
+            return computeGlobalLiveWords(fromWord, toWord, successors, liveGen, liveKill, liveIn, liveOut);
+        })).join();
+        if (!converged) {
+            throw new BailoutException("too many iterations in computeGlobalLiveSets");
+        }
+
+        for (int i = 0; i < numBlocks; i++) {
+            AbstractBlock<?> block = blockAt(i);
+            BlockData blockSets = blockData.get(block);
+            blockSets.liveIn = BitSet.valueOf(liveIn[i]);
+            blockSets.liveOut = BitSet.valueOf(liveOut[i]);
+            Debug.log("block %d: livein = %s,  liveout = %s", block.getId(), blockSets.liveIn, blockSets.liveOut);
+        }
+    }
+
+    /**
+     * Performs the backward data flow analysis of {@link #computeGlobalLiveSetsSequential()} for
+     * the words {@code [fromWord, toWord)} of the live sets. Blocks are identified by their index
+     * in the linear scan order.
+     *
+     * @return false if no fixpoint was reached within the iteration limit
+     */
+    private static boolean computeGlobalLiveWords(int fromWord, int toWord, int[][] successors, long[][] liveGen, long[][] liveKill, long[][] liveIn, long[][] liveOut) {
+        int numBlocks = successors.length;
+        int iterationCount = 0;
+        boolean changeOccurred;
+        do {
+            changeOccurred = false;
+
+            // iterate all blocks in reverse order
+            for (int i = numBlocks - 1; i >= 0; i--) {
+                boolean changeOccurredInBlock = false;
+
+                // liveOut(block) is the union of liveIn(sux), for successors sux of block
+                int[] blockSuccessors = successors[i];
+                if (blockSuccessors.length > 0) {
+                    long[] blockLiveOut = liveOut[i];
+                    for (int w = fromWord; w < toWord; w++) {
+                        long word = 0;
+                        for (int successor : blockSuccessors) {
+                            word |= liveIn[successor][w];
+                        }
+                        if (word != blockLiveOut[w]) {
+                            blockLiveOut[w] = word;
+                            changeOccurredInBlock = true;
+                        }
+                    }
+                }
+
+                if (iterationCount == 0 || changeOccurredInBlock) {
+                    // liveIn(block) is the union of liveGen(block) with (liveOut(block) &
+                    // !liveKill(block))
+                    for (int w = fromWord; w < toWord; w++) {
+                        liveIn[i][w] = (liveOut[i][w] & ~liveKill[i][w]) | liveGen[i][w];
+                    }
+                }
+                changeOccurred |= changeOccurredInBlock;
+            }
+            iterationCount++;
+
+            if (changeOccurred && iterationCount > 50) {
+                return false;
+            }
+        } while (changeOccurred);
+        return true;
     }
 
     private static NodeLIRBuilder getNodeLIRGeneratorFromDebugContext() {
@@ -1818,8 +1979,7 @@ public final class LinearScan {
             try (Scope s = Debug.scope("LifetimeAnalysis")) {
                 numberInstructions();
                 printLir("Before register allocation", true);
-                computeLocalLiveSets();
-                computeGlobalLiveSets();
+                computeLiveSets(livenessPool());
                 buildIntervals();
                 sortIntervalsBeforeAllocation();
             } catch (Throwable e) {
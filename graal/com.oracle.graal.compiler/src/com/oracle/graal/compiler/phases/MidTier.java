@@ -63,6 +63,10 @@ public class MidTier extends PhaseSuite<MidTierContext> {
             appendPhase(new OptimizeGuardAnchorsPhase());
         }
 
+        if (OptGuardMotion.getValue()) {
+            appendPhase(new GuardMotionPhase());
+        }
+
         if (ConditionalElimination.getValue() && OptCanonicalizer.getValue()) {
             appendPhase(new IterativeConditionalEliminationPhase(canonicalizer));
         }
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.graph.test;
+
+import static org.junit.Assert.*;
+
+import org.junit.*;
+
+import com.oracle.graal.graph.*;
+import com.oracle.graal.nodeinfo.*;
+
+public class ChangedNodesTest {
+
+    @NodeInfo
+    static class Def extends Node {
+
+        public static Def create() {
+            return new Def();
+        }
+
+        protected Def() {
+        }
+    }
+
+    @NodeInfo
+    static class Use extends Node {
+        @Input Def in;
+
+        public static Use create(Def in) {
+            return new Use(in);
+        }
+
+        protected Use(Def in) {
+            this.in = in;
+        }
+    }
+
+    private final Object owner = new Object();
+
+    @Test
+    public void testUntracked() {
+        Graph graph = new Graph();
+        graph.add(Def.create());
+        assertNull(graph.getChangedNodes(owner));
+    }
+
+    @Test
+    public void testOtherOwner() {
+        Graph graph = new Graph();
+        graph.trackChanges(owner);
+        graph.add(Def.create());
+        assertNull(graph.getChangedNodes(new Object()));
+        assertNotNull(graph.getChangedNodes(owner));
+    }
+
+    @Test
+    public void testAddedNodes() {
+        Graph graph = new Graph();
+        Def def0 = graph.add(Def.create());
+        graph.trackChanges(owner);
+        Def def1 = graph.add(Def.create());
+        Use use = graph.add(Use.create(def1));
+
+        NodeBitMap changed = graph.getChangedNodes(owner);
+        assertFalse(changed.isMarked(def0));
+        assertTrue(changed.isMarked(def1));
+        assertTrue(changed.isMarked(use));
+    }
+
+    @Test
+    public void testReplacedInput() {
+        Graph graph = new Graph();
+        Def def0 = graph.add(Def.create());
+        Def def1 = graph.add(Def.create());
+        Def def2 = graph.add(Def.create());
+        Use use = graph.add(Use.create(def0));
+        graph.trackChanges(owner);
+
+        def0.replaceAtUsages(def1);
+
+        NodeBitMap changed = graph.getChangedNodes(owner);
+        assertTrue(use.in == def1);
+        assertTrue(changed.isMarked(def0));
+        assertTrue(changed.isMarked(def1));
+        assertFalse(changed.isMarked(def2));
+    }
+
+    @Test
+    public void testTrackChangesClears() {
+        Graph graph = new Graph();
+        graph.trackChanges(owner);
+        Def def = graph.add(Def.create());
+        graph.trackChanges(owner);
+        assertFalse(graph.getChangedNodes(owner).isMarked(def));
+    }
+}
@@ -90,6 +90,56 @@ public class NodeUsagesTests {
         assertThat(def1.usages(), isNotEmpty());
     }
 
+    @Test
+    public void testReplaceAtUsagesWithExistingUsages() {
+        Graph graph = new Graph();
+        Def def0 = graph.add(Def.create());
+        Def def1 = graph.add(Def.create());
+        Use[] uses0 = new Use[7];
+        for (int i = 0; i < uses0.length; i++) {
+            uses0[i] = graph.add(Use.create(def0, null, null));
+        }
+        Use[] uses1 = new Use[5];
+        for (int i = 0; i < uses1.length; i++) {
+            uses1[i] = graph.add(Use.create(null, def1, null));
+        }
+
+        def0.replaceAtUsages(def1);
+
+        assertThat(def0.usages(), isEmpty());
+        assertEquals(uses0.length + uses1.length, def1.usages().count());
+        for (Use use : uses0) {
+            assertThat(def1.usages(), contains(use));
+            assertTrue(use.in0 == def1);
+        }
+        for (Use use : uses1) {
+            assertThat(def1.usages(), contains(use));
+        }
+    }
+
+    @Test
+    public void testRemoveUsages() {
+        Graph graph = new Graph();
+        Def def0 = graph.add(Def.create());
+        Use[] uses = new Use[10];
+        for (int i = 0; i < uses.length; i++) {
+            uses[i] = graph.add(Use.create(def0, null, null));
+        }
+        for (int i = 0; i < uses.length; i++) {
+            uses[i].safeDelete();
+            assertEquals(uses.length - i - 1, def0.usages().count());
+            for (int j = i + 1; j < uses.length; j++) {
+                assertThat(def0.usages(), contains(uses[j]));
+            }
+        }
+        assertThat(def0.usages(), isEmpty());
+
+        // the usage list must be intact when it is grown again
+        Use use = graph.add(Use.create(def0, def0, def0));
+        assertEquals(3, def0.usages().count());
+        assertThat(def0.usages(), contains(use));
+    }
+
     @Test
     public void testReplaceAtUsagesWithPredicateAll() {
         Graph graph = new Graph();
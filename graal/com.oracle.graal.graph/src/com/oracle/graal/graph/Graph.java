@@ -80,6 +80,29 @@ public class Graph {
 
     NodeEventListener nodeEventListener;
 
+    /**
+     * The nodes that were added or whose edges, usages or stamps changed since
+     * {@link #trackChanges(Object)} was last called, or null if changes are not being tracked.
+     */
+    private NodeBitMap changedNodes;
+
+    /**
+     * The client on whose behalf {@link #changedNodes} is maintained.
+     */
+    private Object changedNodesOwner;
+
+    /**
+     * Arrays released from {@link Node#extraUsages} that can be reused for other nodes of this
+     * graph, bucketed by size class. Size class {@code i} holds arrays of length
+     * {@code MIN_USAGES_LENGTH << i}. Allocated lazily.
+     */
+    private Node[][][] freeUsages;
+    private int[] freeUsagesCount;
+
+    private static final int MIN_USAGES_LENGTH = 4;
+    private static final int USAGES_SIZE_CLASSES = 8;
+    private static final int MAX_FREE_USAGES_PER_SIZE_CLASS = 16;
+
     /**
      * Used to global value number {@link ValueNumberable} {@linkplain NodeClass#isLeafNode() leaf}
      * nodes.
@@ -423,6 +446,50 @@ public class Graph {
         }
     }
 
+    /**
+     * Starts recording the nodes that change from now on. Unlike a {@link NodeEventListener}, the
+     * record is kept until the next call to this method (possibly by another client) so that a
+     * client can find out which nodes changed since the last time it processed this graph.
+     *
+     * @param owner identifies the client and its configuration. Only a client passing an
+     *            {@linkplain Object#equals(Object) equal} object to {@link #getChangedNodes(Object)}
+     *            gets to see the changes.
+     */
+    public void trackChanges(Object owner) {
+        assert owner != null;
+        if (changedNodes == null) {
+            changedNodes = createNodeBitMap();
+        } else {
+            changedNodes.clearAll();
+        }
+        changedNodesOwner = owner;
+    }
+
+    /**
+     * Gets the nodes that were added or whose inputs, successors, predecessor, usages or stamp
+     * changed since the last call to {@link #trackChanges(Object)}.
+     *
+     * @param owner the object passed to {@link #trackChanges(Object)}
+     * @return the changed nodes or null if no changes have been tracked on behalf of {@code owner}
+     *         since the last call to {@link #trackChanges(Object)}, for example because another
+     *         client started tracking or because the graph was compressed
+     */
+    public NodeBitMap getChangedNodes(Object owner) {
+        if (changedNodes != null && owner.equals(changedNodesOwner)) {
+            return changedNodes;
+        }
+        return null;
+    }
+
+    /**
+     * Records a change to a node if changes are {@linkplain #trackChanges(Object) tracked}.
+     */
+    public void markChanged(Node node) {
+        if (changedNodes != null && node != null && node.isAlive()) {
+            changedNodes.markAndGrow(node);
+        }
+    }
+
     /**
      * Registers a given {@link NodeEventListener} with this graph. This should be used in
      * conjunction with try-with-resources statement as follows:
@@ -673,6 +740,9 @@ public class Graph {
             Arrays.fill(nodeUsageModCounts, 0);
         }
         nodesSize = nextId;
+        // node ids have changed
+        changedNodes = null;
+        changedNodesOwner = null;
         compressions++;
         nodesDeletedBeforeLastCompression += nodesDeletedSinceLastCompression;
         nodesDeletedSinceLastCompression = 0;
@@ -758,11 +828,77 @@ public class Graph {
         }
 
         node.id = id;
+        markChanged(node);
         if (nodeEventListener != null) {
             nodeEventListener.nodeAdded(node);
         }
     }
 
+    private static final DebugMetric UsagesAllocated = Debug.metric("UsagesAllocated");
+    private static final DebugMetric UsagesReused = Debug.metric("UsagesReused");
+
+    /**
+     * Gets the length of the usage array that {@link #allocateUsages(int)} returns for a given
+     * minimum length.
+     */
+    static int usagesCapacity(int minLength) {
+        return Math.max(MIN_USAGES_LENGTH, Integer.highestOneBit(minLength - 1) << 1);
+    }
+
+    /**
+     * Gets an empty usage array with room for at least {@code minLength} entries, reusing an
+     * array previously {@linkplain #releaseUsages(Node[], int) released} if possible.
+     */
+    Node[] allocateUsages(int minLength) {
+        int length = usagesCapacity(minLength);
+        int sizeClass = Integer.numberOfTrailingZeros(length / MIN_USAGES_LENGTH);
+        if (freeUsages != null && sizeClass < USAGES_SIZE_CLASSES) {
+            int count = freeUsagesCount[sizeClass];
+            if (count > 0) {
+                Node[][] bucket = freeUsages[sizeClass];
+                Node[] result = bucket[--count];
+                bucket[count] = null;
+                freeUsagesCount[sizeClass] = count;
+                UsagesReused.increment();
+                return result;
+            }
+        }
+        UsagesAllocated.increment();
+        return new Node[length];
+    }
+
+    /**
+     * Makes a usage array that is no longer referenced by any node available for reuse.
+     *
+     * @param usages the array to release
+     * @param used the number of leading entries of {@code usages} that may be non-null
+     */
+    void releaseUsages(Node[] usages, int used) {
+        int length = usages.length;
+        if (length < MIN_USAGES_LENGTH || Integer.bitCount(length) != 1) {
+            return;
+        }
+        int sizeClass = Integer.numberOfTrailingZeros(length / MIN_USAGES_LENGTH);
+        if (sizeClass >= USAGES_SIZE_CLASSES) {
+            return;
+        }
+        if (freeUsages == null) {
+            freeUsages = new Node[USAGES_SIZE_CLASSES][][];
+            freeUsagesCount = new int[USAGES_SIZE_CLASSES];
+        }
+        Node[][] bucket = freeUsages[sizeClass];
+        if (bucket == null) {
+            bucket = new Node[MAX_FREE_USAGES_PER_SIZE_CLASS][];
+            freeUsages[sizeClass] = bucket;
+        }
+        int count = freeUsagesCount[sizeClass];
+        if (count < bucket.length) {
+            Arrays.fill(usages, 0, used, null);
+            bucket[count] = usages;
+            freeUsagesCount[sizeClass] = count + 1;
+        }
+    }
+
     void unregister(Node node) {
         assert !isFrozen();
         assert !node.isDeleted() : "cannot delete a node twice! node=" + node;
@@ -861,5 +997,7 @@ public class Graph {
 
     public void freeze() {
         this.isFrozen = true;
+        changedNodes = null;
+        changedNodesOwner = null;
     }
 }
@@ -168,11 +168,13 @@ public abstract class Node implements Cloneable, Formattable {
 
     /**
      * Head of usage list. The elements of the usage list in order are {@link #usage0},
-     * {@link #usage1} and {@link #extraUsages}. The first null entry terminates the list.
+     * {@link #usage1} and the first {@link #extraUsagesCount} entries of {@link #extraUsages}. The
+     * first null entry terminates the list.
      */
     Node usage0;
     Node usage1;
     Node[] extraUsages;
+    int extraUsagesCount;
 
     private Node predecessor;
 
@@ -186,6 +188,7 @@ public abstract class Node implements Cloneable, Formattable {
     final void init() {
         id = INITIAL_ID;
         extraUsages = NO_NODES;
+        extraUsagesCount = 0;
     }
 
     int id() {
@@ -239,40 +242,6 @@ public abstract class Node implements Cloneable, Formattable {
         return new NodeUsageIterable(this);
     }
 
-    /**
-     * Finds the index of the last non-null entry in a node array. The search assumes that all
-     * non-null entries precede the first null entry in the array.
-     *
-     * @param nodes the array to search
-     * @return the index of the last non-null entry in {@code nodes} if it exists, else -1
-     */
-    private static int indexOfLastNonNull(Node[] nodes) {
-        if (nodes.length == 0 || nodes[0] == null) {
-            return -1;
-        }
-        if (nodes[nodes.length - 1] != null) {
-            return nodes.length - 1;
-        }
-
-        // binary search
-        int low = 0;
-        int high = nodes.length - 1;
-        while (true) {
-            int mid = (low + high) >>> 1;
-            if (nodes[mid] == null) {
-                if (nodes[mid - 1] != null) {
-                    return mid - 1;
-                }
-                high = mid - 1;
-            } else {
-                if (mid == nodes.length - 1 || nodes[mid + 1] == null) {
-                    return mid;
-                }
-                low = mid + 1;
-            }
-        }
-    }
-
     /**
      * Adds a given node to this node's {@linkplain #usages() usages}.
      *
@@ -285,32 +254,96 @@ public abstract class Node implements Cloneable, Formattable {
         } else if (usage1 == null) {
             usage1 = node;
         } else {
-            int length = extraUsages.length;
-            if (length == 0) {
-                extraUsages = new Node[4];
-                extraUsages[0] = node;
-            } else {
-                int lastNonNull = indexOfLastNonNull(extraUsages);
-                if (lastNonNull == length - 1) {
-                    extraUsages = Arrays.copyOf(extraUsages, length * 2 + 1);
-                    extraUsages[length] = node;
-                } else if (lastNonNull == -1) {
-                    extraUsages[0] = node;
-                } else {
-                    extraUsages[lastNonNull + 1] = node;
-                }
+            if (extraUsagesCount == extraUsages.length) {
+                growExtraUsages(extraUsagesCount + 1);
             }
+            extraUsages[extraUsagesCount++] = node;
         }
     }
 
-    int usageCount() {
+    /**
+     * Adds all usages of {@code node} to this node's {@linkplain #usages() usages} and leaves
+     * {@code node} without usages. If this node has no usages, the usage storage of {@code node}
+     * is transferred as a whole instead of being copied.
+     */
+    private void takeUsages(Node node) {
+        int count = node.usageCount();
+        if (count == 0) {
+            return;
+        }
+        incUsageModCount();
+        node.incUsageModCount();
+        if (usage0 == null) {
+            releaseExtraUsages();
+            usage0 = node.usage0;
+            usage1 = node.usage1;
+            extraUsages = node.extraUsages;
+            extraUsagesCount = node.extraUsagesCount;
+            node.usage0 = null;
+            node.usage1 = null;
+            node.extraUsages = NO_NODES;
+            node.extraUsagesCount = 0;
+            return;
+        }
+        int extraCount = usageCount() + count - INLINE_USAGE_COUNT;
+        if (extraCount > extraUsages.length) {
+            growExtraUsages(extraCount);
+        }
+        for (int i = 0; i < count; i++) {
+            addUsage(node.getUsageAt(i));
+        }
+        node.clearUsages();
+    }
+
+    /**
+     * Replaces {@link #extraUsages} with an array that can hold at least {@code minLength}
+     * entries.
+     */
+    private void growExtraUsages(int minLength) {
+        Node[] newUsages = graph != null ? graph.allocateUsages(minLength) : new Node[Graph.usagesCapacity(minLength)];
+        System.arraycopy(extraUsages, 0, newUsages, 0, extraUsagesCount);
+        releaseExtraUsages();
+        extraUsages = newUsages;
+    }
+
+    /**
+     * Hands {@link #extraUsages} back to the graph for reuse by other nodes. The caller is
+     * responsible for resetting {@link #extraUsages} and {@link #extraUsagesCount}.
+     */
+    private void releaseExtraUsages() {
+        if (graph != null && extraUsages.length != 0) {
+            graph.releaseUsages(extraUsages, extraUsagesCount);
+        }
+    }
+
+    /**
+     * Gets the number of entries in this node's {@linkplain #usages() usage list}. A node appears
+     * once in this list for each input edge through which it uses this node.
+     */
+    public final int usageCount() {
         if (usage0 == null) {
             return 0;
         }
         if (usage1 == null) {
             return 1;
         }
-        return 2 + indexOfLastNonNull(extraUsages) + 1;
+        return INLINE_USAGE_COUNT + extraUsagesCount;
+    }
+
+    /**
+     * Gets the entry at a given index in this node's {@linkplain #usages() usage list}. Removing
+     * a usage moves the last entry into its place, so callers that remove usages while walking the
+     * list should do so from the end.
+     *
+     * @param index an index between 0 (inclusive) and {@link #usageCount()} (exclusive)
+     */
+    public final Node getUsageAt(int index) {
+        if (index == 0) {
+            return usage0;
+        } else if (index == 1) {
+            return usage1;
+        }
+        return extraUsages[index - INLINE_USAGE_COUNT];
     }
 
     /**
@@ -333,6 +366,7 @@ public abstract class Node implements Cloneable, Formattable {
         assert fromIndex < toIndex;
         int firstNullIndex = usageCount();
         assert toIndex <= firstNullIndex;
+        int newUsageCount = firstNullIndex - (toIndex - fromIndex);
         int i = fromIndex;
         int limit = toIndex;
         if (toIndex < firstNullIndex) {
@@ -356,7 +390,7 @@ public abstract class Node implements Cloneable, Formattable {
             }
             i++;
         }
-
+        extraUsagesCount = Math.max(0, newUsageCount - INLINE_USAGE_COUNT);
     }
 
     private void movUsageTo(int usageIndex, int toIndex) {
@@ -391,10 +425,9 @@ public abstract class Node implements Cloneable, Formattable {
         incUsageModCount();
         if (usage0 == node) {
             if (usage1 != null) {
-                int lastNonNull = indexOfLastNonNull(extraUsages);
-                if (lastNonNull >= 0) {
-                    usage0 = extraUsages[lastNonNull];
-                    extraUsages[lastNonNull] = null;
+                if (extraUsagesCount > 0) {
+                    usage0 = extraUsages[--extraUsagesCount];
+                    extraUsages[extraUsagesCount] = null;
                 } else {
                     // usage1 is the last element
                     usage0 = usage1;
@@ -407,29 +440,21 @@ public abstract class Node implements Cloneable, Formattable {
             return true;
         }
         if (usage1 == node) {
-            int lastNonNull = indexOfLastNonNull(extraUsages);
-            if (lastNonNull >= 0) {
-                usage1 = extraUsages[lastNonNull];
-                extraUsages[lastNonNull] = null;
+            if (extraUsagesCount > 0) {
+                usage1 = extraUsages[--extraUsagesCount];
+                extraUsages[extraUsagesCount] = null;
             } else {
                 // usage1 is the last element
                 usage1 = null;
             }
             return true;
         }
-        int matchIndex = -1;
-        int i = 0;
-        Node n;
-        while (i < extraUsages.length && (n = extraUsages[i]) != null) {
-            if (n == node) {
-                matchIndex = i;
+        for (int i = extraUsagesCount - 1; i >= 0; i--) {
+            if (extraUsages[i] == node) {
+                extraUsages[i] = extraUsages[--extraUsagesCount];
+                extraUsages[extraUsagesCount] = null;
+                return true;
             }
-            i++;
-        }
-        if (matchIndex >= 0) {
-            extraUsages[matchIndex] = extraUsages[i - 1];
-            extraUsages[i - 1] = null;
-            return true;
         }
         return false;
     }
@@ -438,7 +463,9 @@ public abstract class Node implements Cloneable, Formattable {
         incUsageModCount();
         usage0 = null;
         usage1 = null;
+        releaseExtraUsages();
         extraUsages = NO_NODES;
+        extraUsagesCount = 0;
     }
 
     public final Node predecessor() {
@@ -491,6 +518,8 @@ public abstract class Node implements Cloneable, Formattable {
                 boolean result = removeThisFromUsages(oldInput);
                 assert assertTrue(result, "not found in usages, old input: %s", oldInput);
             }
+            maybeMarkChanged(oldInput);
+            maybeMarkChanged(newInput);
             maybeNotifyInputChanged(this);
             if (newInput != null) {
                 newInput.addUsage(this);
@@ -522,6 +551,9 @@ public abstract class Node implements Cloneable, Formattable {
                 assert assertTrue(newSuccessor.predecessor == null, "unexpected non-null predecessor in new successor (%s): %s, this=%s", newSuccessor, newSuccessor.predecessor, this);
                 newSuccessor.predecessor = this;
             }
+            maybeMarkChanged(this);
+            maybeMarkChanged(oldSuccessor);
+            maybeMarkChanged(newSuccessor);
         }
     }
 
@@ -555,15 +587,26 @@ public abstract class Node implements Cloneable, Formattable {
 
     public void replaceAtUsages(Node other) {
         assert checkReplaceWith(other);
-        for (Node usage : usages()) {
+        int count = usageCount();
+        for (int i = 0; i < count; i++) {
+            Node usage = getUsageAt(i);
             boolean result = usage.getNodeClass().getEdges(Inputs).replaceFirst(usage, this, other);
             assert assertTrue(result, "not found in inputs, usage: %s", usage);
             if (other != null) {
                 maybeNotifyInputChanged(usage);
-                other.addUsage(usage);
+            } else {
+                maybeMarkChanged(usage);
             }
         }
-        clearUsages();
+        if (other != null) {
+            other.takeUsages(this);
+            maybeMarkChanged(other);
+        } else {
+            clearUsages();
+        }
+        if (count > 0) {
+            maybeMarkChanged(this);
+        }
     }
 
     public void replaceAtMatchingUsages(Node other, NodePredicate usagePredicate) {
@@ -581,6 +624,8 @@ public abstract class Node implements Cloneable, Formattable {
                 if (other != null) {
                     maybeNotifyInputChanged(usage);
                     other.addUsage(usage);
+                } else {
+                    maybeMarkChanged(usage);
                 }
             } else {
                 if (removeStart >= 0) {
@@ -596,6 +641,8 @@ public abstract class Node implements Cloneable, Formattable {
             int removeEndIndex = it.index;
             removeUsagesAndShiftFirst(removeStart, removeEndIndex);
         }
+        maybeMarkChanged(this);
+        maybeMarkChanged(other);
     }
 
     public void replaceAtUsages(InputType type, Node other) {
@@ -611,9 +658,16 @@ public abstract class Node implements Cloneable, Formattable {
         }
     }
 
+    private void maybeMarkChanged(Node node) {
+        if (graph != null) {
+            graph.markChanged(node);
+        }
+    }
+
     private void maybeNotifyInputChanged(Node node) {
         if (graph != null) {
             assert !graph.isFrozen();
+            graph.markChanged(node);
             NodeEventListener listener = graph.nodeEventListener;
             if (listener != null) {
                 listener.inputChanged(node);
@@ -624,6 +678,7 @@ public abstract class Node implements Cloneable, Formattable {
     private void maybeNotifyZeroUsages(Node node) {
         if (graph != null) {
             assert !graph.isFrozen();
+            graph.markChanged(node);
             NodeEventListener listener = graph.nodeEventListener;
             if (listener != null) {
                 listener.usagesDroppedToZero(node);
@@ -665,6 +720,7 @@ public abstract class Node implements Cloneable, Formattable {
     private void unregisterInputs() {
         for (Node input : inputs()) {
             removeThisFromUsages(input);
+            maybeMarkChanged(input);
             if (input.usages().isEmpty()) {
                 maybeNotifyZeroUsages(input);
             }
@@ -686,6 +742,7 @@ public abstract class Node implements Cloneable, Formattable {
         for (Node successor : successors()) {
             assert assertTrue(successor.predecessor == this, "wrong predecessor in old successor (%s): %s", successor, successor.predecessor);
             successor.predecessor = null;
+            maybeMarkChanged(successor);
         }
     }
 
@@ -710,6 +767,9 @@ public abstract class Node implements Cloneable, Formattable {
         assert checkDeletion();
         unregisterInputs();
         unregisterSuccessors();
+        releaseExtraUsages();
+        extraUsages = NO_NODES;
+        extraUsagesCount = 0;
         graph.unregister(this);
         id = DELETED_ID_START - id;
         assert isDeleted();
@@ -813,6 +873,7 @@ public abstract class Node implements Cloneable, Formattable {
             into.register(newNode);
         }
         newNode.extraUsages = NO_NODES;
+        newNode.extraUsagesCount = 0;
 
         if (into != null && useIntoLeafNodeCache) {
             into.putNodeIntoCache(newNode);
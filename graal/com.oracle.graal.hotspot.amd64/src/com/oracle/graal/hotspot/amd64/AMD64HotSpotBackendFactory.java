@@ -199,7 +199,7 @@ public class AMD64HotSpotBackendFactory implements HotSpotBackendFactory {
     }
 
     protected HotSpotSuitesProvider createSuites(HotSpotGraalRuntime runtime) {
-        return new HotSpotSuitesProvider(runtime);
+        return new AMD64HotSpotSuitesProvider(runtime);
     }
 
     protected HotSpotSnippetReflectionProvider createSnippetReflection() {
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.hotspot.amd64;
+
+import static com.oracle.graal.compiler.common.GraalOptions.*;
+
+import java.util.*;
+
+import com.oracle.graal.hotspot.*;
+import com.oracle.graal.hotspot.meta.*;
+import com.oracle.graal.loop.phases.*;
+import com.oracle.graal.phases.*;
+import com.oracle.graal.phases.common.*;
+import com.oracle.graal.phases.tiers.*;
+
+/**
+ * Adds the phases that depend on AMD64 specific code generation to the HotSpot suites.
+ */
+public class AMD64HotSpotSuitesProvider extends HotSpotSuitesProvider {
+
+    public AMD64HotSpotSuitesProvider(HotSpotGraalRuntime runtime) {
+        super(runtime);
+    }
+
+    @Override
+    public Suites createSuites() {
+        Suites ret = super.createSuites();
+        if (LoopVectorization.getValue()) {
+            // vectorize before the remaining bounds checks of loops are hoisted and while the loop
+            // exits still have their proxies
+            ListIterator<BasePhase<? super HighTierContext>> position = ret.getHighTier().findPhase(LoopRangeCheckEliminationPhase.class);
+            if (position == null) {
+                position = ret.getHighTier().findPhase(RemoveValueProxyPhase.class);
+            }
+            if (position != null) {
+                position.previous();
+                position.add(new LoopVectorizationPhase());
+            }
+        }
+        return ret;
+    }
+}
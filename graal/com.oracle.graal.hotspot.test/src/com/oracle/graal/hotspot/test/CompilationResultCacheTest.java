@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.hotspot.test;
+
+import static com.oracle.graal.compiler.common.GraalOptions.*;
+import static com.oracle.graal.nodes.StructuredGraph.*;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+import org.junit.*;
+
+import com.oracle.graal.api.code.*;
+import com.oracle.graal.compiler.test.*;
+import com.oracle.graal.hotspot.*;
+import com.oracle.graal.hotspot.meta.*;
+import com.oracle.graal.options.*;
+import com.oracle.graal.options.OptionValue.OverrideScope;
+
+/**
+ * Tests storing and looking up entries of the {@link CompilationResultCache}.
+ */
+public class CompilationResultCacheTest extends GraalCompilerTest {
+
+    /**
+     * The bytecode of {@link #value()} is {@code sipush 0x4141; ireturn} and {@link #larger} calls
+     * {@link Math#max}, which {@link VersionLoader} patches to load different versions of this
+     * class.
+     */
+    public static class Versioned {
+
+        public static int value() {
+            return 0x4141;
+        }
+
+        public static int larger(int a, int b) {
+            return Math.max(a, b);
+        }
+    }
+
+    public static int add(int a, int b) {
+        return a + b;
+    }
+
+    private Path directory;
+
+    @Before
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("results");
+    }
+
+    @After
+    public void deleteDirectory() throws IOException {
+        for (Path file : entries()) {
+            Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+
+    private List<Path> entries() throws IOException {
+        List<Path> result = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                result.add(file);
+            }
+        }
+        return result;
+    }
+
+    private CompilationResult compileImmutable(HotSpotResolvedJavaMethod method) {
+        try (OverrideScope s = OptionValue.override(ImmutableCode, true)) {
+            return compile(method, parseEager(method));
+        }
+    }
+
+    private HotSpotResolvedJavaMethod lookupMethod(Class<?> c, String name) {
+        return (HotSpotResolvedJavaMethod) getMetaAccess().lookupJavaMethod(getMethod(c, name));
+    }
+
+    @Test
+    public void testRoundTrip() {
+        HotSpotResolvedJavaMethod method = lookupMethod(getClass(), "add");
+        CompilationResult result = compileImmutable(method);
+        CompilationResultCache cache = new CompilationResultCache(directory);
+        Assert.assertNull(cache.lookup(method, INVOCATION_ENTRY_BCI));
+
+        cache.store(method, INVOCATION_ENTRY_BCI, result);
+        CompilationResult cached = new CompilationResultCache(directory).lookup(method, INVOCATION_ENTRY_BCI);
+        Assert.assertNotNull(cached);
+        Assert.assertEquals(result.getTargetCodeSize(), cached.getTargetCodeSize());
+        Assert.assertArrayEquals(Arrays.copyOf(result.getTargetCode(), result.getTargetCodeSize()), Arrays.copyOf(cached.getTargetCode(), cached.getTargetCodeSize()));
+
+        Assert.assertNull(cache.lookup(method, 5));
+        cache.invalidate(method, INVOCATION_ENTRY_BCI);
+        Assert.assertNull(cache.lookup(method, INVOCATION_ENTRY_BCI));
+    }
+
+    @Test
+    public void testOptionChange() {
+        HotSpotResolvedJavaMethod method = lookupMethod(getClass(), "add");
+        new CompilationResultCache(directory).store(method, INVOCATION_ENTRY_BCI, compileImmutable(method));
+        try (OverrideScope s = OptionValue.override(OptImplicitNullChecks, !OptImplicitNullChecks.getValue())) {
+            Assert.assertNull(new CompilationResultCache(directory).lookup(method, INVOCATION_ENTRY_BCI));
+        }
+        Assert.assertNotNull(new CompilationResultCache(directory).lookup(method, INVOCATION_ENTRY_BCI));
+    }
+
+    @Test
+    public void testBytecodeChange() throws ClassNotFoundException {
+        HotSpotResolvedJavaMethod original = lookupMethod(new VersionLoader(null, null).loadVersioned(), "value");
+        HotSpotResolvedJavaMethod changed = lookupMethod(new VersionLoader(VersionLoader.VALUE, VersionLoader.CHANGED_VALUE).loadVersioned(), "value");
+        Assert.assertFalse(Arrays.equals(original.getCode(), changed.getCode()));
+
+        CompilationResultCache cache = new CompilationResultCache(directory);
+        cache.store(original, INVOCATION_ENTRY_BCI, compileImmutable(original));
+        Assert.assertNotNull(cache.lookup(original, INVOCATION_ENTRY_BCI));
+        Assert.assertNull(cache.lookup(changed, INVOCATION_ENTRY_BCI));
+    }
+
+    @Test
+    public void testConstantPoolChange() throws ClassNotFoundException {
+        HotSpotResolvedJavaMethod original = lookupMethod(new VersionLoader(null, null).loadVersioned(), "larger");
+        HotSpotResolvedJavaMethod changed = lookupMethod(new VersionLoader(VersionLoader.MAX, VersionLoader.MIN).loadVersioned(), "larger");
+        // Math.min is called through the same constant pool entry as Math.max
+        Assert.assertArrayEquals(original.getCode(), changed.getCode());
+
+        CompilationResultCache cache = new CompilationResultCache(directory);
+        cache.store(original, INVOCATION_ENTRY_BCI, compileImmutable(original));
+        Assert.assertNotNull(cache.lookup(original, INVOCATION_ENTRY_BCI));
+        Assert.assertNull(cache.lookup(changed, INVOCATION_ENTRY_BCI));
+    }
+
+    @Test
+    public void testCorruptEntry() throws IOException {
+        HotSpotResolvedJavaMethod method = lookupMethod(getClass(), "add");
+        CompilationResultCache cache = new CompilationResultCache(directory);
+        cache.store(method, INVOCATION_ENTRY_BCI, compileImmutable(method));
+        List<Path> entries = entries();
+        Assert.assertEquals(1, entries.size());
+
+        Files.write(entries.get(0), new byte[]{1, 2, 3});
+        Assert.assertNull(cache.lookup(method, INVOCATION_ENTRY_BCI));
+        Assert.assertTrue(entries().isEmpty());
+    }
+
+    /**
+     * Loads its own copy of {@link Versioned}, optionally with a sequence of bytes in its class file
+     * replaced.
+     */
+    private static class VersionLoader extends ClassLoader {
+
+        private static final byte SIPUSH = 0x11;
+        private static final byte IRETURN = (byte) 0xac;
+        private static final byte CONSTANT_UTF8 = 1;
+
+        /**
+         * The bytecode of {@link Versioned#value()}.
+         */
+        static final byte[] VALUE = {SIPUSH, 0x41, 0x41, IRETURN};
+        static final byte[] CHANGED_VALUE = {SIPUSH, 0x41, 0x42, IRETURN};
+
+        /**
+         * The name of the method called by {@link Versioned#larger} in the constant pool.
+         */
+        static final byte[] MAX = {CONSTANT_UTF8, 0, 3, 'm', 'a', 'x'};
+        static final byte[] MIN = {CONSTANT_UTF8, 0, 3, 'm', 'i', 'n'};
+
+        private final byte[] original;
+        private final byte[] replacement;
+
+        VersionLoader(byte[] original, byte[] replacement) {
+            super(CompilationResultCacheTest.class.getClassLoader());
+            this.original = original;
+            this.replacement = replacement;
+        }
+
+        Class<?> loadVersioned() throws ClassNotFoundException {
+            return loadClass(Versioned.class.getName());
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!name.equals(Versioned.class.getName())) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> c = findLoadedClass(name);
+                if (c == null) {
+                    byte[] classFile = readClassFile(name);
+                    if (original != null) {
+                        patch(classFile);
+                    }
+                    c = defineClass(name, classFile, 0, classFile.length);
+                }
+                return c;
+            }
+        }
+
+        private static byte[] readClassFile(String name) throws ClassNotFoundException {
+            try (InputStream in = Versioned.class.getResourceAsStream(name.substring(name.lastIndexOf('.') + 1) + ".class")) {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                byte[] buffer = new byte[1024];
+                int n;
+                while ((n = in.read(buffer)) != -1) {
+                    bytes.write(buffer, 0, n);
+                }
+                return bytes.toByteArray();
+            } catch (IOException e) {
+                throw new ClassNotFoundException(name, e);
+            }
+        }
+
+        private void patch(byte[] classFile) {
+            for (int i = 0; i + original.length <= classFile.length; i++) {
+                if (Arrays.equals(original, Arrays.copyOfRange(classFile, i, i + original.length))) {
+                    System.arraycopy(replacement, 0, classFile, i, replacement.length);
+                    return;
+                }
+            }
+            Assert.fail(Arrays.toString(original) + " not found in the class file of Versioned");
+        }
+    }
+}
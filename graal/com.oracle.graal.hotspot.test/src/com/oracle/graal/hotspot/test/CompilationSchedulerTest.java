@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.hotspot.test;
+
+import static com.oracle.graal.nodes.StructuredGraph.*;
+
+import org.junit.*;
+
+import com.oracle.graal.compiler.test.*;
+import com.oracle.graal.hotspot.*;
+import com.oracle.graal.hotspot.CompilationScheduler.Request;
+import com.oracle.graal.hotspot.meta.*;
+
+/**
+ * Tests the ordering, aging and deduplication of requests in the {@link CompilationScheduler}.
+ */
+public class CompilationSchedulerTest extends GraalCompilerTest {
+
+    private static final int OSR_BCI = 5;
+    private static final long NO_AGING = 60000;
+
+    public static int methodA() {
+        return 1;
+    }
+
+    public static int methodB() {
+        return 2;
+    }
+
+    public static int methodC() {
+        return 3;
+    }
+
+    private HotSpotResolvedJavaMethod method(String name) {
+        return (HotSpotResolvedJavaMethod) getResolvedJavaMethod(name);
+    }
+
+    @Test
+    public void testPriorityOrder() {
+        CompilationScheduler scheduler = new CompilationScheduler(1, NO_AGING);
+        Request first = scheduler.submit(method("methodA"), INVOCATION_ENTRY_BCI, 0);
+        Request warm = scheduler.submit(method("methodB"), INVOCATION_ENTRY_BCI, 10);
+        Request hot = scheduler.submit(method("methodC"), INVOCATION_ENTRY_BCI, 100);
+        Assert.assertTrue(scheduler.isRunning(first));
+        Assert.assertFalse(scheduler.isRunning(warm));
+        Assert.assertFalse(scheduler.isRunning(hot));
+        Assert.assertEquals(2, scheduler.getQueueDepth());
+
+        scheduler.finish(first);
+        Assert.assertTrue(scheduler.isRunning(hot));
+        Assert.assertFalse(scheduler.isRunning(warm));
+
+        scheduler.finish(hot);
+        Assert.assertTrue(scheduler.isRunning(warm));
+        scheduler.finish(warm);
+        Assert.assertEquals(0, scheduler.getQueueDepth());
+        Assert.assertEquals(0, scheduler.getRunningCount());
+    }
+
+    @Test
+    public void testAging() throws InterruptedException {
+        CompilationScheduler scheduler = new CompilationScheduler(1, 50);
+        Request first = scheduler.submit(method("methodA"), INVOCATION_ENTRY_BCI, 0);
+        Request starved = scheduler.submit(method("methodB"), INVOCATION_ENTRY_BCI, 0);
+        Thread.sleep(200);
+        Request hot = scheduler.submit(method("methodC"), INVOCATION_ENTRY_BCI, 100);
+
+        scheduler.finish(first);
+        Assert.assertTrue(scheduler.isRunning(starved));
+        Assert.assertFalse(scheduler.isRunning(hot));
+
+        scheduler.finish(starved);
+        Assert.assertTrue(scheduler.isRunning(hot));
+        scheduler.finish(hot);
+    }
+
+    @Test
+    public void testDeduplication() {
+        CompilationScheduler scheduler = new CompilationScheduler(0, NO_AGING);
+        HotSpotResolvedJavaMethod method = method("methodA");
+        Request request = scheduler.submit(method, INVOCATION_ENTRY_BCI, 0);
+        Assert.assertNotNull(request);
+        Assert.assertNull(scheduler.submit(method, INVOCATION_ENTRY_BCI, 0));
+        Assert.assertNull(scheduler.submit(method, OSR_BCI, 0));
+
+        scheduler.finish(request);
+        request = scheduler.submit(method, INVOCATION_ENTRY_BCI, 0);
+        Assert.assertNotNull(request);
+        scheduler.finish(request);
+    }
+
+    @Test
+    public void testSupersededOSR() {
+        CompilationScheduler scheduler = new CompilationScheduler(1, NO_AGING);
+        HotSpotResolvedJavaMethod method = method("methodA");
+        Request first = scheduler.submit(method("methodB"), INVOCATION_ENTRY_BCI, 0);
+        Request osr = scheduler.submit(method, OSR_BCI, 100);
+        Request standard = scheduler.submit(method, INVOCATION_ENTRY_BCI, 0);
+        Assert.assertNotNull(standard);
+        Assert.assertTrue(scheduler.isCancelled(osr));
+        Assert.assertEquals(1, scheduler.getQueueDepth());
+
+        scheduler.finish(first);
+        Assert.assertTrue(scheduler.isRunning(standard));
+        scheduler.finish(osr);
+        scheduler.finish(standard);
+    }
+}
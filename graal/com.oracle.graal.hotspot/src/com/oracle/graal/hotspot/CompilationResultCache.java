@@ -0,0 +1,446 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.hotspot;
+
+import static com.oracle.graal.hotspot.HotSpotGraalRuntime.*;
+import static com.oracle.graal.hotspot.HotSpotOptionsLoader.*;
+
+import java.io.*;
+import java.nio.file.*;
+import java.security.*;
+import java.util.*;
+
+import com.oracle.graal.api.code.*;
+import com.oracle.graal.api.meta.*;
+import com.oracle.graal.compiler.common.*;
+import com.oracle.graal.debug.*;
+import com.oracle.graal.hotspot.meta.*;
+import com.oracle.graal.java.*;
+import com.oracle.graal.options.*;
+
+/**
+ * A persistent cache of {@link CompilationResult}s that allows code compiled in one VM run to be
+ * reused by later runs. Only {@linkplain GraalOptions#ImmutableCode immutable code} is cached since
+ * it avoids embedding values that are only valid in the VM that produced it. VM specific objects
+ * referenced by a result (types, methods, klass constants and foreign call targets) are written as
+ * symbolic references and resolved again when the result is read back. Results that refer to
+ * objects which cannot be resolved symbolically (e.g. object constants) are not cached.
+ * <p>
+ * An entry is keyed by the identity of the compiled method, a digest of the code of all methods of
+ * its declaring type and the values of all {@link GraalOptions}. The code digest of a method covers
+ * its bytecode, the constant pool entries the bytecode refers to and its exception handlers, so
+ * that changes that only affect the constant pool (e.g. a different callee or string literal
+ * behind the same constant pool index) are detected as well. The code digest of a type is computed
+ * once per cache. When an entry is read, the code of the compiled method and of every method the
+ * result refers to (including inlined methods) is checked against the digest recorded when the
+ * entry was written, which also catches classes redefined since the type digest was computed. The {@linkplain CompilationResult#getAssumptions() assumptions} of the result are
+ * validated by the VM during code installation. Entries failing either check are deleted.
+ */
+public final class CompilationResultCache {
+
+    public static class Options {
+        // @formatter:off
+        @Option(help = "Directory of a persistent cache for compilation results that are reused across VM runs (requires ImmutableCode)")
+        public static final OptionValue<String> CompilationResultCacheDirectory = new OptionValue<>(null);
+        // @formatter:on
+    }
+
+    private static final DebugMetric CacheHits = Debug.metric("CompilationResultCacheHits");
+    private static final DebugMetric CacheMisses = Debug.metric("CompilationResultCacheMisses");
+    private static final DebugMetric CacheStores = Debug.metric("CompilationResultCacheStores");
+    private static final DebugMetric CacheInvalidations = Debug.metric("CompilationResultCacheInvalidations");
+
+    private static CompilationResultCache instance;
+
+    /**
+     * Gets the cache configured by {@link Options#CompilationResultCacheDirectory}.
+     *
+     * @return null if no cache is configured or {@link GraalOptions#ImmutableCode} is disabled
+     */
+    public static synchronized CompilationResultCache getInstance() {
+        String directory = Options.CompilationResultCacheDirectory.getValue();
+        if (directory == null || !GraalOptions.ImmutableCode.getValue()) {
+            return null;
+        }
+        if (instance == null) {
+            instance = new CompilationResultCache(Paths.get(directory));
+        }
+        return instance;
+    }
+
+    private final Path directory;
+    private final byte[] configurationDigest;
+
+    /**
+     * The digests of the code of all methods of a type, computed on first use.
+     */
+    private final Map<ResolvedJavaType, byte[]> typeDigests = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Creates a cache that stores its entries in {@code directory}. The entries are keyed by the
+     * option values at the time of this call.
+     */
+    public CompilationResultCache(Path directory) {
+        this.directory = directory;
+        this.configurationDigest = computeConfigurationDigest();
+    }
+
+    /**
+     * Computes a digest over the values of all {@link GraalOptions} and the VM properties that
+     * affect the generated code.
+     */
+    private static byte[] computeConfigurationDigest() {
+        MessageDigest digest = newDigest();
+        for (OptionDescriptor desc : options.values()) {
+            if (desc.getDeclaringClass() == GraalOptions.class) {
+                update(digest, desc.getName() + "=" + desc.getOptionValue().getValue());
+            }
+        }
+        HotSpotVMConfig config = runtime().getConfig();
+        update(digest, System.getProperty("java.vm.version"));
+        update(digest, "UseCompressedOops=" + config.useCompressedOops);
+        update(digest, "UseCompressedClassPointers=" + config.useCompressedClassPointers);
+        return digest.digest();
+    }
+
+    /**
+     * Looks up a cached result for a compilation of {@code method} at {@code entryBCI}.
+     *
+     * @return null if there is no valid entry in the cache
+     */
+    public CompilationResult lookup(HotSpotResolvedJavaMethod method, int entryBCI) {
+        Path file = getFile(method, entryBCI);
+        if (!Files.exists(file)) {
+            CacheMisses.increment();
+            return null;
+        }
+        try (ResultInputStream in = new ResultInputStream(new BufferedInputStream(Files.newInputStream(file)), method.getDeclaringClass())) {
+            // resolving the method checks that its bytecode did not change
+            if (!method.equals(in.readObject())) {
+                throw new InvalidObjectException("entry of another method");
+            }
+            CompilationResult result = (CompilationResult) in.readObject();
+            CacheHits.increment();
+            return result;
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            // Stale or corrupt entry.
+            CacheMisses.increment();
+            delete(file);
+            return null;
+        }
+    }
+
+    /**
+     * Adds the result of a successful compilation of {@code method} at {@code entryBCI} to the
+     * cache. Results that cannot be represented symbolically are silently ignored.
+     */
+    public void store(HotSpotResolvedJavaMethod method, int entryBCI, CompilationResult result) {
+        Path file = getFile(method, entryBCI);
+        try {
+            Files.createDirectories(directory);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ResultOutputStream out = new ResultOutputStream(bytes)) {
+                out.writeObject(method);
+                out.writeObject(result);
+            }
+            // Write to a temporary file first so that concurrent VMs never see a partial entry.
+            Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            Files.write(temp, bytes.toByteArray());
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            CacheStores.increment();
+        } catch (IOException e) {
+            // Not cacheable.
+        }
+    }
+
+    /**
+     * Removes the entry for {@code method} at {@code entryBCI}, e.g. because the VM rejected the
+     * cached code during installation.
+     */
+    public void invalidate(HotSpotResolvedJavaMethod method, int entryBCI) {
+        CacheInvalidations.increment();
+        delete(getFile(method, entryBCI));
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+
+    /**
+     * Gets the file holding the entry for {@code method} at {@code entryBCI}.
+     */
+    private Path getFile(HotSpotResolvedJavaMethod method, int entryBCI) {
+        MessageDigest digest = newDigest();
+        digest.update(configurationDigest);
+        digest.update(getTypeDigest(method.getDeclaringClass()));
+        update(digest, method.format("%H.%n(%P)%R") + "@" + entryBCI);
+        StringBuilder name = new StringBuilder();
+        for (byte b : digest.digest()) {
+            name.append(String.format("%02x", b & 0xff));
+        }
+        return directory.resolve(name.append(".result").toString());
+    }
+
+    private byte[] getTypeDigest(ResolvedJavaType type) {
+        byte[] result = typeDigests.get(type);
+        if (result == null) {
+            MessageDigest digest = newDigest();
+            List<ResolvedJavaMethod> methods = new ArrayList<>(Arrays.asList(type.getDeclaredMethods()));
+            methods.addAll(Arrays.asList(type.getDeclaredConstructors()));
+            if (type.getClassInitializer() != null) {
+                methods.add(type.getClassInitializer());
+            }
+            // the order of the declared methods is not stable across VM runs
+            methods.sort((m1, m2) -> signatureOf(m1).compareTo(signatureOf(m2)));
+            for (ResolvedJavaMethod m : methods) {
+                update(digest, signatureOf(m));
+                byte[] code = digestCode(m);
+                if (code != null) {
+                    digest.update(code);
+                }
+            }
+            result = digest.digest();
+            typeDigests.put(type, result);
+        }
+        return result;
+    }
+
+    /**
+     * Computes a digest of the bytecode of a method together with the constant pool entries it
+     * refers to and its exception handlers.
+     *
+     * @return {@code null} if {@code method} has no bytecode
+     */
+    private static byte[] digestCode(ResolvedJavaMethod method) {
+        // the disassembly resolves the constant pool entries symbolically
+        String disassembly = new BytecodeDisassembler().disassemble(method);
+        if (disassembly == null) {
+            return null;
+        }
+        MessageDigest digest = newDigest();
+        digest.update(method.getCode());
+        update(digest, disassembly);
+        for (ExceptionHandler handler : method.getExceptionHandlers()) {
+            update(digest, handler.getStartBCI() + "-" + handler.getEndBCI() + ":" + handler.getHandlerBCI() + ":" + (handler.isCatchAll() ? "any" : handler.getCatchType().getName()));
+        }
+        return digest.digest();
+    }
+
+    private static String signatureOf(ResolvedJavaMethod method) {
+        return method.getName() + method.getSignature().toMethodDescriptor();
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new GraalInternalError(e);
+        }
+    }
+
+    private static void update(MessageDigest digest, String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            digest.update((byte) (c >> 8));
+            digest.update((byte) c);
+        }
+    }
+
+    /**
+     * Symbolic reference to a {@link HotSpotResolvedJavaType}.
+     */
+    private static final class TypeReference implements Serializable {
+
+        private static final long serialVersionUID = -3180553720826470469L;
+
+        private final String name;
+
+        TypeReference(JavaType type) {
+            this.name = type.getName();
+        }
+
+        HotSpotResolvedJavaType resolve(HotSpotResolvedObjectType accessingType) throws InvalidObjectException {
+            JavaType type = runtime().lookupType(name, accessingType, true);
+            if (!(type instanceof HotSpotResolvedJavaType)) {
+                throw new InvalidObjectException("cannot resolve " + name);
+            }
+            return (HotSpotResolvedJavaType) type;
+        }
+    }
+
+    /**
+     * Symbolic reference to a {@link HotSpotResolvedJavaMethod} that also records a digest of the
+     * method's {@linkplain CompilationResultCache#digestCode code}.
+     */
+    private static final class MethodReference implements Serializable {
+
+        private static final long serialVersionUID = 6215472815618936411L;
+
+        private final TypeReference holder;
+        private final String name;
+        private final String descriptor;
+        private final byte[] codeDigest;
+
+        MethodReference(HotSpotResolvedJavaMethod method) {
+            this.holder = new TypeReference(method.getDeclaringClass());
+            this.name = method.getName();
+            this.descriptor = method.getSignature().toMethodDescriptor();
+            this.codeDigest = digestCode(method);
+        }
+
+        HotSpotResolvedJavaMethod resolve(HotSpotResolvedObjectType accessingType) throws InvalidObjectException {
+            ResolvedJavaType type = holder.resolve(accessingType);
+            List<ResolvedJavaMethod> candidates = new ArrayList<>(Arrays.asList(type.getDeclaredMethods()));
+            candidates.addAll(Arrays.asList(type.getDeclaredConstructors()));
+            if (type.getClassInitializer() != null) {
+                candidates.add(type.getClassInitializer());
+            }
+            for (ResolvedJavaMethod method : candidates) {
+                if (method.getName().equals(name) && method.getSignature().toMethodDescriptor().equals(descriptor)) {
+                    if (!Arrays.equals(codeDigest, digestCode(method))) {
+                        throw new InvalidObjectException("code of " + method.format("%H.%n(%p)") + " changed");
+                    }
+                    return (HotSpotResolvedJavaMethod) method;
+                }
+            }
+            throw new InvalidObjectException("cannot resolve " + holder.name + "." + name + descriptor);
+        }
+    }
+
+    /**
+     * Symbolic reference to a {@link HotSpotMetaspaceConstant} denoting a klass.
+     */
+    private static final class KlassConstantReference implements Serializable {
+
+        private static final long serialVersionUID = 2593232183584838312L;
+
+        private final TypeReference type;
+        private final boolean compressed;
+
+        KlassConstantReference(HotSpotMetaspaceConstant constant) {
+            this.type = new TypeReference(constant.asResolvedJavaType());
+            this.compressed = constant.isCompressed();
+        }
+
+        Constant resolve(HotSpotResolvedObjectType accessingType) throws InvalidObjectException {
+            HotSpotResolvedJavaType resolved = type.resolve(accessingType);
+            if (!(resolved instanceof HotSpotResolvedObjectType)) {
+                throw new InvalidObjectException("not a klass: " + type.name);
+            }
+            HotSpotMetaspaceConstant klass = (HotSpotMetaspaceConstant) ((HotSpotResolvedObjectType) resolved).klass();
+            return compressed ? klass.compress(runtime().getConfig().getKlassEncoding()) : klass;
+        }
+    }
+
+    /**
+     * Symbolic reference to a {@link HotSpotForeignCallLinkage}.
+     */
+    private static final class ForeignCallReference implements Serializable {
+
+        private static final long serialVersionUID = -4453440307733626394L;
+
+        private final String name;
+        private final Class<?> resultType;
+        private final Class<?>[] argumentTypes;
+
+        ForeignCallReference(ForeignCallDescriptor descriptor) {
+            this.name = descriptor.getName();
+            this.resultType = descriptor.getResultType();
+            this.argumentTypes = descriptor.getArgumentTypes();
+        }
+
+        HotSpotForeignCallLinkage resolve() {
+            ForeignCallDescriptor descriptor = new ForeignCallDescriptor(name, resultType, argumentTypes);
+            return (HotSpotForeignCallLinkage) runtime().getHostProviders().getForeignCalls().lookupForeignCall(descriptor);
+        }
+    }
+
+    /**
+     * Stand-in for {@link HotSpotCompressedNullConstant#COMPRESSED_NULL} which must remain unique.
+     */
+    private static final class CompressedNullReference implements Serializable {
+
+        private static final long serialVersionUID = -1391834468370394498L;
+    }
+
+    private static final class ResultOutputStream extends ObjectOutputStream {
+
+        ResultOutputStream(OutputStream out) throws IOException {
+            super(out);
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(Object obj) throws IOException {
+            if (obj instanceof HotSpotResolvedJavaMethod) {
+                return new MethodReference((HotSpotResolvedJavaMethod) obj);
+            } else if (obj instanceof HotSpotResolvedJavaType) {
+                return new TypeReference((HotSpotResolvedJavaType) obj);
+            } else if (obj instanceof HotSpotMetaspaceConstant) {
+                HotSpotMetaspaceConstant constant = (HotSpotMetaspaceConstant) obj;
+                if (constant.asResolvedJavaType() == null) {
+                    throw new NotSerializableException("metaspace constant " + obj);
+                }
+                return new KlassConstantReference(constant);
+            } else if (obj instanceof HotSpotForeignCallLinkage) {
+                return new ForeignCallReference(((HotSpotForeignCallLinkage) obj).getDescriptor());
+            } else if (obj == HotSpotCompressedNullConstant.COMPRESSED_NULL) {
+                return new CompressedNullReference();
+            } else if (obj instanceof HotSpotObjectConstant || obj instanceof CompilerObject) {
+                throw new NotSerializableException(obj.toString());
+            }
+            return obj;
+        }
+    }
+
+    private static final class ResultInputStream extends ObjectInputStream {
+
+        private final HotSpotResolvedObjectType accessingType;
+
+        ResultInputStream(InputStream in, HotSpotResolvedObjectType accessingType) throws IOException {
+            super(in);
+            this.accessingType = accessingType;
+            enableResolveObject(true);
+        }
+
+        @Override
+        protected Object resolveObject(Object obj) throws IOException {
+            if (obj instanceof MethodReference) {
+                return ((MethodReference) obj).resolve(accessingType);
+            } else if (obj instanceof TypeReference) {
+                return ((TypeReference) obj).resolve(accessingType);
+            } else if (obj instanceof KlassConstantReference) {
+                return ((KlassConstantReference) obj).resolve(accessingType);
+            } else if (obj instanceof ForeignCallReference) {
+                return ((ForeignCallReference) obj).resolve();
+            } else if (obj instanceof CompressedNullReference) {
+                return HotSpotCompressedNullConstant.COMPRESSED_NULL;
+            }
+            return obj;
+        }
+    }
+}
@@ -0,0 +1,383 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.hotspot;
+
+import static com.oracle.graal.nodes.StructuredGraph.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import com.oracle.graal.debug.*;
+import com.oracle.graal.hotspot.meta.*;
+import com.oracle.graal.options.*;
+
+/**
+ * Graal-side view of the compilation requests HotSpot hands to the Graal compiler threads. The
+ * scheduler keeps track of the requests that are waiting or running and uses this to:
+ * <ul>
+ * <li>drop a request if an equivalent request for the same method and entry BCI is already waiting
+ * or running,</li>
+ * <li>drop an OSR request if a standard compilation of the same method is already waiting or
+ * running, and cancel waiting OSR requests for a method once a standard compilation of it is
+ * requested,</li>
+ * <li>limit the number of compilations running at once to
+ * {@link Options#CompileSchedulerConcurrency} and start the waiting request of the hottest method
+ * first, as measured by the invocation and backedge counters in its {@link HotSpotMethodData}.
+ * A request that waited longer than {@link Options#CompileSchedulerMaxWaitTime} is started before
+ * any hotter request so that cold methods are not starved.</li>
+ * </ul>
+ * A dropped or cancelled request completes without installing code. HotSpot requests the
+ * compilation again if the method is still hot once the superseding compilation is done.
+ */
+public final class CompilationScheduler {
+
+    public static class Options {
+        // @formatter:off
+        @Option(help = "Drop duplicate and superseded compilation requests and start waiting requests hottest first")
+        public static final OptionValue<Boolean> UseCompilationScheduler = new OptionValue<>(false);
+        @Option(help = "Maximum number of compilations running at once (0 for no limit). Requests beyond the limit wait in the compilation scheduler.")
+        public static final OptionValue<Integer> CompileSchedulerConcurrency = new OptionValue<>(0);
+        @Option(help = "Time in milliseconds after which a waiting request is started before hotter requests")
+        public static final OptionValue<Integer> CompileSchedulerMaxWaitTime = new OptionValue<>(1000);
+        @Option(help = "Print the compilation scheduler statistics at VM shutdown")
+        public static final OptionValue<Boolean> PrintCompileSchedulerStatistics = new OptionValue<>(false);
+        // @formatter:on
+    }
+
+    private static final DebugMetric DuplicateRequests = Debug.metric("CompileSchedulerDuplicateRequests");
+    private static final DebugMetric SupersededRequests = Debug.metric("CompileSchedulerSupersededRequests");
+    private static final DebugMetric DelayedRequests = Debug.metric("CompileSchedulerDelayedRequests");
+    private static final DebugMetric AgedRequests = Debug.metric("CompileSchedulerAgedRequests");
+
+    private static final CompilationScheduler instance = new CompilationScheduler(Options.CompileSchedulerConcurrency.getValue(), Options.CompileSchedulerMaxWaitTime.getValue());
+
+    public static CompilationScheduler getInstance() {
+        return instance;
+    }
+
+    /**
+     * A request for compiling a method at an entry BCI. All fields except the final ones are
+     * guarded by the scheduler.
+     */
+    public static final class Request implements Comparable<Request> {
+
+        final HotSpotResolvedJavaMethod method;
+        final int entryBCI;
+        final long priority;
+        final long sequence;
+        final long submitTime;
+
+        boolean running;
+        boolean cancelled;
+
+        Request(HotSpotResolvedJavaMethod method, int entryBCI, long priority, long sequence) {
+            this.method = method;
+            this.entryBCI = entryBCI;
+            this.priority = priority;
+            this.sequence = sequence;
+            this.submitTime = System.nanoTime();
+        }
+
+        boolean isOSR() {
+            return entryBCI != INVOCATION_ENTRY_BCI;
+        }
+
+        boolean isWaiting() {
+            return !running && !cancelled;
+        }
+
+        /**
+         * Orders hotter requests first and requests of equal hotness in submission order.
+         */
+        public int compareTo(Request o) {
+            if (priority != o.priority) {
+                return priority > o.priority ? -1 : 1;
+            }
+            return Long.compare(sequence, o.sequence);
+        }
+    }
+
+    /**
+     * The maximum number of running requests or {@link Integer#MAX_VALUE} if unlimited.
+     */
+    private final int concurrency;
+
+    /**
+     * The waiting and running requests for each method.
+     */
+    private final Map<HotSpotResolvedJavaMethod, List<Request>> pending = new HashMap<>();
+
+    private final PriorityQueue<Request> waiting = new PriorityQueue<>();
+
+    /**
+     * The waiting requests in submission order. Requests that were started or cancelled are removed
+     * lazily.
+     */
+    private final ArrayDeque<Request> arrivals = new ArrayDeque<>();
+
+    /**
+     * The time in nanoseconds after which a waiting request is started before hotter requests.
+     */
+    private final long maxWaitTime;
+
+    private int running;
+
+    private long submitted;
+    private long dropped;
+    private long completed;
+    private long waited;
+    private long totalWaitTime;
+    private long longestWaitTime;
+
+    /**
+     * Creates a scheduler.
+     *
+     * @param concurrency the maximum number of running requests or 0 if unlimited
+     * @param maxWaitMillis the time after which a waiting request is started before hotter requests
+     */
+    public CompilationScheduler(int concurrency, long maxWaitMillis) {
+        this.concurrency = concurrency <= 0 ? Integer.MAX_VALUE : concurrency;
+        this.maxWaitTime = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+    }
+
+    /**
+     * Runs {@code task} on the current thread unless it is dropped or cancelled by the scheduler.
+     * The current thread blocks while the maximum number of compilations is running.
+     *
+     * @return whether {@code task} was run
+     */
+    public boolean run(CompilationTask task) {
+        Request request = submit(task.getMethod(), task.getEntryBCI(), priorityOf(task.getMethod()));
+        if (request == null) {
+            return false;
+        }
+        try {
+            if (!awaitStart(request)) {
+                return false;
+            }
+            task.runCompilation();
+            return true;
+        } finally {
+            finish(request);
+        }
+    }
+
+    /**
+     * Registers a new request unless it is superseded by a pending request. The request is started
+     * immediately if the maximum number of compilations is not reached and no other request is
+     * waiting.
+     *
+     * @param priority the hotness of {@code method}, higher values are started first
+     * @return the new request or null if it was dropped
+     */
+    public synchronized Request submit(HotSpotResolvedJavaMethod method, int entryBCI, long priority) {
+        submitted++;
+        List<Request> requests = pending.get(method);
+        if (requests == null) {
+            requests = new ArrayList<>(2);
+            pending.put(method, requests);
+        } else {
+            boolean isOSR = entryBCI != INVOCATION_ENTRY_BCI;
+            for (Request other : requests) {
+                if (other.cancelled) {
+                    continue;
+                }
+                if (other.entryBCI == entryBCI) {
+                    DuplicateRequests.increment();
+                    dropped++;
+                    return null;
+                }
+                if (isOSR && !other.isOSR()) {
+                    SupersededRequests.increment();
+                    dropped++;
+                    return null;
+                }
+            }
+            if (!isOSR) {
+                for (Request other : requests) {
+                    if (!other.running && !other.cancelled) {
+                        // a waiting OSR request is superseded by the standard compilation
+                        SupersededRequests.increment();
+                        other.cancelled = true;
+                        waiting.remove(other);
+                    }
+                }
+                notifyAll();
+            }
+        }
+
+        Request request = new Request(method, entryBCI, priority, submitted);
+        requests.add(request);
+        if (running < concurrency && waiting.isEmpty()) {
+            request.running = true;
+            running++;
+        } else {
+            DelayedRequests.increment();
+            waiting.add(request);
+            arrivals.add(request);
+        }
+        return request;
+    }
+
+    /**
+     * Waits until {@code request} may start or has been cancelled.
+     *
+     * @return whether {@code request} may start
+     */
+    private synchronized boolean awaitStart(Request request) {
+        boolean interrupted = false;
+        while (!request.running && !request.cancelled) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+                request.cancelled = true;
+                waiting.remove(request);
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        long waitTime = System.nanoTime() - request.submitTime;
+        waited++;
+        totalWaitTime += waitTime;
+        longestWaitTime = Math.max(longestWaitTime, waitTime);
+        if (request.cancelled) {
+            dropped++;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether {@code request} was started by the scheduler.
+     */
+    public synchronized boolean isRunning(Request request) {
+        return request.running;
+    }
+
+    /**
+     * Returns whether {@code request} was cancelled because a standard compilation of its method
+     * superseded it.
+     */
+    public synchronized boolean isCancelled(Request request) {
+        return request.cancelled;
+    }
+
+    /**
+     * Unregisters {@code request} and starts the next waiting requests.
+     */
+    public synchronized void finish(Request request) {
+        List<Request> requests = pending.get(request.method);
+        requests.remove(request);
+        if (requests.isEmpty()) {
+            pending.remove(request.method);
+        }
+        if (request.running) {
+            running--;
+            completed++;
+            while (running < concurrency && !waiting.isEmpty()) {
+                Request next = pollWaiting();
+                next.running = true;
+                running++;
+            }
+            notifyAll();
+        }
+    }
+
+    /**
+     * Removes the next request to start from the waiting requests. This is the oldest request if it
+     * waited longer than {@link #maxWaitTime}, otherwise the hottest.
+     */
+    private Request pollWaiting() {
+        while (!arrivals.isEmpty() && !arrivals.peek().isWaiting()) {
+            arrivals.poll();
+        }
+        Request oldest = arrivals.peek();
+        Request next;
+        if (oldest != null && System.nanoTime() - oldest.submitTime >= maxWaitTime) {
+            AgedRequests.increment();
+            waiting.remove(oldest);
+            next = oldest;
+        } else {
+            next = waiting.poll();
+        }
+        if (waiting.isEmpty()) {
+            arrivals.clear();
+        }
+        return next;
+    }
+
+    /**
+     * Gets the hotness of {@code method} as the sum of the invocation and backedge counts recorded
+     * in its profile. Methods without a profile are the coldest.
+     */
+    private static long priorityOf(HotSpotResolvedJavaMethod method) {
+        HotSpotMethodData methodData = method.getMethodData();
+        if (methodData == null) {
+            return 0;
+        }
+        return (long) methodData.getInvocationCount() + methodData.getBackedgeCount();
+    }
+
+    /**
+     * Gets the number of requests waiting for a running compilation to finish.
+     */
+    public synchronized int getQueueDepth() {
+        return waiting.size();
+    }
+
+    /**
+     * Gets the number of compilations currently running.
+     */
+    public synchronized int getRunningCount() {
+        return running;
+    }
+
+    /**
+     * Gets the average time a request waited before it was started or cancelled.
+     */
+    public synchronized long getAverageWaitTime(TimeUnit unit) {
+        return waited == 0 ? 0 : unit.convert(totalWaitTime / waited, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gets the longest time a request waited before it was started or cancelled.
+     */
+    public synchronized long getMaxWaitTime(TimeUnit unit) {
+        return unit.convert(longestWaitTime, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Prints the statistics of the scheduler if {@link Options#PrintCompileSchedulerStatistics} is
+     * enabled.
+     */
+    void shutdown() {
+        if (Options.PrintCompileSchedulerStatistics.getValue()) {
+            synchronized (this) {
+                TTY.println("Compilation scheduler: %d requests, %d compiled, %d dropped, %d waiting, %d running, wait time avg %d ms, max %d ms", submitted, completed, dropped, waiting.size(),
+                                running, getAverageWaitTime(TimeUnit.MILLISECONDS), getMaxWaitTime(TimeUnit.MILLISECONDS));
+            }
+        }
+    }
+}
@@ -108,7 +108,7 @@ public class CompilationTask {
         this.installAsDefault = installAsDefault;
     }
 
-    public ResolvedJavaMethod getMethod() {
+    public HotSpotResolvedJavaMethod getMethod() {
         return method;
     }
 
@@ -183,15 +183,20 @@ public class CompilationTask {
             }
 
             CompilationResult result = null;
+            boolean cachedResult = false;
+            CompilationResultCache resultCache = CompilationResultCache.getInstance();
             TTY.Filter filter = new TTY.Filter(PrintFilter.getValue(), method);
             final long start = System.currentTimeMillis();
             final long allocatedBytesBefore = threadMXBean.getThreadAllocatedBytes(threadId);
 
-            try (Scope s = Debug.scope("Compiling", new DebugDumpScope(String.valueOf(id), true))) {
+            try (Scope s = Debug.scope("Compiling", new DebugDumpScope(String.valueOf(id), true));
+                            CompilationTelemetry telemetry = CompilationTelemetry.begin(id, method.format("%H.%n") + method.getSignature().toMethodDescriptor())) {
                 // Begin the compilation event.
                 compilationEvent.begin();
 
-                if (UseBaselineCompiler.getValue() == true) {
+                if (resultCache != null && (result = resultCache.lookup(method, entryBCI)) != null) {
+                    cachedResult = true;
+                } else if (UseBaselineCompiler.getValue() == true) {
                     HotSpotProviders providers = backend.getProviders();
                     BaselineCompiler baselineCompiler = new BaselineCompiler(GraphBuilderConfiguration.getDefault(), providers.getMetaAccess());
                     OptimisticOptimizations optimisticOpts = OptimisticOptimizations.ALL;
@@ -225,6 +230,9 @@ public class CompilationTask {
                     OptimisticOptimizations optimisticOpts = getOptimisticOpts(profilingInfo);
                     result = compileGraph(graph, null, cc, method, providers, backend, backend.getTarget(), graphCache, getGraphBuilderSuite(providers), optimisticOpts, profilingInfo,
                                     method.getSpeculationLog(), suites, new CompilationResult(), CompilationResultBuilderFactory.Default);
+                    if (resultCache != null) {
+                        resultCache.store(method, entryBCI, result);
+                    }
                 }
                 result.setId(getId());
                 result.setEntryBCI(entryBCI);
@@ -253,7 +261,12 @@ public class CompilationTask {
 
             try (TimerCloseable b = CodeInstallationTime.start()) {
                 installedCode = (HotSpotInstalledCode) installMethod(result);
-                if (!isOSR) {
+                if (cachedResult && !installedCode.isValid()) {
+                    // The VM rejected the cached code, e.g. because an assumption no longer holds. The
+                    // entry is dropped so that the next request for this method compiles it again.
+                    resultCache.invalidate(method, entryBCI);
+                }
+                if (!isOSR && graph != null) {
                     ProfilingInfo profile = method.getProfilingInfo();
                     profile.setCompilerIRSize(StructuredGraph.class, graph.getNodeCount());
                 }
@@ -365,7 +378,10 @@ public class CompilationTask {
     static void compileMethod(HotSpotResolvedJavaMethod method, int entryBCI, long ctask, int id) {
         HotSpotBackend backend = runtime().getHostBackend();
         CompilationTask task = new CompilationTask(backend, method, entryBCI, ctask, id, true);
-        task.runCompilation();
-        return;
+        if (CompilationScheduler.Options.UseCompilationScheduler.getValue()) {
+            CompilationScheduler.getInstance().run(task);
+        } else {
+            task.runCompilation();
+        }
     }
 }
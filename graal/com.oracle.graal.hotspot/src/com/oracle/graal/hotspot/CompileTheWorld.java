@@ -31,17 +31,22 @@ import java.io.*;
 import java.lang.reflect.*;
 import java.net.*;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 import java.util.jar.*;
 
 import com.oracle.graal.api.meta.*;
 import com.oracle.graal.api.meta.ProfilingInfo.TriState;
 import com.oracle.graal.bytecode.*;
+import com.oracle.graal.compiler.*;
+import com.oracle.graal.compiler.CompilerThreadFactory.DebugConfigAccess;
 import com.oracle.graal.compiler.common.*;
 import com.oracle.graal.debug.*;
 import com.oracle.graal.hotspot.HotSpotOptions.OptionConsumer;
 import com.oracle.graal.hotspot.meta.*;
 import com.oracle.graal.options.*;
 import com.oracle.graal.options.OptionValue.OverrideScope;
+import com.oracle.graal.printer.*;
 import com.oracle.graal.replacements.*;
 
 /**
@@ -66,6 +71,8 @@ public final class CompileTheWorld {
         public static final OptionValue<Integer> CompileTheWorldStartAt = new OptionValue<>(1);
         @Option(help = "Last class to consider when using -XX:+CompileTheWorld")
         public static final OptionValue<Integer> CompileTheWorldStopAt = new OptionValue<>(Integer.MAX_VALUE);
+        @Option(help = "Number of compiler threads used by CompileTheWorld (0 for one per available processor)")
+        public static final OptionValue<Integer> CompileTheWorldThreads = new OptionValue<>(1);
         @Option(help = "Option value overrides to use during compile the world. For example, " +
                        "to disable inlining and partial escape analysis specify '-PartialEscapeAnalysis -Inline'. " +
                        "The format for each option is the same as on the command line just without the '-G:' prefix.")
@@ -154,15 +161,29 @@ public final class CompileTheWorld {
     /** Class index to stop compilation at (see {@link Options#CompileTheWorldStopAt}). */
     private final int stopAt;
 
+    /** Number of compiler threads (see {@link Options#CompileTheWorldThreads}). */
+    private final int threads;
+
     // Counters
     private int classFileCounter = 0;
-    private int compiledMethodsCounter = 0;
-    private long compileTime = 0;
-    private long memoryUsed = 0;
+    private final AtomicInteger compiledMethodsCounter = new AtomicInteger();
+    private final AtomicLong compiledBytecodes = new AtomicLong();
+    private final AtomicLong compileTime = new AtomicLong();
+    private final AtomicLong memoryUsed = new AtomicLong();
+
+    /**
+     * Histogram of compilation latencies. Bucket {@code i > 0} counts the compilations that took
+     * between 2<sup>i-1</sup> and 2<sup>i</sup>-1 milliseconds, bucket 0 those that took less than
+     * a millisecond. The last bucket also counts all compilations that took longer.
+     */
+    private final AtomicLongArray latencyHistogram = new AtomicLongArray(16);
 
     private boolean verbose;
     private final Config config;
 
+    /** Executor of the compilations if more than one compiler thread is used. */
+    private ThreadPoolExecutor threadPool;
+
     /**
      * Creates a compile-the-world instance.
      *
@@ -176,6 +197,8 @@ public final class CompileTheWorld {
         this.stopAt = stopAt;
         this.verbose = verbose;
         this.config = config;
+        int threadsOption = Options.CompileTheWorldThreads.getValue();
+        this.threads = threadsOption > 0 ? threadsOption : Runtime.getRuntime().availableProcessors();
 
         // We don't want the VM to exit when a method fails to compile...
         config.put(ExitVMOnException, false);
@@ -235,6 +258,20 @@ public final class CompileTheWorld {
      */
     private void compile(String fileList) throws Throwable {
         final String[] entries = fileList.split(File.pathSeparator);
+        final long start = System.currentTimeMillis();
+
+        if (threads > 1) {
+            CompilerThreadFactory factory = new CompilerThreadFactory("CompileTheWorld", new DebugConfigAccess() {
+                public GraalDebugConfig getDebugConfig() {
+                    if (Debug.isEnabled()) {
+                        return DebugEnvironment.initialize(TTY.out().out());
+                    } else {
+                        return null;
+                    }
+                }
+            });
+            threadPool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(), factory);
+        }
 
         try (AutoCloseable s = config.apply()) {
             for (int i = 0; i < entries.length; i++) {
@@ -295,13 +332,13 @@ public final class CompileTheWorld {
                             for (Constructor<?> constructor : javaClass.getDeclaredConstructors()) {
                                 HotSpotResolvedJavaMethod javaMethod = (HotSpotResolvedJavaMethod) metaAccess.lookupJavaConstructor(constructor);
                                 if (canBeCompiled(javaMethod, constructor.getModifiers())) {
-                                    compileMethod(javaMethod);
+                                    compileMethod(javaMethod, classFileCounter);
                                 }
                             }
                             for (Method method : javaClass.getDeclaredMethods()) {
                                 HotSpotResolvedJavaMethod javaMethod = (HotSpotResolvedJavaMethod) metaAccess.lookupJavaMethod(method);
                                 if (canBeCompiled(javaMethod, method.getModifiers())) {
-                                    compileMethod(javaMethod);
+                                    compileMethod(javaMethod, classFileCounter);
                                 }
                             }
                         }
@@ -313,8 +350,35 @@ public final class CompileTheWorld {
             }
         }
 
+        if (threadPool != null) {
+            threadPool.shutdown();
+            while (!threadPool.awaitTermination(1, TimeUnit.SECONDS)) {
+                // wait for the queued compilations to finish
+            }
+            threadPool = null;
+        }
+
+        long elapsedTime = Math.max(System.currentTimeMillis() - start, 1);
+        int methods = compiledMethodsCounter.get();
         println();
-        println("CompileTheWorld : Done (%d classes, %d methods, %d ms, %d bytes of memory used)", classFileCounter, compiledMethodsCounter, compileTime, memoryUsed);
+        println("CompileTheWorld : Done (%d classes, %d methods, %d ms, %d bytes of memory used)", classFileCounter, methods, compileTime.get(), memoryUsed.get());
+        println("CompileTheWorld : Throughput with %d thread(s): %d ms elapsed, %.1f methods/s, %.1f bytecode bytes/s, %d bytes allocated per method", threads, elapsedTime, methods * 1000.0 /
+                        elapsedTime, compiledBytecodes.get() * 1000.0 / elapsedTime, methods == 0 ? 0 : memoryUsed.get() / methods);
+        println("CompileTheWorld : Compilation latency histogram");
+        for (int i = 0; i < latencyHistogram.length(); i++) {
+            long count = latencyHistogram.get(i);
+            if (count != 0) {
+                String range;
+                if (i == 0) {
+                    range = "< 1";
+                } else if (i == latencyHistogram.length() - 1) {
+                    range = "\u2265 " + (1L << (i - 1));
+                } else {
+                    range = (1L << (i - 1)) + " - " + ((1L << i) - 1);
+                }
+                println("    %15s ms: %d", range, count);
+            }
+        }
     }
 
     class CTWCompilationTask extends CompilationTask {
@@ -333,10 +397,29 @@ public final class CompileTheWorld {
         }
     }
 
+    /**
+     * Compiles a method on the current thread or, if more than one compiler thread is used, queues
+     * it for compilation on one of the CompileTheWorld compiler threads.
+     */
+    private void compileMethod(HotSpotResolvedJavaMethod method, int classFileIndex) {
+        if (threadPool == null) {
+            compileMethodNow(method, classFileIndex);
+        } else {
+            threadPool.execute(new Runnable() {
+                public void run() {
+                    // Option overrides are thread local.
+                    try (OverrideScope s = OptionValue.override(config)) {
+                        compileMethodNow(method, classFileIndex);
+                    }
+                }
+            });
+        }
+    }
+
     /**
      * Compiles a method and gathers some statistics.
      */
-    private void compileMethod(HotSpotResolvedJavaMethod method) {
+    private void compileMethodNow(HotSpotResolvedJavaMethod method, int classFileIndex) {
         try {
             long start = System.currentTimeMillis();
             long allocatedAtStart = getCurrentThreadAllocatedBytes();
@@ -345,12 +428,16 @@ public final class CompileTheWorld {
             CompilationTask task = new CTWCompilationTask(backend, method);
             task.runCompilation();
 
-            memoryUsed += getCurrentThreadAllocatedBytes() - allocatedAtStart;
-            compileTime += (System.currentTimeMillis() - start);
-            compiledMethodsCounter++;
+            long duration = System.currentTimeMillis() - start;
+            memoryUsed.addAndGet(getCurrentThreadAllocatedBytes() - allocatedAtStart);
+            compileTime.addAndGet(duration);
+            compiledBytecodes.addAndGet(method.getCodeSize());
+            compiledMethodsCounter.incrementAndGet();
+            int bucket = Math.min(64 - Long.numberOfLeadingZeros(duration), latencyHistogram.length() - 1);
+            latencyHistogram.incrementAndGet(bucket);
         } catch (Throwable t) {
             // Catch everything and print a message
-            println("CompileTheWorld (%d) : Error compiling method: %s", classFileCounter, method.format("%H.%n(%p):%r"));
+            println("CompileTheWorld (%d) : Error compiling method: %s", classFileIndex, method.format("%H.%n(%p):%r"));
             t.printStackTrace(TTY.cachedOut);
         }
     }
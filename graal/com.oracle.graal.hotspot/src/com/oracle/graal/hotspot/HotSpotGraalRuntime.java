@@ -592,6 +592,7 @@ public final class HotSpotGraalRuntime implements GraalRuntime, RuntimeProvider,
         }
         phaseTransition("final");
 
+        CompilationScheduler.getInstance().shutdown();
         SnippetCounter.printGroups(TTY.out().out());
         BenchmarkCounters.shutdown(getCompilerToVM(), runtimeStartTime);
     }
@@ -110,6 +110,24 @@ public final class HotSpotMethodData extends CompilerObject {
         return position >= 0 && position < normalDataSize() + extraDataSize();
     }
 
+    /**
+     * Gets the number of invocations counted in the MethodData::_invocation_counter field. The
+     * counter is only incremented by profiled code and may overflow into its carry bit for very
+     * hot methods, so this is only an approximation of the method's hotness.
+     */
+    public int getInvocationCount() {
+        return unsafe.getInt(metaspaceMethodData + config.methodDataInvocationCounterOffset + config.invocationCounterCounterOffset) >>> config.invocationCounterShift;
+    }
+
+    /**
+     * Gets the number of backward branches counted in the MethodData::_backedge_counter field.
+     *
+     * @see #getInvocationCount()
+     */
+    public int getBackedgeCount() {
+        return unsafe.getInt(metaspaceMethodData + config.methodDataBackedgeCounterOffset + config.invocationCounterCounterOffset) >>> config.invocationCounterShift;
+    }
+
     public int getDeoptimizationCount(DeoptimizationReason reason) {
         HotSpotMetaAccessProvider metaAccess = (HotSpotMetaAccessProvider) runtime().getHostProviders().getMetaAccess();
         int reasonIndex = metaAccess.convertDeoptReason(reason);
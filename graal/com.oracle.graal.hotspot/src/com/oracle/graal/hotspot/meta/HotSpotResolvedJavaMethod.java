@@ -87,6 +87,13 @@ public interface HotSpotResolvedJavaMethod extends ResolvedJavaMethod {
 
     ProfilingInfo getCompilationProfilingInfo(boolean isOSR);
 
+    /**
+     * Gets the MethodData object of this method.
+     *
+     * @return the MethodData object or null if the VM has not allocated one for this method yet
+     */
+    HotSpotMethodData getMethodData();
+
     default boolean isDefault() {
         if (isConstructor()) {
             return false;
@@ -417,10 +417,8 @@ public final class HotSpotResolvedJavaMethodImpl extends HotSpotMethod implement
         return getProfilingInfo(!isOSR, isOSR);
     }
 
-    private ProfilingInfo getProfilingInfo(boolean includeNormal, boolean includeOSR) {
-        ProfilingInfo info;
-
-        if (UseProfilingInformation.getValue() && methodData == null) {
+    public HotSpotMethodData getMethodData() {
+        if (methodData == null) {
             long metaspaceMethodData = unsafeReadWord(metaspaceMethod + runtime().getConfig().methodDataOffset);
             if (metaspaceMethodData != 0) {
                 methodData = new HotSpotMethodData(metaspaceMethodData);
@@ -430,13 +428,19 @@ public final class HotSpotResolvedJavaMethodImpl extends HotSpotMethod implement
                 }
             }
         }
+        return methodData;
+    }
+
+    private ProfilingInfo getProfilingInfo(boolean includeNormal, boolean includeOSR) {
+        ProfilingInfo info;
 
-        if (methodData == null || (!methodData.hasNormalData() && !methodData.hasExtraData())) {
+        HotSpotMethodData data = UseProfilingInformation.getValue() ? getMethodData() : null;
+        if (data == null || (!data.hasNormalData() && !data.hasExtraData())) {
             // Be optimistic and return false for exceptionSeen. A methodDataOop is allocated in
             // case of a deoptimization.
             info = DefaultProfilingInfo.get(TriState.FALSE);
         } else {
-            info = new HotSpotProfilingInfo(methodData, this, includeNormal, includeOSR);
+            info = new HotSpotProfilingInfo(data, this, includeNormal, includeOSR);
         }
         return info;
     }
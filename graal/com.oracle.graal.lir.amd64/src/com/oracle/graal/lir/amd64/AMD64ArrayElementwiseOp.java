@@ -0,0 +1,375 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.lir.amd64;
+
+import static com.oracle.graal.api.code.ValueUtil.*;
+import static com.oracle.graal.compiler.common.UnsafeAccess.*;
+import static com.oracle.graal.lir.LIRInstruction.OperandFlag.*;
+
+import java.lang.reflect.*;
+
+import com.oracle.graal.api.code.*;
+import com.oracle.graal.api.meta.*;
+import com.oracle.graal.asm.*;
+import com.oracle.graal.asm.amd64.*;
+import com.oracle.graal.asm.amd64.AMD64Address.Scale;
+import com.oracle.graal.asm.amd64.AMD64Assembler.ConditionFlag;
+import com.oracle.graal.compiler.common.*;
+import com.oracle.graal.compiler.common.calc.*;
+import com.oracle.graal.lir.*;
+import com.oracle.graal.lir.asm.*;
+import com.oracle.graal.lir.gen.*;
+
+/**
+ * Emits code which computes {@code result[i] = x[i] op y[i]} for an index range, where {@code y}
+ * is either an array or a scalar that is broadcast into all lanes of a vector register. The bulk
+ * of the elements is processed with packed SSE2 instructions on unaligned 16-byte vectors, the
+ * remaining elements are processed one at a time.
+ */
+@Opcode("ARRAY_ELEMENTWISE")
+public class AMD64ArrayElementwiseOp extends AMD64LIRInstruction {
+
+    private static final int VECTOR_SIZE = 16;
+
+    private final ElementwiseOp op;
+    private final Kind kind;
+    private final boolean scalarY;
+    private final int arrayBaseOffset;
+    private final int arrayIndexScale;
+
+    @Alive({REG}) protected Value resultValue;
+    @Alive({REG}) protected Value xValue;
+    @Alive({REG}) protected Value yValue;
+    @Alive({REG}) protected Value startValue;
+    @Alive({REG}) protected Value endValue;
+    @Temp({REG}) protected Value indexTemp;
+    @Temp({REG}) protected Value limitTemp;
+    @Temp({REG, ILLEGAL}) protected Value scalarTemp;
+    @Temp({REG, ILLEGAL}) protected Value scalarYTemp;
+    @Temp({REG}) protected Value vectorTemp1;
+    @Temp({REG}) protected Value vectorTemp2;
+
+    public AMD64ArrayElementwiseOp(LIRGeneratorTool tool, ElementwiseOp op, Kind kind, Value result, Value x, Value y, boolean scalarY, Value start, Value end) {
+        assert op.supports(kind);
+        this.op = op;
+        this.kind = kind;
+        this.scalarY = scalarY;
+
+        Class<?> arrayClass = Array.newInstance(kind.toJavaClass(), 0).getClass();
+        this.arrayBaseOffset = unsafe.arrayBaseOffset(arrayClass);
+        this.arrayIndexScale = unsafe.arrayIndexScale(arrayClass);
+
+        this.resultValue = result;
+        this.xValue = x;
+        this.yValue = y;
+        this.startValue = start;
+        this.endValue = end;
+
+        this.indexTemp = tool.newVariable(LIRKind.value(tool.target().wordKind));
+        this.limitTemp = tool.newVariable(LIRKind.value(tool.target().wordKind));
+        // Floating point elements are processed in the vector registers.
+        if (kind.isNumericInteger()) {
+            this.scalarTemp = tool.newVariable(LIRKind.value(kind));
+            this.scalarYTemp = scalarY ? Value.ILLEGAL : tool.newVariable(LIRKind.value(kind));
+        } else {
+            this.scalarTemp = Value.ILLEGAL;
+            this.scalarYTemp = Value.ILLEGAL;
+        }
+        this.vectorTemp1 = tool.newVariable(LIRKind.value(Kind.Double));
+        this.vectorTemp2 = tool.newVariable(LIRKind.value(Kind.Double));
+    }
+
+    @Override
+    public void emitCode(CompilationResultBuilder crb, AMD64MacroAssembler masm) {
+        Register result = asRegister(resultValue);
+        Register x = asRegister(xValue);
+        Register index = asRegister(indexTemp);
+        Register limit = asRegister(limitTemp);
+        Register vector1 = asDoubleReg(vectorTemp1);
+        Register vector2 = asDoubleReg(vectorTemp2);
+        Scale scale = Scale.fromInt(arrayIndexScale);
+        int vectorLength = VECTOR_SIZE / arrayIndexScale;
+
+        Label vectorLoop = new Label();
+        Label tail = new Label();
+        Label scalarLoop = new Label();
+        Label done = new Label();
+
+        masm.movslq(index, asRegister(startValue));
+        masm.movslq(limit, asRegister(endValue));
+        if (scalarY) {
+            emitBroadcast(masm, vector2, asRegister(yValue));
+        }
+
+        // Process 16-byte vectors as long as a whole vector is left.
+        masm.subq(limit, vectorLength);
+        masm.align(crb.target.wordSize * 2);
+        masm.bind(vectorLoop);
+        masm.cmpq(index, limit);
+        masm.jcc(ConditionFlag.Greater, tail);
+        masm.movdqu(vector1, new AMD64Address(x, index, scale, arrayBaseOffset));
+        if (!scalarY) {
+            masm.movdqu(vector2, new AMD64Address(asRegister(yValue), index, scale, arrayBaseOffset));
+        }
+        emitPackedOp(masm, vector1, vector2);
+        masm.movdqu(new AMD64Address(result, index, scale, arrayBaseOffset), vector1);
+        masm.addq(index, vectorLength);
+        masm.jmp(vectorLoop);
+
+        // Process the remaining elements one at a time.
+        masm.bind(tail);
+        masm.addq(limit, vectorLength);
+        masm.bind(scalarLoop);
+        masm.cmpq(index, limit);
+        masm.jcc(ConditionFlag.GreaterEqual, done);
+        AMD64Address xElement = new AMD64Address(x, index, scale, arrayBaseOffset);
+        AMD64Address resultElement = new AMD64Address(result, index, scale, arrayBaseOffset);
+        Register temp = kind.isNumericInteger() ? asRegister(scalarTemp) : vector1;
+        Register y;
+        if (scalarY) {
+            y = asRegister(yValue);
+        } else {
+            y = kind.isNumericInteger() ? asRegister(scalarYTemp) : vector2;
+            emitLoad(masm, y, new AMD64Address(asRegister(yValue), index, scale, arrayBaseOffset));
+        }
+        emitLoad(masm, temp, xElement);
+        emitScalarOp(masm, temp, y);
+        emitStore(masm, resultElement, temp);
+        masm.incrementq(index, 1);
+        masm.jmp(scalarLoop);
+
+        masm.bind(done);
+    }
+
+    private void emitBroadcast(AMD64MacroAssembler masm, Register dst, Register src) {
+        switch (kind) {
+            case Int:
+                masm.movdl(dst, src);
+                masm.pshufd(dst, dst, 0x00);
+                break;
+            case Long:
+                masm.movdq(dst, src);
+                masm.pshufd(dst, dst, 0x44);
+                break;
+            case Float:
+                masm.pshufd(dst, src, 0x00);
+                break;
+            case Double:
+                masm.pshufd(dst, src, 0x44);
+                break;
+            default:
+                throw GraalInternalError.shouldNotReachHere();
+        }
+    }
+
+    private void emitPackedOp(AMD64MacroAssembler masm, Register dst, Register src) {
+        switch (op) {
+            case ADD:
+                switch (kind) {
+                    case Int:
+                        masm.paddd(dst, src);
+                        break;
+                    case Long:
+                        masm.paddq(dst, src);
+                        break;
+                    case Float:
+                        masm.addps(dst, src);
+                        break;
+                    case Double:
+                        masm.addpd(dst, src);
+                        break;
+                    default:
+                        throw GraalInternalError.shouldNotReachHere();
+                }
+                break;
+            case SUB:
+                switch (kind) {
+                    case Int:
+                        masm.psubd(dst, src);
+                        break;
+                    case Long:
+                        masm.psubq(dst, src);
+                        break;
+                    case Float:
+                        masm.subps(dst, src);
+                        break;
+                    case Double:
+                        masm.subpd(dst, src);
+                        break;
+                    default:
+                        throw GraalInternalError.shouldNotReachHere();
+                }
+                break;
+            case MUL:
+                if (kind == Kind.Float) {
+                    masm.mulps(dst, src);
+                } else {
+                    masm.mulpd(dst, src);
+                }
+                break;
+            case AND:
+                masm.pand(dst, src);
+                break;
+            case OR:
+                masm.por(dst, src);
+                break;
+            case XOR:
+                masm.pxor(dst, src);
+                break;
+            default:
+                throw GraalInternalError.shouldNotReachHere();
+        }
+    }
+
+    /**
+     * Computes {@code dst = dst op y} for a single element.
+     */
+    private void emitScalarOp(AMD64MacroAssembler masm, Register dst, Register y) {
+        switch (op) {
+            case ADD:
+                switch (kind) {
+                    case Int:
+                        masm.addl(dst, y);
+                        break;
+                    case Long:
+                        masm.addq(dst, y);
+                        break;
+                    case Float:
+                        masm.addss(dst, y);
+                        break;
+                    case Double:
+                        masm.addsd(dst, y);
+                        break;
+                    default:
+                        throw GraalInternalError.shouldNotReachHere();
+                }
+                break;
+            case SUB:
+                switch (kind) {
+                    case Int:
+                        masm.subl(dst, y);
+                        break;
+                    case Long:
+                        masm.subq(dst, y);
+                        break;
+                    case Float:
+                        masm.subss(dst, y);
+                        break;
+                    case Double:
+                        masm.subsd(dst, y);
+                        break;
+                    default:
+                        throw GraalInternalError.shouldNotReachHere();
+                }
+                break;
+            case MUL:
+                switch (kind) {
+                    case Float:
+                        masm.mulss(dst, y);
+                        break;
+                    case Double:
+                        masm.mulsd(dst, y);
+                        break;
+                    default:
+                        throw GraalInternalError.shouldNotReachHere();
+                }
+                break;
+            case AND:
+                switch (kind) {
+                    case Int:
+                        masm.andl(dst, y);
+                        break;
+                    case Long:
+                        masm.andq(dst, y);
+                        break;
+                    default:
+                        throw GraalInternalError.shouldNotReachHere();
+                }
+                break;
+            case OR:
+                switch (kind) {
+                    case Int:
+                        masm.orl(dst, y);
+                        break;
+                    case Long:
+                        masm.orq(dst, y);
+                        break;
+                    default:
+                        throw GraalInternalError.shouldNotReachHere();
+                }
+                break;
+            case XOR:
+                switch (kind) {
+                    case Int:
+                        masm.xorl(dst, y);
+                        break;
+                    case Long:
+                        masm.xorq(dst, y);
+                        break;
+                    default:
+                        throw GraalInternalError.shouldNotReachHere();
+                }
+                break;
+            default:
+                throw GraalInternalError.shouldNotReachHere();
+        }
+    }
+
+    private void emitLoad(AMD64MacroAssembler masm, Register dst, AMD64Address src) {
+        switch (kind) {
+            case Int:
+                masm.movl(dst, src);
+                break;
+            case Long:
+                masm.movq(dst, src);
+                break;
+            case Float:
+                masm.movflt(dst, src);
+                break;
+            case Double:
+                masm.movdbl(dst, src);
+                break;
+            default:
+                throw GraalInternalError.shouldNotReachHere();
+        }
+    }
+
+    private void emitStore(AMD64MacroAssembler masm, AMD64Address dst, Register src) {
+        switch (kind) {
+            case Int:
+                masm.movl(dst, src);
+                break;
+            case Long:
+                masm.movq(dst, src);
+                break;
+            case Float:
+                masm.movflt(dst, src);
+                break;
+            case Double:
+                masm.movdbl(dst, src);
+                break;
+            default:
+                throw GraalInternalError.shouldNotReachHere();
+        }
+    }
+}
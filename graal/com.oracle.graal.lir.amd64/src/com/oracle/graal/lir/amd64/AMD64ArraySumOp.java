@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.lir.amd64;
+
+import static com.oracle.graal.api.code.ValueUtil.*;
+import static com.oracle.graal.compiler.common.UnsafeAccess.*;
+import static com.oracle.graal.lir.LIRInstruction.OperandFlag.*;
+
+import java.lang.reflect.*;
+
+import com.oracle.graal.api.code.*;
+import com.oracle.graal.api.meta.*;
+import com.oracle.graal.asm.*;
+import com.oracle.graal.asm.amd64.*;
+import com.oracle.graal.asm.amd64.AMD64Address.Scale;
+import com.oracle.graal.asm.amd64.AMD64Assembler.ConditionFlag;
+import com.oracle.graal.compiler.common.*;
+import com.oracle.graal.lir.*;
+import com.oracle.graal.lir.asm.*;
+import com.oracle.graal.lir.gen.*;
+
+/**
+ * Emits code which sums up the elements of an {@code int} or {@code long} array in a given index
+ * range. The bulk of the elements is added with packed SSE2 additions into a vector accumulator
+ * which is reduced horizontally at the end, the remaining elements are added one at a time.
+ */
+@Opcode("ARRAY_SUM")
+public class AMD64ArraySumOp extends AMD64LIRInstruction {
+
+    private static final int VECTOR_SIZE = 16;
+
+    private final Kind kind;
+    private final int arrayBaseOffset;
+    private final int arrayIndexScale;
+
+    @Def({REG}) protected Value resultValue;
+    @Alive({REG}) protected Value arrayValue;
+    @Alive({REG}) protected Value startValue;
+    @Alive({REG}) protected Value endValue;
+    @Temp({REG}) protected Value indexTemp;
+    @Temp({REG}) protected Value limitTemp;
+    @Temp({REG}) protected Value vectorTemp1;
+    @Temp({REG}) protected Value vectorTemp2;
+
+    public AMD64ArraySumOp(LIRGeneratorTool tool, Kind kind, Value result, Value array, Value start, Value end) {
+        assert kind == Kind.Int || kind == Kind.Long;
+        this.kind = kind;
+
+        Class<?> arrayClass = Array.newInstance(kind.toJavaClass(), 0).getClass();
+        this.arrayBaseOffset = unsafe.arrayBaseOffset(arrayClass);
+        this.arrayIndexScale = unsafe.arrayIndexScale(arrayClass);
+
+        this.resultValue = result;
+        this.arrayValue = array;
+        this.startValue = start;
+        this.endValue = end;
+
+        this.indexTemp = tool.newVariable(LIRKind.value(tool.target().wordKind));
+        this.limitTemp = tool.newVariable(LIRKind.value(tool.target().wordKind));
+        this.vectorTemp1 = tool.newVariable(LIRKind.value(Kind.Double));
+        this.vectorTemp2 = tool.newVariable(LIRKind.value(Kind.Double));
+    }
+
+    @Override
+    public void emitCode(CompilationResultBuilder crb, AMD64MacroAssembler masm) {
+        Register result = asRegister(resultValue);
+        Register array = asRegister(arrayValue);
+        Register index = asRegister(indexTemp);
+        Register limit = asRegister(limitTemp);
+        Register accumulator = asDoubleReg(vectorTemp1);
+        Register vector = asDoubleReg(vectorTemp2);
+        Scale scale = Scale.fromInt(arrayIndexScale);
+
+        Label vectorLoop = new Label();
+        Label reduce = new Label();
+        Label scalarLoop = new Label();
+        Label done = new Label();
+
+        masm.movslq(index, asRegister(startValue));
+        masm.movslq(limit, asRegister(endValue));
+        masm.pxor(accumulator, accumulator);
+
+        // Add 16-byte vectors as long as a whole vector is left.
+        masm.subq(limit, VECTOR_SIZE / arrayIndexScale);
+        masm.align(crb.target.wordSize * 2);
+        masm.bind(vectorLoop);
+        masm.cmpq(index, limit);
+        masm.jcc(ConditionFlag.Greater, reduce);
+        masm.movdqu(vector, new AMD64Address(array, index, scale, arrayBaseOffset));
+        if (kind == Kind.Int) {
+            masm.paddd(accumulator, vector);
+        } else {
+            masm.paddq(accumulator, vector);
+        }
+        masm.addq(index, VECTOR_SIZE / arrayIndexScale);
+        masm.jmp(vectorLoop);
+
+        // Fold the lanes of the accumulator into the lowest one.
+        masm.bind(reduce);
+        masm.addq(limit, VECTOR_SIZE / arrayIndexScale);
+        masm.pshufd(vector, accumulator, 0x4E);
+        if (kind == Kind.Int) {
+            masm.paddd(accumulator, vector);
+            masm.pshufd(vector, accumulator, 0xB1);
+            masm.paddd(accumulator, vector);
+            masm.movdl(result, accumulator);
+        } else {
+            masm.paddq(accumulator, vector);
+            masm.movdq(result, accumulator);
+        }
+
+        // Add the remaining elements one at a time.
+        masm.bind(scalarLoop);
+        masm.cmpq(index, limit);
+        masm.jcc(ConditionFlag.GreaterEqual, done);
+        AMD64Address element = new AMD64Address(array, index, scale, arrayBaseOffset);
+        switch (kind) {
+            case Int:
+                masm.addl(result, element);
+                break;
+            case Long:
+                masm.addq(result, element);
+                break;
+            default:
+                throw GraalInternalError.shouldNotReachHere();
+        }
+        masm.incrementq(index, 1);
+        masm.jmp(scalarLoop);
+
+        masm.bind(done);
+    }
+}
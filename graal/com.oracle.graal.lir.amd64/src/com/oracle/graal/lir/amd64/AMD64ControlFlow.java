@@ -25,6 +25,9 @@ package com.oracle.graal.lir.amd64;
 import static com.oracle.graal.api.code.ValueUtil.*;
 import static com.oracle.graal.lir.LIRInstruction.OperandFlag.*;
 
+import java.nio.*;
+import java.util.function.*;
+
 import com.oracle.graal.amd64.*;
 import com.oracle.graal.api.code.CompilationResult.JumpTable;
 import com.oracle.graal.api.code.*;
@@ -212,44 +215,122 @@ public class AMD64ControlFlow {
                 masm.jcc(ConditionFlag.Above, defaultTarget.label());
             }
 
-            // Set scratch to address of jump table
-            masm.leaq(scratchReg, new AMD64Address(AMD64.rip, 0));
-            final int afterLea = masm.position();
+            emitJumpTable(crb, masm, scratchReg, idxScratchReg, lowKey, highKey, targets);
+        }
+    }
+
+    /**
+     * Emits an indirect jump through a table of {@code targets} that is indexed by the zero-based,
+     * zero-extended index in {@code idxScratchReg}, followed by the table itself.
+     */
+    private static void emitJumpTable(CompilationResultBuilder crb, AMD64MacroAssembler masm, Register scratchReg, Register idxScratchReg, int lowKey, int highKey, LabelRef[] targets) {
+        // Set scratch to address of jump table
+        masm.leaq(scratchReg, new AMD64Address(AMD64.rip, 0));
+        final int afterLea = masm.position();
+
+        // Load jump table entry into scratch and jump to it
+        masm.movslq(idxScratchReg, new AMD64Address(scratchReg, idxScratchReg, Scale.Times4, 0));
+        masm.addq(scratchReg, idxScratchReg);
+        masm.jmp(scratchReg);
+
+        // Inserting padding so that jump table address is 4-byte aligned
+        if ((masm.position() & 0x3) != 0) {
+            masm.nop(4 - (masm.position() & 0x3));
+        }
 
-            // Load jump table entry into scratch and jump to it
-            masm.movslq(idxScratchReg, new AMD64Address(scratchReg, idxScratchReg, Scale.Times4, 0));
-            masm.addq(scratchReg, idxScratchReg);
-            masm.jmp(scratchReg);
+        // Patch LEA instruction above now that we know the position of the jump table
+        // TODO this is ugly and should be done differently
+        final int jumpTablePos = masm.position();
+        final int leaDisplacementPosition = afterLea - 4;
+        masm.emitInt(jumpTablePos - afterLea, leaDisplacementPosition);
+
+        // Emit jump table entries
+        for (LabelRef target : targets) {
+            Label label = target.label();
+            int offsetToJumpTableBase = masm.position() - jumpTablePos;
+            if (label.isBound()) {
+                int imm32 = label.position() - jumpTablePos;
+                masm.emitInt(imm32);
+            } else {
+                label.addPatchAt(masm.position());
 
-            // Inserting padding so that jump table address is 4-byte aligned
-            if ((masm.position() & 0x3) != 0) {
-                masm.nop(4 - (masm.position() & 0x3));
+                masm.emitByte(0); // pseudo-opcode for jump table entry
+                masm.emitShort(offsetToJumpTableBase);
+                masm.emitByte(0); // padding to make jump table entry 4 bytes wide
             }
+        }
 
-            // Patch LEA instruction above now that we know the position of the jump table
-            // TODO this is ugly and should be done differently
-            final int jumpTablePos = masm.position();
-            final int leaDisplacementPosition = afterLea - 4;
-            masm.emitInt(jumpTablePos - afterLea, leaDisplacementPosition);
-
-            // Emit jump table entries
-            for (LabelRef target : targets) {
-                Label label = target.label();
-                int offsetToJumpTableBase = masm.position() - jumpTablePos;
-                if (label.isBound()) {
-                    int imm32 = label.position() - jumpTablePos;
-                    masm.emitInt(imm32);
-                } else {
-                    label.addPatchAt(masm.position());
-
-                    masm.emitByte(0); // pseudo-opcode for jump table entry
-                    masm.emitShort(offsetToJumpTableBase);
-                    masm.emitByte(0); // padding to make jump table entry 4 bytes wide
-                }
+        JumpTable jt = new JumpTable(jumpTablePos, lowKey, highKey, 4);
+        crb.compilationResult.addAnnotation(jt);
+    }
+
+    /**
+     * Switch over sparse int keys that first tests the hot keys and then looks up the remaining keys
+     * with a {@link SwitchHash perfect hash} in a jump table.
+     */
+    public static class HashTableSwitchOp extends AMD64LIRInstruction implements BlockEndOp {
+        private final SwitchHash hash;
+        private final JavaConstant[] keyConstants;
+        private final LabelRef[] keyTargets;
+        private final int[] hotKeys;
+        private final LabelRef defaultTarget;
+        @Alive({REG}) protected Value key;
+        @Temp({REG}) protected Value idxScratch;
+        @Temp({REG}) protected Value scratch;
+
+        public HashTableSwitchOp(SwitchHash hash, JavaConstant[] keyConstants, LabelRef[] keyTargets, int[] hotKeys, LabelRef defaultTarget, Value key, Variable scratch, Variable idxScratch) {
+            this.hash = hash;
+            this.keyConstants = keyConstants;
+            this.keyTargets = keyTargets;
+            this.hotKeys = hotKeys;
+            this.defaultTarget = defaultTarget;
+            this.key = key;
+            this.scratch = scratch;
+            this.idxScratch = idxScratch;
+        }
+
+        @Override
+        public void emitCode(CompilationResultBuilder crb, AMD64MacroAssembler masm) {
+            Register keyReg = asIntReg(key);
+            Register idxScratchReg = asIntReg(idxScratch);
+            Register scratchReg = asLongReg(scratch);
+
+            for (int index : hotKeys) {
+                masm.cmpl(keyReg, keyConstants[index].asInt());
+                masm.jcc(ConditionFlag.Equal, keyTargets[index].label());
             }
 
-            JumpTable jt = new JumpTable(jumpTablePos, lowKey, highKey, 4);
-            crb.compilationResult.addAnnotation(jt);
+            // Load the displacement of the bucket
+            masm.imull(idxScratchReg, keyReg, hash.getBucketMultiplier());
+            masm.shrl(idxScratchReg, 32 - hash.getBucketBits());
+            masm.leaq(scratchReg, (AMD64Address) crb.recordDataReferenceInCode(toBytes(hash.getBucketCount(), hash::getDisplacement), 4));
+            masm.movl(idxScratchReg, new AMD64Address(scratchReg, idxScratchReg, Scale.Times4, 0));
+
+            // Add it to the slot hash of the key
+            masm.imull(scratchReg, keyReg, hash.getSlotMultiplier());
+            masm.shrl(scratchReg, 32 - hash.getSlotBits());
+            masm.addl(idxScratchReg, scratchReg);
+            masm.andl(idxScratchReg, hash.getSlotCount() - 1);
+
+            // Jump to default target if the slot holds a different key
+            masm.leaq(scratchReg, (AMD64Address) crb.recordDataReferenceInCode(toBytes(hash.getSlotCount(), hash::getSlotKey), 4));
+            masm.cmpl(keyReg, new AMD64Address(scratchReg, idxScratchReg, Scale.Times4, 0));
+            masm.jcc(ConditionFlag.NotEqual, defaultTarget.label());
+
+            LabelRef[] targets = new LabelRef[hash.getSlotCount()];
+            for (int slot = 0; slot < targets.length; slot++) {
+                int index = hash.getSlotIndex(slot);
+                targets[slot] = index >= 0 ? keyTargets[index] : defaultTarget;
+            }
+            emitJumpTable(crb, masm, scratchReg, idxScratchReg, 0, targets.length - 1, targets);
+        }
+
+        private static byte[] toBytes(int length, IntUnaryOperator values) {
+            ByteBuffer buffer = ByteBuffer.allocate(length * 4).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < length; i++) {
+                buffer.putInt(values.applyAsInt(i));
+            }
+            return buffer.array();
         }
     }
 
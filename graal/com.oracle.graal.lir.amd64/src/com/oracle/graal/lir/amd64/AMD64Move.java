@@ -316,7 +316,11 @@ public class AMD64Move {
 
         @Override
         public void emitCode(CompilationResultBuilder crb, AMD64MacroAssembler masm) {
-            masm.leaq(asLongReg(result), address.toAddress());
+            if (result.getKind() == Kind.Int) {
+                masm.leal(asIntReg(result), address.toAddress());
+            } else {
+                masm.leaq(asLongReg(result), address.toAddress());
+            }
         }
     }
 
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.lir.test;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.*;
+
+import com.oracle.graal.lir.*;
+
+public class SwitchHashTest {
+
+    private static void checkHash(int[] keys) {
+        SwitchHash hash = SwitchHash.create(keys);
+        assertNotNull(hash);
+        assertTrue(hash.getSlotCount() >= keys.length);
+        Set<Integer> slots = new HashSet<>();
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(i, hash.lookup(keys[i]));
+            assertTrue(slots.add(hash.slot(keys[i])));
+        }
+        Set<Integer> keySet = new HashSet<>();
+        for (int key : keys) {
+            keySet.add(key);
+        }
+        Random random = new Random(17);
+        for (int i = 0; i < 10000; i++) {
+            int key = random.nextInt();
+            if (!keySet.contains(key)) {
+                assertEquals(-1, hash.lookup(key));
+            }
+        }
+    }
+
+    @Test
+    public void testSmall() {
+        checkHash(new int[]{-5, 3});
+        checkHash(new int[]{0, 1000, 2000000, Integer.MAX_VALUE, Integer.MIN_VALUE});
+    }
+
+    @Test
+    public void testSparse() {
+        int[] keys = new int[300];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i * 7919 - 1000000;
+        }
+        checkHash(keys);
+    }
+
+    @Test
+    public void testRandom() {
+        Random random = new Random(42);
+        for (int n : new int[]{16, 100, 1000}) {
+            Set<Integer> keys = new TreeSet<>();
+            while (keys.size() < n) {
+                keys.add(random.nextInt());
+            }
+            int[] array = new int[n];
+            int i = 0;
+            for (int key : keys) {
+                array[i++] = key;
+            }
+            checkHash(array);
+        }
+    }
+}
@@ -61,6 +61,8 @@ public class LIR {
 
     private boolean hasArgInCallerFrame;
 
+    private AbstractBlock<?> firstColdBlock;
+
     /**
      * Creates a new LIR instance for the specified compilation.
      */
@@ -115,6 +117,38 @@ public class LIR {
         return codeEmittingOrder;
     }
 
+    /**
+     * Sets the first of the rarely executed blocks that are emitted behind all other blocks.
+     */
+    public void setFirstColdBlock(AbstractBlock<?> block) {
+        assert codeEmittingOrder.contains(block);
+        firstColdBlock = block;
+    }
+
+    /**
+     * Gets the first block of the {@linkplain #codeEmittingOrder() code emitting order} that only
+     * rarely executed blocks follow, or null if the cold blocks are not separated from the others.
+     */
+    public AbstractBlock<?> getFirstColdBlock() {
+        return firstColdBlock;
+    }
+
+    /**
+     * Gets the number of instructions in the blocks that are emitted.
+     */
+    public int getInstructionCount() {
+        int count = 0;
+        for (AbstractBlock<?> block : codeEmittingOrder) {
+            if (block != null) {
+                List<LIRInstruction> instructions = getLIRforBlock(block);
+                if (instructions != null) {
+                    count += instructions.size();
+                }
+            }
+        }
+        return count;
+    }
+
     public int numVariables() {
         return numVariables;
     }
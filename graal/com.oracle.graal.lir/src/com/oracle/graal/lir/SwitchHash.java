@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.lir;
+
+import java.util.*;
+
+import com.oracle.graal.api.meta.*;
+
+/**
+ * A minimal perfect hash function for the int keys of a sparse switch. The hash is computed in two
+ * steps: the key selects a bucket, the displacement of that bucket is added to a second hash of the
+ * key and the sum is masked to a slot of the jump table. A key is looked up by comparing it against
+ * the key stored in its slot, so slots that are not used by any key can hold arbitrary keys as long
+ * as they jump to the default target.
+ *
+ * <pre>
+ * bucket = (key * bucketMultiplier) &gt;&gt;&gt; (32 - bucketBits)
+ * slot = (((key * slotMultiplier) &gt;&gt;&gt; (32 - slotBits)) + displacements[bucket]) &amp; (slotCount - 1)
+ * </pre>
+ */
+public final class SwitchHash {
+
+    /**
+     * Number of multiplier pairs that are tried per table size before giving up.
+     */
+    private static final int MAX_ATTEMPTS = 16;
+
+    /**
+     * Tables are at most {@code 1 << MAX_EXTRA_SLOT_BITS} times bigger than the smallest power of
+     * two that can hold all keys.
+     */
+    private static final int MAX_EXTRA_SLOT_BITS = 1;
+
+    private final int bucketMultiplier;
+    private final int bucketBits;
+    private final int slotMultiplier;
+    private final int slotBits;
+    private final int[] displacements;
+    private final int[] slotKeys;
+    private final int[] slotIndexes;
+
+    private SwitchHash(int bucketMultiplier, int bucketBits, int slotMultiplier, int slotBits, int[] displacements, int[] slotKeys, int[] slotIndexes) {
+        this.bucketMultiplier = bucketMultiplier;
+        this.bucketBits = bucketBits;
+        this.slotMultiplier = slotMultiplier;
+        this.slotBits = slotBits;
+        this.displacements = displacements;
+        this.slotKeys = slotKeys;
+        this.slotIndexes = slotIndexes;
+    }
+
+    public int getBucketMultiplier() {
+        return bucketMultiplier;
+    }
+
+    public int getBucketBits() {
+        return bucketBits;
+    }
+
+    public int getSlotMultiplier() {
+        return slotMultiplier;
+    }
+
+    public int getSlotBits() {
+        return slotBits;
+    }
+
+    public int getSlotCount() {
+        return slotKeys.length;
+    }
+
+    /**
+     * Gets the displacement that is added to the slot hash of all keys in the given bucket.
+     */
+    public int getDisplacement(int bucket) {
+        return displacements[bucket];
+    }
+
+    public int getBucketCount() {
+        return displacements.length;
+    }
+
+    /**
+     * Gets the key stored in the given slot.
+     */
+    public int getSlotKey(int slot) {
+        return slotKeys[slot];
+    }
+
+    /**
+     * Gets the index of the key stored in the given slot, or -1 if the slot is not used by any key.
+     */
+    public int getSlotIndex(int slot) {
+        return slotIndexes[slot];
+    }
+
+    public int bucket(int key) {
+        return (key * bucketMultiplier) >>> (32 - bucketBits);
+    }
+
+    public int slot(int key) {
+        return (((key * slotMultiplier) >>> (32 - slotBits)) + displacements[bucket(key)]) & (slotKeys.length - 1);
+    }
+
+    /**
+     * Gets the index of the given key, or -1 if it is not one of the keys of this hash.
+     */
+    public int lookup(int key) {
+        int slot = slot(key);
+        return slotKeys[slot] == key ? slotIndexes[slot] : -1;
+    }
+
+    /**
+     * Tries to find a perfect hash for the given distinct int keys.
+     *
+     * @return the hash, or null if none was found within the search limits
+     */
+    public static SwitchHash create(JavaConstant[] keyConstants) {
+        int[] keys = new int[keyConstants.length];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = keyConstants[i].asInt();
+        }
+        return create(keys);
+    }
+
+    public static SwitchHash create(int[] keys) {
+        assert keys.length >= 2;
+        int minSlotBits = 32 - Integer.numberOfLeadingZeros(keys.length - 1);
+        long seed = 0x9E3779B97F4A7C15L;
+        for (int slotBits = minSlotBits; slotBits <= minSlotBits + MAX_EXTRA_SLOT_BITS && slotBits < 31; slotBits++) {
+            int bucketBits = Math.max(1, slotBits - 1);
+            for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+                seed = nextSeed(seed);
+                int bucketMultiplier = (int) (seed >>> 32) | 1;
+                seed = nextSeed(seed);
+                int slotMultiplier = (int) (seed >>> 32) | 1;
+                SwitchHash hash = tryCreate(keys, bucketMultiplier, bucketBits, slotMultiplier, slotBits);
+                if (hash != null) {
+                    return hash;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static long nextSeed(long seed) {
+        return seed * 6364136223846793005L + 1442695040888963407L;
+    }
+
+    private static SwitchHash tryCreate(int[] keys, int bucketMultiplier, int bucketBits, int slotMultiplier, int slotBits) {
+        int slotCount = 1 << slotBits;
+        int mask = slotCount - 1;
+        int bucketCount = 1 << bucketBits;
+
+        List<List<Integer>> buckets = new ArrayList<>(bucketCount);
+        for (int i = 0; i < bucketCount; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        for (int i = 0; i < keys.length; i++) {
+            buckets.get((keys[i] * bucketMultiplier) >>> (32 - bucketBits)).add(i);
+        }
+        Integer[] order = new Integer[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            order[i] = i;
+        }
+        // place the biggest buckets first, while most slots are still free
+        Arrays.sort(order, (b1, b2) -> buckets.get(b2).size() - buckets.get(b1).size());
+
+        int[] displacements = new int[bucketCount];
+        int[] slotIndexes = new int[slotCount];
+        Arrays.fill(slotIndexes, -1);
+        int[] hashes = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            hashes[i] = (keys[i] * slotMultiplier) >>> (32 - slotBits);
+        }
+
+        for (int b : order) {
+            List<Integer> bucket = buckets.get(b);
+            if (bucket.isEmpty()) {
+                break;
+            }
+            int displacement = findDisplacement(bucket, hashes, slotIndexes, mask);
+            if (displacement < 0) {
+                return null;
+            }
+            displacements[b] = displacement;
+            for (int i : bucket) {
+                slotIndexes[(hashes[i] + displacement) & mask] = i;
+            }
+        }
+
+        int[] slotKeys = new int[slotCount];
+        for (int slot = 0; slot < slotCount; slot++) {
+            // unused slots get a key that the lookup can never select for them
+            slotKeys[slot] = slotIndexes[slot] >= 0 ? keys[slotIndexes[slot]] : keys[0];
+        }
+        return new SwitchHash(bucketMultiplier, bucketBits, slotMultiplier, slotBits, displacements, slotKeys, slotIndexes);
+    }
+
+    /**
+     * Finds a displacement that maps all keys of the bucket to distinct free slots.
+     *
+     * @return the displacement, or -1 if there is none
+     */
+    private static int findDisplacement(List<Integer> bucket, int[] hashes, int[] slotIndexes, int mask) {
+        outer: for (int displacement = 0; displacement <= mask; displacement++) {
+            for (int j = 0; j < bucket.size(); j++) {
+                int slot = (hashes[bucket.get(j)] + displacement) & mask;
+                if (slotIndexes[slot] >= 0) {
+                    continue outer;
+                }
+                for (int k = 0; k < j; k++) {
+                    if (slot == ((hashes[bucket.get(k)] + displacement) & mask)) {
+                        continue outer;
+                    }
+                }
+            }
+            return displacement;
+        }
+        return -1;
+    }
+}
@@ -45,6 +45,9 @@ import com.oracle.graal.lir.*;
  */
 public class CompilationResultBuilder {
 
+    private static final DebugMetric HOT_CODE_BYTES = Debug.metric("HotCodeBytes");
+    private static final DebugMetric COLD_CODE_BYTES = Debug.metric("ColdCodeBytes");
+
     private static class ExceptionInfo {
 
         public final int codeOffset;
@@ -343,14 +346,33 @@ public class CompilationResultBuilder {
         this.lir = lir;
         this.currentBlockIndex = 0;
         frameContext.enter(this);
+        int hotCodeEnd = -1;
         for (AbstractBlock<?> b : lir.codeEmittingOrder()) {
+            if (b == lir.getFirstColdBlock()) {
+                hotCodeEnd = asm.position();
+            }
             emitBlock(b);
             currentBlockIndex++;
         }
+        recordColdCode(hotCodeEnd == -1 ? asm.position() : hotCodeEnd);
         this.lir = null;
         this.currentBlockIndex = 0;
     }
 
+    /**
+     * Records where the rarely executed blocks behind the last hot block start. The size of the
+     * code up to there is the instruction cache footprint of the hot code.
+     */
+    private void recordColdCode(int hotCodeEnd) {
+        int codeEnd = asm.position();
+        HOT_CODE_BYTES.add(hotCodeEnd);
+        COLD_CODE_BYTES.add(codeEnd - hotCodeEnd);
+        Debug.log("hot code footprint: %d of %d bytes", hotCodeEnd, codeEnd);
+        if (hotCodeEnd < codeEnd) {
+            compilationResult.setColdCodeOffset(hotCodeEnd);
+        }
+    }
+
     private void emitBlock(AbstractBlock<?> block) {
         if (Debug.isDumpEnabled()) {
             blockComment(String.format("block B%d %s", block.getId(), block.getLoop()));
@@ -52,6 +52,10 @@ public abstract class LIRGenerator implements LIRGeneratorTool, LIRKindTool {
         public static final OptionValue<Boolean> PrintIRWithLIR = new OptionValue<>(false);
         @Option(help = "The trace level for the LIR generator")
         public static final OptionValue<Integer> TraceLIRGeneratorLevel = new OptionValue<>(0);
+        @Option(help = "Minimum number of keys for lowering a sparse switch to a hashed jump table (0 to disable)")
+        public static final OptionValue<Integer> MinimumHashSwitchSize = new OptionValue<>(32);
+        @Option(help = "Keys of a hashed switch with at least this probability are tested before the hash lookup")
+        public static final OptionValue<Double> HashSwitchHotKeyProbability = new OptionValue<>(0.2);
         // @formatter:on
     }
 
@@ -305,7 +309,7 @@ public abstract class LIRGenerator implements LIRGeneratorTool, LIRKindTool {
          * gradually with additional effort.
          */
         if (strategy.getAverageEffort() < 4 || tableSwitchDensity < (1 / Math.sqrt(strategy.getAverageEffort()))) {
-            emitStrategySwitch(strategy, value, keyTargets, defaultTarget);
+            emitSparseSwitch(strategy, keyConstants, keyProbabilities, keyTargets, defaultTarget, value);
         } else {
             int minValue = keyConstants[0].asInt();
             assert valueRange < Integer.MAX_VALUE;
@@ -320,6 +324,52 @@ public abstract class LIRGenerator implements LIRGeneratorTool, LIRKindTool {
         }
     }
 
+    /**
+     * Emits a switch over keys that are too sparse for a table switch. Backends that can look up
+     * the keys in a hashed jump table override this and use {@link #selectHashSwitchHotKeys} to
+     * decide whether that is cheaper than {@code strategy}.
+     */
+    protected void emitSparseSwitch(SwitchStrategy strategy, JavaConstant[] keyConstants, double[] keyProbabilities, LabelRef[] keyTargets, LabelRef defaultTarget, Variable value) {
+        emitStrategySwitch(strategy, value, keyTargets, defaultTarget);
+    }
+
+    /**
+     * Selects the keys that a hashed switch tests before looking up all other keys in a hashed jump
+     * table.
+     *
+     * @return the hot keys as indexes into {@code keyConstants} in the order they are tested, or
+     *         null if a hashed switch does not need fewer comparisons on average than
+     *         {@code strategy}
+     */
+    protected static int[] selectHashSwitchHotKeys(SwitchStrategy strategy, JavaConstant[] keyConstants, double[] keyProbabilities) {
+        int minimumSize = Options.MinimumHashSwitchSize.getValue();
+        if (minimumSize <= 0 || keyConstants.length < minimumSize) {
+            return null;
+        }
+        Integer[] indexes = new Integer[keyConstants.length];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = i;
+        }
+        Arrays.sort(indexes, (i1, i2) -> Double.compare(keyProbabilities[i2], keyProbabilities[i1]));
+        int hotKeyCount = 0;
+        double hotProbability = 0;
+        double effort = 0;
+        while (hotKeyCount < indexes.length && keyProbabilities[indexes[hotKeyCount]] >= Options.HashSwitchHotKeyProbability.getValue()) {
+            hotProbability += keyProbabilities[indexes[hotKeyCount]];
+            effort += keyProbabilities[indexes[hotKeyCount]] * ++hotKeyCount;
+        }
+        // all other keys and the default need one more comparison after the hot keys
+        effort += Math.max(0, 1 - hotProbability) * (hotKeyCount + 1);
+        if (effort >= strategy.getAverageEffort()) {
+            return null;
+        }
+        int[] hotKeys = new int[hotKeyCount];
+        for (int i = 0; i < hotKeyCount; i++) {
+            hotKeys[i] = indexes[i];
+        }
+        return hotKeys;
+    }
+
     public abstract void emitStrategySwitch(SwitchStrategy strategy, Variable key, LabelRef[] keyTargets, LabelRef defaultTarget);
 
     protected abstract void emitTableSwitch(int lowKey, LabelRef defaultTarget, LabelRef[] targets, Value key);
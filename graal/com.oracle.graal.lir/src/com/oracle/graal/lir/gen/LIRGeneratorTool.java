@@ -189,4 +189,8 @@ public interface LIRGeneratorTool extends ArithmeticLIRGenerator {
 
     Value emitArrayEquals(Kind kind, Value array1, Value array2, Value length);
 
+    Value emitArraySum(Kind kind, Value array, Value start, Value end);
+
+    void emitArrayElementwise(ElementwiseOp op, Kind kind, Value result, Value x, Value y, boolean scalarY, Value start, Value end);
+
 }
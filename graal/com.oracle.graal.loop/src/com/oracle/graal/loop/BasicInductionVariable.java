@@ -22,6 +22,8 @@
  */
 package com.oracle.graal.loop;
 
+import java.util.*;
+
 import com.oracle.graal.compiler.common.*;
 import com.oracle.graal.compiler.common.type.*;
 import com.oracle.graal.nodes.*;
@@ -80,6 +82,13 @@ public class BasicInductionVariable extends InductionVariable {
         return init;
     }
 
+    @Override
+    public ValueNode valueNodeFor(Map<? extends PhiNode, ? extends ValueNode> phiValues) {
+        ValueNode value = phiValues.get(phi);
+        assert value != null : "no value for " + phi;
+        return value;
+    }
+
     @Override
     public ValueNode strideNode() {
         if (op instanceof AddNode) {
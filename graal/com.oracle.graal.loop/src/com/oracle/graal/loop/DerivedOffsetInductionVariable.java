@@ -22,6 +22,8 @@
  */
 package com.oracle.graal.loop;
 
+import java.util.*;
+
 import com.oracle.graal.compiler.common.*;
 import com.oracle.graal.compiler.common.type.*;
 import com.oracle.graal.nodes.*;
@@ -83,6 +85,11 @@ public class DerivedOffsetInductionVariable extends InductionVariable {
         return op(base.initNode(), offset);
     }
 
+    @Override
+    public ValueNode valueNodeFor(Map<? extends PhiNode, ? extends ValueNode> phiValues) {
+        return op(base.valueNodeFor(phiValues), offset);
+    }
+
     @Override
     public ValueNode strideNode() {
         if (value instanceof SubNode && base.valueNode() == value.getY()) {
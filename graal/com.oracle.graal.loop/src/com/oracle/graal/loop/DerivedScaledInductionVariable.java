@@ -22,6 +22,8 @@
  */
 package com.oracle.graal.loop;
 
+import java.util.*;
+
 import com.oracle.graal.compiler.common.type.*;
 import com.oracle.graal.nodes.*;
 import com.oracle.graal.nodes.calc.*;
@@ -76,6 +78,11 @@ public class DerivedScaledInductionVariable extends InductionVariable {
         return BinaryArithmeticNode.mul(graph(), base.initNode(), scale);
     }
 
+    @Override
+    public ValueNode valueNodeFor(Map<? extends PhiNode, ? extends ValueNode> phiValues) {
+        return BinaryArithmeticNode.mul(graph(), base.valueNodeFor(phiValues), scale);
+    }
+
     @Override
     public ValueNode strideNode() {
         return BinaryArithmeticNode.mul(graph(), base.strideNode(), scale);
@@ -22,6 +22,8 @@
  */
 package com.oracle.graal.loop;
 
+import java.util.*;
+
 import com.oracle.graal.compiler.common.*;
 import com.oracle.graal.compiler.common.type.*;
 import com.oracle.graal.nodes.*;
@@ -71,6 +73,12 @@ public abstract class InductionVariable {
      */
     public abstract ValueNode initNode();
 
+    /**
+     * Returns the node that gives the value of this induction variable if the phis of the basic
+     * induction variables it is derived from have the values given by {@code phiValues}.
+     */
+    public abstract ValueNode valueNodeFor(Map<? extends PhiNode, ? extends ValueNode> phiValues);
+
     /**
      * Returns the stride of the induction variable. The stride is the value that is added to the
      * induction variable at each iteration.
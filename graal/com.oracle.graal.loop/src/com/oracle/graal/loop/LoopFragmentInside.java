@@ -44,6 +44,7 @@ public class LoopFragmentInside extends LoopFragment {
      * of the duplicated inside fragment
      */
     private Map<ValuePhiNode, ValueNode> mergedInitializers;
+    private Map<PhiNode, ValueNode> originalBackValues;
     private final DuplicationReplacement dataFixBefore = new DuplicationReplacement() {
 
         @Override
@@ -74,9 +75,73 @@ public class LoopFragmentInside extends LoopFragment {
         return (LoopFragmentInside) super.original();
     }
 
-    @SuppressWarnings("unused")
+    /**
+     * Appends this duplicate of the loop body to the end of the loop's body, so that one trip
+     * around the loop executes one more iteration of the original loop. The loop must have a
+     * single loop end. The exits of the appended copy are not connected to anything: the caller
+     * has to remove the control splits leading to them, which is only correct if it knows that
+     * these iterations never leave the loop.
+     */
     public void appendInside(LoopEx loop) {
-        // TODO (gd)
+        assert this.isDuplicate() && this.original().loop() == loop;
+        final LoopBeginNode loopBegin = loop.loopBegin();
+        assert loopBegin.loopEnds().count() == 1;
+        final LoopEndNode loopEnd = loopBegin.loopEnds().first();
+        Map<PhiNode, ValueNode> backValues = original().originalBackValues();
+
+        // the loop-phis of the copy are the back-edge values of the body it is appended to
+        patchNodes(new DuplicationReplacement() {
+
+            @Override
+            public Node replacement(Node oriInput) {
+                if (loopBegin.isPhiAtMerge(oriInput)) {
+                    return ((PhiNode) oriInput).valueAt(loopEnd);
+                }
+                return oriInput;
+            }
+        });
+
+        Map<PhiNode, ValueNode> newBackValues = newNodeIdentityMap();
+        for (PhiNode phi : loopBegin.phis()) {
+            ValueNode backValue = backValues.get(phi);
+            ValueNode newValue;
+            if (loopBegin.isPhiAtMerge(backValue)) {
+                newValue = ((PhiNode) backValue).valueAt(loopEnd);
+            } else {
+                newValue = getDuplicatedNode(backValue);
+                if (newValue == null) {
+                    newValue = backValue;
+                }
+            }
+            newBackValues.put(phi, newValue);
+        }
+        for (Map.Entry<PhiNode, ValueNode> backEdge : newBackValues.entrySet()) {
+            backEdge.getKey().setValueAt(loopEnd, backEdge.getValue());
+        }
+
+        BeginNode entry = getDuplicatedNode(loopBegin);
+        AbstractEndNode end = getDuplicatedNode(loopEnd);
+        loopEnd.replaceAtPredecessor(entry);
+        end.replaceAtPredecessor(loopEnd);
+        end.safeDelete();
+    }
+
+    /**
+     * Gets the back-edge values the loop-phis had before any duplicate was appended inside the
+     * loop. They describe how the values of one iteration are computed from the previous one in
+     * terms of the nodes of this fragment.
+     */
+    private Map<PhiNode, ValueNode> originalBackValues() {
+        assert !isDuplicate();
+        if (originalBackValues == null) {
+            LoopBeginNode loopBegin = loop().loopBegin();
+            LoopEndNode loopEnd = loopBegin.loopEnds().first();
+            originalBackValues = newNodeIdentityMap();
+            for (PhiNode phi : loopBegin.phis()) {
+                originalBackValues.put(phi, phi.valueAt(loopEnd));
+            }
+        }
+        return originalBackValues;
     }
 
     @Override
@@ -45,6 +45,46 @@ public class LoopFragmentWhole extends LoopFragment {
         return loopFragmentWhole;
     }
 
+    /**
+     * Creates a copy of this loop that is executed after it: the copy is entered where the loop
+     * exits and starts with the values the loop-phis have at that point. Code after the loop uses
+     * the results of the copy. The loop must have a single exit and only value phis.
+     *
+     * @return the copy
+     */
+    public LoopFragmentWhole duplicateAfter() {
+        LoopBeginNode loopBegin = loop().loopBegin();
+        assert loopBegin.loopExits().count() == 1;
+        StructuredGraph graph = graph();
+        LoopExitNode exit = loopBegin.loopExits().first();
+        FixedNode next = exit.next();
+
+        LoopFragmentWhole copy = new LoopFragmentWhole(this);
+        copy.patchNodes(null);
+        LoopBeginNode newLoopBegin = copy.getDuplicatedNode(loopBegin);
+        LoopExitNode newExit = copy.getDuplicatedNode(exit);
+
+        // code after the loop continues with the results of the copy
+        FrameState exitState = exit.stateAfter();
+        for (ProxyNode proxy : exit.proxies().snapshot()) {
+            ProxyNode newProxy = copy.getDuplicatedNode(proxy);
+            proxy.replaceAtMatchingUsages(newProxy, usage -> exitState == null || !(usage instanceof VirtualState) || !exitState.isPartOfThisState((VirtualState) usage));
+        }
+        for (Node anchored : exit.anchored().snapshot()) {
+            anchored.replaceFirstInput(exit, newExit);
+        }
+        for (PhiNode phi : loopBegin.phis()) {
+            PhiNode newPhi = copy.getDuplicatedNode(phi);
+            ValueProxyNode exitValue = graph.unique(ValueProxyNode.create(phi, exit));
+            newPhi.setValueAt(newLoopBegin.forwardEnd(), exitValue);
+        }
+
+        exit.setNext(null);
+        newExit.setNext(next);
+        exit.setNext(newLoopBegin.forwardEnd());
+        return copy;
+    }
+
     private void reify() {
         assert this.isDuplicate();
 
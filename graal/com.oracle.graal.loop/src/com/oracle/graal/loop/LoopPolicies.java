@@ -27,6 +27,7 @@ import static com.oracle.graal.compiler.common.GraalOptions.*;
 import java.util.*;
 import java.util.function.*;
 
+import com.oracle.graal.compiler.common.*;
 import com.oracle.graal.debug.*;
 import com.oracle.graal.graph.*;
 import com.oracle.graal.nodes.*;
@@ -60,6 +61,34 @@ public abstract class LoopPolicies {
         return size * maxTrips <= maxNodes;
     }
 
+    /**
+     * Chooses how many iterations of a counted loop are executed per trip around the partially
+     * unrolled loop. Only innermost loops whose profile shows that the unrolled loop would go
+     * around at least twice are unrolled, and the copies of the body must fit into
+     * {@link GraalOptions#PartialUnrollMaxNodes}.
+     *
+     * @return the unroll factor, or 1 if the loop should not be unrolled
+     */
+    public static int partialUnrollFactor(LoopEx loop) {
+        if (!loop.isCounted() || !loop.loop().getChildren().isEmpty()) {
+            return 1;
+        }
+        LoopBeginNode loopBegin = loop.loopBegin();
+        CountedLoopInfo counted = loop.counted();
+        double trips = loopBegin.loopFrequency();
+        if (counted.isConstantMaxTripCount()) {
+            trips = Math.min(trips, counted.constantMaxTripCount());
+        }
+        // the body is copied factor - 1 times and the loop for the remaining iterations once
+        int size = Math.max(1, loop.size() - 1 - loopBegin.phis().count());
+        int maxNodes = Math.min(PartialUnrollMaxNodes.getValue(), MaximumDesiredSize.getValue() - loopBegin.graph().getNodeCount());
+        int factor = Integer.highestOneBit(Math.max(1, PartialUnrollMaxFactor.getValue()));
+        while (factor > 1 && (factor * 2 > trips || size * factor > maxNodes)) {
+            factor /= 2;
+        }
+        return factor;
+    }
+
     public static boolean shouldTryUnswitch(LoopEx loop) {
         return loop.loopBegin().unswitches() <= LoopMaxUnswitch.getValue();
     }
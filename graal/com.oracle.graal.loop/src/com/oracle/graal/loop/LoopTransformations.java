@@ -23,15 +23,22 @@
 package com.oracle.graal.loop;
 
 import static com.oracle.graal.compiler.common.GraalOptions.*;
+import static com.oracle.graal.nodes.calc.BinaryArithmeticNode.*;
 
 import java.util.*;
 
 import com.oracle.graal.api.code.*;
+import com.oracle.graal.api.meta.*;
+import com.oracle.graal.compiler.common.type.*;
 import com.oracle.graal.graph.Graph.Mark;
 import com.oracle.graal.graph.*;
+import com.oracle.graal.loop.InductionVariable.Direction;
 import com.oracle.graal.nodeinfo.*;
 import com.oracle.graal.nodes.*;
+import com.oracle.graal.nodes.calc.*;
 import com.oracle.graal.nodes.extended.*;
+import com.oracle.graal.nodes.java.*;
+import com.oracle.graal.nodes.util.*;
 import com.oracle.graal.phases.common.*;
 import com.oracle.graal.phases.tiers.*;
 
@@ -72,6 +79,26 @@ public abstract class LoopTransformations {
         }
     }
 
+    /**
+     * Moves a read of the length of a loop invariant array from the start of the loop header in
+     * front of the loop. The header is executed at least once so this does not change behavior,
+     * but a loop that compares its counter with the length can then be detected as counted.
+     *
+     * @return true if the length was moved
+     */
+    public static boolean hoistArrayLength(LoopEx loop) {
+        LoopBeginNode loopBegin = loop.loopBegin();
+        if (loopBegin.next() instanceof ArrayLengthNode) {
+            ArrayLengthNode length = (ArrayLengthNode) loopBegin.next();
+            if (loop.isOutsideLoop(length.array())) {
+                GraphUtil.unlinkFixedNode(length);
+                loopBegin.graph().addBeforeFixed(loop.entryPoint(), length);
+                return true;
+            }
+        }
+        return false;
+    }
+
     public static void unswitch(LoopEx loop, List<ControlSplitNode> controlSplitNodeSet) {
         ControlSplitNode firstNode = controlSplitNodeSet.iterator().next();
         LoopFragmentWhole originalLoop = loop.whole();
@@ -121,25 +148,218 @@ public abstract class LoopTransformations {
         // TODO (gd) probabilities need some amount of fixup.. (probably also in other transforms)
     }
 
-    public static void unroll(LoopEx loop, int factor) {
-        assert loop.isCounted();
-        if (factor > 0) {
-            throw new UnsupportedOperationException();
-        }
-        // TODO (gd) implement counted loop
-        LoopFragmentWhole main = loop.whole();
-        LoopFragmentWhole prologue = main.duplicate();
-        prologue.insertBefore(loop);
-        // CountedLoopBeginNode counted = prologue.countedLoop();
-        // StructuredGraph graph = (StructuredGraph) counted.graph();
-        // ValueNode tripCountPrologue = counted.tripCount();
-        // ValueNode tripCountMain = counted.tripCount();
-        // graph.replaceFloating(tripCountPrologue, "tripCountPrologue % factor");
-        // graph.replaceFloating(tripCountMain, "tripCountMain - (tripCountPrologue % factor)");
+    /**
+     * Checks whether {@link #partialUnroll} can handle a loop: it has to be a counted loop with an
+     * {@code int} counter and a constant stride whose only exit is the counted exit, and it must
+     * have a single loop end.
+     */
+    public static boolean canPartialUnroll(LoopEx loop) {
+        LoopBeginNode loopBegin = loop.loopBegin();
+        if (!loop.isCounted() || loopBegin.loopEnds().count() != 1 || loopBegin.loopExits().count() != 1) {
+            return false;
+        }
+        for (PhiNode phi : loopBegin.phis()) {
+            if (!(phi instanceof ValuePhiNode)) {
+                return false;
+            }
+        }
+        CountedLoopInfo counted = loop.counted();
+        InductionVariable counter = counted.getCounter();
+        return counter.isConstantStride() && counter.valueNode().getKind() == Kind.Int && counted.getLimit().getKind() == Kind.Int;
+    }
+
+    /**
+     * Unrolls a counted loop so that each trip around it executes {@code factor} iterations of the
+     * original loop. The unrolled loop only goes around while at least {@code factor} iterations
+     * remain, so the copies of the body do not need their own exit tests. A copy of the original
+     * loop behind it executes the remaining iterations. All copies of the body share the single
+     * loop end, so there is only one safepoint poll per trip around the unrolled loop.
+     *
+     * @return the loop that executes the remaining iterations
+     */
+    public static LoopBeginNode partialUnroll(LoopEx loop, int factor) {
+        assert canPartialUnroll(loop) && factor > 1;
+        LoopBeginNode loopBegin = loop.loopBegin();
+        StructuredGraph graph = loopBegin.graph();
+        CountedLoopInfo counted = loop.counted();
+        InductionVariable counter = counted.getCounter();
+        BeginNode body = counted.getBody();
+        IfNode ifNode = (IfNode) body.predecessor();
+
         LoopFragmentInside inside = loop.inside();
-        for (int i = 0; i < factor; i++) {
-            inside.duplicate().appendInside(loop);
+        inside.nodes(); // compute the body before the loop is changed
+        LoopFragmentWhole remainder = loop.whole().duplicateAfter();
+
+        for (int i = 1; i < factor; i++) {
+            LoopFragmentInside copy = inside.duplicate();
+            copy.appendInside(loop);
+            IfNode copyIf = copy.getDuplicatedNode(ifNode);
+            LogicNode copyCondition = copyIf.condition();
+            graph.removeSplitPropagate(copyIf, copy.getDuplicatedNode(body));
+            GraphUtil.tryKillUnused(copyCondition);
+        }
+
+        // stay in the loop if the counter of the last iteration of the next trip is in range
+        ValueNode one = ConstantNode.forLong(1, graph);
+        ValueNode last = add(graph, toLong(graph, counter.valueNode()), ConstantNode.forLong((factor - 1) * counter.constantStride(), graph));
+        ValueNode limit = toLong(graph, counted.getLimit());
+        ValueNode x;
+        ValueNode y;
+        if (counted.getDirection() == Direction.Up) {
+            x = last;
+            y = counted.isLimitIncluded() ? add(graph, limit, one) : limit;
+        } else {
+            x = counted.isLimitIncluded() ? sub(graph, limit, one) : limit;
+            y = last;
+        }
+        LogicNode condition = ifNode.condition();
+        if (ifNode.trueSuccessor() == body) {
+            ifNode.setCondition(graph.unique(IntegerLessThanNode.create(x, y)));
+        } else {
+            ifNode.setCondition(graph.unique(IntegerLessThanNode.create(y, add(graph, x, one))));
+        }
+        GraphUtil.tryKillUnused(condition);
+
+        LoopBeginNode remainderBegin = remainder.getDuplicatedNode(loopBegin);
+        remainderBegin.setLoopFrequency(Math.max(1.0, factor / 2.0));
+        loopBegin.setLoopFrequency(Math.max(1.0, loopBegin.loopFrequency() / factor));
+        return remainderBegin;
+    }
+
+    /**
+     * Checks whether {@link #stripMine} can handle a loop: it has to be a counted loop with an int
+     * counter whose exit test is at the loop header, and a single loop end and exit.
+     */
+    public static boolean canStripMine(LoopEx loop) {
+        LoopBeginNode loopBegin = loop.loopBegin();
+        if (!loop.isCounted() || loopBegin.loopEnds().count() != 1 || loopBegin.loopExits().count() != 1) {
+            return false;
         }
+        FrameState state = loopBegin.stateAfter();
+        if (state == null || state.virtualObjectMappings().isNotEmpty()) {
+            return false;
+        }
+        for (PhiNode phi : loopBegin.phis()) {
+            if (!(phi instanceof ValuePhiNode || phi instanceof MemoryPhiNode)) {
+                return false;
+            }
+        }
+        CountedLoopInfo counted = loop.counted();
+        InductionVariable counter = counted.getCounter();
+        return counter.isConstantStride() && counter.valueNode().getKind() == Kind.Int && counted.getLimit().getKind() == Kind.Int;
+    }
+
+    /**
+     * Strip mines a counted loop: the loop is nested in a new outer loop and only executes up to
+     * {@code length} iterations per trip around the outer loop. The loop end of the inner loop does
+     * not poll for safepoints, the loop end of the outer loop does. The outer loop goes around while
+     * the original exit condition of the loop does not hold.
+     *
+     * Since the exit test of the inner loop is at its header, the inner loop exits with the state
+     * of its header. Deoptimizing between the inner loop exit and the outer loop end therefore
+     * resumes in the interpreter at the loop header.
+     *
+     * @return the outer loop
+     */
+    public static LoopBeginNode stripMine(LoopEx loop, int length) {
+        assert canStripMine(loop) && length > 1;
+        LoopBeginNode loopBegin = loop.loopBegin();
+        StructuredGraph graph = loopBegin.graph();
+        CountedLoopInfo counted = loop.counted();
+        InductionVariable counter = counted.getCounter();
+        BeginNode body = counted.getBody();
+        IfNode ifNode = (IfNode) body.predecessor();
+        LoopExitNode exit = loopBegin.loopExits().first();
+        AbstractEndNode forwardEnd = loopBegin.forwardEnd();
+
+        // insert the outer loop header in front of the loop
+        LoopBeginNode outerBegin = graph.add(LoopBeginNode.create());
+        EndNode outerForwardEnd = graph.add(EndNode.create());
+        forwardEnd.replaceAtPredecessor(outerForwardEnd);
+        outerBegin.addForwardEnd(outerForwardEnd);
+        outerBegin.setNext(forwardEnd);
+
+        Map<PhiNode, PhiNode> outerPhis = new HashMap<>();
+        for (PhiNode phi : loopBegin.phis()) {
+            PhiNode outerPhi;
+            if (phi instanceof MemoryPhiNode) {
+                outerPhi = graph.addWithoutUnique(MemoryPhiNode.create(outerBegin, ((MemoryPhiNode) phi).getLocationIdentity()));
+            } else {
+                outerPhi = graph.addWithoutUnique(ValuePhiNode.create(phi.stamp(), outerBegin));
+            }
+            outerPhi.addInput(phi.valueAt(forwardEnd));
+            phi.setValueAt(forwardEnd, outerPhi);
+            outerPhis.put(phi, outerPhi);
+        }
+        FrameState outerState = loopBegin.stateAfter().duplicate();
+        NodeInputList<ValueNode> outerStateValues = outerState.values();
+        for (int i = 0; i < outerStateValues.size(); i++) {
+            PhiNode outerPhi = outerPhis.get(outerStateValues.get(i));
+            if (outerPhi != null) {
+                outerStateValues.set(i, outerPhi);
+            }
+        }
+        outerBegin.setStateAfter(outerState);
+
+        // go around the outer loop while the original exit condition does not hold
+        LogicNode condition = ifNode.condition();
+        boolean bodyOnTrue = ifNode.trueSuccessor() == body;
+        double outerFrequency = Math.max(1.0, loopBegin.loopFrequency() / length);
+        double continueProbability = 1.0 - 1.0 / outerFrequency;
+        BeginNode continueBegin = graph.add(BeginNode.create());
+        LoopEndNode outerEnd = graph.add(LoopEndNode.create(outerBegin));
+        continueBegin.setNext(outerEnd);
+        LoopExitNode outerExit = graph.add(LoopExitNode.create(outerBegin));
+        IfNode outerIf;
+        if (bodyOnTrue) {
+            outerIf = graph.add(IfNode.create(condition, continueBegin, outerExit, continueProbability));
+        } else {
+            outerIf = graph.add(IfNode.create(condition, outerExit, continueBegin, 1.0 - continueProbability));
+        }
+        FixedNode next = exit.next();
+        exit.setNext(null);
+        outerExit.setNext(next);
+        exit.setNext(outerIf);
+        outerExit.setStateAfter(exit.stateAfter());
+        exit.setStateAfter(loopBegin.stateAfter().duplicate());
+        for (Map.Entry<PhiNode, PhiNode> entry : outerPhis.entrySet()) {
+            entry.getValue().addInput(entry.getKey());
+        }
+
+        // stay in the inner loop while the counter is in range and below the end of the strip
+        ValueNode one = ConstantNode.forLong(1, graph);
+        ValueNode current = toLong(graph, counter.valueNode());
+        // the strip ends length iterations after the value of the counter at the strip entry
+        ValueNode stripStart = counter.valueNodeFor(outerPhis);
+        ValueNode stripEnd = add(graph, toLong(graph, stripStart), ConstantNode.forLong(length * counter.constantStride(), graph));
+        ValueNode limit = toLong(graph, counted.getLimit());
+        ValueNode x;
+        ValueNode y;
+        if (counted.getDirection() == Direction.Up) {
+            ValueNode end = counted.isLimitIncluded() ? add(graph, limit, one) : limit;
+            x = current;
+            y = graph.unique(ConditionalNode.create(graph.unique(IntegerLessThanNode.create(end, stripEnd)), end, stripEnd));
+        } else {
+            ValueNode end = counted.isLimitIncluded() ? sub(graph, limit, one) : limit;
+            x = graph.unique(ConditionalNode.create(graph.unique(IntegerLessThanNode.create(end, stripEnd)), stripEnd, end));
+            y = current;
+        }
+        if (bodyOnTrue) {
+            ifNode.setCondition(graph.unique(IntegerLessThanNode.create(x, y)));
+        } else {
+            ifNode.setCondition(graph.unique(IntegerLessThanNode.create(y, add(graph, x, one))));
+        }
+
+        for (LoopEndNode loopEnd : loopBegin.loopEnds()) {
+            loopEnd.disableSafepoint();
+        }
+        outerBegin.setLoopFrequency(outerFrequency);
+        loopBegin.setLoopFrequency(Math.min(loopBegin.loopFrequency(), length));
+        return outerBegin;
+    }
+
+    private static ValueNode toLong(StructuredGraph graph, ValueNode value) {
+        return IntegerConvertNode.convert(value, StampFactory.forKind(Kind.Long), graph);
     }
 
     public static List<ControlSplitNode> findUnswitchable(LoopEx loop) {
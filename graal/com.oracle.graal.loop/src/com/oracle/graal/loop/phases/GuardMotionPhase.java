@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.loop.phases;
+
+import java.util.*;
+
+import com.oracle.graal.api.code.*;
+import com.oracle.graal.api.meta.*;
+import com.oracle.graal.debug.*;
+import com.oracle.graal.graph.*;
+import com.oracle.graal.loop.*;
+import com.oracle.graal.nodes.*;
+import com.oracle.graal.nodes.cfg.*;
+import com.oracle.graal.nodes.extended.*;
+import com.oracle.graal.phases.*;
+import com.oracle.graal.phases.common.*;
+import com.oracle.graal.phases.common.OptimizeGuardAnchorsPhase.LazyCFG;
+import com.oracle.graal.phases.tiers.*;
+
+/**
+ * Moves guards to earlier anchors so that they, and the floating reads that depend on them, are
+ * executed less often.
+ * <ul>
+ * <li>A guard inside a loop whose condition is loop invariant is hoisted in front of the loop. The
+ * guard is not necessarily executed in every iteration, so this is a speculation that is recorded
+ * in the {@link SpeculationLog}: if a hoisted guard fails, the method is recompiled without
+ * hoisting guards out of this loop. Floating reads that were only kept inside the loop by such a
+ * guard can then be scheduled in front of the loop as well.</li>
+ * <li>Equivalent guards in all predecessors of a merge are replaced by a single guard in the
+ * dominator of the merge if the merge post-dominates it. This makes equivalent guards after the
+ * merge fully redundant, so that they are removed by conditional elimination.</li>
+ * <li>A guard anchored at a merge that is partially redundant, i.e., an equivalent guard is
+ * anchored in some but not all predecessors of the merge, is eliminated by inserting the guard into
+ * the remaining predecessors and replacing it with a {@link GuardPhiNode}.</li>
+ * </ul>
+ */
+public class GuardMotionPhase extends BasePhase<MidTierContext> {
+
+    private static final DebugMetric metricLoopInvariantGuardsHoisted = Debug.metric("LoopInvariantGuardsHoisted");
+    private static final DebugMetric metricLoopInvariantReadsHoisted = Debug.metric("LoopInvariantReadsHoisted");
+    private static final DebugMetric metricGuardsMovedAboveMerge = Debug.metric("GuardsMovedAboveMerge");
+    private static final DebugMetric metricPartiallyRedundantGuardsEliminated = Debug.metric("PartiallyRedundantGuardsEliminated");
+    private static final DebugMetric metricPartiallyRedundantGuardsInserted = Debug.metric("PartiallyRedundantGuardsInserted");
+
+    /**
+     * The reason recorded in the {@link SpeculationLog} for guards hoisted out of a loop. Loops are
+     * identified by the bytecode position of their header.
+     */
+    private static final class LoopInvariantSpeculation {
+
+        private final ResolvedJavaMethod method;
+        private final int bci;
+
+        LoopInvariantSpeculation(ResolvedJavaMethod method, int bci) {
+            this.method = method;
+            this.bci = bci;
+        }
+
+        @Override
+        public int hashCode() {
+            return method.hashCode() * 31 + bci;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj instanceof LoopInvariantSpeculation) {
+                LoopInvariantSpeculation other = (LoopInvariantSpeculation) obj;
+                return method.equals(other.method) && bci == other.bci;
+            }
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return "LoopInvariantSpeculation[" + method.format("%H.%n(%p)") + "@" + bci + "]";
+        }
+    }
+
+    @Override
+    protected void run(StructuredGraph graph, MidTierContext context) {
+        SpeculationLog speculationLog = context.getSpeculationLog();
+        if (graph.hasLoops() && speculationLog != null) {
+            for (LoopEx loop : new LoopsData(graph).innerFirst()) {
+                hoistInvariantGuards(loop, speculationLog);
+            }
+        }
+        LazyCFG cfg = new LazyCFG(graph);
+        for (MergeNode merge : graph.getNodes(MergeNode.class)) {
+            if (!(merge instanceof LoopBeginNode)) {
+                moveGuardsAboveMerge(merge, cfg);
+                eliminatePartiallyRedundantGuards(merge);
+            }
+        }
+    }
+
+    private static void hoistInvariantGuards(LoopEx loop, SpeculationLog speculationLog) {
+        LoopBeginNode loopBegin = loop.loopBegin();
+        FrameState state = loopBegin.stateAfter();
+        if (state == null) {
+            return;
+        }
+        LoopInvariantSpeculation reason = new LoopInvariantSpeculation(state.method(), state.bci);
+        if (!speculationLog.maySpeculate(reason)) {
+            return;
+        }
+        BeginNode anchor = BeginNode.prevBegin(loopBegin.forwardEnd());
+        Map<Node, Boolean> invariant = new HashMap<>();
+        JavaConstant speculation = null;
+        for (BeginNode begin : loop.whole().nodes().filter(BeginNode.class).snapshot()) {
+            for (GuardNode guard : begin.guards().snapshot()) {
+                if (!guard.action().doesInvalidateCompilation() || !guard.getSpeculation().isNull() || !isInvariant(guard.condition(), loop, invariant)) {
+                    continue;
+                }
+                if (speculation == null) {
+                    speculation = speculationLog.speculate(reason);
+                }
+                Debug.log("hoisting %s out of %s", guard, loop);
+                GuardNode hoisted = guard.graph().unique(GuardNode.create(guard.condition(), anchor, guard.reason(), guard.action(), guard.negated(), speculation));
+                guard.replaceAndDelete(hoisted);
+                metricLoopInvariantGuardsHoisted.increment();
+                for (FloatingReadNode read : hoisted.usages().filter(FloatingReadNode.class)) {
+                    MemoryNode lastAccess = read.getLastLocationAccess();
+                    if (isInvariant(read.object(), loop, invariant) && isInvariant(read.location(), loop, invariant) && (lastAccess == null || isInvariant(lastAccess.asNode(), loop, invariant))) {
+                        metricLoopInvariantReadsHoisted.increment();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Determines if the value of a node does not change while {@code loop} is executed. Fixed nodes
+     * are invariant if they are outside the loop, floating nodes if all their inputs are invariant.
+     */
+    private static boolean isInvariant(Node node, LoopEx loop, Map<Node, Boolean> invariant) {
+        if (node == null) {
+            return true;
+        }
+        Boolean cached = invariant.get(node);
+        if (cached != null) {
+            return cached;
+        }
+        boolean result;
+        if (node instanceof FixedNode) {
+            result = loop.isOutsideLoop(node);
+        } else if (node instanceof PhiNode) {
+            result = loop.isOutsideLoop(((PhiNode) node).merge());
+        } else {
+            // guards the recursion for cyclic floating graphs
+            invariant.put(node, false);
+            result = true;
+            for (Node input : node.inputs()) {
+                if (!isInvariant(input, loop, invariant)) {
+                    result = false;
+                    break;
+                }
+            }
+        }
+        invariant.put(node, result);
+        return result;
+    }
+
+    private static void moveGuardsAboveMerge(MergeNode merge, LazyCFG cfg) {
+        int endCount = merge.forwardEndCount();
+        BeginNode firstBegin = BeginNode.prevBegin(merge.forwardEndAt(0));
+        List<GuardNode> equivalentGuards = new ArrayList<>(endCount);
+        for (GuardNode guard : firstBegin.guards().snapshot()) {
+            if (guard.isDeleted() || guard.condition().usages().count() < endCount) {
+                continue;
+            }
+            equivalentGuards.add(guard);
+            for (int i = 1; i < endCount; i++) {
+                BeginNode begin = BeginNode.prevBegin(merge.forwardEndAt(i));
+                for (GuardNode conditionGuard : guard.condition().usages().filter(GuardNode.class)) {
+                    if (conditionGuard.getAnchor() == begin && OptimizeGuardAnchorsPhase.compatibleGuards(guard, conditionGuard)) {
+                        equivalentGuards.add(conditionGuard);
+                        break;
+                    }
+                }
+            }
+
+            if (equivalentGuards.size() == endCount) {
+                Block dominator = cfg.get().blockFor(merge).getDominator();
+                if (postDominates(cfg.get().blockFor(merge), dominator)) {
+                    BeginNode anchor = OptimizeGuardAnchorsPhase.getOptimalAnchor(cfg, dominator.getBeginNode());
+                    GuardNode newGuard = merge.graph().unique(GuardNode.create(guard.condition(), anchor, guard.reason(), guard.action(), guard.negated(), guard.getSpeculation()));
+                    for (GuardNode equivalentGuard : equivalentGuards) {
+                        equivalentGuard.replaceAndDelete(newGuard);
+                    }
+                    metricGuardsMovedAboveMerge.increment();
+                }
+            }
+            equivalentGuards.clear();
+        }
+    }
+
+    /**
+     * Eliminates the guards anchored at {@code merge} for which an equivalent guard is anchored in
+     * at least one predecessor of the merge. The guard is inserted into the predecessors that do not
+     * have it and the guard at the merge is replaced by a {@link GuardPhiNode} of the guards in the
+     * predecessors. Since the guard at the merge is executed on every path through the merge, the
+     * inserted guards do not fail on any path on which the original guard would not have failed.
+     */
+    private static void eliminatePartiallyRedundantGuards(MergeNode merge) {
+        int endCount = merge.forwardEndCount();
+        ValueNode[] available = new ValueNode[endCount];
+        for (GuardNode guard : merge.guards().snapshot()) {
+            int availableCount = 0;
+            for (int i = 0; i < endCount; i++) {
+                BeginNode begin = BeginNode.prevBegin(merge.forwardEndAt(i));
+                available[i] = null;
+                for (GuardNode conditionGuard : guard.condition().usages().filter(GuardNode.class)) {
+                    if (conditionGuard.getAnchor() == begin && OptimizeGuardAnchorsPhase.compatibleGuards(guard, conditionGuard)) {
+                        available[i] = conditionGuard;
+                        availableCount++;
+                        break;
+                    }
+                }
+            }
+            if (availableCount == 0) {
+                continue;
+            }
+            /*
+             * The condition is valid at the merge and an equivalent guard exists in one predecessor,
+             * so the condition does not depend on the phis of the merge and can be evaluated in
+             * every predecessor.
+             */
+            for (int i = 0; i < endCount; i++) {
+                if (available[i] == null) {
+                    BeginNode begin = BeginNode.prevBegin(merge.forwardEndAt(i));
+                    available[i] = merge.graph().unique(GuardNode.create(guard.condition(), begin, guard.reason(), guard.action(), guard.negated(), guard.getSpeculation()));
+                    metricPartiallyRedundantGuardsInserted.increment();
+                }
+            }
+            Debug.log("eliminating partially redundant %s at %s", guard, merge);
+            GuardPhiNode phi = merge.graph().addWithoutUnique(GuardPhiNode.create(merge, available.clone()));
+            guard.replaceAndDelete(phi);
+            metricPartiallyRedundantGuardsEliminated.increment();
+        }
+    }
+
+    private static boolean postDominates(Block postdominator, Block block) {
+        for (Block b = block; b != null; b = b.getPostdominator()) {
+            if (b == postdominator) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
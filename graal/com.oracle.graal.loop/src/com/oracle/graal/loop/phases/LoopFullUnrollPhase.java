@@ -44,6 +44,9 @@ public class LoopFullUnrollPhase extends BasePhase<PhaseContext> {
             boolean peeled;
             do {
                 peeled = false;
+                if (context.getBudget().skip(graph, getName())) {
+                    break;
+                }
                 final LoopsData dataCounted = new LoopsData(graph);
                 dataCounted.detectedCountedLoops();
                 for (LoopEx loop : dataCounted.countedLoops()) {
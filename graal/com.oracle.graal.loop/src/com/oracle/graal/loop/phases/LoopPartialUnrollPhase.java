@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.loop.phases;
+
+import java.util.*;
+
+import com.oracle.graal.debug.*;
+import com.oracle.graal.graph.Graph.Mark;
+import com.oracle.graal.loop.*;
+import com.oracle.graal.nodes.*;
+import com.oracle.graal.phases.*;
+import com.oracle.graal.phases.common.*;
+import com.oracle.graal.phases.tiers.*;
+
+/**
+ * Partially unrolls innermost counted loops. The unroll factor is chosen by
+ * {@link LoopPolicies#partialUnrollFactor(LoopEx)} from the size of the loop and its profiled trip
+ * count. Each loop is transformed at most once: neither the unrolled loop nor the loop for the
+ * remaining iterations is unrolled again.
+ */
+public class LoopPartialUnrollPhase extends BasePhase<PhaseContext> {
+
+    private static final DebugMetric PARTIALLY_UNROLLED_LOOPS = Debug.metric("PartialUnrolls");
+    private final CanonicalizerPhase canonicalizer;
+
+    public LoopPartialUnrollPhase(CanonicalizerPhase canonicalizer) {
+        this.canonicalizer = canonicalizer;
+    }
+
+    @Override
+    protected void run(StructuredGraph graph, PhaseContext context) {
+        if (graph.hasLoops()) {
+            for (LoopEx loop : new LoopsData(graph).loops()) {
+                LoopTransformations.hoistArrayLength(loop);
+            }
+            Set<LoopBeginNode> unrolledLoops = new HashSet<>();
+            boolean unrolled;
+            do {
+                unrolled = false;
+                if (context.getBudget().skip(graph, getName())) {
+                    break;
+                }
+                final LoopsData dataCounted = new LoopsData(graph);
+                dataCounted.detectedCountedLoops();
+                for (LoopEx loop : dataCounted.countedLoops()) {
+                    if (unrolledLoops.contains(loop.loopBegin()) || !LoopTransformations.canPartialUnroll(loop)) {
+                        continue;
+                    }
+                    int factor = LoopPolicies.partialUnrollFactor(loop);
+                    if (factor > 1) {
+                        Debug.log("PartialUnroll %s by %d", loop, factor);
+                        Mark mark = graph.getMark();
+                        LoopBeginNode remainder = LoopTransformations.partialUnroll(loop, factor);
+                        unrolledLoops.add(loop.loopBegin());
+                        unrolledLoops.add(remainder);
+                        canonicalizer.applyIncremental(graph, context, mark);
+                        PARTIALLY_UNROLLED_LOOPS.increment();
+                        Debug.dump(graph, "After partialUnroll %s", loop);
+                        unrolled = true;
+                        break;
+                    }
+                }
+                dataCounted.deleteUnusedNodes();
+            } while (unrolled);
+        }
+    }
+}
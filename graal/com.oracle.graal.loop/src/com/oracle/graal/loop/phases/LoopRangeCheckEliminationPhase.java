@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.loop.phases;
+
+import static com.oracle.graal.nodes.calc.BinaryArithmeticNode.*;
+
+import java.util.*;
+
+import com.oracle.graal.api.meta.*;
+import com.oracle.graal.compiler.common.cfg.*;
+import com.oracle.graal.compiler.common.type.*;
+import com.oracle.graal.debug.*;
+import com.oracle.graal.loop.*;
+import com.oracle.graal.loop.InductionVariable.Direction;
+import com.oracle.graal.nodes.*;
+import com.oracle.graal.nodes.calc.*;
+import com.oracle.graal.nodes.cfg.*;
+import com.oracle.graal.nodes.extended.*;
+import com.oracle.graal.nodes.java.*;
+import com.oracle.graal.nodes.type.*;
+import com.oracle.graal.phases.*;
+import com.oracle.graal.phases.tiers.*;
+
+/**
+ * Replaces the bounds checks of array accesses in counted loops with guards in front of the loop.
+ * An access qualifies if it is executed in every iteration, its array is loop invariant and its
+ * index is the loop counter plus or minus a loop invariant value. The guard checks the indices of
+ * all iterations at once using the range of the counter. If any of them would be out of bounds,
+ * it deoptimizes before the loop is entered, so that the interpreter throws the exception in the
+ * right iteration.
+ */
+public class LoopRangeCheckEliminationPhase extends BasePhase<HighTierContext> {
+
+    private static final DebugMetric ELIMINATED_RANGE_CHECKS = Debug.metric("EliminatedRangeChecks");
+    private static final DebugMetric RANGE_CHECKED_LOOPS = Debug.metric("RangeCheckedLoops");
+
+    private static class Candidate {
+
+        final LoopEx loop;
+        final List<AccessIndexedNode> accesses = new ArrayList<>();
+        final Map<ValueNode, ValueNode> lengths = new HashMap<>();
+
+        Candidate(LoopEx loop) {
+            this.loop = loop;
+        }
+    }
+
+    @Override
+    protected void run(StructuredGraph graph, HighTierContext context) {
+        if (!graph.hasLoops() || !context.getOptimisticOptimizations().useLoopRangeChecks()) {
+            return;
+        }
+        LoopsData data = new LoopsData(graph);
+        boolean hoisted = false;
+        for (LoopEx loop : data.loops()) {
+            hoisted |= LoopTransformations.hoistArrayLength(loop);
+        }
+        if (hoisted) {
+            data = new LoopsData(graph);
+        }
+        data.detectedCountedLoops();
+
+        // collect everything before changing the graph, the control flow graph is not updated
+        List<Candidate> candidates = new ArrayList<>();
+        for (LoopEx loop : data.countedLoops()) {
+            Candidate candidate = findAccesses(loop, data.controlFlowGraph(), context);
+            if (candidate != null) {
+                candidates.add(candidate);
+            }
+        }
+        for (Candidate candidate : candidates) {
+            insertGuards(graph, candidate);
+            RANGE_CHECKED_LOOPS.increment();
+            ELIMINATED_RANGE_CHECKS.add(candidate.accesses.size());
+            Debug.log("Hoisted %d range checks out of %s", candidate.accesses.size(), candidate.loop);
+        }
+        data.deleteUnusedNodes();
+    }
+
+    private static Candidate findAccesses(LoopEx loop, ControlFlowGraph cfg, HighTierContext context) {
+        LoopBeginNode loopBegin = loop.loopBegin();
+        CountedLoopInfo counted = loop.counted();
+        if (loopBegin.loopExits().count() != 1 || !(counted.getCounter() instanceof BasicInductionVariable) || !counted.getCounter().isConstantStride()) {
+            return null;
+        }
+        // the counter can only wrap around if it can step over the limit
+        boolean needsOverflowGuard = Math.abs(counted.getCounter().constantStride()) != 1 || counted.isLimitIncluded();
+        if (needsOverflowGuard && !context.getOptimisticOptimizations().useLoopLimitChecks()) {
+            return null;
+        }
+
+        Candidate candidate = new Candidate(loop);
+        ValueNode counter = counted.getCounter().valueNode();
+        for (AccessIndexedNode access : loop.whole().nodes().filter(AccessIndexedNode.class)) {
+            ValueNode array = access.array();
+            if (access.getBoundsCheck() != null || !loop.isOutsideLoop(array) || !isCounterWithOffset(loop, counter, access.index()) || !isExecutedInEveryIteration(loop, cfg, access)) {
+                continue;
+            }
+            if (!candidate.lengths.containsKey(array)) {
+                ValueNode length = findLength(loop, cfg, array);
+                if (length == null && !StampTool.isObjectNonNull(array)) {
+                    // reading the length in front of the loop could throw a NullPointerException
+                    continue;
+                }
+                candidate.lengths.put(array, length);
+            }
+            candidate.accesses.add(access);
+        }
+        if (candidate.accesses.isEmpty()) {
+            return null;
+        }
+        if (needsOverflowGuard) {
+            counted.createOverFlowGuard();
+        }
+        return candidate;
+    }
+
+    private static boolean isCounterWithOffset(LoopEx loop, ValueNode counter, ValueNode index) {
+        if (index == counter) {
+            return true;
+        } else if (index instanceof AddNode || index instanceof SubNode) {
+            BinaryNode binary = (BinaryNode) index;
+            return (binary.getX() == counter && loop.isOutsideLoop(binary.getY())) || (binary.getY() == counter && loop.isOutsideLoop(binary.getX()));
+        }
+        return false;
+    }
+
+    /**
+     * Determines if an access is executed whenever the loop is not exited. Only such accesses are
+     * checked in front of the loop, since the check would fail needlessly for an access that is
+     * skipped for indices outside of the array.
+     */
+    private static boolean isExecutedInEveryIteration(LoopEx loop, ControlFlowGraph cfg, AccessIndexedNode access) {
+        Block block = cfg.blockFor(access);
+        if (block == null || block.getLoop() != loop.loop()) {
+            return false;
+        }
+        for (LoopEndNode loopEnd : loop.loopBegin().loopEnds()) {
+            if (!AbstractControlFlowGraph.dominates(block, cfg.blockFor(loopEnd))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds a read of the length of {@code array} that is executed before the loop.
+     */
+    private static ValueNode findLength(LoopEx loop, ControlFlowGraph cfg, ValueNode array) {
+        Block entry = cfg.blockFor(loop.entryPoint());
+        for (ArrayLengthNode length : array.usages().filter(ArrayLengthNode.class)) {
+            Block block = cfg.blockFor(length);
+            if (block != null && loop.isOutsideLoop(length) && AbstractControlFlowGraph.dominates(block, entry)) {
+                return length;
+            }
+        }
+        return null;
+    }
+
+    private static void insertGuards(StructuredGraph graph, Candidate candidate) {
+        LoopEx loop = candidate.loop;
+        CountedLoopInfo counted = loop.counted();
+        ValueNode counter = counted.getCounter().valueNode();
+        ValueNode start = counted.getStart();
+        ValueNode limit = counted.getLimit();
+        boolean oneOff = counted.isLimitIncluded();
+
+        /*
+         * The range [low, high] of the counter within the loop and the condition for entering the
+         * loop. All index computations are done with longs so that they cannot overflow.
+         */
+        ConstantNode one = ConstantNode.forLong(1, graph);
+        ValueNode low;
+        ValueNode high;
+        LogicNode entered;
+        boolean enteredNegated;
+        if (counted.getDirection() == Direction.Up) {
+            low = toLong(graph, start);
+            high = oneOff ? toLong(graph, limit) : sub(graph, toLong(graph, limit), one);
+            entered = graph.unique(oneOff ? IntegerLessThanNode.create(limit, start) : IntegerLessThanNode.create(start, limit));
+            enteredNegated = oneOff;
+        } else {
+            low = oneOff ? toLong(graph, limit) : add(graph, toLong(graph, limit), one);
+            high = toLong(graph, start);
+            entered = graph.unique(oneOff ? IntegerLessThanNode.create(start, limit) : IntegerLessThanNode.create(limit, start));
+            enteredNegated = oneOff;
+        }
+
+        FixedNode entryPoint = loop.entryPoint();
+        BeginNode anchor = BeginNode.prevBegin(entryPoint);
+        for (AccessIndexedNode access : candidate.accesses) {
+            ValueNode index = access.index();
+            ValueNode indexLow;
+            ValueNode indexHigh;
+            if (index == counter) {
+                indexLow = low;
+                indexHigh = high;
+            } else {
+                BinaryNode binary = (BinaryNode) index;
+                ValueNode offset = toLong(graph, binary.getX() == counter ? binary.getY() : binary.getX());
+                if (index instanceof AddNode) {
+                    indexLow = add(graph, low, offset);
+                    indexHigh = add(graph, high, offset);
+                } else if (binary.getX() == counter) {
+                    indexLow = sub(graph, low, offset);
+                    indexHigh = sub(graph, high, offset);
+                } else {
+                    indexLow = sub(graph, offset, high);
+                    indexHigh = sub(graph, offset, low);
+                }
+            }
+
+            ValueNode length = candidate.lengths.get(access.array());
+            if (length == null) {
+                ArrayLengthNode arrayLength = graph.add(ArrayLengthNode.create(access.array()));
+                graph.addBeforeFixed(entryPoint, arrayLength);
+                candidate.lengths.put(access.array(), arrayLength);
+                length = arrayLength;
+            }
+
+            LogicNode negative = graph.unique(IntegerLessThanNode.create(indexLow, ConstantNode.forLong(0, graph)));
+            LogicNode belowLength = graph.unique(IntegerLessThanNode.create(indexHigh, toLong(graph, length)));
+            LogicNode outOfBounds = graph.unique(ShortCircuitOrNode.create(negative, false, belowLength, true, BranchProbabilityNode.NOT_FREQUENT_PROBABILITY));
+            LogicNode inBounds = graph.unique(ShortCircuitOrNode.create(entered, !enteredNegated, outOfBounds, true, BranchProbabilityNode.NOT_FREQUENT_PROBABILITY));
+            GuardNode guard = graph.unique(GuardNode.create(inBounds, anchor, DeoptimizationReason.BoundsCheckException, DeoptimizationAction.InvalidateRecompile, false, JavaConstant.NULL_OBJECT));
+            access.setBoundsCheck(guard);
+        }
+    }
+
+    private static ValueNode toLong(StructuredGraph graph, ValueNode value) {
+        return IntegerConvertNode.convert(value, StampFactory.forKind(Kind.Long), graph);
+    }
+}
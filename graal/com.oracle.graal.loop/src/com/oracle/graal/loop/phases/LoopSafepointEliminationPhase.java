@@ -22,6 +22,11 @@
  */
 package com.oracle.graal.loop.phases;
 
+import static com.oracle.graal.compiler.common.GraalOptions.*;
+
+import java.util.*;
+
+import com.oracle.graal.debug.*;
 import com.oracle.graal.loop.*;
 import com.oracle.graal.nodes.*;
 import com.oracle.graal.nodes.cfg.*;
@@ -31,21 +36,29 @@ import com.oracle.graal.phases.tiers.*;
 
 public class LoopSafepointEliminationPhase extends BasePhase<MidTierContext> {
 
+    private static final DebugMetric STRIP_MINED_LOOPS = Debug.metric("StripMinedLoops");
+
     @Override
     protected void run(StructuredGraph graph, MidTierContext context) {
         LoopsData loops = new LoopsData(graph);
-        if (context.getOptimisticOptimizations().useLoopLimitChecks()) {
+        boolean useLoopLimitChecks = context.getOptimisticOptimizations().useLoopLimitChecks();
+        List<LoopEx> stripMiningCandidates = new ArrayList<>();
+        if (useLoopLimitChecks || LoopStripMining.getValue()) {
             loops.detectedCountedLoops();
             for (LoopEx loop : loops.countedLoops()) {
-                if (loop.loop().getChildren().isEmpty() && loop.counted().getStamp().getBits() <= 32) {
+                if (loop.loop().getChildren().isEmpty()) {
                     boolean hasSafepoint = false;
                     for (LoopEndNode loopEnd : loop.loopBegin().loopEnds()) {
                         hasSafepoint |= loopEnd.canSafepoint();
                     }
                     if (hasSafepoint) {
-                        loop.counted().createOverFlowGuard();
-                        for (LoopEndNode loopEnd : loop.loopBegin().loopEnds()) {
-                            loopEnd.disableSafepoint();
+                        if (LoopStripMining.getValue() && shouldStripMine(loop)) {
+                            stripMiningCandidates.add(loop);
+                        } else if (useLoopLimitChecks && loop.counted().getStamp().getBits() <= 32) {
+                            loop.counted().createOverFlowGuard();
+                            for (LoopEndNode loopEnd : loop.loopBegin().loopEnds()) {
+                                loopEnd.disableSafepoint();
+                            }
                         }
                     }
                 }
@@ -66,6 +79,26 @@ public class LoopSafepointEliminationPhase extends BasePhase<MidTierContext> {
                 }
             }
         }
+        for (LoopEx loop : stripMiningCandidates) {
+            // loops with calls do not need to poll
+            if (loop.loopBegin().loopEnds().first().canSafepoint()) {
+                Debug.log("StripMining %s", loop);
+                LoopTransformations.stripMine(loop, LoopStripMiningLength.getValue());
+                STRIP_MINED_LOOPS.increment();
+            }
+        }
         loops.deleteUnusedNodes();
     }
+
+    /**
+     * Determines if a loop is strip mined instead of removing its safepoint poll. Loops that are
+     * known to execute at most one strip are not worth it.
+     */
+    private static boolean shouldStripMine(LoopEx loop) {
+        if (!LoopTransformations.canStripMine(loop)) {
+            return false;
+        }
+        CountedLoopInfo counted = loop.counted();
+        return !counted.isConstantMaxTripCount() || counted.constantMaxTripCount() > LoopStripMiningLength.getValue();
+    }
 }
@@ -0,0 +1,273 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.loop.phases;
+
+import java.util.*;
+
+import com.oracle.graal.api.meta.*;
+import com.oracle.graal.compiler.common.calc.*;
+import com.oracle.graal.debug.*;
+import com.oracle.graal.loop.*;
+import com.oracle.graal.loop.InductionVariable.Direction;
+import com.oracle.graal.nodes.*;
+import com.oracle.graal.nodes.calc.*;
+import com.oracle.graal.nodes.extended.*;
+import com.oracle.graal.nodes.java.*;
+import com.oracle.graal.nodes.type.*;
+import com.oracle.graal.nodes.util.*;
+import com.oracle.graal.phases.*;
+import com.oracle.graal.phases.tiers.*;
+
+/**
+ * Replaces innermost counted loops that follow one of two array idioms with a single vectorized
+ * array operation:
+ *
+ * <pre>
+ * for (int i = start; i &lt; end; i++) { sum += a[i]; }           // {@link ArraySumNode}
+ * for (int i = start; i &lt; end; i++) { a[i] = b[i] op c[i]; }   // {@link ArrayElementwiseNode}
+ * </pre>
+ *
+ * where {@code c[i]} may also be a loop invariant value. The null and bounds checks of all
+ * iterations are replaced by guards in front of the loop, which is only possible if
+ * {@linkplain OptimisticOptimizations#useLoopRangeChecks() loop range checks} are enabled.
+ */
+public class LoopVectorizationPhase extends BasePhase<HighTierContext> {
+
+    private static final DebugMetric VECTORIZED_LOOPS = Debug.metric("VectorizedLoops");
+
+    @Override
+    protected void run(StructuredGraph graph, HighTierContext context) {
+        if (!graph.hasLoops() || !context.getOptimisticOptimizations().useLoopRangeChecks()) {
+            return;
+        }
+        hoistArrayLengths(graph);
+        boolean vectorized;
+        do {
+            vectorized = false;
+            LoopsData data = new LoopsData(graph);
+            data.detectedCountedLoops();
+            for (LoopEx loop : data.countedLoops()) {
+                if (tryVectorize(graph, loop)) {
+                    VECTORIZED_LOOPS.increment();
+                    Debug.dump(graph, "After vectorizing %s", loop);
+                    vectorized = true;
+                    break;
+                }
+            }
+        } while (vectorized);
+    }
+
+    private static void hoistArrayLengths(StructuredGraph graph) {
+        LoopsData data = new LoopsData(graph);
+        for (LoopEx loop : data.loops()) {
+            if (loop.loop().getChildren().isEmpty()) {
+                LoopTransformations.hoistArrayLength(loop);
+            }
+        }
+    }
+
+    private static boolean tryVectorize(StructuredGraph graph, LoopEx loop) {
+        LoopBeginNode loopBegin = loop.loopBegin();
+        CountedLoopInfo counted = loop.counted();
+        if (!loop.loop().getChildren().isEmpty() || loopBegin.loopEnds().count() != 1 || loopBegin.loopExits().count() != 1) {
+            return false;
+        }
+        if (!(counted.getCounter() instanceof BasicInductionVariable) || loopBegin.next() != counted.getBody().predecessor()) {
+            return false;
+        }
+        BasicInductionVariable iv = (BasicInductionVariable) counted.getCounter();
+        if (iv.direction() != Direction.Up || !iv.isConstantStride() || iv.constantStride() != 1 || counted.isLimitIncluded() || iv.valueNode().getKind() != Kind.Int) {
+            return false;
+        }
+        for (PhiNode phi : loopBegin.phis()) {
+            if (!(phi instanceof ValuePhiNode)) {
+                return false;
+            }
+        }
+
+        List<AccessIndexedNode> body = new ArrayList<>();
+        FixedNode node = counted.getBody().next();
+        while (node instanceof LoadIndexedNode || node instanceof StoreIndexedNode) {
+            AccessIndexedNode access = (AccessIndexedNode) node;
+            if (access.index() != iv.valueNode() || !loop.isOutsideLoop(access.array())) {
+                return false;
+            }
+            body.add(access);
+            node = access.next();
+        }
+        if (!(node instanceof LoopEndNode) || body.isEmpty()) {
+            return false;
+        }
+
+        if (loopBegin.phis().count() == 2 && body.size() == 1 && body.get(0) instanceof LoadIndexedNode) {
+            return tryVectorizeSum(graph, loop, iv, (LoadIndexedNode) body.get(0), (LoopEndNode) node);
+        } else if (loopBegin.phis().count() == 1 && body.get(body.size() - 1) instanceof StoreIndexedNode) {
+            return tryVectorizeElementwise(graph, loop, iv, body);
+        }
+        return false;
+    }
+
+    private static boolean tryVectorizeSum(StructuredGraph graph, LoopEx loop, BasicInductionVariable iv, LoadIndexedNode load, LoopEndNode loopEnd) {
+        Kind kind = load.elementKind();
+        if (kind != Kind.Int && kind != Kind.Long) {
+            return false;
+        }
+        PhiNode accumulator = null;
+        for (PhiNode phi : loop.loopBegin().phis()) {
+            if (phi != iv.valueNode()) {
+                accumulator = phi;
+            }
+        }
+        if (accumulator.getKind() != kind || !(accumulator.valueAt(loopEnd) instanceof AddNode)) {
+            return false;
+        }
+        AddNode add = (AddNode) accumulator.valueAt(loopEnd);
+        if (!((add.getX() == accumulator && add.getY() == load) || (add.getX() == load && add.getY() == accumulator))) {
+            return false;
+        }
+
+        ValueNode start = iv.initNode();
+        ValueNode end = loop.counted().getLimit();
+        FixedNode entry = loop.entryPoint();
+        insertRangeGuards(graph, entry, load.array(), start, end);
+        ArraySumNode sum = graph.add(ArraySumNode.create(load.array(), start, end, kind));
+        graph.addBeforeFixed(entry, sum);
+
+        accumulator.replaceAtUsages(BinaryArithmeticNode.add(graph, accumulator.valueAt(loop.loopBegin().forwardEnd()), sum));
+        removeLoop(graph, loop, iv, start, end);
+        return true;
+    }
+
+    private static boolean tryVectorizeElementwise(StructuredGraph graph, LoopEx loop, BasicInductionVariable iv, List<AccessIndexedNode> body) {
+        StoreIndexedNode store = (StoreIndexedNode) body.get(body.size() - 1);
+        Kind kind = store.elementKind();
+        ElementwiseOp op = elementwiseOp(store.value());
+        LoopExitNode exit = loop.loopBegin().loopExits().first();
+        if (op == null || !op.supports(kind) || exit.stateAfter() == null) {
+            return false;
+        }
+        BinaryNode binary = (BinaryNode) store.value();
+        ValueNode x = binary.getX();
+        ValueNode y = binary.getY();
+        if (op.isCommutative() && !body.contains(x)) {
+            x = binary.getY();
+            y = binary.getX();
+        }
+        if (!body.contains(x) || (!body.contains(y) && !loop.isOutsideLoop(y))) {
+            return false;
+        }
+        boolean scalarY = !body.contains(y);
+        if (body.size() != (scalarY ? 2 : 3) || x.getKind() != store.value().getKind() || y.getKind() != store.value().getKind()) {
+            return false;
+        }
+        ValueNode xArray = ((LoadIndexedNode) x).array();
+        ValueNode yArray = scalarY ? y : ((LoadIndexedNode) y).array();
+        for (AccessIndexedNode access : body) {
+            if (access.elementKind() != kind) {
+                return false;
+            }
+        }
+
+        ValueNode start = iv.initNode();
+        ValueNode end = loop.counted().getLimit();
+        FixedNode entry = loop.entryPoint();
+        insertRangeGuards(graph, entry, store.array(), start, end);
+        insertRangeGuards(graph, entry, xArray, start, end);
+        if (!scalarY) {
+            insertRangeGuards(graph, entry, yArray, start, end);
+        }
+        ArrayElementwiseNode elementwise = graph.add(ArrayElementwiseNode.create(op, kind, store.array(), xArray, yArray, scalarY, start, end));
+        graph.addBeforeFixed(entry, elementwise);
+        // the state after the loop is also the state after the vectorized operation
+        elementwise.setStateAfter(exit.stateAfter());
+
+        removeLoop(graph, loop, iv, start, end);
+        return true;
+    }
+
+    private static ElementwiseOp elementwiseOp(ValueNode value) {
+        if (value instanceof AddNode) {
+            return ElementwiseOp.ADD;
+        } else if (value instanceof SubNode) {
+            return ElementwiseOp.SUB;
+        } else if (value instanceof MulNode) {
+            return ElementwiseOp.MUL;
+        } else if (value instanceof AndNode) {
+            return ElementwiseOp.AND;
+        } else if (value instanceof OrNode) {
+            return ElementwiseOp.OR;
+        } else if (value instanceof XorNode) {
+            return ElementwiseOp.XOR;
+        }
+        return null;
+    }
+
+    /**
+     * Inserts guards that deoptimize if any index in {@code [start, end)} is out of the bounds of
+     * {@code array}.
+     * <p>
+     * An array that is not known to be non-null is only an error if the range is not empty, so the
+     * guard that invalidates the code checks the range first. Reading the length of the array still
+     * requires a non-null array, so an empty range over a null array deoptimizes without
+     * invalidating the code and the interpreter executes the empty loop.
+     */
+    private static void insertRangeGuards(StructuredGraph graph, FixedNode before, ValueNode array, ValueNode start, ValueNode end) {
+        ValueNode length;
+        if (end instanceof ArrayLengthNode && ((ArrayLengthNode) end).array() == array) {
+            length = end;
+        } else {
+            if (!StampTool.isObjectNonNull(array)) {
+                LogicNode isNull = graph.unique(IsNullNode.create(array));
+                LogicNode nonEmpty = graph.unique(IntegerLessThanNode.create(start, end));
+                LogicNode emptyOrNonNull = graph.unique(ShortCircuitOrNode.create(nonEmpty, true, isNull, true, BranchProbabilityNode.NOT_FREQUENT_PROBABILITY));
+                graph.addBeforeFixed(before, graph.add(FixedGuardNode.create(emptyOrNonNull, DeoptimizationReason.NullCheckException, DeoptimizationAction.InvalidateReprofile)));
+                graph.addBeforeFixed(before, graph.add(FixedGuardNode.create(isNull, DeoptimizationReason.NullCheckException, DeoptimizationAction.None, true)));
+            }
+            ArrayLengthNode arrayLength = graph.add(ArrayLengthNode.create(array));
+            graph.addBeforeFixed(before, arrayLength);
+            length = arrayLength;
+        }
+        LogicNode emptyRange = graph.unique(IntegerLessThanNode.create(start, end));
+        LogicNode negativeStart = graph.unique(IntegerLessThanNode.create(start, ConstantNode.forInt(0, graph)));
+        LogicNode endTooLarge = graph.unique(IntegerLessThanNode.create(length, end));
+        LogicNode outOfBounds = graph.unique(ShortCircuitOrNode.create(negativeStart, false, endTooLarge, false, BranchProbabilityNode.NOT_FREQUENT_PROBABILITY));
+        LogicNode inBounds = graph.unique(ShortCircuitOrNode.create(emptyRange, true, outOfBounds, true, BranchProbabilityNode.NOT_FREQUENT_PROBABILITY));
+        graph.addBeforeFixed(before, graph.add(FixedGuardNode.create(inBounds, DeoptimizationReason.BoundsCheckException, DeoptimizationAction.InvalidateRecompile)));
+    }
+
+    /**
+     * Replaces the remaining uses of the counter with its value after the loop and removes the
+     * loop, keeping only the path through its exit.
+     */
+    private static void removeLoop(StructuredGraph graph, LoopEx loop, BasicInductionVariable iv, ValueNode start, ValueNode end) {
+        LogicNode nonEmpty = graph.unique(IntegerLessThanNode.create(start, end));
+        iv.valueNode().replaceAtUsages(graph.unique(ConditionalNode.create(nonEmpty, end, start)));
+
+        IfNode ifNode = (IfNode) loop.loopBegin().next();
+        LogicNode condition = ifNode.condition();
+        graph.removeSplitPropagate(ifNode, loop.loopBegin().loopExits().first());
+        if (condition.isAlive() && condition.usages().isEmpty()) {
+            GraphUtil.killWithUnusedFloatingInputs(condition);
+        }
+    }
+}
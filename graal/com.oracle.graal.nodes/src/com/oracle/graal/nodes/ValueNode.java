@@ -50,6 +50,9 @@ public abstract class ValueNode extends ScheduledNode implements StampProvider,
 
     public void setStamp(Stamp stamp) {
         this.stamp = stamp;
+        if (graph() != null) {
+            graph().markChanged(this);
+        }
     }
 
     /**
@@ -64,6 +67,9 @@ public abstract class ValueNode extends ScheduledNode implements StampProvider,
             return false;
         } else {
             stamp = newStamp;
+            if (graph() != null) {
+                graph().markChanged(this);
+            }
             return true;
         }
     }
@@ -26,6 +26,7 @@ import com.oracle.graal.api.meta.*;
 import com.oracle.graal.compiler.common.type.*;
 import com.oracle.graal.nodeinfo.*;
 import com.oracle.graal.nodes.*;
+import com.oracle.graal.nodes.extended.*;
 import com.oracle.graal.nodes.spi.*;
 
 /**
@@ -36,12 +37,26 @@ import com.oracle.graal.nodes.spi.*;
 public abstract class AccessIndexedNode extends AccessArrayNode implements Lowerable {
 
     @Input protected ValueNode index;
+    @OptionalInput(InputType.Guard) protected GuardingNode boundsCheck;
     protected final Kind elementKind;
 
     public ValueNode index() {
         return index;
     }
 
+    /**
+     * Gets a guard that ensures that {@link #index()} is within the bounds of the array. If there
+     * is such a guard, lowering uses it instead of emitting a bounds check for this access.
+     */
+    public GuardingNode getBoundsCheck() {
+        return boundsCheck;
+    }
+
+    public void setBoundsCheck(GuardingNode boundsCheck) {
+        updateUsagesInterface(this.boundsCheck, boundsCheck);
+        this.boundsCheck = boundsCheck;
+    }
+
     /**
      * Create an new AccessIndexedNode.
      *
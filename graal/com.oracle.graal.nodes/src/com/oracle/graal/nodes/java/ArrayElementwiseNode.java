@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.nodes.java;
+
+import com.oracle.graal.api.meta.*;
+import com.oracle.graal.compiler.common.calc.*;
+import com.oracle.graal.compiler.common.type.*;
+import com.oracle.graal.nodeinfo.*;
+import com.oracle.graal.nodes.*;
+import com.oracle.graal.nodes.extended.*;
+import com.oracle.graal.nodes.spi.*;
+
+/**
+ * Computes {@code result[i] = x[i] op y[i]} for each index {@code i} in the range
+ * {@code [start, end)}. If {@link #isScalarY()} then {@code y} is a scalar value that is used for
+ * every element instead. The range must be within the bounds of all arrays and the arrays must
+ * not be null. The arrays may be the same object.
+ */
+@NodeInfo(allowedUsageTypes = {InputType.Memory})
+public class ArrayElementwiseNode extends AbstractMemoryCheckpoint implements LIRLowerable, MemoryCheckpoint.Single {
+
+    @Input ValueNode result;
+    @Input ValueNode x;
+    @Input ValueNode y;
+    @Input ValueNode start;
+    @Input ValueNode end;
+
+    protected final ElementwiseOp op;
+    protected final Kind elementKind;
+    protected final boolean scalarY;
+
+    public static ArrayElementwiseNode create(ElementwiseOp op, Kind elementKind, ValueNode result, ValueNode x, ValueNode y, boolean scalarY, ValueNode start, ValueNode end) {
+        return new ArrayElementwiseNode(op, elementKind, result, x, y, scalarY, start, end);
+    }
+
+    protected ArrayElementwiseNode(ElementwiseOp op, Kind elementKind, ValueNode result, ValueNode x, ValueNode y, boolean scalarY, ValueNode start, ValueNode end) {
+        super(StampFactory.forVoid());
+        assert op.supports(elementKind);
+        this.op = op;
+        this.elementKind = elementKind;
+        this.result = result;
+        this.x = x;
+        this.y = y;
+        this.scalarY = scalarY;
+        this.start = start;
+        this.end = end;
+    }
+
+    public ElementwiseOp op() {
+        return op;
+    }
+
+    public Kind elementKind() {
+        return elementKind;
+    }
+
+    public boolean isScalarY() {
+        return scalarY;
+    }
+
+    @Override
+    public void generate(NodeLIRBuilderTool gen) {
+        gen.getLIRGeneratorTool().emitArrayElementwise(op, elementKind, gen.operand(result), gen.operand(x), gen.operand(y), scalarY, gen.operand(start), gen.operand(end));
+    }
+
+    public LocationIdentity getLocationIdentity() {
+        return NamedLocationIdentity.getArrayLocation(elementKind);
+    }
+}
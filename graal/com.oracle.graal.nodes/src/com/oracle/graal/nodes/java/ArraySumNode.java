@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.nodes.java;
+
+import com.oracle.graal.api.meta.*;
+import com.oracle.graal.compiler.common.type.*;
+import com.oracle.graal.nodeinfo.*;
+import com.oracle.graal.nodes.*;
+import com.oracle.graal.nodes.extended.*;
+import com.oracle.graal.nodes.spi.*;
+
+/**
+ * Computes the sum of the elements of an {@code int} or {@code long} array in the index range
+ * {@code [start, end)}. The sum wraps around on overflow like a sequence of scalar additions. The
+ * range must be within the bounds of the array and the array must not be null. The result is 0 if
+ * the range is empty.
+ */
+@NodeInfo
+public class ArraySumNode extends FixedWithNextNode implements LIRLowerable, MemoryAccess {
+
+    @Input ValueNode array;
+    @Input ValueNode start;
+    @Input ValueNode end;
+
+    protected final Kind elementKind;
+
+    public static ArraySumNode create(ValueNode array, ValueNode start, ValueNode end, Kind elementKind) {
+        return new ArraySumNode(array, start, end, elementKind);
+    }
+
+    protected ArraySumNode(ValueNode array, ValueNode start, ValueNode end, Kind elementKind) {
+        super(StampFactory.forKind(elementKind));
+        assert elementKind == Kind.Int || elementKind == Kind.Long;
+        this.array = array;
+        this.start = start;
+        this.end = end;
+        this.elementKind = elementKind;
+    }
+
+    public ValueNode array() {
+        return array;
+    }
+
+    public Kind elementKind() {
+        return elementKind;
+    }
+
+    @Override
+    public void generate(NodeLIRBuilderTool gen) {
+        Value result = gen.getLIRGeneratorTool().emitArraySum(elementKind, gen.operand(array), gen.operand(start), gen.operand(end));
+        gen.setResult(this, result);
+    }
+
+    public LocationIdentity getLocationIdentity() {
+        return NamedLocationIdentity.getArrayLocation(elementKind);
+    }
+}
@@ -115,31 +115,36 @@ public class GraphUtil {
 
     public static void propagateKill(Node node) {
         if (node != null && node.isAlive()) {
-            List<Node> usagesSnapshot = node.usages().filter(isFloatingNode()).snapshot();
+            /*
+             * Kill the floating usages (other than phis) first. This removes them from the usage
+             * list of node, which is walked from the end so that the entries moved into the slots
+             * of removed usages have already been visited. Avoiding a snapshot of the usages keeps
+             * this free of allocation.
+             */
+            for (int i = node.usageCount() - 1; i >= 0; i = Math.min(i, node.usageCount()) - 1) {
+                Node usage = node.getUsageAt(i);
+                if (!(usage instanceof PhiNode) && FLOATING.apply(usage)) {
+                    propagateKill(usage);
+                    if (!node.isAlive()) {
+                        // node was a floating input of usage and had no other usages
+                        return;
+                    }
+                }
+            }
 
             // null out remaining usages
             node.replaceAtUsages(null);
             node.replaceAtPredecessor(null);
             killWithUnusedFloatingInputs(node);
-
-            for (Node usage : usagesSnapshot) {
-                if (!usage.isDeleted()) {
-                    if (usage instanceof PhiNode) {
-                        usage.replaceFirstInput(node, null);
-                    } else {
-                        propagateKill(usage);
-                    }
-                }
-            }
         }
     }
 
     public static void killWithUnusedFloatingInputs(Node node) {
-        List<Node> floatingInputs = node.inputs().filter(isFloatingNode()).snapshot();
         node.safeDelete();
 
-        for (Node in : floatingInputs) {
-            if (in.isAlive() && in.usages().isEmpty()) {
+        // the input edges of a deleted node are still intact
+        for (Node in : node.inputs()) {
+            if (in.isAlive() && FLOATING.apply(in) && in.usages().isEmpty()) {
                 killWithUnusedFloatingInputs(in);
             }
         }
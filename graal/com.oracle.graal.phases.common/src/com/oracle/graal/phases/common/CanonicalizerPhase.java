@@ -33,11 +33,19 @@ import com.oracle.graal.nodeinfo.*;
 import com.oracle.graal.nodes.*;
 import com.oracle.graal.nodes.calc.*;
 import com.oracle.graal.nodes.util.*;
+import com.oracle.graal.options.*;
 import com.oracle.graal.phases.*;
 import com.oracle.graal.phases.tiers.*;
 
 public class CanonicalizerPhase extends BasePhase<PhaseContext> {
 
+    public static class Options {
+        // @formatter:off
+        @Option(help = "Only canonicalize the nodes that changed since the last canonicalization of a graph")
+        public static final OptionValue<Boolean> IncrementalCanonicalization = new OptionValue<>(false);
+        // @formatter:on
+    }
+
     private static final int MAX_ITERATION_PER_NODE = 10;
     private static final DebugMetric METRIC_CANONICALIZED_NODES = Debug.metric("CanonicalizedNodes");
     private static final DebugMetric METRIC_PROCESSED_NODES = Debug.metric("ProcessedNodes");
@@ -46,6 +54,9 @@ public class CanonicalizerPhase extends BasePhase<PhaseContext> {
     private static final DebugMetric METRIC_STAMP_CHANGED = Debug.metric("StampChanged");
     private static final DebugMetric METRIC_SIMPLIFICATION_CONSIDERED_NODES = Debug.metric("SimplificationConsideredNodes");
     private static final DebugMetric METRIC_GLOBAL_VALUE_NUMBERING_HITS = Debug.metric("GlobalValueNumberingHits");
+    private static final DebugMetric METRIC_WHOLE_GRAPH_RUNS = Debug.metric("CanonicalizerWholeGraphRuns");
+    private static final DebugMetric METRIC_INCREMENTAL_RUNS = Debug.metric("CanonicalizerIncrementalRuns");
+    private static final DebugMetric METRIC_INCREMENTAL_INITIAL_NODES = Debug.metric("CanonicalizerIncrementalInitialNodes");
 
     private final boolean canonicalizeReads;
     private final CustomCanonicalizer customCanonicalizer;
@@ -76,7 +87,77 @@ public class CanonicalizerPhase extends BasePhase<PhaseContext> {
 
     @Override
     protected void run(StructuredGraph graph, PhaseContext context) {
-        new Instance(context, canonicalizeReads, customCanonicalizer).run(graph);
+        if (!Options.IncrementalCanonicalization.getValue()) {
+            new Instance(context, canonicalizeReads, customCanonicalizer).run(graph);
+            return;
+        }
+        ChangeTrackingKey key = new ChangeTrackingKey(graph, context);
+        NodeBitMap changedNodes = graph.getChangedNodes(key);
+        if (changedNodes == null) {
+            METRIC_WHOLE_GRAPH_RUNS.increment();
+            graph.trackChanges(key);
+            new Instance(context, canonicalizeReads, customCanonicalizer).run(graph);
+        } else {
+            METRIC_INCREMENTAL_RUNS.increment();
+            NodeBitMap workingSet = changedNodes.copy();
+            for (Node node : changedNodes) {
+                METRIC_INCREMENTAL_INITIAL_NODES.increment();
+                for (Node usage : node.usages()) {
+                    workingSet.markAndGrow(usage);
+                }
+                /*
+                 * A fixed node can simplify its predecessor, e.g., an IfNode whose successors
+                 * changed, so the predecessor is revisited as well.
+                 */
+                if (node.predecessor() != null) {
+                    workingSet.markAndGrow(node.predecessor());
+                }
+            }
+            /*
+             * Changes made while processing the working set are tracked for the next run. This
+             * includes the changes that do not put a node back on the work list of this run, such
+             * as stamp and predecessor changes.
+             */
+            graph.trackChanges(key);
+            new Instance(context, canonicalizeReads, workingSet, customCanonicalizer).run(graph);
+        }
+    }
+
+    /**
+     * Identifies the configuration in which a graph was canonicalized. A graph only needs to be
+     * canonicalized incrementally by a canonicalizer with an equal configuration. Any other
+     * configuration may enable canonicalizations for nodes that have not changed.
+     */
+    private final class ChangeTrackingKey {
+
+        private final Assumptions assumptions;
+        private final StructuredGraph.GuardsStage guardsStage;
+        private final boolean afterFloatingReadPhase;
+
+        ChangeTrackingKey(StructuredGraph graph, PhaseContext context) {
+            this.assumptions = context.getAssumptions();
+            this.guardsStage = graph.getGuardsStage();
+            this.afterFloatingReadPhase = graph.isAfterFloatingReadPhase();
+        }
+
+        private CanonicalizerPhase phase() {
+            return CanonicalizerPhase.this;
+        }
+
+        @Override
+        public int hashCode() {
+            return guardsStage.hashCode() ^ (canonicalizeReads ? 1 : 0);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj instanceof ChangeTrackingKey) {
+                ChangeTrackingKey other = (ChangeTrackingKey) obj;
+                return other.phase().canonicalizeReads == canonicalizeReads && other.phase().customCanonicalizer == customCanonicalizer && other.assumptions == assumptions &&
+                                other.guardsStage == guardsStage && other.afterFloatingReadPhase == afterFloatingReadPhase;
+            }
+            return false;
+        }
     }
 
     /**
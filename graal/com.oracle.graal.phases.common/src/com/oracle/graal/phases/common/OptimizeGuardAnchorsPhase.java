@@ -121,7 +121,7 @@ public class OptimizeGuardAnchorsPhase extends Phase {
         }
     }
 
-    private static boolean compatibleGuards(GuardNode guard, GuardNode conditonGuard) {
+    public static boolean compatibleGuards(GuardNode guard, GuardNode conditonGuard) {
         return conditonGuard.negated() == guard.negated() && conditonGuard.action() == guard.action() && conditonGuard.reason() == guard.reason() &&
                         conditonGuard.getSpeculation().equals(guard.getSpeculation());
     }
@@ -164,6 +164,9 @@ public class TailDuplicationPhase extends BasePhase<PhaseContext> {
             // A snapshot is taken here, so that new MergeNode instances aren't considered for tail
             // duplication.
             for (MergeNode merge : graph.getNodes(MergeNode.class).snapshot()) {
+                if (phaseContext.getBudget().skip(graph, getName())) {
+                    break;
+                }
                 if (!(merge instanceof LoopBeginNode) && nodeProbabilities.applyAsDouble(merge) >= TailDuplicationProbability.getValue()) {
                     tailDuplicate(merge, DEFAULT_DECISION, null, phaseContext, canonicalizer);
                 }
@@ -100,7 +100,14 @@ public abstract class BasePhase<C> {
             if (dumpGraph && Debug.isDumpEnabled(BEFORE_PHASE_DUMP_LEVEL)) {
                 Debug.dump(BEFORE_PHASE_DUMP_LEVEL, graph, "Before phase %s", getName());
             }
-            this.run(graph, context);
+            CompilationTelemetry.Phase telemetry = CompilationTelemetry.beginPhase(getName(), graph.getNodeCount());
+            try {
+                this.run(graph, context);
+            } finally {
+                if (telemetry != null) {
+                    telemetry.end(graph.getNodeCount(), -1);
+                }
+            }
             executionCount.increment();
             inputNodesCount.add(graph.getNodeCount());
             if (dumpGraph && Debug.isDumpEnabled(PHASE_DUMP_LEVEL)) {
@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.phases;
+
+import java.io.*;
+import java.lang.management.*;
+
+import com.oracle.graal.debug.*;
+import com.oracle.graal.debug.internal.*;
+import com.oracle.graal.options.*;
+
+/**
+ * Records the cost of each phase of a compilation and appends it as CSV to
+ * {@link Options#CompilationTelemetryFile}. A compilation is recorded if it is performed within
+ * {@link #begin(int, String)} on the current thread. Each {@link BasePhase} applied during the
+ * compilation as well as each back end stage reported with {@link #beginPhase(CharSequence, int)}
+ * contributes one line with these columns:
+ *
+ * <pre>
+ * id          the compilation id
+ * method      the compiled method
+ * phase       the phase or back end stage name
+ * depth       the nesting depth of the phase (phases run by a phase suite are one level deeper)
+ * start       nanoseconds from the start of the compilation to the start of the phase
+ * time        wall clock nanoseconds spent in the phase, including nested phases
+ * allocated   bytes allocated by the compiler thread in the phase, including nested phases
+ * nodesBefore live graph nodes before the phase
+ * nodesAfter  live graph nodes after the phase
+ * lir         LIR instructions after the phase, or -1 if the phase does not operate on LIR
+ * </pre>
+ *
+ * The last line of a compilation has the phase name {@value #TOTAL} and covers the complete
+ * compilation. The lines of a compilation are buffered and written in one piece when the
+ * compilation completes, so the lines of concurrent compilations do not interleave. Recording
+ * costs two {@link System#nanoTime()} and two allocated bytes queries per phase, which makes it
+ * cheap enough to leave enabled in production.
+ */
+public final class CompilationTelemetry implements AutoCloseable {
+
+    public static class Options {
+        // @formatter:off
+        @Option(help = "File to which the time, allocation and node counts of each phase of each compilation are appended as CSV. " +
+                       "A %p in the name will be replaced with a string identifying the process, usually the process id.")
+        public static final OptionValue<String> CompilationTelemetryFile = new OptionValue<>(null);
+        // @formatter:on
+    }
+
+    public static final String TOTAL = "Total";
+
+    private static final String HEADER = "id,method,phase,depth,start,time,allocated,nodesBefore,nodesAfter,lir";
+
+    private static final ThreadLocal<CompilationTelemetry> current = new ThreadLocal<>();
+
+    /**
+     * The stream to which records are written and the option value it was opened for.
+     */
+    private static PrintStream stream;
+    private static String streamOptionValue;
+
+    /**
+     * A phase that has started but not yet ended.
+     */
+    public final class Phase {
+
+        private final CharSequence name;
+        private final int depth;
+        private final long startTime;
+        private final long startAllocated;
+        private final int nodesBefore;
+
+        Phase(CharSequence name, int nodesBefore) {
+            this.name = name;
+            this.depth = CompilationTelemetry.this.depth++;
+            this.nodesBefore = nodesBefore;
+            this.startAllocated = MemUseTrackerImpl.getCurrentThreadAllocatedBytes();
+            this.startTime = System.nanoTime();
+        }
+
+        /**
+         * Records the end of this phase.
+         *
+         * @param nodesAfter the live node count of the graph after the phase
+         * @param lirInstructions the number of LIR instructions after the phase or -1 if not
+         *            applicable
+         */
+        public void end(int nodesAfter, int lirInstructions) {
+            long time = System.nanoTime() - startTime;
+            long allocated = MemUseTrackerImpl.getCurrentThreadAllocatedBytes() - startAllocated;
+            CompilationTelemetry.this.depth--;
+            record(name, depth, startTime - compilationStartTime, time, allocated, nodesBefore, nodesAfter, lirInstructions);
+        }
+    }
+
+    private final String prefix;
+    private final long compilationStartTime;
+    private final long compilationStartAllocated;
+    private final StringBuilder lines = new StringBuilder();
+    private final CompilationTelemetry outer;
+    private int depth;
+    private int nodesBefore = -1;
+    private int nodesAfter = -1;
+
+    private CompilationTelemetry(int id, String method) {
+        this.prefix = id + "," + method.replace(',', ';') + ",";
+        this.outer = current.get();
+        this.compilationStartAllocated = MemUseTrackerImpl.getCurrentThreadAllocatedBytes();
+        this.compilationStartTime = System.nanoTime();
+    }
+
+    /**
+     * Starts recording a compilation on the current thread if a
+     * {@linkplain Options#CompilationTelemetryFile telemetry file} is configured. This should be
+     * used in conjunction with a try-with-resources statement:
+     *
+     * <pre>
+     * try (CompilationTelemetry telemetry = CompilationTelemetry.begin(id, name)) {
+     *     // compile
+     * }
+     * </pre>
+     *
+     * @return the recorder for the compilation or null if no telemetry file is configured
+     */
+    public static CompilationTelemetry begin(int id, String method) {
+        if (Options.CompilationTelemetryFile.getValue() == null) {
+            return null;
+        }
+        CompilationTelemetry telemetry = new CompilationTelemetry(id, method);
+        current.set(telemetry);
+        return telemetry;
+    }
+
+    /**
+     * Starts recording a phase if a compilation is being recorded on the current thread.
+     *
+     * @param nodesBefore the live node count of the graph before the phase
+     * @return the started phase or null if no compilation is being recorded
+     */
+    public static Phase beginPhase(CharSequence name, int nodesBefore) {
+        CompilationTelemetry telemetry = current.get();
+        if (telemetry == null) {
+            return null;
+        }
+        if (telemetry.nodesBefore < 0) {
+            telemetry.nodesBefore = nodesBefore;
+        }
+        return telemetry.new Phase(name, nodesBefore);
+    }
+
+    private void record(CharSequence phase, int phaseDepth, long start, long time, long allocated, int before, int after, int lirInstructions) {
+        if (after >= 0) {
+            nodesAfter = after;
+        }
+        lines.append(prefix).append(phase).append(',').append(phaseDepth).append(',').append(start).append(',').append(time).append(',').append(allocated).append(',').append(before).append(',').append(
+                        after).append(',').append(lirInstructions).append(System.lineSeparator());
+    }
+
+    /**
+     * Ends recording the compilation and writes its records to the telemetry file.
+     */
+    public void close() {
+        long time = System.nanoTime() - compilationStartTime;
+        long allocated = MemUseTrackerImpl.getCurrentThreadAllocatedBytes() - compilationStartAllocated;
+        record(TOTAL, 0, 0, time, allocated, nodesBefore, nodesAfter, -1);
+        if (outer != null) {
+            current.set(outer);
+        } else {
+            current.remove();
+        }
+        write(Options.CompilationTelemetryFile.getValue(), lines);
+    }
+
+    private static synchronized void write(String optionValue, CharSequence lines) {
+        PrintStream ps = getStream(optionValue);
+        if (ps != null) {
+            ps.append(lines);
+            ps.flush();
+        }
+    }
+
+    /**
+     * Gets the stream for the telemetry file named by {@code optionValue}, opening it if necessary.
+     * If the file cannot be opened, telemetry is disabled.
+     */
+    private static PrintStream getStream(String optionValue) {
+        if (optionValue == null) {
+            return null;
+        }
+        if (!optionValue.equals(streamOptionValue)) {
+            if (stream != null) {
+                stream.close();
+                stream = null;
+            }
+            File file = new File(getFilename(optionValue));
+            try {
+                boolean writeHeader = file.length() == 0;
+                stream = new PrintStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+                if (writeHeader) {
+                    stream.println(HEADER);
+                }
+                streamOptionValue = optionValue;
+            } catch (FileNotFoundException e) {
+                TTY.println("Disabling compilation telemetry, couldn't open file: " + file);
+                Options.CompilationTelemetryFile.setValue(null);
+                return null;
+            }
+        }
+        return stream;
+    }
+
+    /**
+     * Replaces any instance of %p in the file name with the process id.
+     */
+    private static String getFilename(String name) {
+        if (name.contains("%p")) {
+            String runtimeName = ManagementFactory.getRuntimeMXBean().getName();
+            int index = runtimeName.indexOf('@');
+            if (index != -1) {
+                runtimeName = runtimeName.substring(0, index);
+            }
+            return name.replace("%p", runtimeName);
+        }
+        return name;
+    }
+}
@@ -40,7 +40,8 @@ public final class OptimisticOptimizations {
         UseTypeCheckHints,
         UseExceptionProbabilityForOperations,
         UseExceptionProbability,
-        UseLoopLimitChecks
+        UseLoopLimitChecks,
+        UseLoopRangeChecks
     }
 
     private final Set<Optimization> enabledOpts;
@@ -54,6 +55,7 @@ public final class OptimisticOptimizations {
         addOptimization(info, DeoptimizationReason.OptimizedTypeCheckViolated, Optimization.UseTypeCheckHints);
         addOptimization(info, DeoptimizationReason.NotCompiledExceptionHandler, Optimization.UseExceptionProbability);
         addOptimization(info, DeoptimizationReason.LoopLimitCheck, Optimization.UseLoopLimitChecks);
+        addOptimization(info, DeoptimizationReason.BoundsCheckException, Optimization.UseLoopRangeChecks);
     }
 
     private void addOptimization(ProfilingInfo info, DeoptimizationReason deoptReason, Optimization optimization) {
@@ -120,6 +122,10 @@ public final class OptimisticOptimizations {
         return GraalOptions.UseLoopLimitChecks.getValue() && enabledOpts.contains(Optimization.UseLoopLimitChecks);
     }
 
+    public boolean useLoopRangeChecks() {
+        return GraalOptions.UseLoopRangeChecks.getValue() && enabledOpts.contains(Optimization.UseLoopRangeChecks);
+    }
+
     public boolean lessOptimisticThan(OptimisticOptimizations other) {
         for (Optimization opt : Optimization.values()) {
             if (!enabledOpts.contains(opt) && other.enabledOpts.contains(opt)) {
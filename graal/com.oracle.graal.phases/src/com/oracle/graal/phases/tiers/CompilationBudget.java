@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.phases.tiers;
+
+import static com.oracle.graal.compiler.common.GraalOptions.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import com.oracle.graal.compiler.common.*;
+import com.oracle.graal.debug.*;
+import com.oracle.graal.nodes.*;
+
+/**
+ * Limits the time and graph size a single compilation may use before expensive optional
+ * optimizations are skipped. Phases {@linkplain #skip(StructuredGraph, CharSequence) query} the
+ * budget before each optional step. Once the budget is exceeded it stays exceeded, so the rest of
+ * the compilation runs in a cheaper configuration instead of bailing out.
+ */
+public final class CompilationBudget {
+
+    private static final DebugMetric CompilationBudgetExceeded = Debug.metric("CompilationBudgetExceeded");
+    private static final DebugMetric CompilationBudgetSkippedSteps = Debug.metric("CompilationBudgetSkippedSteps");
+
+    /**
+     * A budget that is never exceeded.
+     */
+    public static final CompilationBudget UNLIMITED = new CompilationBudget(0, 0);
+
+    private final long start;
+    private final long timeLimit;
+    private final int nodeLimit;
+
+    private String exceededReason;
+    private long exceededAfter;
+    private int exceededAtNodeCount;
+    private Map<String, Integer> skipped;
+
+    /**
+     * @param timeLimitMillis the time limit in milliseconds, starting now, or 0 for no limit
+     * @param nodeLimit the maximum number of nodes in the graph, or 0 for no limit
+     */
+    public CompilationBudget(long timeLimitMillis, int nodeLimit) {
+        this.start = System.nanoTime();
+        this.timeLimit = TimeUnit.MILLISECONDS.toNanos(timeLimitMillis);
+        this.nodeLimit = nodeLimit;
+    }
+
+    /**
+     * Creates a budget for a compilation starting now, with the limits specified by
+     * {@link GraalOptions#CompilationTimeBudget} and {@link GraalOptions#CompilationNodeBudget}.
+     */
+    public static CompilationBudget create() {
+        int timeLimit = CompilationTimeBudget.getValue();
+        int nodeLimit = CompilationNodeBudget.getValue();
+        if (timeLimit <= 0 && nodeLimit <= 0) {
+            return UNLIMITED;
+        }
+        return new CompilationBudget(Math.max(timeLimit, 0), Math.max(nodeLimit, 0));
+    }
+
+    /**
+     * Determines if the budget has been exceeded by now or by the size of {@code graph}.
+     */
+    public boolean isExceeded(StructuredGraph graph) {
+        if (exceededReason != null) {
+            return true;
+        }
+        if (this == UNLIMITED) {
+            return false;
+        }
+        long elapsed = System.nanoTime() - start;
+        int nodeCount = graph.getNodeCount();
+        if (timeLimit != 0 && elapsed > timeLimit) {
+            exceededReason = "time";
+        } else if (nodeLimit != 0 && nodeCount > nodeLimit) {
+            exceededReason = "nodes";
+        } else {
+            return false;
+        }
+        exceededAfter = elapsed;
+        exceededAtNodeCount = nodeCount;
+        CompilationBudgetExceeded.increment();
+        Debug.log("compilation budget exceeded (%s) after %d ms at %d nodes", exceededReason, TimeUnit.NANOSECONDS.toMillis(elapsed), nodeCount);
+        return true;
+    }
+
+    /**
+     * Determines if an optional step of a phase should be skipped because the budget has been
+     * exceeded. A skipped step is recorded under the name of the phase.
+     *
+     * @param graph the graph being compiled
+     * @param phaseName the name of the phase asking
+     * @return true if the step should be skipped
+     */
+    public boolean skip(StructuredGraph graph, CharSequence phaseName) {
+        if (!isExceeded(graph)) {
+            return false;
+        }
+        if (skipped == null) {
+            skipped = new LinkedHashMap<>();
+        }
+        skipped.merge(phaseName.toString(), 1, Integer::sum);
+        CompilationBudgetSkippedSteps.increment();
+        return true;
+    }
+
+    /**
+     * Determines if any optional step was skipped because of this budget.
+     */
+    public boolean isDegraded() {
+        return skipped != null;
+    }
+
+    /**
+     * Gets the limit that was exceeded ({@code "time"} or {@code "nodes"}), or null if the budget
+     * has not been exceeded.
+     */
+    public String getExceededReason() {
+        return exceededReason;
+    }
+
+    /**
+     * Gets the number of skipped steps per phase name, in the order the phases first skipped a
+     * step.
+     */
+    public Map<String, Integer> getSkippedSteps() {
+        return skipped == null ? Collections.emptyMap() : Collections.unmodifiableMap(skipped);
+    }
+
+    @Override
+    public String toString() {
+        if (exceededReason == null) {
+            return "within budget";
+        }
+        return String.format("exceeded %s budget after %d ms at %d nodes, skipped %s", exceededReason, TimeUnit.NANOSECONDS.toMillis(exceededAfter), exceededAtNodeCount, getSkippedSteps());
+    }
+}
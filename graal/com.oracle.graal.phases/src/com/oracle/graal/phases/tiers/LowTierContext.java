@@ -29,11 +29,15 @@ public class LowTierContext extends PhaseContext {
 
     private final TargetDescription target;
 
-    public LowTierContext(Providers copyFrom, Assumptions assumptions, TargetDescription target) {
-        super(copyFrom, assumptions);
+    public LowTierContext(Providers copyFrom, Assumptions assumptions, TargetDescription target, CompilationBudget budget) {
+        super(copyFrom, assumptions, budget);
         this.target = target;
     }
 
+    public LowTierContext(Providers copyFrom, Assumptions assumptions, TargetDescription target) {
+        this(copyFrom, assumptions, target, CompilationBudget.UNLIMITED);
+    }
+
     public TargetDescription getTarget() {
         return target;
     }
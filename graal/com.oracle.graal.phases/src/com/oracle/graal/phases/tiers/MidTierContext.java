@@ -34,14 +34,19 @@ public class MidTierContext extends PhaseContext {
     private final ProfilingInfo profilingInfo;
     private final SpeculationLog log;
 
-    public MidTierContext(Providers copyFrom, Assumptions assumptions, TargetDescription target, OptimisticOptimizations optimisticOpts, ProfilingInfo profilingInfo, SpeculationLog log) {
-        super(copyFrom, assumptions);
+    public MidTierContext(Providers copyFrom, Assumptions assumptions, TargetDescription target, OptimisticOptimizations optimisticOpts, ProfilingInfo profilingInfo, SpeculationLog log,
+                    CompilationBudget budget) {
+        super(copyFrom, assumptions, budget);
         this.target = target;
         this.optimisticOpts = optimisticOpts;
         this.profilingInfo = profilingInfo;
         this.log = log;
     }
 
+    public MidTierContext(Providers copyFrom, Assumptions assumptions, TargetDescription target, OptimisticOptimizations optimisticOpts, ProfilingInfo profilingInfo, SpeculationLog log) {
+        this(copyFrom, assumptions, target, optimisticOpts, profilingInfo, log, CompilationBudget.UNLIMITED);
+    }
+
     public TargetDescription getTarget() {
         return target;
     }
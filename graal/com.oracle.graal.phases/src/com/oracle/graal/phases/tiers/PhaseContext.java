@@ -34,17 +34,28 @@ public class PhaseContext {
     private final LoweringProvider lowerer;
     private final Replacements replacements;
     private final Assumptions assumptions;
+    private final CompilationBudget budget;
 
-    public PhaseContext(MetaAccessProvider metaAccess, ConstantReflectionProvider constantReflection, LoweringProvider lowerer, Replacements replacements, Assumptions assumptions) {
+    public PhaseContext(MetaAccessProvider metaAccess, ConstantReflectionProvider constantReflection, LoweringProvider lowerer, Replacements replacements, Assumptions assumptions,
+                    CompilationBudget budget) {
         this.metaAccess = metaAccess;
         this.constantReflection = constantReflection;
         this.lowerer = lowerer;
         this.replacements = replacements;
         this.assumptions = assumptions;
+        this.budget = budget;
+    }
+
+    public PhaseContext(MetaAccessProvider metaAccess, ConstantReflectionProvider constantReflection, LoweringProvider lowerer, Replacements replacements, Assumptions assumptions) {
+        this(metaAccess, constantReflection, lowerer, replacements, assumptions, CompilationBudget.UNLIMITED);
+    }
+
+    public PhaseContext(Providers providers, Assumptions assumptions, CompilationBudget budget) {
+        this(providers.getMetaAccess(), providers.getConstantReflection(), providers.getLowerer(), providers.getReplacements(), assumptions, budget);
     }
 
     public PhaseContext(Providers providers, Assumptions assumptions) {
-        this(providers.getMetaAccess(), providers.getConstantReflection(), providers.getLowerer(), providers.getReplacements(), assumptions);
+        this(providers, assumptions, CompilationBudget.UNLIMITED);
     }
 
     public MetaAccessProvider getMetaAccess() {
@@ -66,4 +77,12 @@ public class PhaseContext {
     public Assumptions getAssumptions() {
         return assumptions;
     }
+
+    /**
+     * Gets the budget of the current compilation. Phases consult it before expensive optional
+     * steps.
+     */
+    public CompilationBudget getBudget() {
+        return budget;
+    }
 }
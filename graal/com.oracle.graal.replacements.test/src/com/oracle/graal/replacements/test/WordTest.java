@@ -22,6 +22,8 @@
  */
 package com.oracle.graal.replacements.test;
 
+import static com.oracle.graal.compiler.common.UnsafeAccess.*;
+
 import org.junit.*;
 
 import com.oracle.graal.api.code.*;
@@ -113,6 +115,26 @@ public class WordTest extends GraalCompilerTest implements Snippets {
         }
     }
 
+    @Test
+    public void testScaledIndexAccess() {
+        long memory = unsafe.allocateMemory(80);
+        try {
+            for (int i = 0; i < 10; i++) {
+                unsafe.putLong(memory + i * 8, i * 0x0101010101010101L);
+            }
+            for (long index = 0; index < 10; index++) {
+                test("readScaledIndexLong", memory, index);
+                test("readScaledIndexInt", memory, index);
+            }
+            for (long index = 0; index < 9; index++) {
+                test("writeScaledIndexLong", memory, index, -index);
+                Assert.assertEquals(-index, unsafe.getLong(memory + 8 + (index << 3)));
+            }
+        } finally {
+            unsafe.freeMemory(memory);
+        }
+    }
+
     @Snippet
     public static long unsignedLong(long word) {
         return Word.unsigned(word).rawValue();
@@ -222,4 +244,19 @@ public class WordTest extends GraalCompilerTest implements Snippets {
     public static long orLong(long word, long addend) {
         return Word.unsigned(word).or(Word.unsigned(addend)).rawValue();
     }
+
+    @Snippet
+    public static long readScaledIndexLong(long address, long index) {
+        return Word.unsigned(address).add(Word.unsigned(index).shiftLeft(3)).readLong(0);
+    }
+
+    @Snippet
+    public static int readScaledIndexInt(long address, long index) {
+        return Word.unsigned(address).add(Word.unsigned(index).shiftLeft(2)).readInt(4);
+    }
+
+    @Snippet
+    public static void writeScaledIndexLong(long address, long index, long value) {
+        Word.unsigned(address).add(Word.unsigned(index).shiftLeft(3)).writeLong(8, value);
+    }
 }
@@ -682,6 +682,10 @@ public abstract class DefaultJavaLoweringProvider implements LoweringProvider {
     }
 
     protected GuardingNode createBoundsCheck(AccessIndexedNode n, LoweringTool tool) {
+        if (n.getBoundsCheck() != null) {
+            // checked for all iterations of the enclosing loop
+            return n.getBoundsCheck();
+        }
         StructuredGraph graph = n.graph();
         ValueNode array = n.array();
         ValueNode arrayLength = readArrayLength(array, tool.getConstantReflection());
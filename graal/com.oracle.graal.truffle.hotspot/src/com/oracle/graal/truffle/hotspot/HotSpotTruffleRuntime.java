@@ -24,7 +24,6 @@ package com.oracle.graal.truffle.hotspot;
 
 import static com.oracle.graal.api.code.CodeUtil.*;
 import static com.oracle.graal.compiler.GraalCompiler.*;
-import static com.oracle.graal.graph.util.CollectionsAccess.*;
 import static com.oracle.graal.hotspot.meta.HotSpotSuitesProvider.*;
 import static com.oracle.graal.truffle.TruffleCompilerOptions.*;
 
@@ -67,10 +66,10 @@ public final class HotSpotTruffleRuntime extends GraalTruffleRuntime {
         return new HotSpotTruffleRuntime();
     }
 
-    private TruffleCompilerImpl truffleCompiler;
+    private volatile TruffleCompilerImpl truffleCompiler;
     private Replacements truffleReplacements;
-    private Map<OptimizedCallTarget, Future<?>> compilations = newIdentityMap();
-    private final ThreadPoolExecutor compileQueue;
+    private final Map<OptimizedCallTarget, Future<?>> compilations = new ConcurrentHashMap<>();
+    private final TruffleCompilationQueue compileQueue;
 
     private final Map<RootCallTarget, Void> callTargets = Collections.synchronizedMap(new WeakHashMap<RootCallTarget, Void>());
 
@@ -93,7 +92,7 @@ public final class HotSpotTruffleRuntime extends GraalTruffleRuntime {
                 }
             }
         });
-        compileQueue = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(), factory);
+        compileQueue = new TruffleCompilationQueue(Math.max(TruffleCompilerThreads.getValue(), 1), factory);
 
     }
 
@@ -203,7 +202,11 @@ public final class HotSpotTruffleRuntime extends GraalTruffleRuntime {
     @Override
     public void compile(OptimizedCallTarget optimizedCallTarget, boolean mayBeAsynchronous) {
         if (truffleCompiler == null) {
-            truffleCompiler = new TruffleCompilerImpl();
+            synchronized (this) {
+                if (truffleCompiler == null) {
+                    truffleCompiler = new TruffleCompilerImpl();
+                }
+            }
         }
         Runnable r = new Runnable() {
             @Override
@@ -216,9 +219,19 @@ public final class HotSpotTruffleRuntime extends GraalTruffleRuntime {
                 }
             }
         };
-        Future<?> future = compileQueue.submit(r);
-        this.compilations.put(optimizedCallTarget, future);
-        getCompilationNotify().notifyCompilationQueued(optimizedCallTarget);
+        Future<?> future;
+        boolean queued = false;
+        synchronized (compilations) {
+            future = compilations.get(optimizedCallTarget);
+            if (future == null || future.isDone()) {
+                future = compileQueue.submit(optimizedCallTarget, r);
+                this.compilations.put(optimizedCallTarget, future);
+                queued = true;
+            }
+        }
+        if (queued) {
+            getCompilationNotify().notifyCompilationQueued(optimizedCallTarget);
+        }
 
         if (!mayBeAsynchronous) {
             try {
@@ -240,7 +253,7 @@ public final class HotSpotTruffleRuntime extends GraalTruffleRuntime {
         Future<?> codeTask = this.compilations.get(optimizedCallTarget);
         if (codeTask != null && isCompiling(optimizedCallTarget)) {
             this.compilations.remove(optimizedCallTarget);
-            boolean result = codeTask.cancel(true);
+            boolean result = compileQueue.cancel(codeTask);
             getCompilationNotify().notifyCompilationDequeued(optimizedCallTarget, source, reason);
             return result;
         }
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.truffle.hotspot;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import com.oracle.graal.truffle.*;
+
+/**
+ * Executor for background Truffle compilations. Instead of first-in first-out, queued call targets
+ * are ordered by the {@linkplain CompilationProfile#getCompilationDeadline(long) deadline} computed
+ * from their compilation profile at the time they are submitted.
+ */
+final class TruffleCompilationQueue extends ThreadPoolExecutor {
+
+    private final AtomicLong sequenceNumber = new AtomicLong();
+
+    TruffleCompilationQueue(int threads, ThreadFactory factory) {
+        super(threads, threads, 0L, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<Runnable>(), factory);
+    }
+
+    /**
+     * Submits a compilation of {@code target}. All tasks of this executor must be submitted through
+     * this method as the underlying queue only accepts {@link CompilationFuture}s.
+     */
+    Future<?> submit(OptimizedCallTarget target, Runnable compilation) {
+        long deadline = target.getCompilationProfile().getCompilationDeadline(System.nanoTime());
+        CompilationFuture future = new CompilationFuture(compilation, deadline, sequenceNumber.getAndIncrement());
+        execute(future);
+        return future;
+    }
+
+    /**
+     * Cancels a compilation and removes it from the queue if it did not start yet, so that stale
+     * entries do not accumulate in the queue.
+     */
+    boolean cancel(Future<?> future) {
+        boolean result = future.cancel(true);
+        if (future instanceof CompilationFuture) {
+            remove((CompilationFuture) future);
+        }
+        return result;
+    }
+
+    private static final class CompilationFuture extends FutureTask<Void> implements Comparable<CompilationFuture> {
+
+        private final long deadline;
+        private final long sequenceNumber;
+
+        CompilationFuture(Runnable compilation, long deadline, long sequenceNumber) {
+            super(compilation, null);
+            this.deadline = deadline;
+            this.sequenceNumber = sequenceNumber;
+        }
+
+        public int compareTo(CompilationFuture o) {
+            int result = Long.compare(deadline, o.deadline);
+            if (result == 0) {
+                result = Long.compare(sequenceNumber, o.sequenceNumber);
+            }
+            return result;
+        }
+    }
+}
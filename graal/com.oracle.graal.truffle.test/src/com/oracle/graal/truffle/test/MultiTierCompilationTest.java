@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.truffle.test;
+
+import static com.oracle.graal.truffle.TruffleCompilerOptions.*;
+import static org.junit.Assert.*;
+
+import org.junit.*;
+
+import com.oracle.graal.options.*;
+import com.oracle.graal.options.OptionValue.OverrideScope;
+import com.oracle.graal.truffle.*;
+import com.oracle.truffle.api.*;
+import com.oracle.truffle.api.frame.*;
+import com.oracle.truffle.api.nodes.*;
+
+/**
+ * Tests that a call target is first compiled in the first tier and recompiled in the second tier
+ * once its first tier code was called often enough.
+ */
+public class MultiTierCompilationTest {
+
+    private static final int FIRST_TIER_THRESHOLD = 10;
+    private static final int SECOND_TIER_THRESHOLD = 100;
+
+    private static class ConstantRootNode extends RootNode {
+
+        private final int value;
+
+        ConstantRootNode(int value) {
+            super(null, new FrameDescriptor());
+            this.value = value;
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            return value;
+        }
+    }
+
+    private static class CallerRootNode extends RootNode {
+
+        @Child private DirectCallNode callNode;
+
+        CallerRootNode(CallTarget callee) {
+            super(null, new FrameDescriptor());
+            this.callNode = Truffle.getRuntime().createDirectCallNode(callee);
+            this.callNode.forceInlining();
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            return callNode.call(frame, new Object[0]);
+        }
+    }
+
+    private static void call(OptimizedCallTarget target, int count) {
+        for (int i = 0; i < count; i++) {
+            assertEquals(42, target.call());
+        }
+    }
+
+    @Test
+    public void testTiers() {
+        try (OverrideScope s = OptionValue.override(TruffleMultiTier, true, TruffleFirstTierCompilationThreshold, FIRST_TIER_THRESHOLD, TruffleSecondTierCompilationThreshold,
+                        SECOND_TIER_THRESHOLD, TruffleBackgroundCompilation, false)) {
+            OptimizedCallTarget target = (OptimizedCallTarget) Truffle.getRuntime().createCallTarget(new ConstantRootNode(42));
+            call(target, FIRST_TIER_THRESHOLD);
+            assertTrue(target.isValid());
+            assertTrue(target.isFirstTier());
+
+            call(target, SECOND_TIER_THRESHOLD);
+            assertTrue(target.isValid());
+            assertFalse(target.isFirstTier());
+        }
+    }
+
+    @Test
+    public void testInlinedFirstTierInvalidated() {
+        try (OverrideScope s = OptionValue.override(TruffleMultiTier, true, TruffleFirstTierCompilationThreshold, FIRST_TIER_THRESHOLD, TruffleSecondTierCompilationThreshold,
+                        SECOND_TIER_THRESHOLD, TruffleBackgroundCompilation, false)) {
+            OptimizedCallTarget callee = (OptimizedCallTarget) Truffle.getRuntime().createCallTarget(new ConstantRootNode(42));
+            call(callee, FIRST_TIER_THRESHOLD);
+            assertTrue(callee.isFirstTier());
+            Assumption firstTierAssumption = callee.getFirstTierAssumption();
+
+            OptimizedCallTarget caller = (OptimizedCallTarget) Truffle.getRuntime().createCallTarget(new CallerRootNode(callee));
+            call(caller, FIRST_TIER_THRESHOLD);
+            assertTrue(caller.isValid());
+            assertTrue(caller.isFirstTier());
+            assertTrue(firstTierAssumption.isValid());
+
+            call(callee, SECOND_TIER_THRESHOLD);
+            assertTrue(callee.isValid());
+            assertFalse(callee.isFirstTier());
+            assertFalse(firstTierAssumption.isValid());
+            assertFalse(caller.isValid());
+        }
+    }
+
+    @Test
+    public void testDisabled() {
+        try (OverrideScope s = OptionValue.override(TruffleMultiTier, false, TruffleBackgroundCompilation, false)) {
+            OptimizedCallTarget target = (OptimizedCallTarget) Truffle.getRuntime().createCallTarget(new ConstantRootNode(42));
+            call(target, TruffleCompilationThreshold.getValue());
+            assertTrue(target.isValid());
+            assertFalse(target.isFirstTier());
+        }
+    }
+}
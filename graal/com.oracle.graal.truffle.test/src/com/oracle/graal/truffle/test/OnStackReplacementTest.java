@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.truffle.test;
+
+import static com.oracle.graal.truffle.TruffleCompilerOptions.*;
+import static org.junit.Assert.*;
+
+import org.junit.*;
+
+import com.oracle.graal.options.*;
+import com.oracle.graal.options.OptionValue.OverrideScope;
+import com.oracle.truffle.api.*;
+import com.oracle.truffle.api.frame.*;
+import com.oracle.truffle.api.nodes.*;
+
+/**
+ * Tests that a loop which runs long enough in the interpreter continues in compiled code.
+ */
+public class OnStackReplacementTest {
+
+    private static final int OSR_THRESHOLD = 1000;
+
+    private static class CountingRepeatingNode extends Node implements RepeatingNode {
+
+        private final FrameSlot counter;
+        private final int limit;
+        boolean executedCompiled;
+
+        CountingRepeatingNode(FrameSlot counter, int limit) {
+            super(null);
+            this.counter = counter;
+            this.limit = limit;
+        }
+
+        public boolean executeRepeating(VirtualFrame frame) {
+            int value = FrameUtil.getIntSafe(frame, counter);
+            if (value >= limit) {
+                return false;
+            }
+            if (CompilerDirectives.inCompiledCode()) {
+                executedCompiled = true;
+            }
+            frame.setInt(counter, value + 1);
+            return true;
+        }
+    }
+
+    private static class LoopRootNode extends RootNode {
+
+        private final FrameSlot counter;
+        @Child private LoopNode loop;
+
+        LoopRootNode(FrameDescriptor descriptor, FrameSlot counter, RepeatingNode body) {
+            super(null, descriptor);
+            this.counter = counter;
+            this.loop = Truffle.getRuntime().createLoopNode(body);
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            frame.setInt(counter, 0);
+            loop.executeLoop(frame);
+            return FrameUtil.getIntSafe(frame, counter);
+        }
+    }
+
+    private static boolean runLoop(int iterations) {
+        FrameDescriptor descriptor = new FrameDescriptor();
+        FrameSlot counter = descriptor.addFrameSlot("counter", FrameSlotKind.Int);
+        CountingRepeatingNode body = new CountingRepeatingNode(counter, iterations);
+        CallTarget target = Truffle.getRuntime().createCallTarget(new LoopRootNode(descriptor, counter, body));
+        assertEquals(iterations, target.call());
+        return body.executedCompiled;
+    }
+
+    @Test
+    public void testOSR() {
+        try (OverrideScope s = OptionValue.override(TruffleOSR, true, TruffleOSRCompilationThreshold, OSR_THRESHOLD, TruffleBackgroundCompilation, false)) {
+            assertTrue(runLoop(OSR_THRESHOLD * 10));
+        }
+    }
+
+    @Test
+    public void testShortLoop() {
+        try (OverrideScope s = OptionValue.override(TruffleOSR, true, TruffleOSRCompilationThreshold, OSR_THRESHOLD, TruffleBackgroundCompilation, false)) {
+            assertFalse(runLoop(OSR_THRESHOLD / 2));
+        }
+    }
+
+    @Test
+    public void testDisabled() {
+        try (OverrideScope s = OptionValue.override(TruffleOSR, false, TruffleBackgroundCompilation, false)) {
+            assertFalse(runLoop(OSR_THRESHOLD * 10));
+        }
+    }
+}
@@ -26,5 +26,11 @@ public interface CompilationPolicy {
 
     boolean shouldCompile(CompilationProfile profile);
 
+    /**
+     * Determines whether a call target whose first tier code is installed should be recompiled in
+     * the second tier.
+     */
+    boolean shouldCompileSecondTier(CompilationProfile profile);
+
     void recordCompilationFailure(Throwable t);
 }
@@ -28,8 +28,6 @@ import java.util.*;
 
 public class CompilationProfile {
 
-    private static final int TIMESTAMP_THRESHOLD = Math.max(TruffleCompilationThreshold.getValue() / 2, 1);
-
     /**
      * Number of times an installed code for this tree was invalidated.
      */
@@ -40,12 +38,24 @@ public class CompilationProfile {
     private int interpreterCallAndLoopCount;
     private int compilationCallThreshold;
     private int compilationCallAndLoopThreshold;
+    private final int timestampThreshold;
+
+    /**
+     * Number of calls that were executed by first tier code.
+     */
+    private int firstTierCallCount;
 
     private long timestamp;
 
     public CompilationProfile() {
-        this.compilationCallThreshold = TruffleMinInvokeThreshold.getValue();
-        this.compilationCallAndLoopThreshold = TruffleCompilationThreshold.getValue();
+        if (TruffleMultiTier.getValue()) {
+            this.compilationCallThreshold = TruffleFirstTierMinInvokeThreshold.getValue();
+            this.compilationCallAndLoopThreshold = TruffleFirstTierCompilationThreshold.getValue();
+        } else {
+            this.compilationCallThreshold = TruffleMinInvokeThreshold.getValue();
+            this.compilationCallAndLoopThreshold = TruffleCompilationThreshold.getValue();
+        }
+        this.timestampThreshold = Math.max(compilationCallAndLoopThreshold / 2, 1);
     }
 
     @Override
@@ -62,6 +72,9 @@ public class CompilationProfile {
         properties.put("Calls/Thres", callsThreshold);
         properties.put("CallsAndLoop/Thres", loopsThreshold);
         properties.put("Inval#", invalidations);
+        if (TruffleMultiTier.getValue()) {
+            properties.put("Tier1Calls", firstTierCallCount);
+        }
         return properties;
     }
 
@@ -77,6 +90,10 @@ public class CompilationProfile {
         return interpreterCallCount;
     }
 
+    public int getFirstTierCallCount() {
+        return firstTierCallCount;
+    }
+
     public int getDeferedCount() {
         return deferedCount;
     }
@@ -112,7 +129,7 @@ public class CompilationProfile {
         interpreterCallAndLoopCount++;
 
         int callsMissing = compilationCallAndLoopThreshold - interpreterCallAndLoopCount;
-        if (callsMissing == TIMESTAMP_THRESHOLD) {
+        if (callsMissing == timestampThreshold) {
             timestamp = System.nanoTime();
         }
     }
@@ -129,8 +146,12 @@ public class CompilationProfile {
 
     }
 
+    void reportFirstTierCall() {
+        firstTierCallCount++;
+    }
+
     public void deferCompilation() {
-        ensureProfiling(0, TIMESTAMP_THRESHOLD + 1);
+        ensureProfiling(0, timestampThreshold + 1);
         timestamp = 0;
         deferedCount++;
     }
@@ -139,7 +160,7 @@ public class CompilationProfile {
         interpreterCallAndLoopCount += count;
 
         int callsMissing = compilationCallAndLoopThreshold - interpreterCallAndLoopCount;
-        if (callsMissing <= TIMESTAMP_THRESHOLD && callsMissing + count > TIMESTAMP_THRESHOLD) {
+        if (callsMissing <= timestampThreshold && callsMissing + count > timestampThreshold) {
             timestamp = System.nanoTime();
         }
     }
@@ -153,4 +174,19 @@ public class CompilationProfile {
     public long getTimestamp() {
         return timestamp;
     }
+
+    /**
+     * Computes the point in time (in {@link System#nanoTime()} units) by which a compilation for
+     * this profile that is queued at {@code queuedTimestamp} should be started. The deadline is
+     * {@link TruffleCompilerOptions#TruffleCompilationQueueMaxDelay} after queuing for a profile
+     * that just reached its call and loop threshold and proportionally earlier for profiles that
+     * exceed it by a larger factor. As the deadline is anchored at the time of queuing, waiting
+     * entries eventually take precedence over hotter entries that were queued later.
+     */
+    public long getCompilationDeadline(long queuedTimestamp) {
+        long maxDelay = TruffleCompilationQueueMaxDelay.getValue() * 1_000_000L;
+        long threshold = Math.max(compilationCallAndLoopThreshold, 1);
+        long hotness = Math.max(interpreterCallAndLoopCount, threshold);
+        return queuedTimestamp + maxDelay * threshold / hotness;
+    }
 }
@@ -22,6 +22,8 @@
  */
 package com.oracle.graal.truffle;
 
+import static com.oracle.graal.truffle.TruffleCompilerOptions.*;
+
 public class CounterBasedCompilationPolicy implements CompilationPolicy {
 
     private boolean compilationFailed;
@@ -31,6 +33,10 @@ public class CounterBasedCompilationPolicy implements CompilationPolicy {
                         profile.getInterpreterCallAndLoopCount() >= profile.getCompilationCallAndLoopThreshold();
     }
 
+    public boolean shouldCompileSecondTier(CompilationProfile profile) {
+        return !compilationFailed && profile.getFirstTierCallCount() >= TruffleSecondTierCompilationThreshold.getValue();
+    }
+
     public void recordCompilationFailure(Throwable t) {
         compilationFailed = true;
     }
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.graal.truffle;
+
+/**
+ * Inlining policy for first tier compilations. Only calls that the guest language forces to be
+ * inlined are expanded, everything else is left to the second tier.
+ */
+public class FirstTierInliningPolicy implements TruffleInliningPolicy {
+
+    private static final String REASON_RECURSION = "recursion";
+    private static final String REASON_FIRST_TIER = "first tier";
+
+    public double calculateScore(TruffleInliningProfile profile) {
+        return profile.getFrequency() / profile.getDeepNodeCount();
+    }
+
+    public boolean isAllowed(TruffleInliningProfile profile, int currentNodeCount) {
+        if (profile.isRecursiveCall()) {
+            profile.setFailedReason(REASON_RECURSION);
+            return false;
+        }
+
+        if (!profile.isForced()) {
+            profile.setFailedReason(REASON_FIRST_TIER);
+            return false;
+        }
+
+        return true;
+    }
+}
@@ -28,6 +28,10 @@ public class InterpreterOnlyCompilationPolicy implements CompilationPolicy {
         return false;
     }
 
+    public boolean shouldCompileSecondTier(CompilationProfile profile) {
+        return false;
+    }
+
     public void recordCompilationFailure(Throwable t) {
     }
 
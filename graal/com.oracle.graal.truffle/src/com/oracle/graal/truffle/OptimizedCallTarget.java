@@ -36,7 +36,9 @@ import com.oracle.graal.debug.*;
 import com.oracle.graal.truffle.debug.*;
 import com.oracle.truffle.api.*;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.frame.*;
+import com.oracle.truffle.api.instrument.*;
 import com.oracle.truffle.api.nodes.*;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.utilities.*;
@@ -60,6 +62,15 @@ public class OptimizedCallTarget extends InstalledCode implements RootCallTarget
     @CompilationFinal private Class<?> profiledReturnType;
     @CompilationFinal private Assumption profiledReturnTypeAssumption;
 
+    /**
+     * Valid as long as the code being compiled or installed for this call target is first tier
+     * code. Callers that inlined this call target in its first tier depend on it, so they are
+     * recompiled once the second tier code is installed.
+     */
+    @CompilationFinal private Assumption firstTierAssumption;
+    private Assumption replacedFirstTierAssumption;
+    private boolean secondTierRequested;
+
     private final RootNode uninitializedRootNode;
     private final RootNode rootNode;
 
@@ -246,6 +257,9 @@ public class OptimizedCallTarget extends InstalledCode implements RootCallTarget
     }
 
     public final Object callRoot(Object[] originalArguments) {
+        if (CompilerDirectives.inCompiledCode() && firstTierAssumption != null && firstTierAssumption.isValid()) {
+            firstTierCall();
+        }
         Object[] args = originalArguments;
         if (this.profiledArgumentTypesAssumption != null && CompilerDirectives.inCompiledCode() && profiledArgumentTypesAssumption.isValid()) {
             args = CompilerDirectives.unsafeCast(castArrayFixedLength(args, profiledArgumentTypes.length), Object[].class, true, true);
@@ -311,8 +325,34 @@ public class OptimizedCallTarget extends InstalledCode implements RootCallTarget
         }
     }
 
+    @TruffleBoundary
+    private void firstTierCall() {
+        compilationProfile.reportFirstTierCall();
+        if (!secondTierRequested && compilationPolicy.shouldCompileSecondTier(compilationProfile)) {
+            secondTierRequested = true;
+            compile();
+        }
+    }
+
+    public boolean isFirstTier() {
+        return firstTierAssumption != null;
+    }
+
+    public Assumption getFirstTierAssumption() {
+        return firstTierAssumption;
+    }
+
     public void compile() {
         if (!runtime.isCompiling(this)) {
+            if (TruffleMultiTier.getValue() && !secondTierRequested) {
+                if (firstTierAssumption == null) {
+                    firstTierAssumption = Truffle.getRuntime().createAssumption("First Tier");
+                }
+            } else if (firstTierAssumption != null) {
+                // The first tier code keeps running until the second tier code is installed.
+                replacedFirstTierAssumption = firstTierAssumption;
+                firstTierAssumption = null;
+            }
             runtime.compile(this, TruffleBackgroundCompilation.getValue() && !TruffleCompilationExceptionsAreThrown.getValue());
         }
     }
@@ -335,6 +375,10 @@ public class OptimizedCallTarget extends InstalledCode implements RootCallTarget
 
     public void notifyCompilationFinished() {
         // Compilation was successful.
+        if (replacedFirstTierAssumption != null) {
+            replacedFirstTierAssumption.invalidate();
+            replacedFirstTierAssumption = null;
+        }
         if (inlining != null) {
             dequeueInlinedCallSites(inlining);
         }
@@ -352,6 +396,7 @@ public class OptimizedCallTarget extends InstalledCode implements RootCallTarget
 
     protected final Object callProxy(VirtualFrame frame) {
         try {
+            SamplingProfiler.poll(getRootNode());
             return getRootNode().execute(frame);
         } finally {
             // this assertion is needed to keep the values from being cleared as non-live locals
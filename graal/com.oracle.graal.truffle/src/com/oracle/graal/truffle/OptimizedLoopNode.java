@@ -22,34 +22,128 @@
  */
 package com.oracle.graal.truffle;
 
+import static com.oracle.graal.truffle.TruffleCompilerOptions.*;
+
 import com.oracle.truffle.api.*;
 import com.oracle.truffle.api.frame.*;
 import com.oracle.truffle.api.nodes.*;
 
 /**
- * Temporary node for legacy loop count reporting support as it was most likely done in other
- * implementations.
+ * Loop node that reports its loop count to the enclosing root node. If a single execution of the
+ * loop runs for more than {@link TruffleCompilerOptions#TruffleOSRCompilationThreshold} iterations
+ * in the interpreter, the repeating node is compiled into a separate call target that takes the
+ * current frame as its argument, and the rest of the loop is executed in that call target
+ * (on-stack replacement). While the compilation is pending, the interpreter only checks for the
+ * compiled loop when the loop is entered and after every further
+ * {@link TruffleCompilerOptions#TruffleOSRCompilationThreshold} iterations.
  */
 public final class OptimizedLoopNode extends LoopNode {
 
+    private OptimizedCallTarget osrTarget;
+
     public OptimizedLoopNode(RepeatingNode body) {
         super(body);
     }
 
     @Override
     public void executeLoop(VirtualFrame frame) {
+        if (CompilerDirectives.inInterpreter()) {
+            executeLoopInterpreter(frame);
+        } else {
+            while (executeRepeatingNode(frame)) {
+                // loop counts are only reported by the interpreter
+            }
+        }
+    }
+
+    private void executeLoopInterpreter(VirtualFrame frame) {
+        boolean osr = TruffleOSR.getValue();
+        int osrThreshold = TruffleOSRCompilationThreshold.getValue();
         int loopCount = 0;
+        int osrCount = 0;
         try {
+            if (osr && osrTarget != null && executeOSR(frame)) {
+                return;
+            }
             while (executeRepeatingNode(frame)) {
-                if (CompilerDirectives.inInterpreter()) {
-                    loopCount++;
+                loopCount++;
+                if (osr && ++osrCount >= osrThreshold) {
+                    osrCount = 0;
+                    if (executeOSR(frame)) {
+                        return;
+                    }
                 }
             }
         } finally {
-            if (CompilerDirectives.inInterpreter()) {
-                getRootNode().reportLoopCount(loopCount);
+            getRootNode().reportLoopCount(loopCount);
+        }
+    }
+
+    /**
+     * Requests the compilation of the OSR call target or, once it is compiled, executes the rest of
+     * the loop in it.
+     *
+     * @return true if the rest of the loop was executed in the OSR call target
+     */
+    private boolean executeOSR(VirtualFrame frame) {
+        OptimizedCallTarget target = osrTarget;
+        if (target == null) {
+            RootCallTarget callTarget = getRootNode().getCallTarget();
+            if (callTarget instanceof OptimizedCallTarget) {
+                Assumption rewritingAssumption = ((OptimizedCallTarget) callTarget).getNodeRewritingAssumption();
+                target = (OptimizedCallTarget) Truffle.getRuntime().createCallTarget(new OSRRootNode(this, rewritingAssumption));
+                osrTarget = target;
+                target.compile();
             }
+            return false;
+        } else if (target.isValid()) {
+            target.callDirect(frame);
+            return true;
+        } else if (!((GraalTruffleRuntime) Truffle.getRuntime()).isCompiling(target)) {
+            // compilation failed or the compiled loop was invalidated, so start profiling again
+            osrTarget = null;
         }
+        return false;
     }
 
+    /**
+     * Root node of an OSR call target. It executes the loop in the frame of the enclosing root node
+     * that it receives as its only argument. The compiled code depends on the node rewriting
+     * assumption of the enclosing call target because rewrites of the loop body are only reported
+     * there.
+     */
+    private static final class OSRRootNode extends RootNode {
+
+        private final OptimizedLoopNode loopNode;
+        private final Assumption rewritingAssumption;
+
+        OSRRootNode(OptimizedLoopNode loopNode, Assumption rewritingAssumption) {
+            super(loopNode.getSourceSection(), new FrameDescriptor());
+            this.loopNode = loopNode;
+            this.rewritingAssumption = rewritingAssumption;
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            if (!rewritingAssumption.isValid()) {
+                // the loop body was rewritten, finish the loop in the interpreter
+                CompilerDirectives.transferToInterpreter();
+            }
+            VirtualFrame parentFrame = CompilerDirectives.unsafeCast(frame.getArguments()[0], FrameWithoutBoxing.class, true, true);
+            while (loopNode.executeRepeatingNode(parentFrame)) {
+                // nothing to do
+            }
+            return null;
+        }
+
+        @Override
+        public boolean isCloningAllowed() {
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return loopNode.getRootNode().toString() + " <osr>";
+        }
+    }
 }
@@ -67,7 +67,7 @@ public class PartialEvaluator {
 
     private final Providers providers;
     private final CanonicalizerPhase canonicalizer;
-    private Set<JavaConstant> constantReceivers;
+    private final ThreadLocal<Set<JavaConstant>> constantReceivers = new ThreadLocal<>();
     private final TruffleCache truffleCache;
     private final SnippetReflectionProvider snippetReflection;
     private final ResolvedJavaMethod callDirectMethod;
@@ -85,7 +85,7 @@ public class PartialEvaluator {
 
     public StructuredGraph createGraph(final OptimizedCallTarget callTarget, final Assumptions assumptions) {
         if (TraceTruffleCompilationHistogram.getValue() || TraceTruffleCompilationDetails.getValue()) {
-            constantReceivers = new HashSet<>();
+            constantReceivers.set(new HashSet<>());
         }
 
         try (Scope c = Debug.scope("TruffleTree")) {
@@ -112,7 +112,9 @@ public class PartialEvaluator {
             expandTree(graph, assumptions, expansionLogger);
 
             TruffleInliningCache inliningCache = null;
-            if (TruffleFunctionInlining.getValue()) {
+            if (callTarget.isFirstTier()) {
+                callTarget.setInlining(new TruffleInlining(callTarget, new FirstTierInliningPolicy()));
+            } else if (TruffleFunctionInlining.getValue()) {
                 callTarget.setInlining(new TruffleInlining(callTarget, new DefaultInliningPolicy()));
                 if (TruffleFunctionInliningCache.getValue()) {
                     inliningCache = new TruffleInliningCache();
@@ -127,7 +129,7 @@ public class PartialEvaluator {
 
             new VerifyFrameDoesNotEscapePhase().apply(graph, false);
 
-            if (TraceTruffleCompilationHistogram.getValue() && constantReceivers != null) {
+            if (TraceTruffleCompilationHistogram.getValue() && constantReceivers.get() != null) {
                 createHistogram();
             }
 
@@ -205,7 +207,7 @@ public class PartialEvaluator {
 
     private void createHistogram() {
         DebugHistogram histogram = Debug.createHistogram("Expanded Truffle Nodes");
-        for (JavaConstant c : constantReceivers) {
+        for (JavaConstant c : constantReceivers.get()) {
             String javaName = providers.getMetaAccess().lookupJavaType(c).toJavaName(false);
 
             // The DSL uses nested classes with redundant names - only show the inner class
@@ -231,7 +233,7 @@ public class PartialEvaluator {
                 try (Indent id1 = Debug.logAndIndent("try inlining %s, kind = %s", methodCallTargetNode.targetMethod(), kind)) {
                     if (kind == InvokeKind.Static || kind == InvokeKind.Special) {
                         if ((TraceTruffleCompilationHistogram.getValue() || TraceTruffleCompilationDetails.getValue()) && kind == InvokeKind.Special && methodCallTargetNode.receiver().isConstant()) {
-                            constantReceivers.add(methodCallTargetNode.receiver().asJavaConstant());
+                            constantReceivers.get().add(methodCallTargetNode.receiver().asJavaConstant());
                         }
 
                         Replacements replacements = providers.getReplacements();
@@ -397,6 +399,10 @@ public class PartialEvaluator {
             decision.getProfile().setGraalDeepNodeCount(graph.getNodeCount());
 
             assumptions.record(new AssumptionValidAssumption((OptimizedAssumption) decision.getTarget().getNodeRewritingAssumption()));
+            Assumption firstTierAssumption = decision.getTarget().getFirstTierAssumption();
+            if (firstTierAssumption != null) {
+                assumptions.record(new AssumptionValidAssumption((OptimizedAssumption) firstTierAssumption));
+            }
         } else {
             // we continue expansion of callDirect until we reach the callBoundary.
             graph = parseGraph(methodCallTargetNode.targetMethod(), methodCallTargetNode.arguments(), phaseContext);
@@ -23,7 +23,6 @@
 package com.oracle.graal.truffle;
 
 import java.util.*;
-import java.util.Map.Entry;
 
 import com.oracle.graal.api.code.*;
 import com.oracle.graal.api.meta.*;
@@ -51,19 +50,43 @@ import com.oracle.truffle.api.*;
 import com.oracle.truffle.api.nodes.*;
 
 /**
- * Implementation of a cache for Truffle graphs for improving partial evaluation time.
+ * Implementation of a cache for Truffle graphs for improving partial evaluation time. The cache can
+ * be shared by multiple compiler threads. It is bounded by both the number of cached graphs and
+ * their total node count and evicts the least recently used graphs first.
  */
 public class TruffleCacheImpl implements TruffleCache {
 
+    private static final DebugMetric CacheHits = Debug.metric("TruffleCacheHits");
+    private static final DebugMetric CacheMisses = Debug.metric("TruffleCacheMisses");
+    private static final DebugMetric CacheEvictions = Debug.metric("TruffleCacheEvictions");
+
     private final Providers providers;
     private final GraphBuilderConfiguration config;
     private final GraphBuilderConfiguration configForRoot;
     private final OptimisticOptimizations optimisticOptimizations;
 
-    private final HashMap<List<Object>, StructuredGraph> cache = new HashMap<>();
-    private final HashMap<List<Object>, Long> lastUsed = new HashMap<>();
+    /**
+     * The cached graphs in least recently used order. Graphs are never modified once they are in
+     * the cache. All accesses must be synchronized on this map.
+     */
+    private final LinkedHashMap<List<Object>, StructuredGraph> cache = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Total number of nodes in {@link #cache}. Guarded by {@link #cache}.
+     */
+    private int cachedNodeCount;
+
+    /**
+     * Denotes a method for which graph creation failed. Also returned for recursive lookups of a
+     * method whose graph is being created by the current thread.
+     */
     private final StructuredGraph markerGraph = new StructuredGraph();
 
+    /**
+     * Keys of the graphs being created by the current thread.
+     */
+    private final ThreadLocal<Set<List<Object>>> inProgress = ThreadLocal.withInitial(HashSet::new);
+
     private final ResolvedJavaType stringBuilderClass;
     private final ResolvedJavaType runtimeExceptionClass;
     private final ResolvedJavaType errorClass;
@@ -72,8 +95,6 @@ public class TruffleCacheImpl implements TruffleCache {
     private final ResolvedJavaMethod callRootMethod;
     private final ResolvedJavaMethod callInlinedMethod;
 
-    private long counter;
-
     public TruffleCacheImpl(Providers providers, GraphBuilderConfiguration config, GraphBuilderConfiguration configForRoot, OptimisticOptimizations optimisticOptimizations) {
         this.providers = providers;
         this.config = config;
@@ -116,15 +137,51 @@ public class TruffleCacheImpl implements TruffleCache {
         return key;
     }
 
+    private StructuredGraph getCached(List<Object> key) {
+        synchronized (cache) {
+            return cache.get(key);
+        }
+    }
+
+    private void putCached(List<Object> key, StructuredGraph graph) {
+        synchronized (cache) {
+            StructuredGraph previous = cache.put(key, graph);
+            if (previous != null) {
+                cachedNodeCount -= nodeCount(previous);
+            }
+            cachedNodeCount += nodeCount(graph);
+
+            int maxNodes = TruffleCompilerOptions.TruffleMaxCompilationCacheNodes.getValue();
+            int maxSize = TruffleCompilerOptions.TruffleMaxCompilationCacheSize.getValue();
+            Iterator<Map.Entry<List<Object>, StructuredGraph>> iterator = cache.entrySet().iterator();
+            while ((cachedNodeCount > maxNodes || cache.size() > maxSize) && cache.size() > 1) {
+                Map.Entry<List<Object>, StructuredGraph> eldest = iterator.next();
+                cachedNodeCount -= nodeCount(eldest.getValue());
+                iterator.remove();
+                CacheEvictions.increment();
+                if (TruffleCompilerOptions.TraceTruffleCacheDetails.getValue()) {
+                    TTY.println(String.format("[truffle] evicted from graph cache method %s.", eldest.getKey().get(0)));
+                }
+            }
+        }
+    }
+
+    private int nodeCount(StructuredGraph graph) {
+        return graph == markerGraph ? 0 : graph.getNodeCount();
+    }
+
     public StructuredGraph lookup(ResolvedJavaMethod method, NodeInputList<ValueNode> arguments, CanonicalizerPhase canonicalizer) {
         List<Object> key = computeCacheKey(method, arguments);
-        StructuredGraph resultGraph = cache.get(key);
+        StructuredGraph resultGraph = getCached(key);
         if (resultGraph == markerGraph) {
             // compilation failed previously, don't try again
             return null;
         }
         StructuredGraph graph = cacheLookup(method, arguments, canonicalizer);
-        assert graph != markerGraph : "markerGraph should not leak out";
+        if (graph == markerGraph) {
+            // compilation failed in another thread in the meantime
+            return null;
+        }
         return graph;
     }
 
@@ -134,16 +191,18 @@ public class TruffleCacheImpl implements TruffleCache {
         }
 
         List<Object> key = computeCacheKey(method, arguments);
-        StructuredGraph resultGraph = cache.get(key);
+        Set<List<Object>> keysInProgress = inProgress.get();
+        if (keysInProgress.contains(key)) {
+            return markerGraph;
+        }
+        StructuredGraph resultGraph = getCached(key);
         if (resultGraph != null) {
-            lastUsed.put(key, counter++);
+            CacheHits.increment();
             return resultGraph;
         }
+        CacheMisses.increment();
 
-        if (lastUsed.values().size() >= TruffleCompilerOptions.TruffleMaxCompilationCacheSize.getValue()) {
-            lookupExceedsMaxSize();
-        }
-
+        keysInProgress.add(key);
         try (Scope s = Debug.scope("TruffleCache", providers.getMetaAccess(), method)) {
 
             final PhaseContext phaseContext = new PhaseContext(providers, new Assumptions(false));
@@ -154,9 +213,6 @@ public class TruffleCacheImpl implements TruffleCache {
                 return null;
             }
 
-            lastUsed.put(key, counter++);
-            cache.put(key, markerGraph);
-
             for (ParameterNode param : graph.getNodes(ParameterNode.class)) {
                 if (param.getKind() == Kind.Object) {
                     ValueNode actualArgument = arguments.get(param.index());
@@ -214,34 +270,17 @@ public class TruffleCacheImpl implements TruffleCache {
                 }
             }
 
-            cache.put(key, graph);
+            putCached(key, graph);
             if (TruffleCompilerOptions.TraceTruffleCacheDetails.getValue()) {
                 TTY.println(String.format("[truffle] added to graph cache method %s with %d nodes.", method, graph.getNodeCount()));
             }
             return graph;
         } catch (Throwable e) {
+            // Don't try again.
+            putCached(key, markerGraph);
             throw Debug.handle(e);
-        }
-    }
-
-    private void lookupExceedsMaxSize() {
-        List<Long> lastUsedList = new ArrayList<>();
-        for (long l : lastUsed.values()) {
-            lastUsedList.add(l);
-        }
-        Collections.sort(lastUsedList);
-        long mid = lastUsedList.get(lastUsedList.size() / 2);
-
-        List<List<Object>> toRemoveList = new ArrayList<>();
-        for (Entry<List<Object>, Long> entry : lastUsed.entrySet()) {
-            if (entry.getValue() < mid) {
-                toRemoveList.add(entry.getKey());
-            }
-        }
-
-        for (List<Object> entry : toRemoveList) {
-            cache.remove(entry);
-            lastUsed.remove(entry);
+        } finally {
+            keysInProgress.remove(key);
         }
     }
 
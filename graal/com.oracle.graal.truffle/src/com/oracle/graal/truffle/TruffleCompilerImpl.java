@@ -39,14 +39,18 @@ import com.oracle.graal.debug.DebugMemUseTracker.Closeable;
 import com.oracle.graal.debug.internal.*;
 import com.oracle.graal.java.*;
 import com.oracle.graal.lir.asm.*;
+import com.oracle.graal.loop.phases.*;
 import com.oracle.graal.nodes.*;
 import com.oracle.graal.nodes.spi.*;
 import com.oracle.graal.phases.*;
+import com.oracle.graal.phases.common.*;
+import com.oracle.graal.phases.common.cfs.*;
 import com.oracle.graal.phases.tiers.*;
 import com.oracle.graal.phases.util.*;
 import com.oracle.graal.printer.*;
 import com.oracle.graal.runtime.*;
 import com.oracle.graal.truffle.nodes.*;
+import com.oracle.graal.virtual.phases.ea.*;
 import com.oracle.truffle.api.*;
 import com.oracle.truffle.api.nodes.*;
 
@@ -57,6 +61,7 @@ public class TruffleCompilerImpl {
 
     private final Providers providers;
     private final Suites suites;
+    private final Suites firstTierSuites;
     private final PartialEvaluator partialEvaluator;
     private final Backend backend;
     private final GraphBuilderConfiguration config;
@@ -77,6 +82,7 @@ public class TruffleCompilerImpl {
         Replacements truffleReplacements = graalTruffleRuntime.getReplacements();
         this.providers = backend.getProviders().copyWith(truffleReplacements);
         this.suites = backend.getSuites().getDefaultSuites();
+        this.firstTierSuites = createFirstTierSuites(suites);
 
         ResolvedJavaType[] skippedExceptionTypes = getSkippedExceptionTypes(providers.getMetaAccess());
         GraphBuilderConfiguration eagerConfig = GraphBuilderConfiguration.getEagerDefault().withSkippedExceptionTypes(skippedExceptionTypes);
@@ -90,6 +96,38 @@ public class TruffleCompilerImpl {
         }
     }
 
+    /**
+     * Creates the suites used for first tier compilations of a call target. These are the default
+     * suites without the phases that mostly pay off after inlining and cost a lot of compile time.
+     */
+    private static Suites createFirstTierSuites(Suites defaultSuites) {
+        PhaseSuite<HighTierContext> highTier = defaultSuites.getHighTier().copy();
+        removePhase(highTier, IterativeFlowSensitiveReductionPhase.class);
+        removePhase(highTier, IterativeConditionalEliminationPhase.class);
+        removePhase(highTier, LoopFullUnrollPhase.class);
+        removePhase(highTier, TailDuplicationPhase.class);
+        removePhase(highTier, PartialEscapePhase.class);
+        removePhase(highTier, LoopTransformHighPhase.class);
+        removePhase(highTier, LoopTransformLowPhase.class);
+        removePhase(highTier, LoopRangeCheckEliminationPhase.class);
+        removePhase(highTier, LoopPartialUnrollPhase.class);
+
+        PhaseSuite<MidTierContext> midTier = defaultSuites.getMidTier().copy();
+        removePhase(midTier, EarlyReadEliminationPhase.class);
+        removePhase(midTier, GuardMotionPhase.class);
+        removePhase(midTier, IterativeConditionalEliminationPhase.class);
+
+        return new Suites(highTier, midTier, defaultSuites.getLowTier().copy());
+    }
+
+    private static <C> void removePhase(PhaseSuite<C> suite, Class<? extends BasePhase<? super C>> phaseClass) {
+        ListIterator<BasePhase<? super C>> it = suite.findPhase(phaseClass);
+        while (it != null) {
+            it.remove();
+            it = PhaseSuite.findNextPhase(it, phaseClass) ? it : null;
+        }
+    }
+
     public static ResolvedJavaType[] getSkippedExceptionTypes(MetaAccessProvider metaAccess) {
         ResolvedJavaType[] skippedExceptionTypes = new ResolvedJavaType[SKIPPED_EXCEPTION_CLASSES.length];
         for (int i = 0; i < SKIPPED_EXCEPTION_CLASSES.length; i++) {
@@ -143,8 +181,9 @@ public class TruffleCompilerImpl {
             CodeCacheProvider codeCache = providers.getCodeCache();
             CallingConvention cc = getCallingConvention(codeCache, Type.JavaCallee, graph.method(), false);
             CompilationResult compilationResult = new CompilationResult(name);
+            boolean firstTier = predefinedInstalledCode instanceof OptimizedCallTarget && ((OptimizedCallTarget) predefinedInstalledCode).isFirstTier();
             result = compileGraph(graph, null, cc, graph.method(), providers, backend, codeCache.getTarget(), null, createGraphBuilderSuite(), Optimizations, getProfilingInfo(graph), speculationLog,
-                            suites, compilationResult, CompilationResultBuilderFactory.Default);
+                            firstTier ? firstTierSuites : suites, compilationResult, CompilationResultBuilderFactory.Default);
         } catch (Throwable e) {
             throw Debug.handle(e);
         }
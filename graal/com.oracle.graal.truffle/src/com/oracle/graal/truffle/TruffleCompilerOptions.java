@@ -53,6 +53,18 @@ public class TruffleCompilerOptions {
     public static final OptionValue<Integer> TruffleInvalidationReprofileCount = new OptionValue<>(3);
     @Option(help = "Delay compilation after a node replacement")
     public static final OptionValue<Integer> TruffleReplaceReprofileCount = new OptionValue<>(10);
+    @Option(help = "Compile call targets in two tiers: first alone with a reduced phase suite, then with inlining and all optimizations")
+    public static final OptionValue<Boolean> TruffleMultiTier = new OptionValue<>(false);
+    @Option(help = "Compile call target in the first tier when call and loop count exceeds this threshold")
+    public static final OptionValue<Integer> TruffleFirstTierCompilationThreshold = new OptionValue<>(100);
+    @Option(help = "Minimum number of calls before a call target is compiled in the first tier")
+    public static final OptionValue<Integer> TruffleFirstTierMinInvokeThreshold = new OptionValue<>(1);
+    @Option(help = "Recompile call target in the second tier when its first tier code was called this many times")
+    public static final OptionValue<Integer> TruffleSecondTierCompilationThreshold = new OptionValue<>(1000);
+    @Option(help = "Enable on-stack replacement of long running loops in the Truffle interpreter")
+    public static final OptionValue<Boolean> TruffleOSR = new OptionValue<>(false);
+    @Option(help = "Compile a loop for on-stack replacement when its iteration count in a single execution exceeds this threshold")
+    public static final OptionValue<Integer> TruffleOSRCompilationThreshold = new OptionValue<>(100000);
     @Option(help = "Enable automatic inlining of call targets")
     public static final OptionValue<Boolean> TruffleFunctionInlining = new OptionValue<>(true);
     @Option(help = "Enable an expansion cache per CallTarget. Only functionable with TruffleContextSensitiveInlining enabled.")
@@ -83,8 +95,14 @@ public class TruffleCompilerOptions {
     public static final OptionValue<Integer> TruffleSplittingMaxCalleeSize = new OptionValue<>(100);
     @Option(help = "Number of most recently used methods in truffle cache")
     public static final OptionValue<Integer> TruffleMaxCompilationCacheSize = new OptionValue<>(512);
+    @Option(help = "Maximum total number of Graal IR nodes of the graphs in the truffle cache")
+    public static final OptionValue<Integer> TruffleMaxCompilationCacheNodes = new OptionValue<>(200000);
     @Option(help = "Enable asynchronous truffle compilation in background thread")
     public static final OptionValue<Boolean> TruffleBackgroundCompilation = new OptionValue<>(true);
+    @Option(help = "Number of threads used for background truffle compilation")
+    public static final OptionValue<Integer> TruffleCompilerThreads = new OptionValue<>(1);
+    @Option(help = "Maximum time in milliseconds a call target is deferred in the compilation queue in favor of hotter call targets")
+    public static final OptionValue<Integer> TruffleCompilationQueueMaxDelay = new OptionValue<>(1000);
     @Option(help = "")
     public static final OptionValue<Integer> TruffleCompilationDecisionTime = new OptionValue<>(100);
     @Option(help = "")
@@ -115,6 +115,9 @@ public final class TraceCompilationListener extends AbstractDebugCompilationList
         properties.put("DirectCallNodes", String.format("I %4d/D %4d", inlinedCalls, dispatchedCalls));
         properties.put("GraalNodes", String.format("%5d/%5d", compilation.nodeCountPartialEval, nodeCountLowered));
         properties.put("CodeSize", result.getTargetCodeSize());
+        if (TruffleMultiTier.getValue()) {
+            properties.put("Tier", target.isFirstTier() ? 1 : 2);
+        }
         properties.put("Source", formatSourceSection(target.getRootNode().getSourceSection()));
 
         log(0, "opt done", target.toString(), properties);
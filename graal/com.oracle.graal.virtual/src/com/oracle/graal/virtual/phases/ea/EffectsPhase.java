@@ -72,6 +72,10 @@ public abstract class EffectsPhase<PhaseContextT extends PhaseContext> extends B
     public boolean runAnalysis(final StructuredGraph graph, final PhaseContextT context) {
         boolean changed = false;
         for (int iteration = 0; iteration < maxIterations; iteration++) {
+            if (iteration > 0 && context.getBudget().skip(graph, getName())) {
+                // the first iteration is not optional
+                break;
+            }
             try (Scope s = Debug.scope(isEnabled() ? "iteration " + iteration : null)) {
                 SchedulePhase schedule;
                 ControlFlowGraph cfg;
@@ -58,6 +58,9 @@ public class IterativeInliningPhase extends AbstractInliningPhase {
 
     private void runIterations(final StructuredGraph graph, final boolean simple, final HighTierContext context) {
         for (int iteration = 0; iteration < EscapeAnalysisIterations.getValue(); iteration++) {
+            if (context.getBudget().skip(graph, getName())) {
+                break;
+            }
             try (Scope s = Debug.scope(isEnabled() ? "iteration " + iteration : null)) {
                 boolean progress = false;
                 PartialEscapePhase ea = new PartialEscapePhase(false, canonicalizer);
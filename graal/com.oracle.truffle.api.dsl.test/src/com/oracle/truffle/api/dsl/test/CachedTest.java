@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api.dsl.test;
+
+import static com.oracle.truffle.api.dsl.test.TestHelper.*;
+
+import org.junit.*;
+
+import com.oracle.truffle.api.dsl.*;
+import com.oracle.truffle.api.dsl.test.CachedTestFactory.Cached1Factory;
+import com.oracle.truffle.api.dsl.test.CachedTestFactory.Cached2Factory;
+import com.oracle.truffle.api.dsl.test.CachedTestFactory.Cached3Factory;
+import com.oracle.truffle.api.dsl.test.TypeSystemTest.TestRootNode;
+import com.oracle.truffle.api.dsl.test.TypeSystemTest.ValueNode;
+import com.oracle.truffle.api.nodes.*;
+
+@SuppressWarnings("unused")
+public class CachedTest {
+
+    /*
+     * Tests that cached values are appended to the chain until the limit is reached and that the
+     * containing specialization replaces them afterwards.
+     */
+    @Test
+    public void testCached1() {
+        TestRootNode<Cached1> root = createRoot(Cached1Factory.getInstance());
+        Assert.assertEquals("cached1", executeWith(root, 1));
+        Assert.assertEquals(NodeCost.MONOMORPHIC, root.getNode().getCost());
+        Assert.assertEquals("cached1", executeWith(root, 1));
+        Assert.assertEquals("cached2", executeWith(root, 2));
+        Assert.assertEquals(NodeCost.POLYMORPHIC, root.getNode().getCost());
+        Assert.assertEquals("cached1", executeWith(root, 1));
+        Assert.assertEquals("cached2", executeWith(root, 2));
+
+        // limit reached
+        Assert.assertEquals("generic3", executeWith(root, 3));
+        Assert.assertEquals("generic1", executeWith(root, 1));
+        Assert.assertEquals(NodeCost.MONOMORPHIC, root.getNode().getCost());
+    }
+
+    @NodeChild("a")
+    abstract static class Cached1 extends ValueNode {
+
+        @Specialization(limit = 2)
+        String doCached(int a, @Cached("a") int cachedA) {
+            return "cached" + cachedA;
+        }
+
+        @Specialization(contains = "doCached")
+        String doGeneric(int a) {
+            return "generic" + a;
+        }
+    }
+
+    /*
+     * Tests that a cached specialization without a more generic specialization fails if the limit
+     * is reached.
+     */
+    @Test
+    public void testCached2() {
+        TestRootNode<Cached2> root = createRoot(Cached2Factory.getInstance());
+        Assert.assertEquals("a", executeWith(root, "a"));
+        Assert.assertEquals("a", executeWith(root, "a"));
+        try {
+            executeWith(root, "b");
+            Assert.fail();
+        } catch (UnsupportedSpecializationException e) {
+            Assert.assertEquals("b", e.getSuppliedValues()[0]);
+        }
+    }
+
+    @NodeChild("a")
+    abstract static class Cached2 extends ValueNode {
+
+        @Specialization(limit = 1)
+        String doCached(String a, @Cached("a") String cachedA) {
+            return cachedA;
+        }
+    }
+
+    /*
+     * Tests cached values in combination with guards and other specializations in all orders.
+     */
+    @Test
+    public void testCached3() {
+        assertRuns(Cached3Factory.getInstance(), //
+                        array(1, 2, 3, -1, "a"), //
+                        array(1, 2, 3, 1, "a"));
+    }
+
+    @NodeChild("a")
+    abstract static class Cached3 extends ValueNode {
+
+        static boolean isPositive(int a) {
+            return a > 0;
+        }
+
+        @Specialization(guards = "isPositive", limit = 2)
+        int doCached(int a, @Cached("a") int cachedA) {
+            return cachedA;
+        }
+
+        @Specialization(contains = "doCached")
+        int doInt(int a) {
+            return Math.abs(a);
+        }
+
+        @Specialization
+        String doString(String a) {
+            return a;
+        }
+    }
+
+    @NodeChild("a")
+    abstract static class CachedError1 extends ValueNode {
+
+        @ExpectError("Parameters annotated with @Cached must be declared after all other parameters.")
+        @Specialization
+        int doCached(@Cached("a") int cachedA, int a) {
+            return cachedA;
+        }
+    }
+
+    @NodeChild("a")
+    abstract static class CachedError2 extends ValueNode {
+
+        @ExpectError("The cached parameter 'cachedA' must refer to a signature parameter but 'b' was not found.")
+        @Specialization
+        int doCached(int a, @Cached("b") int cachedA) {
+            return cachedA;
+        }
+    }
+
+    @NodeChild("a")
+    abstract static class CachedError3 extends ValueNode {
+
+        @ExpectError("The type of the cached parameter 'cachedA' must be 'int'.")
+        @Specialization
+        int doCached(int a, @Cached("a") Object cachedA) {
+            return a;
+        }
+    }
+
+    @NodeChild("a")
+    abstract static class CachedError4 extends ValueNode {
+
+        @ExpectError("The limit must be at least 1.")
+        @Specialization(limit = 0)
+        int doCached(int a, @Cached("a") int cachedA) {
+            return cachedA;
+        }
+    }
+
+}
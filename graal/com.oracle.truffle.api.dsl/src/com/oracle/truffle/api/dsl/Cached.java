@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api.dsl;
+
+import java.lang.annotation.*;
+
+/**
+ * <p>
+ * Declares a parameter of a {@link Specialization} annotated method as a cached value. The value
+ * of the cached parameter is captured from the signature parameter named by {@link #value()} when
+ * the specialization is instantiated. The specialization only matches later executions as long as
+ * the current value of that signature parameter is identical to the cached one. If it is not, a
+ * new instance of the specialization is appended to the polymorphic chain, each instance caching a
+ * different value, until {@link Specialization#limit()} instances exist. Cached parameters must be
+ * declared after all other parameters of the specialization and must have the same type as the
+ * signature parameter they cache.
+ * </p>
+ *
+ * <p>
+ * A simple inline cache for a call node could look like this:
+ * </p>
+ *
+ * <pre>
+ * &#064;Specialization(limit = 2)
+ * Object doDirect(Function function, &#064;Cached(&quot;function&quot;) Function cachedFunction) {..}
+ *
+ * &#064;Specialization(contains = &quot;doDirect&quot;)
+ * Object doIndirect(Function function) {..}
+ * </pre>
+ *
+ * <p>
+ * Once the limit of <code>doDirect</code> is reached it is no longer instantiated and the next
+ * matching specialization is used instead. If that specialization contains the cached one, as
+ * <code>doIndirect</code> does in the example, all cached instances are removed from the chain.
+ * Guards are evaluated before a value is cached and therefore cannot refer to cached parameters.
+ * </p>
+ *
+ * @see Specialization#limit()
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target({ElementType.PARAMETER})
+public @interface Cached {
+
+    /**
+     * The name of the specialization parameter whose value is cached.
+     */
+    String value();
+
+}
@@ -71,4 +71,13 @@ public @interface Specialization {
      */
     String[] assumptions() default {};
 
+    /**
+     * Defines the maximum number of instances of this specialization that may exist in a
+     * polymorphic chain at the same time. The limit only has an effect if the specialization
+     * declares {@link Cached} parameters, as every instance caches a different set of values. If
+     * the limit is reached the specialization is skipped and the next matching specialization is
+     * used instead.
+     */
+    int limit() default 3;
+
 }
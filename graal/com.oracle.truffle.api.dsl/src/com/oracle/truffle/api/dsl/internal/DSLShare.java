@@ -34,11 +34,24 @@ public class DSLShare {
 
     public static boolean isExcluded(Node currentNode, DSLMetadata otherMetadata) {
         assert otherMetadata.getExcludedBy().length > 0 : "At least one exclude must be defined for isIncluded.";
+        return isExcluded(currentNode, otherMetadata, 1);
+    }
+
+    /**
+     * Returns <code>true</code> if the specialization described by otherMetadata is excluded by
+     * another specialization in the chain of currentNode or if the chain already contains limit
+     * instances of it.
+     */
+    public static boolean isExcluded(Node currentNode, DSLMetadata otherMetadata, int limit) {
         Node cur = findRoot(currentNode);
+        int count = 0;
         while (cur != null) {
             Class<?> curClass = cur.getClass();
             if (curClass == otherMetadata.getSpecializationClass()) {
-                return true;
+                count++;
+                if (count >= limit) {
+                    return true;
+                }
             } else if (containsClass(otherMetadata.getExcludedBy(), cur)) {
                 return true;
             }
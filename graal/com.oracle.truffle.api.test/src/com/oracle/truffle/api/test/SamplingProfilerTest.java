@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api.test;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.junit.*;
+
+import com.oracle.truffle.api.*;
+import com.oracle.truffle.api.frame.*;
+import com.oracle.truffle.api.instrument.*;
+import com.oracle.truffle.api.instrument.SamplingProfiler.StackElement;
+import com.oracle.truffle.api.nodes.*;
+import com.oracle.truffle.api.source.*;
+
+public class SamplingProfilerTest {
+
+    private static final int SAMPLES = 5;
+    private static final long TIMEOUT = 10000;
+
+    @Test
+    public void testLoopSamples() {
+        Source source = Source.fromText("caller(); loop();", "test");
+        SourceSection callSection = source.createSection("call", 0, 8);
+        SourceSection loopSection = source.createSection("loop", 10, 6);
+
+        TruffleRuntime runtime = Truffle.getRuntime();
+        CallTarget loop = runtime.createCallTarget(new LoopRootNode(runtime.createLoopNode(new SampleCountNode(loopSection))));
+        CallTarget caller = runtime.createCallTarget(new CallerRootNode(runtime.createDirectCallNode(loop), callSection));
+
+        SamplingProfiler profiler = SamplingProfiler.install(1);
+        try {
+            assertSame(profiler, SamplingProfiler.getInstalled());
+            caller.call();
+        } finally {
+            profiler.uninstall();
+        }
+        assertNull(SamplingProfiler.getInstalled());
+        assertTrue(profiler.getSampleCount() >= SAMPLES);
+
+        Long loopSamples = profiler.getSelfSamples().get(loopSection);
+        assertNotNull(loopSamples);
+        assertEquals(loopSamples, profiler.getTotalSamples().get(loopSection));
+        assertTrue(profiler.getTotalSamples().get(callSection) >= loopSamples);
+
+        for (List<StackElement> stack : profiler.getStackSamples().keySet()) {
+            assertSame(caller, stack.get(0).getCallTarget());
+            if (stack.size() > 1) {
+                assertEquals(2, stack.size());
+                assertSame(callSection, stack.get(0).getSourceSection());
+                assertSame(loop, stack.get(1).getCallTarget());
+            }
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        profiler.printFoldedStacks(new PrintStream(bytes));
+        String folded = bytes.toString();
+        assertTrue(folded, folded.contains("caller (test:1)_[i];loop (test:1)_[i] "));
+
+        profiler.reset();
+        assertEquals(0, profiler.getSampleCount());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testInstallTwice() {
+        SamplingProfiler profiler = SamplingProfiler.install(1000);
+        try {
+            SamplingProfiler.install(1000);
+        } finally {
+            profiler.uninstall();
+        }
+    }
+
+    @Test
+    public void testReinstall() {
+        SamplingProfiler first = SamplingProfiler.install(1000);
+        first.uninstall();
+        assertNull(SamplingProfiler.getInstalled());
+        SamplingProfiler second = SamplingProfiler.install(1000);
+        try {
+            assertSame(second, SamplingProfiler.getInstalled());
+            first.uninstall();
+            assertSame(second, SamplingProfiler.getInstalled());
+        } finally {
+            second.uninstall();
+        }
+        assertNull(SamplingProfiler.getInstalled());
+    }
+
+    class CallerRootNode extends RootNode {
+
+        @Child private DirectCallNode callNode;
+
+        CallerRootNode(DirectCallNode callNode, SourceSection section) {
+            super(null);
+            this.callNode = callNode;
+            this.callNode.assignSourceSection(section);
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            return callNode.call(frame, new Object[0]);
+        }
+
+        @Override
+        public String toString() {
+            return "caller";
+        }
+    }
+
+    class LoopRootNode extends RootNode {
+
+        @Child private LoopNode loopNode;
+
+        LoopRootNode(LoopNode loopNode) {
+            super(null);
+            this.loopNode = loopNode;
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            loopNode.executeLoop(frame);
+            return null;
+        }
+
+        @Override
+        public String toString() {
+            return "loop";
+        }
+    }
+
+    class SampleCountNode extends Node implements RepeatingNode {
+
+        private final long deadline = System.currentTimeMillis() + TIMEOUT;
+
+        SampleCountNode(SourceSection section) {
+            super(section);
+        }
+
+        public boolean executeRepeating(VirtualFrame frame) {
+            return SamplingProfiler.getInstalled().getSampleCount() < SAMPLES && System.currentTimeMillis() < deadline;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api.test.object;
+
+import static org.junit.Assert.*;
+
+import org.junit.*;
+
+import com.oracle.truffle.api.object.*;
+
+public class DynamicObjectTest {
+
+    @Test
+    public void testLazyMigration() {
+        Shape root = Shape.createRootShape();
+        DynamicObject generalized = root.newInstance();
+        DynamicObject other = root.newInstance();
+        generalized.define("x", 1);
+        generalized.define("y", 2.5);
+        other.define("x", 3);
+        other.define("y", 4.5);
+        Shape oldShape = other.getShape();
+
+        generalized.define("x", "value");
+        assertFalse(oldShape.isValid());
+        assertSame(oldShape, other.getShape());
+
+        assertTrue(other.updateShape());
+        assertSame(generalized.getShape(), other.getShape());
+        assertEquals(3, other.get("x", null));
+        assertEquals(4.5, other.get("y", null));
+        assertFalse(other.updateShape());
+    }
+
+    @Test
+    public void testStorageGrowth() {
+        DynamicObject object = Shape.createRootShape().newInstance();
+        int count = 50;
+        for (int i = 0; i < count; i++) {
+            object.define("p" + i, i % 2 == 0 ? (Object) i : "value" + i);
+        }
+        assertEquals(count, object.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i % 2 == 0 ? (Object) i : "value" + i, object.get("p" + i, null));
+        }
+
+        DynamicObject sameShape = object.getShape().getRoot().newInstance();
+        for (int i = 0; i < count; i++) {
+            sameShape.define("p" + i, i % 2 == 0 ? (Object) (-i) : "other" + i);
+        }
+        assertSame(object.getShape(), sameShape.getShape());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i % 2 == 0 ? (Object) i : "value" + i, object.get("p" + i, null));
+            assertEquals(i % 2 == 0 ? (Object) (-i) : "other" + i, sameShape.get("p" + i, null));
+        }
+    }
+
+    @Test
+    public void testGrowthPastInitialSize() {
+        Shape shape = Shape.createRootShape();
+        for (int i = 0; i < 10; i++) {
+            shape = shape.addProperty("p" + i, i % 2 == 0 ? (Object) i : "value" + i);
+        }
+        DynamicObject object = shape.newInstance();
+        for (int i = 0; i < 30; i++) {
+            object.define("p" + i, i % 2 == 0 ? (Object) (i * 10) : "value" + i);
+        }
+        assertEquals(30, object.size());
+        Shape ancestor = object.getShape();
+        while (ancestor.getPropertyCount() > 10) {
+            ancestor = ancestor.getParent();
+        }
+        assertSame(shape, ancestor);
+        for (int i = 0; i < 30; i++) {
+            assertEquals(i % 2 == 0 ? (Object) (i * 10) : "value" + i, object.get("p" + i, null));
+        }
+    }
+
+    @Test
+    public void testSetAndGet() {
+        DynamicObject object = Shape.createRootShape().newInstance();
+        assertFalse(object.set("x", 1));
+        assertFalse(object.containsKey("x"));
+        assertEquals("default", object.get("x", "default"));
+        object.define("x", 1);
+        assertTrue(object.set("x", 2));
+        assertTrue(object.containsKey("x"));
+        assertEquals(2, object.get("x", null));
+    }
+}
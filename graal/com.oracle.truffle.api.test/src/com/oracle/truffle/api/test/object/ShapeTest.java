@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api.test.object;
+
+import static org.junit.Assert.*;
+
+import org.junit.*;
+
+import com.oracle.truffle.api.*;
+import com.oracle.truffle.api.object.*;
+
+public class ShapeTest {
+
+    @Test
+    public void testTransitionSharing() {
+        Shape root = Shape.createRootShape();
+        Shape first = root.addProperty("x", 1).addProperty("y", "value");
+        Shape second = root.addProperty("x", 2).addProperty("y", "other");
+        assertSame(first, second);
+        assertSame(root, first.getRoot());
+        assertEquals(2, first.getPropertyCount());
+
+        assertNotSame(first, root.addProperty("y", "value").addProperty("x", 1));
+        assertNotSame(first, root.addProperty("x", "value").addProperty("y", "value"));
+        assertNotSame(first, Shape.createRootShape().addProperty("x", 1).addProperty("y", "value"));
+    }
+
+    @Test
+    public void testObjectsShareShape() {
+        Shape root = Shape.createRootShape();
+        DynamicObject a = root.newInstance();
+        DynamicObject b = root.newInstance();
+        a.define("x", 1);
+        a.define("y", true);
+        b.define("x", 42);
+        b.define("y", false);
+        assertSame(a.getShape(), b.getShape());
+        assertEquals(1, a.get("x", null));
+        assertEquals(42, b.get("x", null));
+    }
+
+    @Test
+    public void testGeneralization() {
+        DynamicObject object = Shape.createRootShape().newInstance();
+        object.define("x", 1);
+        Shape intShape = object.getShape();
+        assertTrue(intShape.getProperty("x").getLocation().isPrimitive());
+        Assumption valid = intShape.getValidAssumption();
+        assertTrue(valid.isValid());
+
+        object.define("x", "value");
+        assertFalse(valid.isValid());
+        assertFalse(intShape.isValid());
+        assertSame(object.getShape(), intShape.getValidShape());
+        assertTrue(object.getShape().isValid());
+        assertFalse(object.getShape().getProperty("x").getLocation().isPrimitive());
+        assertEquals("value", object.get("x", null));
+
+        object.define("x", 2);
+        assertTrue(object.getShape().isValid());
+        assertEquals(2, object.get("x", null));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddExistingProperty() {
+        Shape.createRootShape().addProperty("x", 1).addProperty("x", 2);
+    }
+}
@@ -81,6 +81,22 @@ public class TruffleOptions {
      */
     public static final boolean TraceASTJSON;
 
+    /**
+     * Installs a {@link com.oracle.truffle.api.instrument.SamplingProfiler} when guest code is
+     * first executed and writes its folded stacks to the given file when the VM exits.
+     * <p>
+     * Can be set with {@code -Dtruffle.SamplingProfilerOutput=file}.
+     */
+    public static final String SamplingProfilerOutput;
+
+    /**
+     * The sampling period in milliseconds of the profiler installed with
+     * {@link #SamplingProfilerOutput}.
+     * <p>
+     * Can be set with {@code -Dtruffle.SamplingProfilerPeriod=10}.
+     */
+    public static final int SamplingProfilerPeriod;
+
     private static NodeCost parseNodeInfoKind(String kind) {
         if (kind == null) {
             return null;
@@ -91,6 +107,8 @@ public class TruffleOptions {
 
     static {
         final boolean[] values = {false, false};
+        final String[] profilerOutput = {null};
+        final int[] profilerPeriod = {10};
         AccessController.doPrivileged(new PrivilegedAction<Void>() {
             public Void run() {
                 TraceRewrites = Boolean.getBoolean("truffle.TraceRewrites");
@@ -99,11 +117,15 @@ public class TruffleOptions {
                 TraceRewritesFilterToCost = parseNodeInfoKind(System.getProperty("truffle.TraceRewritesFilterToCost"));
                 values[0] = Boolean.getBoolean("truffle.DetailedRewriteReasons");
                 values[1] = Boolean.getBoolean("truffle.TraceASTJSON");
+                profilerOutput[0] = System.getProperty("truffle.SamplingProfilerOutput");
+                profilerPeriod[0] = Integer.getInteger("truffle.SamplingProfilerPeriod", 10);
                 return null;
             }
         });
 
         DetailedRewriteReasons = values[0];
         TraceASTJSON = values[1];
+        SamplingProfilerOutput = profilerOutput[0];
+        SamplingProfilerPeriod = profilerPeriod[0];
     }
 }
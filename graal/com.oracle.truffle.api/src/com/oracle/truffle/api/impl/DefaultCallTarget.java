@@ -26,6 +26,7 @@ package com.oracle.truffle.api.impl;
 
 import com.oracle.truffle.api.*;
 import com.oracle.truffle.api.frame.*;
+import com.oracle.truffle.api.instrument.*;
 import com.oracle.truffle.api.nodes.*;
 
 /**
@@ -73,6 +74,7 @@ public class DefaultCallTarget implements RootCallTarget {
             }
         });
         try {
+            SamplingProfiler.poll(getRootNode());
             return getRootNode().execute(frame);
         } finally {
             defaultTruffleRuntime().setCurrentFrame(oldCurrentFrame);
@@ -0,0 +1,342 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api.instrument;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+import com.oracle.truffle.api.*;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.frame.*;
+import com.oracle.truffle.api.nodes.*;
+import com.oracle.truffle.api.source.*;
+
+/**
+ * A statistical CPU profiler for guest language code. While a profiler is installed a daemon timer
+ * requests a sample once per period. The next guest thread that reaches a sampling point takes the
+ * sample: it captures its guest stack with {@link TruffleRuntime#iterateFrames} and attributes the
+ * sample to the {@link SourceSection} it is executing. Sampling points are the entry of every call
+ * target and every iteration of a {@link LoopNode}, see {@link #poll(Node)}.
+ * <p>
+ * The installed profiler is a compilation constant guarded by an {@link Assumption}. While no
+ * profiler is installed, compiled sampling points therefore cost nothing. Installing or uninstalling
+ * a profiler invalidates the code compiled before.
+ * <p>
+ * Each frame of a sample records whether it was executing compiled code. For the sampled frame this
+ * is exact; for its callers the runtime only reports whether the frame is virtual, which is the case
+ * for frames of compiled code on the Graal runtime.
+ * <p>
+ * The collected stacks can be exported in the folded format understood by flame graph tools with
+ * {@link #printFoldedStacks(PrintStream)}. A profiler can also be installed for a whole VM run with
+ * {@link TruffleOptions#SamplingProfilerOutput}.
+ * <p>
+ * <strong>WARNING:</strong> this class is under development and will change substantially.
+ */
+public final class SamplingProfiler {
+
+    /**
+     * Holds the installed profiler. Its fields are constant in compiled code, a change is published
+     * by invalidating {@link #unchanged}.
+     */
+    private static final class Installation {
+
+        @CompilationFinal volatile SamplingProfiler profiler;
+        @CompilationFinal volatile Assumption unchanged = Truffle.getRuntime().createAssumption("sampling profiler unchanged");
+
+        void set(SamplingProfiler newProfiler) {
+            Assumption old = unchanged;
+            profiler = newProfiler;
+            unchanged = Truffle.getRuntime().createAssumption("sampling profiler unchanged");
+            old.invalidate();
+        }
+    }
+
+    private static final Installation INSTALLATION = new Installation();
+
+    static {
+        if (TruffleOptions.SamplingProfilerOutput != null) {
+            installForOutput(TruffleOptions.SamplingProfilerOutput, TruffleOptions.SamplingProfilerPeriod);
+        }
+    }
+
+    private final long period;
+    private final AtomicBoolean sampleRequested = new AtomicBoolean();
+    private final Timer timer;
+
+    private final Map<List<StackElement>, Long> stackSamples = new HashMap<>();
+    private final Map<SourceSection, Long> selfSamples = new HashMap<>();
+    private final Map<SourceSection, Long> totalSamples = new HashMap<>();
+    private long sampleCount;
+
+    private SamplingProfiler(long period) {
+        this.period = period;
+        this.timer = new Timer("Truffle Sampling Profiler", true);
+    }
+
+    /**
+     * Installs a new profiler that takes one sample every {@code period} milliseconds.
+     *
+     * @throws IllegalStateException if another profiler is installed
+     */
+    public static synchronized SamplingProfiler install(long period) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("The sampling period must be positive.");
+        }
+        if (INSTALLATION.profiler != null) {
+            throw new IllegalStateException("A sampling profiler is already installed.");
+        }
+        final SamplingProfiler profiler = new SamplingProfiler(period);
+        profiler.timer.scheduleAtFixedRate(new TimerTask() {
+            @Override
+            public void run() {
+                profiler.sampleRequested.set(true);
+            }
+        }, period, period);
+        INSTALLATION.set(profiler);
+        return profiler;
+    }
+
+    private static void installForOutput(final String fileName, int period) {
+        final SamplingProfiler profiler = install(period);
+        Runtime.getRuntime().addShutdownHook(new Thread() {
+            @Override
+            public void run() {
+                profiler.uninstall();
+                try (PrintStream out = new PrintStream(new FileOutputStream(fileName))) {
+                    profiler.printFoldedStacks(out);
+                } catch (FileNotFoundException e) {
+                    System.err.println("Cannot write sampling profile: " + e.getMessage());
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns the installed profiler or {@code null} if there is none.
+     */
+    public static SamplingProfiler getInstalled() {
+        return INSTALLATION.profiler;
+    }
+
+    /**
+     * Stops sampling. The samples taken so far remain available.
+     */
+    public void uninstall() {
+        synchronized (SamplingProfiler.class) {
+            timer.cancel();
+            sampleRequested.set(false);
+            if (INSTALLATION.profiler == this) {
+                INSTALLATION.set(null);
+            }
+        }
+    }
+
+    public long getPeriod() {
+        return period;
+    }
+
+    /**
+     * A sampling point for guest code that is about to execute {@code location}. Takes a sample if
+     * the installed profiler requested one. Language implementations only need to call this method
+     * for long running operations that neither enter a call target nor loop in a {@link LoopNode}.
+     */
+    public static void poll(Node location) {
+        Installation installation = INSTALLATION;
+        if (!installation.unchanged.isValid()) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+        }
+        SamplingProfiler profiler = installation.profiler;
+        if (profiler != null && profiler.sampleRequested.get()) {
+            profiler.takeSample(location, CompilerDirectives.inCompiledCode());
+        }
+    }
+
+    @TruffleBoundary
+    private void takeSample(Node location, boolean compiled) {
+        if (!sampleRequested.compareAndSet(true, false)) {
+            // another thread took this sample
+            return;
+        }
+        final List<StackElement> stack = new ArrayList<>();
+        RootNode root = location.getRootNode();
+        stack.add(new StackElement(root == null ? null : root.getCallTarget(), location.getEncapsulatingSourceSection(), compiled));
+        Truffle.getRuntime().iterateFrames(new FrameInstanceVisitor<Void>() {
+            public Void visitFrame(FrameInstance frame) {
+                Node callNode = frame.getCallNode();
+                SourceSection section = callNode == null ? null : callNode.getEncapsulatingSourceSection();
+                stack.add(new StackElement(frame.getCallTarget(), section, frame.isVirtualFrame()));
+                return null;
+            }
+        });
+        Collections.reverse(stack);
+        record(stack);
+    }
+
+    private synchronized void record(List<StackElement> stack) {
+        sampleCount++;
+        increment(stackSamples, stack);
+        SourceSection self = stack.get(stack.size() - 1).getSourceSection();
+        if (self != null) {
+            increment(selfSamples, self);
+        }
+        Set<SourceSection> counted = new HashSet<>();
+        for (StackElement element : stack) {
+            SourceSection section = element.getSourceSection();
+            if (section != null && counted.add(section)) {
+                increment(totalSamples, section);
+            }
+        }
+    }
+
+    private static <K> void increment(Map<K, Long> map, K key) {
+        Long count = map.get(key);
+        map.put(key, count == null ? 1L : count + 1L);
+    }
+
+    /**
+     * Returns the number of samples taken.
+     */
+    public synchronized long getSampleCount() {
+        return sampleCount;
+    }
+
+    /**
+     * Returns the number of samples taken per guest stack, outermost frame first.
+     */
+    public synchronized Map<List<StackElement>, Long> getStackSamples() {
+        return new HashMap<>(stackSamples);
+    }
+
+    /**
+     * Returns the number of samples per {@link SourceSection} that was executing when the sample
+     * was taken.
+     */
+    public synchronized Map<SourceSection, Long> getSelfSamples() {
+        return new HashMap<>(selfSamples);
+    }
+
+    /**
+     * Returns the number of samples per {@link SourceSection} that was on the guest stack when the
+     * sample was taken, including the executing one.
+     */
+    public synchronized Map<SourceSection, Long> getTotalSamples() {
+        return new HashMap<>(totalSamples);
+    }
+
+    /**
+     * Discards all samples taken so far.
+     */
+    public synchronized void reset() {
+        stackSamples.clear();
+        selfSamples.clear();
+        totalSamples.clear();
+        sampleCount = 0;
+    }
+
+    /**
+     * Prints one line per sampled guest stack in the folded format of flame graph tools: the frames
+     * separated by {@code ;}, outermost first, followed by the number of samples. Compiled frames
+     * are suffixed with {@code _[j]}, interpreted frames with {@code _[i]}.
+     */
+    public void printFoldedStacks(PrintStream out) {
+        for (Map.Entry<List<StackElement>, Long> entry : getStackSamples().entrySet()) {
+            StringBuilder line = new StringBuilder();
+            for (StackElement element : entry.getKey()) {
+                if (line.length() > 0) {
+                    line.append(';');
+                }
+                line.append(element.getFoldedName());
+            }
+            line.append(' ').append(entry.getValue());
+            out.println(line);
+        }
+    }
+
+    /**
+     * A guest frame of a sample.
+     */
+    public static final class StackElement {
+
+        private final CallTarget callTarget;
+        private final SourceSection sourceSection;
+        private final boolean compiled;
+
+        StackElement(CallTarget callTarget, SourceSection sourceSection, boolean compiled) {
+            this.callTarget = callTarget;
+            this.sourceSection = sourceSection;
+            this.compiled = compiled;
+        }
+
+        /**
+         * Returns the call target of the frame or {@code null} if it is unknown.
+         */
+        public CallTarget getCallTarget() {
+            return callTarget;
+        }
+
+        /**
+         * Returns the source section the frame was executing, that is the call site for callers
+         * and the sampled location for the executing frame, or {@code null} if it is unknown.
+         */
+        public SourceSection getSourceSection() {
+            return sourceSection;
+        }
+
+        public boolean isCompiled() {
+            return compiled;
+        }
+
+        String getFoldedName() {
+            StringBuilder name = new StringBuilder();
+            name.append(callTarget == null ? "<unknown>" : callTarget.toString());
+            if (sourceSection != null) {
+                name.append(" (").append(sourceSection.getShortDescription()).append(')');
+            }
+            name.append(compiled ? "_[j]" : "_[i]");
+            return name.toString().replace(';', ',').replace('\n', ' ');
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof StackElement)) {
+                return false;
+            }
+            StackElement other = (StackElement) obj;
+            return callTarget == other.callTarget && sourceSection == other.sourceSection && compiled == other.compiled;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(callTarget) * 31 + System.identityHashCode(sourceSection) + (compiled ? 1 : 0);
+        }
+
+        @Override
+        public String toString() {
+            return getFoldedName();
+        }
+    }
+}
@@ -25,6 +25,7 @@
 package com.oracle.truffle.api.nodes;
 
 import com.oracle.truffle.api.frame.*;
+import com.oracle.truffle.api.instrument.*;
 
 /**
  * Experimental API: may change significantly without notice.
@@ -43,7 +44,9 @@ public abstract class LoopNode extends Node {
     public abstract void executeLoop(VirtualFrame frame);
 
     protected final boolean executeRepeatingNode(VirtualFrame frame) {
-        return getRepeatingNode().executeRepeating(frame);
+        RepeatingNode repeating = getRepeatingNode();
+        SamplingProfiler.poll((Node) repeating);
+        return repeating.executeRepeating(frame);
     }
 
     public final RepeatingNode getRepeatingNode() {
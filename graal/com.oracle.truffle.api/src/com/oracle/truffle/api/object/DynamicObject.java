@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api.object;
+
+import java.util.*;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * An object with a dynamic set of properties. The {@link Shape} of the object describes which
+ * properties it has and where their values are stored. Nodes that access properties should cache
+ * the shape of the receiver together with the {@link Location} of the property, so that after a
+ * shape check the access is a plain load or store; the generic methods of this class look up the
+ * property in the shape on every access.
+ */
+public final class DynamicObject {
+
+    private Shape shape;
+    Object[] objectStore;
+    long[] primitiveStore;
+
+    DynamicObject(Shape shape) {
+        this.shape = shape;
+        this.objectStore = new Object[shape.getObjectArraySize()];
+        this.primitiveStore = new long[shape.getPrimitiveArraySize()];
+    }
+
+    public Shape getShape() {
+        return shape;
+    }
+
+    /**
+     * Changes the shape of this object to a shape that was created from the current one by adding
+     * a property, and grows the slot arrays if the new shape needs more slots.
+     */
+    public void setShapeAndGrow(Shape oldShape, Shape newShape) {
+        assert shape == oldShape && newShape.getParent() == oldShape;
+        if (newShape.getObjectArraySize() > objectStore.length) {
+            objectStore = Arrays.copyOf(objectStore, growCapacity(objectStore.length, newShape.getObjectArraySize()));
+        }
+        if (newShape.getPrimitiveArraySize() > primitiveStore.length) {
+            primitiveStore = Arrays.copyOf(primitiveStore, growCapacity(primitiveStore.length, newShape.getPrimitiveArraySize()));
+        }
+        shape = newShape;
+    }
+
+    private static int growCapacity(int oldCapacity, int minCapacity) {
+        return Math.max(minCapacity, oldCapacity + (oldCapacity >> 1));
+    }
+
+    /**
+     * Migrates this object to the replacement of its shape if the shape has become obsolete.
+     *
+     * @return {@code true} if the shape of this object changed
+     */
+    @TruffleBoundary
+    public boolean updateShape() {
+        if (shape.isValid()) {
+            return false;
+        }
+        migrate(shape.getValidShape());
+        return true;
+    }
+
+    private void migrate(Shape newShape) {
+        assert newShape.getPropertyCount() == shape.getPropertyCount();
+        Collection<Property> oldProperties = shape.getProperties();
+        Object[] values = new Object[oldProperties.size()];
+        int i = 0;
+        for (Property p : oldProperties) {
+            values[i++] = p.get(this);
+        }
+        objectStore = new Object[newShape.getObjectArraySize()];
+        primitiveStore = new long[newShape.getPrimitiveArraySize()];
+        i = 0;
+        for (Property p : oldProperties) {
+            newShape.getProperty(p.getKey()).getLocation().set(this, values[i++]);
+        }
+        shape = newShape;
+    }
+
+    /**
+     * Returns the value of the property with the given key, or the default value if this object
+     * does not have the property.
+     */
+    @TruffleBoundary
+    public Object get(Object key, Object defaultValue) {
+        updateShape();
+        Property property = shape.getProperty(key);
+        if (property == null) {
+            return defaultValue;
+        }
+        return property.get(this);
+    }
+
+    /**
+     * Sets the value of an existing property.
+     *
+     * @return {@code false} if this object does not have the property
+     */
+    @TruffleBoundary
+    public boolean set(Object key, Object value) {
+        if (!containsKey(key)) {
+            return false;
+        }
+        define(key, value);
+        return true;
+    }
+
+    /**
+     * Sets the value of a property, adding the property if this object does not have it yet and
+     * generalizing its location if it cannot store the value.
+     */
+    @TruffleBoundary
+    public void define(Object key, Object value) {
+        updateShape();
+        Property property = shape.getProperty(key);
+        if (property == null) {
+            Shape newShape = shape.addProperty(key, value);
+            setShapeAndGrow(shape, newShape);
+            newShape.getLastProperty().getLocation().set(this, value);
+            updateShape();
+        } else if (property.getLocation().canStore(value)) {
+            property.getLocation().set(this, value);
+        } else {
+            migrate(shape.generalizeProperty(property));
+            shape.getProperty(key).getLocation().set(this, value);
+        }
+    }
+
+    @TruffleBoundary
+    public boolean containsKey(Object key) {
+        return shape.hasProperty(key);
+    }
+
+    public int size() {
+        return shape.getPropertyCount();
+    }
+}
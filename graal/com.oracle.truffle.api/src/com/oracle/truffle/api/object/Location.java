@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api.object;
+
+/**
+ * Describes where the value of a {@link Property} is stored in a {@link DynamicObject}. Object
+ * values are kept in an {@code Object[]} slot array, primitive values in a {@code long[]} slot
+ * array of the object. A location is immutable and owned by the {@link Shape} that introduced the
+ * property, so a node that caches a location after a shape check can access the value with a
+ * single load.
+ */
+public abstract class Location {
+
+    protected final int index;
+
+    Location(int index) {
+        this.index = index;
+    }
+
+    /**
+     * Returns the value stored in this location of the given object. The object must have a
+     * {@link Shape} that contains this location.
+     */
+    public abstract Object get(DynamicObject object);
+
+    /**
+     * Stores a value in this location of the given object. The value must be
+     * {@link #canStore(Object) storable} in this location.
+     */
+    public abstract void set(DynamicObject object, Object value);
+
+    /**
+     * Determines whether the given value can be stored in this location without generalizing it.
+     */
+    public abstract boolean canStore(Object value);
+
+    /**
+     * Returns whether values of this location are stored in the primitive slot array of an object.
+     */
+    public boolean isPrimitive() {
+        return true;
+    }
+
+    static Class<? extends Location> locationTypeFor(Object value) {
+        if (value instanceof Integer) {
+            return IntLocation.class;
+        } else if (value instanceof Long) {
+            return LongLocation.class;
+        } else if (value instanceof Double) {
+            return DoubleLocation.class;
+        } else if (value instanceof Boolean) {
+            return BooleanLocation.class;
+        } else {
+            return ObjectLocation.class;
+        }
+    }
+
+    static Location create(Class<? extends Location> type, int objectIndex, int primitiveIndex) {
+        if (type == IntLocation.class) {
+            return new IntLocation(primitiveIndex);
+        } else if (type == LongLocation.class) {
+            return new LongLocation(primitiveIndex);
+        } else if (type == DoubleLocation.class) {
+            return new DoubleLocation(primitiveIndex);
+        } else if (type == BooleanLocation.class) {
+            return new BooleanLocation(primitiveIndex);
+        } else {
+            assert type == ObjectLocation.class;
+            return new ObjectLocation(objectIndex);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + index + "]";
+    }
+
+    static final class ObjectLocation extends Location {
+
+        ObjectLocation(int index) {
+            super(index);
+        }
+
+        @Override
+        public Object get(DynamicObject object) {
+            return object.objectStore[index];
+        }
+
+        @Override
+        public void set(DynamicObject object, Object value) {
+            object.objectStore[index] = value;
+        }
+
+        @Override
+        public boolean canStore(Object value) {
+            return true;
+        }
+
+        @Override
+        public boolean isPrimitive() {
+            return false;
+        }
+    }
+
+    static final class IntLocation extends Location {
+
+        IntLocation(int index) {
+            super(index);
+        }
+
+        @Override
+        public Object get(DynamicObject object) {
+            return (int) object.primitiveStore[index];
+        }
+
+        @Override
+        public void set(DynamicObject object, Object value) {
+            object.primitiveStore[index] = (int) value;
+        }
+
+        @Override
+        public boolean canStore(Object value) {
+            return value instanceof Integer;
+        }
+    }
+
+    static final class LongLocation extends Location {
+
+        LongLocation(int index) {
+            super(index);
+        }
+
+        @Override
+        public Object get(DynamicObject object) {
+            return object.primitiveStore[index];
+        }
+
+        @Override
+        public void set(DynamicObject object, Object value) {
+            object.primitiveStore[index] = (long) value;
+        }
+
+        @Override
+        public boolean canStore(Object value) {
+            return value instanceof Long;
+        }
+    }
+
+    static final class DoubleLocation extends Location {
+
+        DoubleLocation(int index) {
+            super(index);
+        }
+
+        @Override
+        public Object get(DynamicObject object) {
+            return Double.longBitsToDouble(object.primitiveStore[index]);
+        }
+
+        @Override
+        public void set(DynamicObject object, Object value) {
+            object.primitiveStore[index] = Double.doubleToRawLongBits((double) value);
+        }
+
+        @Override
+        public boolean canStore(Object value) {
+            return value instanceof Double;
+        }
+    }
+
+    static final class BooleanLocation extends Location {
+
+        BooleanLocation(int index) {
+            super(index);
+        }
+
+        @Override
+        public Object get(DynamicObject object) {
+            return object.primitiveStore[index] != 0;
+        }
+
+        @Override
+        public void set(DynamicObject object, Object value) {
+            object.primitiveStore[index] = (boolean) value ? 1 : 0;
+        }
+
+        @Override
+        public boolean canStore(Object value) {
+            return value instanceof Boolean;
+        }
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.api.object;
+
+import java.util.*;
+
+import com.oracle.truffle.api.*;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * The immutable layout of a {@link DynamicObject}: an ordered set of {@link Property properties}
+ * and the {@link Location locations} of their values. Shapes form a transition tree rooted at a
+ * {@link #createRootShape() root shape}; adding the same property with the same kind of location to
+ * the same shape always yields the same child shape, so objects that are built up the same way
+ * share their shape.
+ * <p>
+ * A shape becomes obsolete when one of its properties has to be generalized because a value no
+ * longer fits into its location. The {@link #getValidAssumption() valid assumption} of the shape
+ * is invalidated in that case, so that compiled code that checked for the shape is deoptimized.
+ * Objects of an obsolete shape are migrated lazily to the replacement shape by
+ * {@link DynamicObject#updateShape()}.
+ */
+public final class Shape {
+
+    private final Shape root;
+    private final Shape parent;
+    private final Property property;
+    private final Map<Object, Property> propertyMap;
+    private final int objectArraySize;
+    private final int primitiveArraySize;
+
+    private final Map<Transition, Shape> transitions = new HashMap<>();
+    private final Assumption validAssumption;
+    private volatile Shape successor;
+
+    private Shape(Shape parent, Property property) {
+        this.root = parent == null ? this : parent.root;
+        this.parent = parent;
+        this.property = property;
+        if (parent == null) {
+            this.propertyMap = Collections.emptyMap();
+            this.objectArraySize = 0;
+            this.primitiveArraySize = 0;
+        } else {
+            Map<Object, Property> map = new LinkedHashMap<>(parent.propertyMap);
+            map.put(property.getKey(), property);
+            this.propertyMap = Collections.unmodifiableMap(map);
+            boolean primitive = property.getLocation().isPrimitive();
+            this.objectArraySize = parent.objectArraySize + (primitive ? 0 : 1);
+            this.primitiveArraySize = parent.primitiveArraySize + (primitive ? 1 : 0);
+        }
+        this.validAssumption = Truffle.getRuntime().createAssumption("valid shape");
+    }
+
+    /**
+     * Creates a new empty shape that is the root of its own transition tree.
+     */
+    public static Shape createRootShape() {
+        return new Shape(null, null);
+    }
+
+    /**
+     * Creates a new object of this shape.
+     */
+    public DynamicObject newInstance() {
+        return new DynamicObject(this);
+    }
+
+    public Shape getRoot() {
+        return root;
+    }
+
+    public Shape getParent() {
+        return parent;
+    }
+
+    /**
+     * Returns the property that was added by the transition from the parent to this shape, or
+     * {@code null} for a root shape.
+     */
+    public Property getLastProperty() {
+        return property;
+    }
+
+    /**
+     * Returns the property with the given key, or {@code null} if this shape does not have it.
+     */
+    public Property getProperty(Object key) {
+        return propertyMap.get(key);
+    }
+
+    public boolean hasProperty(Object key) {
+        return propertyMap.containsKey(key);
+    }
+
+    public int getPropertyCount() {
+        return propertyMap.size();
+    }
+
+    /**
+     * Returns the keys of all properties in the order in which they were added.
+     */
+    public Iterable<Object> getKeys() {
+        return propertyMap.keySet();
+    }
+
+    /**
+     * Returns all properties in the order in which they were added.
+     */
+    public Collection<Property> getProperties() {
+        return propertyMap.values();
+    }
+
+    int getObjectArraySize() {
+        return objectArraySize;
+    }
+
+    int getPrimitiveArraySize() {
+        return primitiveArraySize;
+    }
+
+    /**
+     * Returns the assumption that this shape is not obsolete.
+     */
+    public Assumption getValidAssumption() {
+        return validAssumption;
+    }
+
+    public boolean isValid() {
+        return validAssumption.isValid();
+    }
+
+    /**
+     * Returns the shape that replaces this shape, or this shape if it is still valid.
+     */
+    public Shape getValidShape() {
+        Shape current = this;
+        while (!current.isValid()) {
+            current = current.successor;
+        }
+        return current;
+    }
+
+    /**
+     * Returns the shape that results from adding a property with the given key to this shape. The
+     * location of the new property is chosen so that it can store the given value. The returned
+     * shape may be obsolete.
+     */
+    @TruffleBoundary
+    public Shape addProperty(Object key, Object value) {
+        return addProperty(key, Location.locationTypeFor(value));
+    }
+
+    private Shape addProperty(Object key, Class<? extends Location> locationType) {
+        if (propertyMap.containsKey(key)) {
+            throw new IllegalArgumentException("property already exists: " + key);
+        }
+        Transition transition = new Transition(key, locationType);
+        synchronized (root) {
+            Shape child = transitions.get(transition);
+            if (child == null) {
+                Location location = Location.create(locationType, objectArraySize, primitiveArraySize);
+                child = new Shape(this, new Property(key, location));
+                transitions.put(transition, child);
+            }
+            return child;
+        }
+    }
+
+    /**
+     * Returns a valid shape with the same properties as this shape in which the location of the
+     * given property can store any value, and makes this shape obsolete.
+     */
+    @TruffleBoundary
+    Shape generalizeProperty(Property generalized) {
+        assert propertyMap.get(generalized.getKey()) == generalized;
+        Shape result = root;
+        for (Property p : propertyMap.values()) {
+            Class<? extends Location> locationType = p == generalized ? Location.ObjectLocation.class : p.getLocation().getClass();
+            result = result.addProperty(p.getKey(), locationType);
+        }
+        result = result.getValidShape();
+        synchronized (root) {
+            if (isValid() && result != this) {
+                successor = result;
+                validAssumption.invalidate();
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return propertyMap.values().toString();
+    }
+
+    private static final class Transition {
+
+        private final Object key;
+        private final Class<? extends Location> locationType;
+
+        Transition(Object key, Class<? extends Location> locationType) {
+            this.key = key;
+            this.locationType = locationType;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj instanceof Transition) {
+                Transition other = (Transition) obj;
+                return key.equals(other.key) && locationType == other.locationType;
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode() * 31 + locationType.hashCode();
+        }
+    }
+}
@@ -290,6 +290,13 @@ public class NodeCodeGenerator extends AbstractCompilationUnitFactory<NodeData>
             }
         }
 
+        if (targetMethod instanceof SpecializationData) {
+            // cached values are only accessible within the specialization node
+            for (CachedData cache : ((SpecializationData) targetMethod).getCaches()) {
+                builder.startGroup().string("this.").string(cache.getName()).end();
+            }
+        }
+
         builder.end().end();
 
         return builder.getRoot();
@@ -1385,9 +1392,14 @@ public class NodeCodeGenerator extends AbstractCompilationUnitFactory<NodeData>
                 builder.startReturn().nullLiteral().end();
             } else {
                 String className = nodeSpecializationClassName(current);
-                if (!current.getExcludedBy().isEmpty()) {
+                boolean excludable = !current.getExcludedBy().isEmpty() || !current.getCaches().isEmpty();
+                if (excludable) {
                     builder.startIf().string("!").startStaticCall(context.getTruffleTypes().getDslShare(), "isExcluded");
-                    builder.string("this").string(nodeSpecializationClassName(current), ".", METADATA_FIELD_NAME).end().end();
+                    builder.string("this").string(nodeSpecializationClassName(current), ".", METADATA_FIELD_NAME);
+                    if (!current.getCaches().isEmpty()) {
+                        builder.string(String.valueOf(current.getLimit()));
+                    }
+                    builder.end().end();
                     builder.startBlock();
                 }
 
@@ -1404,10 +1416,13 @@ public class NodeCodeGenerator extends AbstractCompilationUnitFactory<NodeData>
                         builder.string(implicitTypeName(param));
                     }
                 }
+                for (CachedData cache : current.getCaches()) {
+                    builder.tree(createCachedValue(builder, current, cache));
+                }
                 builder.end().end();
                 builder.end();
 
-                if (!current.getExcludedBy().isEmpty()) {
+                if (excludable) {
                     builder.end();
                 }
             }
@@ -1415,6 +1430,23 @@ public class NodeCodeGenerator extends AbstractCompilationUnitFactory<NodeData>
 
         }
 
+        private CodeTree createCachedValue(CodeTreeBuilder parent, SpecializationData current, CachedData cache) {
+            Parameter target = cache.getSource();
+            Parameter source = current.getNode().getGenericSpecialization().findParameter(target.getLocalName());
+            TypeData targetType = target.getTypeSystemType();
+            if (source == null || source.getTypeSystemType() == null || targetType == null || !source.getTypeSystemType().needsCastTo(targetType)) {
+                return CodeTreeBuilder.singleString(valueName(target));
+            }
+
+            CodeTree value = CodeTreeBuilder.singleString(valueName(target));
+            List<TypeData> types = current.getNode().getTypeSystem().lookupSourceTypes(targetType);
+            if (types.size() > 1) {
+                return createCallTypeSystemMethod(parent, current.getNode(), TypeSystemCodeGenerator.asImplicitTypeMethodName(targetType), value,
+                                CodeTreeBuilder.singleString(implicitTypeName(target)));
+            }
+            return createCallTypeSystemMethod(parent, current.getNode(), TypeSystemCodeGenerator.asTypeMethodName(targetType), value);
+        }
+
         private void emitUnreachableSpecializations(final CodeTreeBuilder builder, NodeData node) {
             for (SpecializationData current : node.getSpecializations()) {
                 if (current.isReachable()) {
@@ -2621,6 +2653,15 @@ public class NodeCodeGenerator extends AbstractCompilationUnitFactory<NodeData>
                         builder.end();
                     }
 
+                    for (CachedData cache : getModel().getCaches()) {
+                        clazz.add(new CodeVariableElement(modifiers(PRIVATE, FINAL), cache.getType(), cache.getName()));
+                        superConstructor.getParameters().add(new CodeVariableElement(cache.getType(), cache.getName()));
+
+                        builder.startStatement();
+                        builder.string("this.").string(cache.getName()).string(" = ").string(cache.getName());
+                        builder.end();
+                    }
+
                     clazz.add(superConstructor);
                 }
             }
@@ -2686,9 +2727,9 @@ public class NodeCodeGenerator extends AbstractCompilationUnitFactory<NodeData>
                 builder.tree(createExecuteTree(builder, polymorphic, SpecializationGroup.create(specialization), new CodeBlock<SpecializationData>() {
 
                     public CodeTree create(CodeTreeBuilder b, SpecializationData current) {
-                        return createGenericInvoke(b, polymorphic, current);
+                        return createCacheGuard(b, polymorphic, current, createGenericInvoke(b, polymorphic, current));
                     }
-                }, elseBuilder.getRoot(), false, true, true, false));
+                }, elseBuilder.getRoot(), !specialization.getCaches().isEmpty(), true, true, false));
             }
             clazz.add(executeMethod);
         }
@@ -2844,13 +2885,38 @@ public class NodeCodeGenerator extends AbstractCompilationUnitFactory<NodeData>
             builder.tree(createExecuteTree(builder, specialization, SpecializationGroup.create(specialization), new CodeBlock<SpecializationData>() {
 
                 public CodeTree create(CodeTreeBuilder b, SpecializationData current) {
-                    return createExecute(b, executable, specialization);
+                    return createCacheGuard(b, specialization, specialization, createExecute(b, executable, specialization));
                 }
-            }, returnSpecialized, false, false, false, false));
+            }, returnSpecialized, !specialization.getCaches().isEmpty(), false, false, false));
 
             return builder.getRoot();
         }
 
+        private CodeTree createCacheGuard(CodeTreeBuilder parent, TemplateMethod source, SpecializationData specialization, CodeTree body) {
+            if (specialization.getCaches().isEmpty()) {
+                return body;
+            }
+            CodeTreeBuilder builder = parent.create();
+            builder.startIf();
+            String and = "";
+            for (CachedData cache : specialization.getCaches()) {
+                Parameter target = cache.getSource();
+                Parameter value = source.findParameter(target.getLocalName());
+                builder.string(and);
+                if (value != null && ElementUtils.needsCastTo(value.getType(), target.getType())) {
+                    builder.string(castValueName(target));
+                } else {
+                    builder.string(valueName(target));
+                }
+                builder.string(" == this.").string(cache.getName());
+                and = " && ";
+            }
+            builder.end().startBlock();
+            builder.tree(body);
+            builder.end();
+            return builder.getRoot();
+        }
+
         private CodeTree createExecute(CodeTreeBuilder parent, ExecutableTypeData executable, SpecializationData specialization) {
             NodeData node = specialization.getNode();
             CodeTreeBuilder builder = new CodeTreeBuilder(parent);
@@ -2924,6 +2990,9 @@ public class NodeCodeGenerator extends AbstractCompilationUnitFactory<NodeData>
             for (Parameter implicitTypeParam : implicitTypeParams) {
                 method.addParameter(new CodeVariableElement(getContext().getType(Class.class), implicitTypeName(implicitTypeParam)));
             }
+            for (CachedData cache : specialization.getCaches()) {
+                method.addParameter(new CodeVariableElement(cache.getType(), cache.getName()));
+            }
             CodeTreeBuilder builder = method.createBuilder();
             builder.startReturn();
             builder.startNew(getElement().asType());
@@ -2931,6 +3000,9 @@ public class NodeCodeGenerator extends AbstractCompilationUnitFactory<NodeData>
             for (Parameter param : implicitTypeParams) {
                 builder.string(implicitTypeName(param));
             }
+            for (CachedData cache : specialization.getCaches()) {
+                builder.string(cache.getName());
+            }
             builder.end().end();
             return method;
         }
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.dsl.processor.model;
+
+import javax.lang.model.element.*;
+import javax.lang.model.type.*;
+
+/**
+ * A specialization parameter annotated with {@link com.oracle.truffle.api.dsl.Cached}. The value
+ * is captured from the source parameter when the specialization is instantiated and stored in a
+ * final field of the generated specialization node.
+ */
+public class CachedData {
+
+    private final VariableElement variable;
+    private final String sourceName;
+    private Parameter source;
+
+    public CachedData(VariableElement variable, String sourceName) {
+        this.variable = variable;
+        this.sourceName = sourceName;
+    }
+
+    public VariableElement getVariable() {
+        return variable;
+    }
+
+    public String getName() {
+        return variable.getSimpleName().toString();
+    }
+
+    public TypeMirror getType() {
+        return variable.asType();
+    }
+
+    public String getSourceName() {
+        return sourceName;
+    }
+
+    public void setSource(Parameter source) {
+        this.source = source;
+    }
+
+    public Parameter getSource() {
+        return source;
+    }
+
+}
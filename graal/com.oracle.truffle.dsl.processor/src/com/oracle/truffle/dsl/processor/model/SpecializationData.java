@@ -42,6 +42,8 @@ public final class SpecializationData extends TemplateMethod {
     private List<GuardExpression> guards = Collections.emptyList();
     private List<ShortCircuitData> shortCircuits;
     private List<String> assumptions = Collections.emptyList();
+    private List<CachedData> caches = Collections.emptyList();
+    private int limit;
     private final Set<SpecializationData> contains = new TreeSet<>();
     private final Set<String> containsNames = new TreeSet<>();
     private final Set<SpecializationData> excludedBy = new TreeSet<>();
@@ -132,6 +134,9 @@ public final class SpecializationData extends TemplateMethod {
         if (!getAssumptions().isEmpty()) {
             return true;
         }
+        if (!getCaches().isEmpty()) {
+            return true;
+        }
         for (Parameter parameter : getSignatureParameters()) {
             ExecutableTypeData type = parameter.getSpecification().getExecution().getChild().findExecutableType(context, parameter.getTypeSystemType());
             if (type.hasUnexpectedValue(context)) {
@@ -272,6 +277,22 @@ public final class SpecializationData extends TemplateMethod {
         this.assumptions = assumptions;
     }
 
+    public List<CachedData> getCaches() {
+        return caches;
+    }
+
+    public void setCaches(List<CachedData> caches) {
+        this.caches = caches;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+
     public SpecializationData findNextSpecialization() {
         List<SpecializationData> specializations = node.getSpecializations();
         for (int i = 0; i < specializations.size() - 1; i++) {
@@ -312,6 +333,11 @@ public final class SpecializationData extends TemplateMethod {
             return true;
         }
 
+        if (!prev.getCaches().isEmpty()) {
+            // the number of cached instances is limited
+            return true;
+        }
+
         Iterator<Parameter> currentSignature = getSignatureParameters().iterator();
         Iterator<Parameter> prevSignature = prev.getSignatureParameters().iterator();
 
@@ -29,6 +29,8 @@ import java.util.*;
 import javax.lang.model.element.*;
 import javax.lang.model.type.*;
 
+import com.oracle.truffle.api.dsl.*;
+import com.oracle.truffle.dsl.processor.*;
 import com.oracle.truffle.dsl.processor.java.*;
 import com.oracle.truffle.dsl.processor.model.*;
 
@@ -78,6 +80,10 @@ public final class MethodSpecParser {
         TypeMirror returnType = method.getReturnType();
         List<TypeMirror> parameterTypes = new ArrayList<>();
         for (VariableElement var : method.getParameters()) {
+            if (isCached(var)) {
+                // cached parameters are not part of the specification
+                continue;
+            }
             parameterTypes.add(var.asType());
         }
 
@@ -119,6 +125,10 @@ public final class MethodSpecParser {
         return new TemplateMethod(id, naturalOrder, template, methodSpecification, method, annotation, returnTypeMirror, parameters);
     }
 
+    public static boolean isCached(VariableElement var) {
+        return ElementUtils.findAnnotationMirror(ProcessorContext.getInstance().getEnvironment(), var, Cached.class) != null;
+    }
+
     private static String createActualSignature(ExecutableElement method) {
         StringBuilder b = new StringBuilder("(");
         String sep = "";
@@ -112,6 +112,55 @@ public class SpecializationMethodParser extends NodeMethodParser<SpecializationD
             }
         }
 
+        specialization.setCaches(parseCaches(specialization));
+        int limit = ElementUtils.getAnnotationValue(Integer.class, specialization.getMarkerAnnotation(), "limit");
+        if (limit < 1) {
+            AnnotationValue value = ElementUtils.getAnnotationValue(specialization.getMarkerAnnotation(), "limit");
+            specialization.addError(value, "The limit must be at least 1.");
+        }
+        specialization.setLimit(limit);
+
         return specialization;
     }
+
+    private List<CachedData> parseCaches(SpecializationData specialization) {
+        ExecutableElement method = specialization.getMethod();
+        if (method == null) {
+            return Collections.emptyList();
+        }
+        List<? extends VariableElement> variables = method.getParameters();
+        List<CachedData> caches = new ArrayList<>();
+        int parameterIndex = 0;
+        for (VariableElement variable : variables) {
+            AnnotationMirror cachedMirror = ElementUtils.findAnnotationMirror(getContext().getEnvironment(), variable, Cached.class);
+            if (cachedMirror == null) {
+                if (!caches.isEmpty()) {
+                    specialization.addError("Parameters annotated with @%s must be declared after all other parameters.", Cached.class.getSimpleName());
+                    return Collections.emptyList();
+                }
+                parameterIndex++;
+                continue;
+            }
+            caches.add(new CachedData(variable, ElementUtils.getAnnotationValue(String.class, cachedMirror, "value")));
+        }
+
+        List<Parameter> parameters = specialization.getParameters();
+        for (CachedData cache : caches) {
+            Parameter source = null;
+            for (int i = 0; i < parameterIndex && i < parameters.size(); i++) {
+                if (variables.get(i).getSimpleName().toString().equals(cache.getSourceName())) {
+                    source = parameters.get(i);
+                    break;
+                }
+            }
+            if (source == null || !source.getSpecification().isSignature()) {
+                specialization.addError("The cached parameter '%s' must refer to a signature parameter but '%s' was not found.", cache.getName(), cache.getSourceName());
+            } else if (!ElementUtils.typeEquals(source.getType(), cache.getType())) {
+                specialization.addError("The type of the cached parameter '%s' must be '%s'.", cache.getName(), ElementUtils.getSimpleName(source.getType()));
+            } else {
+                cache.setSource(source);
+            }
+        }
+        return caches;
+    }
 }
@@ -29,9 +29,11 @@ import com.oracle.truffle.api.*;
 import com.oracle.truffle.api.dsl.*;
 import com.oracle.truffle.api.instrument.*;
 import com.oracle.truffle.api.nodes.*;
+import com.oracle.truffle.api.object.*;
 import com.oracle.truffle.api.source.*;
 import com.oracle.truffle.sl.builtins.*;
 import com.oracle.truffle.sl.nodes.*;
+import com.oracle.truffle.sl.nodes.access.*;
 import com.oracle.truffle.sl.nodes.call.*;
 import com.oracle.truffle.sl.nodes.controlflow.*;
 import com.oracle.truffle.sl.nodes.expression.*;
@@ -60,6 +62,8 @@ import com.oracle.truffle.sl.runtime.*;
  * <li>Boolean: implemented as the Java primitive type {@code boolean}.
  * <li>String: implemented as the Java standard type {@link String}.
  * <li>Function: implementation type {@link SLFunction}.
+ * <li>Object: a set of named properties, implemented as a {@link DynamicObject} of the Truffle
+ * object model.
  * <li>Null (with only one value {@code null}): implemented as the singleton
  * {@link SLNull#SINGLETON}.
  * </ul>
@@ -83,6 +87,9 @@ import com.oracle.truffle.sl.runtime.*;
  * {@link SLReturnNode return}.
  * <li>Function calls: {@link SLInvokeNode invocations} are efficiently implemented with
  * {@link SLAbstractDispatchNode polymorphic inline caches}.
+ * <li>Objects: {@link SLObjectLiteralNode object literals}, {@link SLReadPropertyNode property
+ * reads} and {@link SLWritePropertyNode property writes}. Property accesses are implemented with
+ * polymorphic inline caches on the {@link Shape} of the object.
  * </ul>
  *
  * <p>
@@ -272,6 +279,8 @@ public class SLMain {
                     result.append("String \"").append(value).append("\"");
                 } else if (value instanceof SLFunction) {
                     result.append("Function ").append(value);
+                } else if (value instanceof DynamicObject) {
+                    result.append("Object ").append(((DynamicObject) value).getShape());
                 } else if (value == SLNull.SINGLETON) {
                     result.append("NULL");
                 } else if (value == null) {
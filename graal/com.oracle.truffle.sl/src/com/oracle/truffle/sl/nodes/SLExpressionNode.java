@@ -28,6 +28,7 @@ import com.oracle.truffle.api.dsl.*;
 import com.oracle.truffle.api.frame.*;
 import com.oracle.truffle.api.instrument.*;
 import com.oracle.truffle.api.nodes.*;
+import com.oracle.truffle.api.object.*;
 import com.oracle.truffle.api.source.*;
 import com.oracle.truffle.sl.nodes.instrument.*;
 import com.oracle.truffle.sl.runtime.*;
@@ -86,6 +87,10 @@ public abstract class SLExpressionNode extends SLStatementNode {
         return SLTypesGen.SLTYPES.expectSLFunction(executeGeneric(frame));
     }
 
+    public DynamicObject executeObject(VirtualFrame frame) throws UnexpectedResultException {
+        return SLTypesGen.SLTYPES.expectDynamicObject(executeGeneric(frame));
+    }
+
     public SLNull executeNull(VirtualFrame frame) throws UnexpectedResultException {
         return SLTypesGen.SLTYPES.expectSLNull(executeGeneric(frame));
     }
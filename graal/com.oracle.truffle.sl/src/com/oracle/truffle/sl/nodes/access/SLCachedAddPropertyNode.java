@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.sl.nodes.access;
+
+import com.oracle.truffle.api.*;
+import com.oracle.truffle.api.nodes.*;
+import com.oracle.truffle.api.object.*;
+
+/**
+ * An entry in the polymorphic inline cache for property writes that adds the property to a
+ * receiver of the cached shape. Both the old and the new shape are constants, so a cache hit is a
+ * shape check, a shape store and the store of the value.
+ */
+final class SLCachedAddPropertyNode extends SLWritePropertyCacheNode {
+
+    private final Shape oldShape;
+    private final Shape newShape;
+    private final Assumption oldShapeValid;
+    private final Assumption newShapeValid;
+    private final Location location;
+
+    @Child private SLWritePropertyCacheNode nextNode;
+
+    SLCachedAddPropertyNode(String propertyName, Shape oldShape, Shape newShape, SLWritePropertyCacheNode nextNode) {
+        super(propertyName);
+        this.oldShape = oldShape;
+        this.newShape = newShape;
+        this.oldShapeValid = oldShape.getValidAssumption();
+        this.newShapeValid = newShape.getValidAssumption();
+        this.location = newShape.getLastProperty().getLocation();
+        this.nextNode = nextNode;
+    }
+
+    @Override
+    public void executeWrite(DynamicObject receiver, Object value) {
+        if (receiver.getShape() == oldShape && location.canStore(value)) {
+            try {
+                oldShapeValid.check();
+                newShapeValid.check();
+                receiver.setShapeAndGrow(oldShape, newShape);
+                location.set(receiver, value);
+                return;
+            } catch (InvalidAssumptionException ex) {
+                replace(nextNode);
+            }
+        }
+        nextNode.executeWrite(receiver, value);
+    }
+}
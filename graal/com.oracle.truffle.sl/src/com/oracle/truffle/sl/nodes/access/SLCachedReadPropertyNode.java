@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.sl.nodes.access;
+
+import com.oracle.truffle.api.*;
+import com.oracle.truffle.api.nodes.*;
+import com.oracle.truffle.api.object.*;
+import com.oracle.truffle.sl.runtime.*;
+
+/**
+ * An entry in the polymorphic inline cache for property reads.
+ */
+final class SLCachedReadPropertyNode extends SLReadPropertyCacheNode {
+
+    /** The cached shape. Must be a final field so that the compiler can optimize the check. */
+    private final Shape shape;
+
+    /** Assumption that {@link #shape} is not obsolete. */
+    private final Assumption shapeValid;
+
+    /** The location of the property in {@link #shape}, or {@code null} if it has no such property. */
+    private final Location location;
+
+    @Child private SLReadPropertyCacheNode nextNode;
+
+    SLCachedReadPropertyNode(String propertyName, Shape shape, Location location, SLReadPropertyCacheNode nextNode) {
+        super(propertyName);
+        this.shape = shape;
+        this.shapeValid = shape.getValidAssumption();
+        this.location = location;
+        this.nextNode = nextNode;
+    }
+
+    @Override
+    public Object executeRead(DynamicObject receiver) {
+        if (receiver.getShape() == shape) {
+            try {
+                /*
+                 * Objects of an obsolete shape are migrated to a new shape, so this entry would
+                 * never hit again. The check is a no-op in compiled code.
+                 */
+                shapeValid.check();
+                return location == null ? SLNull.SINGLETON : location.get(receiver);
+            } catch (InvalidAssumptionException ex) {
+                /* Remove ourself from the cache and fall through to the next entry. */
+                replace(nextNode);
+            }
+        }
+        return nextNode.executeRead(receiver);
+    }
+}
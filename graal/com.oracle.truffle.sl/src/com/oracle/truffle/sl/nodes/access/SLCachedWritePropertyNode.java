@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.sl.nodes.access;
+
+import com.oracle.truffle.api.*;
+import com.oracle.truffle.api.nodes.*;
+import com.oracle.truffle.api.object.*;
+
+/**
+ * An entry in the polymorphic inline cache for property writes that stores into an existing
+ * property of the cached shape.
+ */
+final class SLCachedWritePropertyNode extends SLWritePropertyCacheNode {
+
+    private final Shape shape;
+    private final Assumption shapeValid;
+    private final Location location;
+
+    @Child private SLWritePropertyCacheNode nextNode;
+
+    SLCachedWritePropertyNode(String propertyName, Shape shape, Location location, SLWritePropertyCacheNode nextNode) {
+        super(propertyName);
+        this.shape = shape;
+        this.shapeValid = shape.getValidAssumption();
+        this.location = location;
+        this.nextNode = nextNode;
+    }
+
+    @Override
+    public void executeWrite(DynamicObject receiver, Object value) {
+        if (receiver.getShape() == shape && location.canStore(value)) {
+            try {
+                shapeValid.check();
+                location.set(receiver, value);
+                return;
+            } catch (InvalidAssumptionException ex) {
+                replace(nextNode);
+            }
+        }
+        nextNode.executeWrite(receiver, value);
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.sl.nodes.access;
+
+import com.oracle.truffle.api.nodes.*;
+import com.oracle.truffle.api.object.*;
+
+/**
+ * The polymorphic inline cache for reading a property with a constant name. Before the first
+ * execution, the cache is a single {@link SLUninitializedReadPropertyCacheNode}. For every
+ * {@link Shape} of a receiver object, a {@link SLCachedReadPropertyNode} is inserted in front of
+ * the uninitialized node; it caches the {@link Location} of the property in that shape, so that a
+ * cache hit is a shape check followed by a load from the receiver. If the chain gets longer than
+ * {@link #CACHE_LIMIT}, the whole chain is replaced by a {@link SLGenericReadPropertyNode} that
+ * looks up the property on every access.
+ */
+public abstract class SLReadPropertyCacheNode extends Node {
+
+    protected static final int CACHE_LIMIT = 3;
+
+    protected final String propertyName;
+
+    protected SLReadPropertyCacheNode(String propertyName) {
+        this.propertyName = propertyName;
+    }
+
+    public static SLReadPropertyCacheNode create(String propertyName) {
+        return new SLUninitializedReadPropertyCacheNode(propertyName);
+    }
+
+    /**
+     * Returns the value of the property, or {@link com.oracle.truffle.sl.runtime.SLNull null} if
+     * the receiver does not have the property.
+     */
+    public abstract Object executeRead(DynamicObject receiver);
+}
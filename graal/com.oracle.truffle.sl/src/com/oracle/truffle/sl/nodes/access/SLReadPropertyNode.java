@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.sl.nodes.access;
+
+import com.oracle.truffle.api.dsl.*;
+import com.oracle.truffle.api.frame.*;
+import com.oracle.truffle.api.nodes.*;
+import com.oracle.truffle.api.object.*;
+import com.oracle.truffle.api.source.*;
+import com.oracle.truffle.sl.nodes.*;
+
+/**
+ * The node for reading a property of an object, e.g., {@code obj.name}. Reading a property that the
+ * object does not have evaluates to {@code null}. The actual lookup is delegated to a
+ * {@link SLReadPropertyCacheNode polymorphic inline cache}.
+ */
+@NodeInfo(shortName = ".")
+public final class SLReadPropertyNode extends SLExpressionNode {
+
+    public static SLReadPropertyNode create(SourceSection src, SLExpressionNode receiverNode, String propertyName) {
+        return new SLReadPropertyNode(src, receiverNode, SLReadPropertyCacheNode.create(propertyName));
+    }
+
+    @Child protected SLExpressionNode receiverNode;
+    @Child protected SLReadPropertyCacheNode cacheNode;
+
+    private SLReadPropertyNode(SourceSection src, SLExpressionNode receiverNode, SLReadPropertyCacheNode cacheNode) {
+        super(src);
+        this.receiverNode = receiverNode;
+        this.cacheNode = cacheNode;
+    }
+
+    @Override
+    public Object executeGeneric(VirtualFrame frame) {
+        return cacheNode.executeRead(evaluateReceiver(frame, this, receiverNode));
+    }
+
+    static DynamicObject evaluateReceiver(VirtualFrame frame, Node node, SLExpressionNode receiverNode) {
+        try {
+            return receiverNode.executeObject(frame);
+        } catch (UnexpectedResultException ex) {
+            /* Only objects have properties, this is a type error in the SL program. */
+            throw new UnsupportedSpecializationException(node, new Node[]{receiverNode}, ex.getResult());
+        }
+    }
+}
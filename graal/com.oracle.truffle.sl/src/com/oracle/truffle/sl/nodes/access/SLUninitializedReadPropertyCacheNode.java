@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.sl.nodes.access;
+
+import com.oracle.truffle.api.*;
+import com.oracle.truffle.api.nodes.*;
+import com.oracle.truffle.api.object.*;
+
+/**
+ * The last entry of the polymorphic inline cache for property reads.
+ */
+final class SLUninitializedReadPropertyCacheNode extends SLReadPropertyCacheNode {
+
+    SLUninitializedReadPropertyCacheNode(String propertyName) {
+        super(propertyName);
+    }
+
+    @Override
+    public Object executeRead(DynamicObject receiver) {
+        /* The following code modifies the AST, so compiled code must be invalidated. */
+        CompilerDirectives.transferToInterpreterAndInvalidate();
+
+        /* Never cache an obsolete shape, migrate the receiver to the valid replacement first. */
+        receiver.updateShape();
+
+        Node cur = this;
+        int depth = 0;
+        while (cur.getParent() instanceof SLReadPropertyCacheNode) {
+            cur = cur.getParent();
+            depth++;
+        }
+
+        SLReadPropertyCacheNode replacement;
+        if (depth < CACHE_LIMIT) {
+            Shape shape = receiver.getShape();
+            Property property = shape.getProperty(propertyName);
+            Location location = property == null ? null : property.getLocation();
+            replacement = new SLCachedReadPropertyNode(propertyName, shape, location, new SLUninitializedReadPropertyCacheNode(propertyName));
+            replace(replacement);
+        } else {
+            /* Cache size exceeded, replace the whole chain with a single generic node. */
+            replacement = new SLGenericReadPropertyNode(propertyName);
+            ((SLReadPropertyCacheNode) cur).replace(replacement);
+        }
+        return replacement.executeRead(receiver);
+    }
+}
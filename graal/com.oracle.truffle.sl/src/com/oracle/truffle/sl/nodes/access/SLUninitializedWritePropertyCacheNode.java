@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.sl.nodes.access;
+
+import com.oracle.truffle.api.*;
+import com.oracle.truffle.api.nodes.*;
+import com.oracle.truffle.api.object.*;
+
+/**
+ * The last entry of the polymorphic inline cache for property writes.
+ */
+final class SLUninitializedWritePropertyCacheNode extends SLWritePropertyCacheNode {
+
+    SLUninitializedWritePropertyCacheNode(String propertyName) {
+        super(propertyName);
+    }
+
+    @Override
+    public void executeWrite(DynamicObject receiver, Object value) {
+        /* The following code modifies the AST, so compiled code must be invalidated. */
+        CompilerDirectives.transferToInterpreterAndInvalidate();
+
+        /* Never cache an obsolete shape, migrate the receiver to the valid replacement first. */
+        receiver.updateShape();
+
+        Node cur = this;
+        int depth = 0;
+        while (cur.getParent() instanceof SLWritePropertyCacheNode) {
+            cur = cur.getParent();
+            depth++;
+        }
+
+        Shape oldShape = receiver.getShape();
+        Property property = oldShape.getProperty(propertyName);
+        Shape newShape = property == null ? oldShape.addProperty(propertyName, value) : null;
+        SLWritePropertyCacheNode replacement;
+        if (depth >= CACHE_LIMIT || (newShape != null && !newShape.isValid())) {
+            /*
+             * Cache size exceeded, or the property is added with a transition to an obsolete shape
+             * that could never be cached. Replace the whole chain with a single generic node.
+             */
+            replacement = new SLGenericWritePropertyNode(propertyName);
+            ((SLWritePropertyCacheNode) cur).replace(replacement);
+        } else if (property != null && property.getLocation().canStore(value)) {
+            replacement = new SLCachedWritePropertyNode(propertyName, oldShape, property.getLocation(), new SLUninitializedWritePropertyCacheNode(propertyName));
+            replace(replacement);
+        } else if (newShape != null) {
+            replacement = new SLCachedAddPropertyNode(propertyName, oldShape, newShape, new SLUninitializedWritePropertyCacheNode(propertyName));
+            replace(replacement);
+        } else {
+            /*
+             * The write generalizes a property and changes the shape of the receiver. Perform it
+             * without caching, the new shape is cached when this node is executed the next time.
+             */
+            receiver.define(propertyName, value);
+            return;
+        }
+        replacement.executeWrite(receiver, value);
+    }
+}
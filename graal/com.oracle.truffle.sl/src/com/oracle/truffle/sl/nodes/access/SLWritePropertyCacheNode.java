@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.sl.nodes.access;
+
+import com.oracle.truffle.api.nodes.*;
+import com.oracle.truffle.api.object.*;
+
+/**
+ * The polymorphic inline cache for writing a property with a constant name. It works like the
+ * {@link SLReadPropertyCacheNode read cache}, with two kinds of entries:
+ * {@link SLCachedWritePropertyNode} stores into an existing property of the cached shape, and
+ * {@link SLCachedAddPropertyNode} adds the property by changing the receiver to the cached child
+ * shape. Writes that generalize the location of a property are not cached; they change the shape
+ * of the receiver, which is then cached on the next execution.
+ */
+public abstract class SLWritePropertyCacheNode extends Node {
+
+    protected static final int CACHE_LIMIT = 3;
+
+    protected final String propertyName;
+
+    protected SLWritePropertyCacheNode(String propertyName) {
+        this.propertyName = propertyName;
+    }
+
+    public static SLWritePropertyCacheNode create(String propertyName) {
+        return new SLUninitializedWritePropertyCacheNode(propertyName);
+    }
+
+    public abstract void executeWrite(DynamicObject receiver, Object value);
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2014, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.sl.nodes.expression;
+
+import com.oracle.truffle.api.*;
+import com.oracle.truffle.api.frame.*;
+import com.oracle.truffle.api.nodes.*;
+import com.oracle.truffle.api.object.*;
+import com.oracle.truffle.api.source.*;
+import com.oracle.truffle.sl.nodes.*;
+import com.oracle.truffle.sl.nodes.access.*;
+
+/**
+ * An object literal, e.g., {@code {x: 1, y: 2}}. A new object with an empty {@link Shape} is
+ * created, and the properties are added one after the other using the same
+ * {@link SLWritePropertyCacheNode inline caches} as property assignments. Since all objects created
+ * by one literal are built up the same way, they share their shapes and the caches stay
+ * monomorphic.
+ */
+@NodeInfo(shortName = "{}")
+public final class SLObjectLiteralNode extends SLExpressionNode {
+
+    private final Shape emptyShape;
+    @Children private final SLExpressionNode[] valueNodes;
+    @Children private final SLWritePropertyCacheNode[] writeNodes;
+
+    public SLObjectLiteralNode(SourceSection src, Shape emptyShape, String[] propertyNames, SLExpressionNode[] valueNodes) {
+        super(src);
+        assert propertyNames.length == valueNodes.length;
+        this.emptyShape = emptyShape;
+        this.valueNodes = valueNodes;
+        this.writeNodes = new SLWritePropertyCacheNode[propertyNames.length];
+        for (int i = 0; i < propertyNames.length; i++) {
+            writeNodes[i] = SLWritePropertyCacheNode.create(propertyNames[i]);
+        }
+    }
+
+    @Override
+    public DynamicObject executeObject(VirtualFrame frame) {
+        return createObject(frame);
+    }
+
+    @Override
+    public Object executeGeneric(VirtualFrame frame) {
+        return createObject(frame);
+    }
+
+    @ExplodeLoop
+    private DynamicObject createObject(VirtualFrame frame) {
+        CompilerAsserts.compilationConstant(valueNodes.length);
+
+        DynamicObject object = emptyShape.newInstance();
+        for (int i = 0; i < valueNodes.length; i++) {
+            writeNodes[i].executeWrite(object, valueNodes[i].executeGeneric(frame));
+        }
+        return object;
+    }
+}
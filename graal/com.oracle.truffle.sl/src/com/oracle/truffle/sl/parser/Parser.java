@@ -39,7 +39,7 @@ public class Parser {
 	public static final int _identifier = 1;
 	public static final int _stringLiteral = 2;
 	public static final int _numericLiteral = 3;
-	public static final int maxT = 30;
+	public static final int maxT = 32;
 
     static final boolean T = true;
     static final boolean x = false;
@@ -195,12 +195,12 @@ public class Parser {
 			result = ReturnStatement();
 			break;
 		}
-		case 1: case 2: case 3: case 5: {
+		case 1: case 2: case 3: case 5: case 8: {
 			result = Expression();
 			Expect(11);
 			break;
 		}
-		default: SynErr(31); break;
+		default: SynErr(33); break;
 		}
 		return result;
 	}
@@ -368,7 +368,7 @@ public class Parser {
 				result = factory.createAssignment(nameToken, value);
 			} else if (StartOf(4)) {
 				result = factory.createRead(nameToken);
-			} else SynErr(32);
+			} else SynErr(34);
 		} else if (la.kind == 2) {
 			Get();
 			result = factory.createStringLiteral(t);
@@ -383,7 +383,41 @@ public class Parser {
 			Expect(7);
 			int length = (t.charPos + t.val.length()) - start;
 			result = factory.createParenExpression(expr, start, length);
-		} else SynErr(33);
+		} else if (la.kind == 8) {
+			Get();
+			Token startToken = t;
+			List<Token> names = new ArrayList<>();
+			List<SLExpressionNode> values = new ArrayList<>();
+			if (la.kind == 1) {
+				Get();
+				names.add(t);
+				Expect(30);
+				SLExpressionNode value = Expression();
+				values.add(value);
+				while (la.kind == 6) {
+					Get();
+					Expect(1);
+					names.add(t);
+					Expect(30);
+					value = Expression();
+					values.add(value);
+				}
+			}
+			Expect(9);
+			result = factory.createObjectLiteral(startToken, names, values, t);
+		} else SynErr(35);
+		while (la.kind == 31) {
+			Get();
+			Expect(1);
+			Token nameToken = t;
+			if (la.kind == 29) {
+				Get();
+				SLExpressionNode value = Expression();
+				result = factory.createWriteProperty(result, nameToken, value);
+			} else if (StartOf(4)) {
+				result = factory.createReadProperty(result, nameToken);
+			} else SynErr(36);
+		}
 		return result;
 	}
 
@@ -399,11 +433,11 @@ public class Parser {
     }
 
     private static final boolean[][] set = {
-		{T,x,x,x, x,x,x,x, x,x,x,x, x,x,x,x, x,x,x,x, x,x,x,x, x,x,x,x, x,x,x,x},
-		{x,T,T,T, x,T,x,x, x,x,T,x, T,T,T,x, T,x,x,x, x,x,x,x, x,x,x,x, x,x,x,x},
-		{x,T,T,T, x,T,x,x, x,x,x,x, x,x,x,x, x,x,x,x, x,x,x,x, x,x,x,x, x,x,x,x},
-		{x,x,x,x, x,x,x,x, x,x,x,x, x,x,x,x, x,x,x,T, T,T,T,T, T,x,x,x, x,x,x,x},
-		{x,x,x,x, x,x,T,T, x,x,x,T, x,x,x,x, x,T,T,T, T,T,T,T, T,T,T,T, T,x,x,x}
+		{T,x,x,x, x,x,x,x, x,x,x,x, x,x,x,x, x,x,x,x, x,x,x,x, x,x,x,x, x,x,x,x, x,x},
+		{x,T,T,T, x,T,x,x, T,x,T,x, T,T,T,x, T,x,x,x, x,x,x,x, x,x,x,x, x,x,x,x, x,x},
+		{x,T,T,T, x,T,x,x, T,x,x,x, x,x,x,x, x,x,x,x, x,x,x,x, x,x,x,x, x,x,x,x, x,x},
+		{x,x,x,x, x,x,x,x, x,x,x,x, x,x,x,x, x,x,x,T, T,T,T,T, T,x,x,x, x,x,x,x, x,x},
+		{x,x,x,x, x,x,T,T, x,T,x,T, x,x,x,x, x,T,T,T, T,T,T,T, T,T,T,T, T,x,x,T, x,x}
 
     };
 
@@ -476,10 +510,13 @@ class Errors {
 			case 27: s = "\"*\" expected"; break;
 			case 28: s = "\"/\" expected"; break;
 			case 29: s = "\"=\" expected"; break;
-			case 30: s = "??? expected"; break;
-			case 31: s = "invalid Statement"; break;
-			case 32: s = "invalid Factor"; break;
-			case 33: s = "invalid Factor"; break;
+			case 30: s = "\":\" expected"; break;
+			case 31: s = "\".\" expected"; break;
+			case 32: s = "??? expected"; break;
+			case 33: s = "invalid Statement"; break;
+			case 34: s = "invalid Factor"; break;
+			case 35: s = "invalid Factor"; break;
+			case 36: s = "invalid Factor"; break;
             default:
                 s = "error " + n;
                 break;
@@ -29,6 +29,7 @@ import com.oracle.truffle.api.frame.*;
 import com.oracle.truffle.api.nodes.*;
 import com.oracle.truffle.api.source.*;
 import com.oracle.truffle.sl.nodes.*;
+import com.oracle.truffle.sl.nodes.access.*;
 import com.oracle.truffle.sl.nodes.call.*;
 import com.oracle.truffle.sl.nodes.controlflow.*;
 import com.oracle.truffle.sl.nodes.expression.*;
@@ -343,6 +344,52 @@ public class SLNodeFactory {
         return new SLParenExpressionNode(src, expressionNode);
     }
 
+    /**
+     * Returns an {@link SLObjectLiteralNode} for the given parameters.
+     *
+     * @param startToken The opening brace of the literal
+     * @param nameTokens The names of the properties
+     * @param valueNodes The initial values of the properties
+     * @param endToken The closing brace of the literal
+     * @return An SLObjectLiteralNode for the given parameters.
+     */
+    public SLExpressionNode createObjectLiteral(Token startToken, List<Token> nameTokens, List<SLExpressionNode> valueNodes, Token endToken) {
+        final int start = startToken.charPos;
+        final int length = endToken.charPos + endToken.val.length() - start;
+        final String[] propertyNames = new String[nameTokens.size()];
+        for (int i = 0; i < propertyNames.length; i++) {
+            propertyNames[i] = nameTokens.get(i).val;
+        }
+        return new SLObjectLiteralNode(source.createSection("{}", start, length), context.getEmptyShape(), propertyNames, valueNodes.toArray(new SLExpressionNode[valueNodes.size()]));
+    }
+
+    /**
+     * Returns an {@link SLReadPropertyNode} for the given parameters.
+     *
+     * @param receiverNode The object whose property is read
+     * @param nameToken The name of the property
+     * @return An SLReadPropertyNode for the given parameters.
+     */
+    public SLExpressionNode createReadProperty(SLExpressionNode receiverNode, Token nameToken) {
+        final int start = receiverNode.getSourceSection().getCharIndex();
+        final int length = nameToken.charPos + nameToken.val.length() - start;
+        return SLReadPropertyNode.create(source.createSection(".", start, length), receiverNode, nameToken.val);
+    }
+
+    /**
+     * Returns an {@link SLWritePropertyNode} for the given parameters.
+     *
+     * @param receiverNode The object whose property is written
+     * @param nameToken The name of the property
+     * @param valueNode The value to be assigned
+     * @return An SLWritePropertyNode for the given parameters.
+     */
+    public SLExpressionNode createWriteProperty(SLExpressionNode receiverNode, Token nameToken, SLExpressionNode valueNode) {
+        final int start = receiverNode.getSourceSection().getCharIndex();
+        final int length = valueNode.getSourceSection().getCharEndIndex() - start;
+        return SLWritePropertyNode.create(source.createSection(".=", start, length), receiverNode, nameToken.val, valueNode);
+    }
+
     /**
      * Creates source description of a single token.
      */
@@ -30,6 +30,7 @@ import com.oracle.truffle.api.dsl.*;
 import com.oracle.truffle.api.frame.*;
 import com.oracle.truffle.api.instrument.*;
 import com.oracle.truffle.api.nodes.*;
+import com.oracle.truffle.api.object.*;
 import com.oracle.truffle.api.source.*;
 import com.oracle.truffle.sl.*;
 import com.oracle.truffle.sl.builtins.*;
@@ -52,12 +53,14 @@ public final class SLContext extends ExecutionContext {
     private final BufferedReader input;
     private final PrintStream output;
     private final SLFunctionRegistry functionRegistry;
+    private final Shape emptyShape;
     private SourceCallback sourceCallback = null;
 
     public SLContext(BufferedReader input, PrintStream output) {
         this.input = input;
         this.output = output;
         this.functionRegistry = new SLFunctionRegistry();
+        this.emptyShape = Shape.createRootShape();
         installBuiltins();
     }
 
@@ -94,6 +97,13 @@ public final class SLContext extends ExecutionContext {
         return functionRegistry;
     }
 
+    /**
+     * Returns the shape of a newly created SL object. All SL objects share one tree of shapes.
+     */
+    public Shape getEmptyShape() {
+        return emptyShape;
+    }
+
     public SourceCallback getSourceCallback() {
         return sourceCallback;
     }
@@ -2115,6 +2115,41 @@ def jol(args):
 
     vm(['-javaagent:' + joljar, '-cp', os.pathsep.join([mx.classpath(), joljar]), "org.openjdk.jol.MainObjectInternals"] + candidates)
 
+def microbench(args):
+    """run the JMH microbenchmarks of the Graal compiler
+
+    The benchmarks in com.oracle.graal.compiler.bench are annotated with JMH
+    annotations. The JMH annotation processor is not run by the normal build
+    so this command compiles the project a second time with the processor on
+    the processor path before running the generated harness. Arguments
+    before '--' are VM options, the remainder is passed to JMH."""
+
+    vmArgs, jmhArgs = _extract_VM_args(args, useDoubleDash=True)
+
+    p = mx.project('com.oracle.graal.compiler.bench')
+    build(['--projects', p.name])
+
+    jmhDir = join(p.dir, 'jmh')
+    jmhGen = join(jmhDir, 'src_gen')
+    jmhBin = join(jmhDir, 'bin')
+    for d in [jmhGen, jmhBin]:
+        if exists(d):
+            shutil.rmtree(d)
+        os.makedirs(d)
+
+    sources = []
+    for sourceDir in p.source_dirs():
+        for root, _, files in os.walk(sourceDir):
+            sources += [join(root, name) for name in files if name.endswith('.java')]
+
+    cp = mx.classpath([p.name])
+    processorPath = mx.classpath(['JMH_GENERATOR_ANNPROCESS'], includeSelf=False)
+    mx.run([mx.java().javac, '-g', '-source', str(p.javaCompliance), '-target', str(p.javaCompliance),
+            '-cp', mx._separatedCygpathU2W(cp), '-processorpath', mx._separatedCygpathU2W(processorPath),
+            '-s', mx._cygpathU2W(jmhGen), '-d', mx._cygpathU2W(jmhBin)] + [mx._cygpathU2W(s) for s in sources])
+
+    vm(vmArgs + ['-cp', mx._separatedCygpathU2W(os.pathsep.join([jmhBin, cp])), 'org.openjdk.jmh.Main'] + jmhArgs)
+
 def site(args):
     """create a website containing javadoc and the project dependency graph"""
 
@@ -2325,6 +2360,7 @@ def mx_init(suite):
         'maven-install-truffle' : [maven_install_truffle, ''],
         'jdkhome': [print_jdkhome, ''],
         'jmh': [jmh, '[VM options] [filters|JMH-args-as-json...]'],
+        'microbench' : [microbench, '[VM options] [-- [JMH options]]'],
         'dacapo': [dacapo, '[VM options] benchmarks...|"all" [DaCapo options]'],
         'scaladacapo': [scaladacapo, '[VM options] benchmarks...|"all" [Scala DaCapo options]'],
         'specjvm2008': [specjvm2008, '[VM options] benchmarks...|"all" [SPECjvm2008 options]'],
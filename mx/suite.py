@@ -64,6 +64,44 @@ suite = {
       "sha1" : "220488d87affb569b893c7201f8ce5d2b0e03141",
     },
 
+    "JOPTSIMPLE" : {
+      "path" : "lib/jopt-simple-4.6.jar",
+      "urls" : [
+        "http://lafo.ssw.uni-linz.ac.at/graal-external-deps/jopt-simple-4.6.jar",
+        "https://search.maven.org/remotecontent?filepath=net/sf/jopt-simple/jopt-simple/4.6/jopt-simple-4.6.jar",
+      ],
+      "sha1" : "306816fb57cf94f108a43c95731b08934dcae15c",
+    },
+
+    "COMMONS_MATH3" : {
+      "path" : "lib/commons-math3-3.2.jar",
+      "urls" : [
+        "http://lafo.ssw.uni-linz.ac.at/graal-external-deps/commons-math3-3.2.jar",
+        "https://search.maven.org/remotecontent?filepath=org/apache/commons/commons-math3/3.2/commons-math3-3.2.jar",
+      ],
+      "sha1" : "ec2544ab27e110d2d431bdad7d538ed509b21e62",
+    },
+
+    "JMH" : {
+      "path" : "lib/jmh-core-1.1.jar",
+      "urls" : [
+        "http://lafo.ssw.uni-linz.ac.at/graal-external-deps/jmh-core-1.1.jar",
+        "https://search.maven.org/remotecontent?filepath=org/openjdk/jmh/jmh-core/1.1/jmh-core-1.1.jar",
+      ],
+      "sha1" : "5e9f0d2623b47c99727c4b5cfa43126234c0eb7d",
+      "dependencies" : ["JOPTSIMPLE", "COMMONS_MATH3"],
+    },
+
+    "JMH_GENERATOR_ANNPROCESS" : {
+      "path" : "lib/jmh-generator-annprocess-1.1.jar",
+      "urls" : [
+        "http://lafo.ssw.uni-linz.ac.at/graal-external-deps/jmh-generator-annprocess-1.1.jar",
+        "https://search.maven.org/remotecontent?filepath=org/openjdk/jmh/jmh-generator-annprocess/1.1/jmh-generator-annprocess-1.1.jar",
+      ],
+      "sha1" : "994c883bde9e92e437ec128d5cf56e8fb1a55802",
+      "dependencies" : ["JMH"],
+    },
+
     "JOL_INTERNALS" : {
       "path" : "lib/jol-internals.jar",
       "urls" : ["http://lafo.ssw.uni-linz.ac.at/truffle/jol/jol-internals.jar"],
@@ -928,6 +966,18 @@ suite = {
       "workingSets" : "Graal,Test",
     },
 
+    "com.oracle.graal.compiler.bench" : {
+      "subDir" : "graal",
+      "sourceDirs" : ["src"],
+      "dependencies" : [
+        "com.oracle.graal.compiler.test",
+        "JMH",
+      ],
+      "checkstyle" : "com.oracle.graal.graph",
+      "javaCompliance" : "1.8",
+      "workingSets" : "Graal,Bench",
+    },
+
     "com.oracle.graal.jtt" : {
       "subDir" : "graal",
       "sourceDirs" : ["src"],
@@ -36,6 +36,8 @@
   nonstatic_field(ThreadShadow,  _pending_failed_speculation, oop)            \
   nonstatic_field(ThreadShadow,  _pending_transfer_to_interpreter, bool)      \
   nonstatic_field(MethodData,    _graal_node_count, int)                      \
+  nonstatic_field(MethodData,    _invocation_counter, InvocationCounter)      \
+  nonstatic_field(MethodData,    _backedge_counter, InvocationCounter)        \
 
 #define VM_TYPES_GRAAL(declare_type, declare_toplevel_type)                   \
 
@@ -70,5 +72,7 @@
   declare_constant(CodeInstaller::INVOKE_INVALID)                                                 \
                                                                                                   \
   declare_constant(Method::invalid_vtable_index)                                                  \
+                                                                                                  \
+  declare_constant(InvocationCounter::count_shift)                                                \
 
 #endif // SHARE_VM_GRAAL_VMSTRUCTS_GRAAL_HPP